@@ -5,9 +5,8 @@
 import ch.wisv.events.core.model.order.Order;
 import ch.wisv.events.core.model.order.OrderStatus;
 import ch.wisv.events.core.model.order.PaymentMethod;
-import ch.wisv.events.core.service.mail.MailService;
+import ch.wisv.events.core.service.mail.MailOutboxService;
 import ch.wisv.events.core.service.order.OrderService;
-import ch.wisv.events.core.service.ticket.TicketService;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -27,27 +26,21 @@ public class DashboardOrderController extends DashboardController {
     /** OrderService. */
     private final OrderService orderService;
 
-    /** MailService. */
-    private final MailService mailService;
-
-    /** TicketService. */
-    private final TicketService ticketService;
+    /** MailOutboxService. */
+    private final MailOutboxService mailOutboxService;
 
     /**
      * DashboardOrderController constructor.
      *
-     * @param orderService  of type OrderService
-     * @param mailService   of type MailService
-     * @param ticketService of type TicketService
+     * @param orderService      of type OrderService
+     * @param mailOutboxService of type MailOutboxService
      */
     public DashboardOrderController(
             OrderService orderService,
-            MailService mailService,
-            TicketService ticketService
+            MailOutboxService mailOutboxService
     ) {
         this.orderService = orderService;
-        this.mailService = mailService;
-        this.ticketService = ticketService;
+        this.mailOutboxService = mailOutboxService;
     }
 
     /**
@@ -121,9 +114,9 @@ public String delete(RedirectAttributes redirect, @PathVariable String key) {
     public String resendConfirmationMail(RedirectAttributes redirect, @PathVariable String key) {
         try {
             Order order = orderService.getByReference(key);
-            mailService.sendOrderConfirmation(order, ticketService.getAllByOrder(order));
+            mailOutboxService.enqueueOrderConfirmation(order);
 
-            redirect.addFlashAttribute(FLASH_SUCCESS, "Order confirmation mail send!");
+            redirect.addFlashAttribute(FLASH_SUCCESS, "Order confirmation mail queued!");
         } catch (EventsException e) {
             redirect.addFlashAttribute(FLASH_ERROR, e.getMessage());
         }
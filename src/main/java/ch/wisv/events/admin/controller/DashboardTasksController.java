@@ -1,41 +1,78 @@
 package ch.wisv.events.admin.controller;
 
+import ch.wisv.events.core.exception.normal.WebhookNotFoundException;
+import ch.wisv.events.core.model.webhook.Webhook;
+import ch.wisv.events.core.model.webhook.WebhookTask;
+import ch.wisv.events.core.model.webhook.WebhookTaskStatus;
+import ch.wisv.events.core.service.webhook.WebhookService;
 import ch.wisv.events.core.service.webhook.WebhookTaskService;
+import java.util.List;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 
 @Controller
 @RequestMapping("/administrator/tasks")
 @PreAuthorize("hasRole('ADMIN')")
 public class DashboardTasksController extends DashboardController {
 
+    /** Number of tasks per page. */
+    private static final int PAGE_SIZE = 100;
+
     /** WebhookTaskService. */
     private final WebhookTaskService webhookTaskService;
 
+    /** WebhookService. */
+    private final WebhookService webhookService;
+
     /**
      * DashboardTasksController constructor.
      *
      * @param webhookTaskService of type WebhookTaskService.
+     * @param webhookService     of type WebhookService.
      */
     @Autowired
-    public DashboardTasksController(WebhookTaskService webhookTaskService) {
+    public DashboardTasksController(WebhookTaskService webhookTaskService, WebhookService webhookService) {
         this.webhookTaskService = webhookTaskService;
+        this.webhookService = webhookService;
     }
 
     /**
-     * Index of vendor [GET "/"].
+     * Index of vendor [GET "/"]. Shows a page of tasks, newest first, optionally filtered by status and webhook.
      *
-     * @param model String model
+     * @param model   String model
+     * @param status  of type WebhookTaskStatus, optional
+     * @param webhook key of the Webhook, optional
+     * @param before  only show tasks with a lower id, optional
      *
      * @return path to Thymeleaf template location
      */
     @GetMapping()
-    public String index(Model model) {
-        model.addAttribute(OBJ_TASKS, webhookTaskService.getAll());
+    public String index(
+            Model model,
+            @RequestParam(required = false) WebhookTaskStatus status,
+            @RequestParam(required = false) String webhook,
+            @RequestParam(required = false) Integer before
+    ) {
+        Webhook filter = null;
+        if (webhook != null && !webhook.isEmpty()) {
+            try {
+                filter = webhookService.getByKey(webhook);
+            } catch (WebhookNotFoundException e) {
+                model.addAttribute(FLASH_ERROR, e.getMessage());
+            }
+        }
+
+        List<WebhookTask> tasks = webhookTaskService.getPage(status, filter, before, PAGE_SIZE);
+        model.addAttribute(OBJ_TASKS, tasks);
+        model.addAttribute(OBJ_WEBHOOKS, webhookService.getAll());
+        model.addAttribute("status", status);
+        model.addAttribute("webhook", webhook);
+        model.addAttribute("next", tasks.size() == PAGE_SIZE ? tasks.get(tasks.size() - 1).getId() : null);
 
         return "admin/tasks/index";
     }
@@ -1,17 +1,23 @@
 package ch.wisv.events.api.controller;
 
+import ch.wisv.events.core.exception.normal.EventNotFoundException;
 import ch.wisv.events.core.model.event.Event;
+import ch.wisv.events.core.model.event.EventAvailability;
 import ch.wisv.events.core.model.product.Product;
+import ch.wisv.events.core.service.event.EventAvailabilityService;
 import ch.wisv.events.core.service.event.EventService;
 
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.bind.annotation.RestController;
@@ -25,13 +31,18 @@ public class EventRestController {
     /** EventService. */
     private final EventService eventService;
 
+    /** EventAvailabilityService. */
+    private final EventAvailabilityService eventAvailabilityService;
+
     /**
      * EventRestController.
      *
-     * @param eventService of type EventService
+     * @param eventService             of type EventService
+     * @param eventAvailabilityService of type EventAvailabilityService
      */
-    public EventRestController(EventService eventService) {
+    public EventRestController(EventService eventService, EventAvailabilityService eventAvailabilityService) {
         this.eventService = eventService;
+        this.eventAvailabilityService = eventAvailabilityService;
     }
 
     /**
@@ -51,6 +62,24 @@ public ResponseEntity<List<Object>> getUpcoming() {
         return new ResponseEntity<List<Object>>(events, HttpStatus.OK);
     }
 
+    /**
+     * Get the number of tickets left and the sold out flags of an event and its products.
+     * This is polled by the webshop, so the result is cached for a short time.
+     * @param key the key of the event.
+     * @return the availability of the event.
+     */
+    @ResponseBody
+    @GetMapping(value = "/{key}/availability", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<EventAvailability> getAvailability(@PathVariable String key) {
+        try {
+            return ResponseEntity.ok()
+                    .cacheControl(CacheControl.maxAge(eventAvailabilityService.getTimeToLive(), TimeUnit.MILLISECONDS))
+                    .body(eventAvailabilityService.getByEventKey(key));
+        } catch (EventNotFoundException e) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+    }
+
     /**
      * Strip event information which should not be public.
      * @param event the event to strip the information from.
@@ -1,6 +1,6 @@
 package ch.wisv.events.api.controller;
 
-import ch.wisv.events.webshop.service.PaymentsService;
+import ch.wisv.events.webshop.service.PaymentCallbackService;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -12,20 +12,21 @@
 @RequestMapping("/api/v1/orders")
 public class OrderRestController {
 
-    /** PaymentsService. */
-    private final PaymentsService paymentsService;
+    /** PaymentCallbackService. */
+    private final PaymentCallbackService paymentCallbackService;
 
     /**
      * OrderRestController constructor.
      *
-     * @param paymentsService of type PaymentsService
+     * @param paymentCallbackService of type PaymentCallbackService
      */
-    public OrderRestController(PaymentsService paymentsService) {
-        this.paymentsService = paymentsService;
+    public OrderRestController(PaymentCallbackService paymentCallbackService) {
+        this.paymentCallbackService = paymentCallbackService;
     }
 
     /**
-     * This endpoint is for the paymentprovider. Webhooks will arrive here.
+     * This endpoint is for the paymentprovider. Webhooks will arrive here, they are recorded and answered right away,
+     * the status of the payment is looked up by the payment callback workers.
      *
      * @param providerReference The provider Order Reference
      *
@@ -33,7 +34,7 @@ public OrderRestController(PaymentsService paymentsService) {
      */
     @RequestMapping(value = "/status", method = RequestMethod.POST)
     public ResponseEntity<HttpStatus> updateOrderStatus(@RequestParam(name = "id") String providerReference) {
-        paymentsService.updateStatusByProviderReference(providerReference);
+        paymentCallbackService.record(providerReference);
         return new ResponseEntity<>(HttpStatus.OK);
     }
 }
@@ -0,0 +1,16 @@
+package ch.wisv.events.core.exception.normal;
+
+import ch.wisv.events.core.exception.LogLevelEnum;
+
+/**
+ * AdmissionQueueTokenInvalidException class.
+ */
+public class AdmissionQueueTokenInvalidException extends EventsException {
+
+    /**
+     * AdmissionQueueTokenInvalidException constructor.
+     */
+    public AdmissionQueueTokenInvalidException() {
+        super(LogLevelEnum.DEBUG, "Queue token is invalid or has expired.");
+    }
+}
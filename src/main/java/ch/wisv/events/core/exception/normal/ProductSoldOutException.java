@@ -0,0 +1,18 @@
+package ch.wisv.events.core.exception.normal;
+
+import ch.wisv.events.core.exception.LogLevelEnum;
+
+/**
+ * ProductSoldOutException class.
+ */
+public class ProductSoldOutException extends EventsException {
+
+    /**
+     * ProductSoldOutException.
+     *
+     * @param productTitle of type String
+     */
+    public ProductSoldOutException(String productTitle) {
+        super(LogLevelEnum.WARN, productTitle + " is sold out!");
+    }
+}
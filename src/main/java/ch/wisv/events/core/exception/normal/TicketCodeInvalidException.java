@@ -0,0 +1,25 @@
+package ch.wisv.events.core.exception.normal;
+
+import ch.wisv.events.core.exception.LogLevelEnum;
+
+/**
+ * TicketCodeInvalidException class.
+ */
+public class TicketCodeInvalidException extends EventsException {
+
+    /**
+     * TicketCodeInvalidException constructor.
+     */
+    public TicketCodeInvalidException() {
+        super(LogLevelEnum.DEBUG, "Ticket code is invalid.");
+    }
+
+    /**
+     * TicketCodeInvalidException constructor.
+     *
+     * @param message of type String
+     */
+    public TicketCodeInvalidException(String message) {
+        super(LogLevelEnum.DEBUG, message);
+    }
+}
@@ -0,0 +1,18 @@
+package ch.wisv.events.core.exception.runtime;
+
+import ch.wisv.events.core.exception.LogLevelEnum;
+
+/**
+ * HttpBulkheadFullException class, thrown when all requests allowed to an outbound destination are in progress.
+ */
+public class HttpBulkheadFullException extends EventsRuntimeException {
+
+    /**
+     * HttpBulkheadFullException constructor.
+     *
+     * @param destination of type String
+     */
+    public HttpBulkheadFullException(String destination) {
+        super(LogLevelEnum.WARN, "Too many requests in progress to " + destination);
+    }
+}
@@ -0,0 +1,223 @@
+package ch.wisv.events.core.http;
+
+import ch.wisv.events.core.exception.runtime.HttpBulkheadFullException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import lombok.Getter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * HttpDestination class. A RestTemplate for one outbound destination, with its own pool of keep-alive connections and
+ * timeouts. The number of requests in progress is capped, requests over the cap fail right away so a slow destination
+ * can not hold up the threads calling it.
+ */
+public class HttpDestination implements ClientHttpRequestInterceptor {
+
+    /** Name of the destination. */
+    @Getter
+    private final String name;
+
+    /** RestTemplate sending the requests to the destination. */
+    @Getter
+    private final RestTemplate restTemplate;
+
+    /** Permits of the requests that may be in progress. */
+    private final Semaphore permits;
+
+    /** Maximum number of requests in progress. */
+    private final int maxConcurrent;
+
+    /** Number of milliseconds to wait for a permit. */
+    private final long acquireTimeout;
+
+    /** MeterRegistry. */
+    private final MeterRegistry meterRegistry;
+
+    /** Number of requests refused because the maximum number of requests was in progress. */
+    private final Counter rejected;
+
+    /**
+     * HttpDestination constructor.
+     *
+     * @param name           name of the destination
+     * @param connectTimeout connect timeout in milliseconds
+     * @param readTimeout    read timeout in milliseconds
+     * @param maxConcurrent  maximum number of requests in progress
+     * @param acquireTimeout number of milliseconds to wait for a permit when the maximum is reached
+     * @param meterRegistry  of type MeterRegistry
+     */
+    public HttpDestination(
+            String name,
+            long connectTimeout,
+            long readTimeout,
+            int maxConcurrent,
+            long acquireTimeout,
+            MeterRegistry meterRegistry
+    ) {
+        this.name = name;
+        this.maxConcurrent = maxConcurrent;
+        this.acquireTimeout = acquireTimeout;
+        this.meterRegistry = meterRegistry;
+        this.permits = new Semaphore(maxConcurrent);
+
+        HttpClient httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(connectTimeout))
+                .build();
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(Duration.ofMillis(readTimeout));
+
+        this.restTemplate = new RestTemplate(requestFactory);
+        this.restTemplate.getInterceptors().add(this);
+
+        this.rejected = Counter.builder("events.http.outbound.rejected")
+                .description("Outbound requests refused because the bulkhead of the destination was full")
+                .tag("destination", name)
+                .register(meterRegistry);
+        Gauge.builder("events.http.outbound.in.flight", this, HttpDestination::getInFlight)
+                .description("Outbound requests in progress")
+                .tag("destination", name)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Get the number of requests in progress.
+     *
+     * @return int
+     */
+    public int getInFlight() {
+        return maxConcurrent - permits.availablePermits();
+    }
+
+    /**
+     * Send a request when a permit is available. The permit is held until the response has been read.
+     *
+     * @param request   of type HttpRequest
+     * @param body      of type byte[]
+     * @param execution of type ClientHttpRequestExecution
+     *
+     * @return ClientHttpResponse
+     * @throws IOException when the request fails
+     */
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        if (!this.acquire()) {
+            rejected.increment();
+            throw new HttpBulkheadFullException(name);
+        }
+
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            ClientHttpResponse response = execution.execute(request, body);
+            String outcome = response.getStatusCode().isError() ? "error" : "success";
+
+            return new PermitReleasingResponse(response, () -> this.release(sample, outcome));
+        } catch (IOException | RuntimeException e) {
+            this.release(sample, "failure");
+            throw e;
+        }
+    }
+
+    /**
+     * Wait for a permit, at most the acquire timeout.
+     *
+     * @return boolean, true when a permit has been acquired
+     */
+    private boolean acquire() {
+        try {
+            return permits.tryAcquire(acquireTimeout, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+
+            return false;
+        }
+    }
+
+    /**
+     * Release a permit and record the duration of the request.
+     *
+     * @param sample  of type Timer.Sample
+     * @param outcome of type String
+     */
+    private void release(Timer.Sample sample, String outcome) {
+        permits.release();
+        sample.stop(Timer.builder("events.http.outbound.requests")
+                .description("Outbound requests")
+                .tag("destination", name)
+                .tag("outcome", outcome)
+                .register(meterRegistry));
+    }
+
+    /**
+     * Response which releases the permit of its request once it is closed.
+     */
+    private static final class PermitReleasingResponse implements ClientHttpResponse {
+
+        /** Response of the destination. */
+        private final ClientHttpResponse response;
+
+        /** Releases the permit. */
+        private final Runnable release;
+
+        /** Whether the permit has been released. */
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        /**
+         * PermitReleasingResponse constructor.
+         *
+         * @param response of type ClientHttpResponse
+         * @param release  of type Runnable
+         */
+        private PermitReleasingResponse(ClientHttpResponse response, Runnable release) {
+            this.response = response;
+            this.release = release;
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return response.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return response.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return response.getHeaders();
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            return response.getBody();
+        }
+
+        @Override
+        public void close() {
+            try {
+                response.close();
+            } finally {
+                if (released.compareAndSet(false, true)) {
+                    release.run();
+                }
+            }
+        }
+    }
+}
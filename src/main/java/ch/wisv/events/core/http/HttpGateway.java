@@ -0,0 +1,104 @@
+package ch.wisv.events.core.http;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * HttpGateway class. Shared entry point for the requests to external services. Every destination has its own pooled
+ * connections, timeouts and maximum number of requests in progress, configured under wisvch.events.http.{destination}
+ * with wisvch.events.http as fallback.
+ */
+@Component
+public class HttpGateway {
+
+    /** Destination of the CHPay API. */
+    public static final String CHPAY = "chpay";
+
+    /** Destination of the Apple Wallet passes service. */
+    public static final String PASSES = "passes";
+
+    /** Prefix of the configuration keys. */
+    private static final String PREFIX = "wisvch.events.http.";
+
+    /** Default connect timeout in milliseconds. */
+    private static final long DEFAULT_CONNECT_TIMEOUT = 2000;
+
+    /** Default read timeout in milliseconds. */
+    private static final long DEFAULT_READ_TIMEOUT = 10000;
+
+    /** Default maximum number of requests in progress per destination. */
+    private static final int DEFAULT_MAX_CONCURRENT = 10;
+
+    /** Default number of milliseconds to wait for a free slot. */
+    private static final long DEFAULT_ACQUIRE_TIMEOUT = 0;
+
+    /** Environment. */
+    private final Environment environment;
+
+    /** MeterRegistry. */
+    private final MeterRegistry meterRegistry;
+
+    /** Destinations by name. */
+    private final Map<String, HttpDestination> destinations = new ConcurrentHashMap<>();
+
+    /**
+     * HttpGateway constructor.
+     *
+     * @param environment   of type Environment
+     * @param meterRegistry of type MeterRegistry
+     */
+    public HttpGateway(Environment environment, MeterRegistry meterRegistry) {
+        this.environment = environment;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Get the RestTemplate of a destination.
+     *
+     * @param destination name of the destination
+     *
+     * @return RestTemplate
+     */
+    public RestTemplate getRestTemplate(String destination) {
+        return this.getDestination(destination).getRestTemplate();
+    }
+
+    /**
+     * Get a destination, created on first use.
+     *
+     * @param destination name of the destination
+     *
+     * @return HttpDestination
+     */
+    public HttpDestination getDestination(String destination) {
+        return destinations.computeIfAbsent(destination, name -> new HttpDestination(
+                name,
+                this.getProperty(name, "connect-timeout", Long.class, DEFAULT_CONNECT_TIMEOUT),
+                this.getProperty(name, "read-timeout", Long.class, DEFAULT_READ_TIMEOUT),
+                this.getProperty(name, "max-concurrent", Integer.class, DEFAULT_MAX_CONCURRENT),
+                this.getProperty(name, "acquire-timeout", Long.class, DEFAULT_ACQUIRE_TIMEOUT),
+                meterRegistry
+        ));
+    }
+
+    /**
+     * Get a setting of a destination, falling back to the setting of all destinations.
+     *
+     * @param destination  name of the destination
+     * @param key          key of the setting
+     * @param type         type of the setting
+     * @param defaultValue value when the setting is not configured
+     * @param <T>          type of the setting
+     *
+     * @return T
+     */
+    private <T> T getProperty(String destination, String key, Class<T> type, T defaultValue) {
+        T value = environment.getProperty(PREFIX + destination + "." + key, type);
+
+        return value != null ? value : environment.getProperty(PREFIX + key, type, defaultValue);
+    }
+}
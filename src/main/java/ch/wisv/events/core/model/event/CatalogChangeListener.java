@@ -0,0 +1,37 @@
+package ch.wisv.events.core.model.event;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.ApplicationEventPublisher;
+
+/**
+ * Entity listener of Events and Products, publishing a CatalogChangedEvent for every write so read models of the
+ * catalog can be rebuilt.
+ */
+public class CatalogChangeListener {
+
+    /** ApplicationEventPublisher. */
+    private final ApplicationEventPublisher applicationEventPublisher;
+
+    /**
+     * CatalogChangeListener constructor.
+     *
+     * @param applicationEventPublisher of type ApplicationEventPublisher
+     */
+    public CatalogChangeListener(ApplicationEventPublisher applicationEventPublisher) {
+        this.applicationEventPublisher = applicationEventPublisher;
+    }
+
+    /**
+     * Publish a CatalogChangedEvent.
+     *
+     * @param entity the Event or Product that has been written
+     */
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChange(Object entity) {
+        applicationEventPublisher.publishEvent(new CatalogChangedEvent());
+    }
+}
@@ -0,0 +1,36 @@
+package ch.wisv.events.core.model.event;
+
+/**
+ * Application event published when an Event or Product is created, changed or deleted, or when only the sold or
+ * reserved counts of a Product have changed.
+ */
+public class CatalogChangedEvent {
+
+    /** Only the sold or reserved counts of a Product have changed. */
+    private final boolean countsOnly;
+
+    /**
+     * CatalogChangedEvent constructor for a write of an Event or Product.
+     */
+    public CatalogChangedEvent() {
+        this(false);
+    }
+
+    /**
+     * CatalogChangedEvent constructor.
+     *
+     * @param countsOnly of type boolean
+     */
+    public CatalogChangedEvent(boolean countsOnly) {
+        this.countsOnly = countsOnly;
+    }
+
+    /**
+     * Check if only the sold or reserved counts of a Product have changed.
+     *
+     * @return boolean
+     */
+    public boolean isCountsOnly() {
+        return countsOnly;
+    }
+}
@@ -22,6 +22,7 @@
  * Event entity.
  */
 @Entity
+@EntityListeners(CatalogChangeListener.class)
 @Data
 @EqualsAndHashCode(exclude = {"products"})
 public class Event {
@@ -124,6 +125,11 @@ public class Event {
     @ElementCollection
     private List<EventCategory> categories;
 
+    /**
+     * Customers have to pass the admission queue before they can checkout products of this Event.
+     */
+    private boolean admissionQueue;
+
     /**
      * Default constructor.
      */
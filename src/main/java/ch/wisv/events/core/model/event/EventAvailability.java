@@ -0,0 +1,48 @@
+package ch.wisv.events.core.model.event;
+
+import ch.wisv.events.core.model.product.ProductAvailability;
+import com.google.common.collect.ImmutableList;
+import java.util.List;
+import lombok.Data;
+
+/**
+ * Immutable availability of an Event and its Products.
+ */
+@Data
+public class EventAvailability {
+
+    /**
+     * Key of the Event.
+     */
+    private final String key;
+
+    /**
+     * Number of tickets of the Event that can still be sold or reserved, null when unlimited.
+     */
+    private final Integer remaining;
+
+    /**
+     * Whether the Event is sold out.
+     */
+    private final boolean soldOut;
+
+    /**
+     * Availability of the Products of the Event.
+     */
+    private final List<ProductAvailability> products;
+
+    /**
+     * EventAvailability constructor.
+     *
+     * @param event of type Event
+     */
+    public EventAvailability(Event event) {
+        this.key = event.getKey();
+        this.remaining = event.getMaxSold() == null
+                ? null : Math.max(0, event.getMaxSold() - event.getSold() - event.getReserved());
+        this.soldOut = this.remaining != null && this.remaining == 0;
+        this.products = event.getProducts().stream()
+                .map(product -> new ProductAvailability(product, this.soldOut))
+                .collect(ImmutableList.toImmutableList());
+    }
+}
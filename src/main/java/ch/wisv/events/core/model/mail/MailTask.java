@@ -0,0 +1,84 @@
+package ch.wisv.events.core.model.mail;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.validation.constraints.NotNull;
+import java.time.LocalDateTime;
+import lombok.AccessLevel;
+import lombok.Data;
+import lombok.Setter;
+
+/**
+ * Order confirmation mail in the outbox, sent by the mail workers.
+ */
+@Entity
+@Data
+@Table(indexes = @Index(name = "mail_task_status_next_attempt_at", columnList = "status, next_attempt_at"))
+public class MailTask {
+
+    /**
+     * ID of the mail task, getter only so it can not be changed.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "mail_task_seq")
+    @Setter(AccessLevel.NONE)
+    private Integer id;
+
+    /**
+     * Public reference of the Order to confirm.
+     */
+    @NotNull
+    private String orderReference;
+
+    /**
+     * Status of the mail task.
+     */
+    @NotNull
+    private MailTaskStatus status;
+
+    /**
+     * Number of attempts made to send the mail.
+     */
+    private int attempts;
+
+    /**
+     * Moment the mail may be (re)tried, or the lease of a worker ends when SENDING.
+     */
+    @NotNull
+    private LocalDateTime nextAttemptAt;
+
+    /**
+     * Moment the mail task has been created.
+     */
+    private LocalDateTime createdAt;
+
+    /**
+     * Error of the last failed attempt.
+     */
+    @Column(columnDefinition = "TEXT")
+    private String lastError;
+
+    /**
+     * MailTask constructor.
+     */
+    public MailTask() {
+        this.createdAt = LocalDateTime.now();
+        this.nextAttemptAt = this.createdAt;
+        this.status = MailTaskStatus.PENDING;
+    }
+
+    /**
+     * MailTask constructor.
+     *
+     * @param orderReference of type String
+     */
+    public MailTask(String orderReference) {
+        this();
+        this.orderReference = orderReference;
+    }
+}
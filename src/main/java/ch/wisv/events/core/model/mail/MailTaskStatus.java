@@ -0,0 +1,27 @@
+package ch.wisv.events.core.model.mail;
+
+/**
+ * Status of a MailTask.
+ */
+public enum MailTaskStatus {
+
+    /**
+     * Waiting to be sent, possibly after a failed attempt.
+     */
+    PENDING,
+
+    /**
+     * Claimed by a worker, until the lease expires.
+     */
+    SENDING,
+
+    /**
+     * The mail has been sent.
+     */
+    SENT,
+
+    /**
+     * Sending failed on every attempt.
+     */
+    FAILED
+}
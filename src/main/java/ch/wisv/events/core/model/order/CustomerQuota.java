@@ -0,0 +1,48 @@
+package ch.wisv.events.core.model.order;
+
+import lombok.Data;
+
+/**
+ * Immutable limit of a Customer on a product family, which is a Product together with its child Products.
+ */
+@Data
+public class CustomerQuota {
+
+    /**
+     * Id of the root Product of the family.
+     */
+    private final Integer productId;
+
+    /**
+     * Maximum number of tickets of the family per Customer.
+     */
+    private final int limit;
+
+    /**
+     * Number of tickets of the family the Customer holds or has reserved.
+     */
+    private final int held;
+
+    /**
+     * Number of tickets of the family the Customer is trying to order.
+     */
+    private final int requested;
+
+    /**
+     * Number of tickets of the family the Customer may still order.
+     *
+     * @return int
+     */
+    public int getRemaining() {
+        return limit - held;
+    }
+
+    /**
+     * Check if the requested tickets exceed the limit.
+     *
+     * @return boolean
+     */
+    public boolean isExceeded() {
+        return held + requested > limit;
+    }
+}
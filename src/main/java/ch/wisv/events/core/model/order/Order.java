@@ -21,7 +21,11 @@
 import static org.springframework.format.annotation.DateTimeFormat.ISO;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+        @Index(name = "orders_status_created_at", columnList = "status, created_at"),
+        @Index(name = "orders_status_expires_at", columnList = "status, expires_at"),
+        @Index(name = "orders_owner_id_status", columnList = "owner_id, status")
+})
 @Data
 @Getter
 @Setter
@@ -35,6 +39,12 @@ public class Order {
     @Setter(AccessLevel.NONE)
     private Integer id;
 
+    /**
+     * Field version version of the Order, guarding against concurrent changes.
+     */
+    @Version
+    private Long version;
+
     /**
      * Field publicReference UUID for public reference.
      */
@@ -92,6 +102,12 @@ public class Order {
     @DateTimeFormat(iso = ISO.DATE_TIME)
     private LocalDateTime paidAt;
 
+    /**
+     * Field expiresAt date time on which the reservation expires.
+     */
+    @DateTimeFormat(iso = ISO.DATE_TIME)
+    private LocalDateTime expiresAt;
+
     /**
      * Field status status of the Order.
      */
@@ -0,0 +1,87 @@
+package ch.wisv.events.core.model.order;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.validation.constraints.NotNull;
+import java.time.LocalDateTime;
+import lombok.AccessLevel;
+import lombok.Data;
+import lombok.Setter;
+
+/**
+ * Callback of a payment provider, recorded when it arrives and processed by the payment callback workers.
+ */
+@Entity
+@Data
+@Table(indexes = {
+        @Index(name = "payment_callback_status_next_attempt_at", columnList = "status, next_attempt_at"),
+        @Index(name = "payment_callback_provider_reference", columnList = "provider_reference")
+})
+public class PaymentCallback {
+
+    /**
+     * ID of the payment callback, getter only so it can not be changed.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "payment_callback_seq")
+    @Setter(AccessLevel.NONE)
+    private Integer id;
+
+    /**
+     * Reference of the payment at the provider.
+     */
+    @NotNull
+    private String providerReference;
+
+    /**
+     * Status of the payment callback.
+     */
+    @NotNull
+    private PaymentCallbackStatus status;
+
+    /**
+     * Number of attempts made to process the callback.
+     */
+    private int attempts;
+
+    /**
+     * Moment the callback may be (re)tried, or the lease of a worker ends when PROCESSING.
+     */
+    @NotNull
+    private LocalDateTime nextAttemptAt;
+
+    /**
+     * Moment the callback has been received.
+     */
+    private LocalDateTime receivedAt;
+
+    /**
+     * Error of the last failed attempt.
+     */
+    @Column(columnDefinition = "TEXT")
+    private String lastError;
+
+    /**
+     * PaymentCallback constructor.
+     */
+    public PaymentCallback() {
+        this.receivedAt = LocalDateTime.now();
+        this.nextAttemptAt = this.receivedAt;
+        this.status = PaymentCallbackStatus.PENDING;
+    }
+
+    /**
+     * PaymentCallback constructor.
+     *
+     * @param providerReference of type String
+     */
+    public PaymentCallback(String providerReference) {
+        this();
+        this.providerReference = providerReference;
+    }
+}
@@ -0,0 +1,27 @@
+package ch.wisv.events.core.model.order;
+
+/**
+ * Status of a PaymentCallback.
+ */
+public enum PaymentCallbackStatus {
+
+    /**
+     * Waiting to be processed, possibly after a failed attempt.
+     */
+    PENDING,
+
+    /**
+     * Claimed by a worker, until the lease expires.
+     */
+    PROCESSING,
+
+    /**
+     * The status of the payment has been looked up and applied to the Order.
+     */
+    PROCESSED,
+
+    /**
+     * Processing failed on every attempt.
+     */
+    FAILED
+}
@@ -0,0 +1,30 @@
+package ch.wisv.events.core.model.order;
+
+import java.time.LocalDateTime;
+
+/**
+ * PendingPayment interface. Payment of an Order that is waiting for the payment provider.
+ */
+public interface PendingPayment {
+
+    /**
+     * Id of the Order.
+     *
+     * @return Integer
+     */
+    Integer getId();
+
+    /**
+     * Moment at which the Order has been created.
+     *
+     * @return LocalDateTime
+     */
+    LocalDateTime getCreatedAt();
+
+    /**
+     * Reference of the payment at the payment provider.
+     *
+     * @return String
+     */
+    String getChPaymentsReference();
+}
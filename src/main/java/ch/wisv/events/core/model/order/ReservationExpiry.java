@@ -0,0 +1,23 @@
+package ch.wisv.events.core.model.order;
+
+import java.time.LocalDateTime;
+
+/**
+ * ReservationExpiry interface. Moment at which a reservation expires.
+ */
+public interface ReservationExpiry {
+
+    /**
+     * Public reference of the Order.
+     *
+     * @return String
+     */
+    String getPublicReference();
+
+    /**
+     * Moment at which the reservation expires.
+     *
+     * @return LocalDateTime
+     */
+    LocalDateTime getExpiresAt();
+}
@@ -12,6 +12,7 @@
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 import jakarta.persistence.*;
 
+import ch.wisv.events.core.model.event.CatalogChangeListener;
 import ch.wisv.events.core.model.event.Event;
 import ch.wisv.events.core.util.VatRate;
 import lombok.AccessLevel;
@@ -24,6 +25,7 @@
  * Product Entity.
  */
 @Entity
+@EntityListeners(CatalogChangeListener.class)
 @Data
 public class Product {
 
@@ -64,13 +66,16 @@ public class Product {
     public VatRate vatRate;
 
     /**
-     * Products sold.
+     * Products sold. Only changed through the atomic counter queries in ProductRepository, so it is never written by
+     * an update of the entity itself.
      */
+    @Column(updatable = false)
     public int sold;
 
     /**
-     * Products sold.
+     * Products reserved. Only changed through the atomic counter queries in ProductRepository.
      */
+    @Column(updatable = false)
     public int reserved;
 
     /**
@@ -235,7 +240,7 @@ public void increaseSold(int amount) {
     }
 
     /**
-     * Increase sold count by amount.
+     * Increase reserved count by amount.
      *
      * @param amount of type Integer
      */
@@ -0,0 +1,58 @@
+package ch.wisv.events.core.model.product;
+
+import lombok.Data;
+
+/**
+ * Immutable availability of a Product.
+ */
+@Data
+public class ProductAvailability {
+
+    /**
+     * Key of the Product.
+     */
+    private final String key;
+
+    /**
+     * Number of the Product that can still be sold or reserved, null when unlimited. The sold and reserved counts of
+     * the whole product family count towards the maxSold, like they do at checkout.
+     */
+    private final Integer remaining;
+
+    /**
+     * Whether the Product, or its Event, is sold out.
+     */
+    private final boolean soldOut;
+
+    /**
+     * ProductAvailability constructor.
+     *
+     * @param product      of type Product
+     * @param eventSoldOut whether the Event of the Product is sold out
+     */
+    public ProductAvailability(Product product, boolean eventSoldOut) {
+        this.key = product.getKey();
+        this.remaining = product.getMaxSold() == null ? null : Math.max(0, product.getMaxSold() - familyCount(product));
+        this.soldOut = eventSoldOut || (this.remaining != null && this.remaining == 0);
+    }
+
+    /**
+     * Get the sold and reserved count of the family of a Product, the parent product and all its children.
+     *
+     * @param product of type Product
+     *
+     * @return int
+     */
+    private static int familyCount(Product product) {
+        Product root = product.getParentProduct() != null ? product.getParentProduct() : product;
+
+        int count = root.getSold() + root.getReserved();
+        if (root.getChildProducts() != null) {
+            for (Product child : root.getChildProducts()) {
+                count += child.getSold() + child.getReserved();
+            }
+        }
+
+        return count;
+    }
+}
@@ -0,0 +1,22 @@
+package ch.wisv.events.core.model.product;
+
+/**
+ * ProductFamilyCount interface. Number of tickets in a product family, which is a Product together with its child
+ * Products.
+ */
+public interface ProductFamilyCount {
+
+    /**
+     * Id of the root Product of the family.
+     *
+     * @return int
+     */
+    int getProductId();
+
+    /**
+     * Number of tickets.
+     *
+     * @return int
+     */
+    int getAmount();
+}
@@ -0,0 +1,31 @@
+package ch.wisv.events.core.model.queue;
+
+import lombok.Data;
+
+/**
+ * Position of a queue token in the admission queue of an Event.
+ */
+@Data
+public class AdmissionQueueStatus {
+
+    /**
+     * Number of customers in front of the token, zero when admitted.
+     */
+    private long position;
+
+    /**
+     * Whether the token is allowed to checkout.
+     */
+    private boolean admitted;
+
+    /**
+     * AdmissionQueueStatus constructor.
+     *
+     * @param position of type long
+     * @param admitted of type boolean
+     */
+    public AdmissionQueueStatus(long position, boolean admitted) {
+        this.position = position;
+        this.admitted = admitted;
+    }
+}
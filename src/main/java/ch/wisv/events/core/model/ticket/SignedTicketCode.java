@@ -0,0 +1,25 @@
+package ch.wisv.events.core.model.ticket;
+
+import lombok.Data;
+
+/**
+ * Identity of a Ticket carried by a signed ticket code.
+ */
+@Data
+public class SignedTicketCode {
+
+    /**
+     * ID of the Product of the Ticket.
+     */
+    private final Integer productId;
+
+    /**
+     * ID of the Ticket.
+     */
+    private final Integer ticketId;
+
+    /**
+     * Unique code of the Ticket.
+     */
+    private final String uniqueCode;
+}
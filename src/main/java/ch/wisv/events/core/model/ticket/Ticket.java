@@ -18,13 +18,19 @@
 
 @Data
 @Entity
+@Table(
+        uniqueConstraints = @UniqueConstraint(name = "ticket_product_unique_code", columnNames = {"product_id", "unique_code"}),
+        indexes = @Index(name = "ticket_owner_id", columnList = "owner_id")
+)
 public class Ticket {
 
     /**
-     * ID of the ticket, getter only so it can not be changed.
+     * ID of the ticket, getter only so it can not be changed. Ids are allocated in blocks, so a batch of tickets
+     * does not need a sequence call per ticket.
      */
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ticket_seq")
+    @SequenceGenerator(name = "ticket_seq", sequenceName = "ticket_seq", allocationSize = 50)
     @Setter(AccessLevel.NONE)
     public Integer id;
 
@@ -54,7 +60,7 @@ public class Ticket {
     public Product product;
 
     /**
-     * Unique code of the ticket.
+     * Unique code of the ticket, unique per product.
      */
     @NotNull
     public String uniqueCode;
@@ -65,6 +71,16 @@ public class Ticket {
     @NotNull
     public TicketStatus status;
 
+    /**
+     * Moment the Ticket has been scanned, as reported by the scanner.
+     */
+    public LocalDateTime scannedAt;
+
+    /**
+     * Device that scanned the Ticket, null when scanned online.
+     */
+    public String scanDevice;
+
     /**
      * Set if the ticket valid.
      */
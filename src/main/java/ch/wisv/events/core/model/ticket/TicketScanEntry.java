@@ -0,0 +1,101 @@
+package ch.wisv.events.core.model.ticket;
+
+import java.time.LocalDateTime;
+import lombok.Data;
+
+/**
+ * Entry of a Ticket in the scan index, containing everything the scanner needs to show.
+ */
+@Data
+public class TicketScanEntry {
+
+    /**
+     * ID of the Ticket.
+     */
+    private final Integer ticketId;
+
+    /**
+     * Unique code of the Ticket.
+     */
+    private final String uniqueCode;
+
+    /**
+     * ID of the Product of the Ticket.
+     */
+    private final Integer productId;
+
+    /**
+     * Title of the Product of the Ticket.
+     */
+    private final String productTitle;
+
+    /**
+     * Name of the owner of the Ticket.
+     */
+    private final String ownerName;
+
+    /**
+     * Status of the Ticket.
+     */
+    private volatile TicketStatus status;
+
+    /**
+     * Moment the Ticket has been scanned.
+     */
+    private volatile LocalDateTime scannedAt;
+
+    /**
+     * Device that scanned the Ticket.
+     */
+    private volatile String scanDevice;
+
+    /**
+     * TicketScanEntry constructor.
+     *
+     * @param ticketId     of type Integer
+     * @param uniqueCode   of type String
+     * @param productId    of type Integer
+     * @param productTitle of type String
+     * @param ownerName    of type String
+     * @param status       of type TicketStatus
+     * @param scannedAt    of type LocalDateTime
+     * @param scanDevice   of type String
+     */
+    public TicketScanEntry(
+            Integer ticketId,
+            String uniqueCode,
+            Integer productId,
+            String productTitle,
+            String ownerName,
+            TicketStatus status,
+            LocalDateTime scannedAt,
+            String scanDevice
+    ) {
+        this.ticketId = ticketId;
+        this.uniqueCode = uniqueCode;
+        this.productId = productId;
+        this.productTitle = productTitle;
+        this.ownerName = ownerName;
+        this.status = status;
+        this.scannedAt = scannedAt;
+        this.scanDevice = scanDevice;
+    }
+
+    /**
+     * Create a TicketScanEntry of a Ticket.
+     *
+     * @param ticket of type Ticket
+     */
+    public TicketScanEntry(Ticket ticket) {
+        this(
+                ticket.getId(),
+                ticket.getUniqueCode(),
+                ticket.getProduct().getId(),
+                ticket.getProduct().getTitle(),
+                ticket.getOwner() == null ? null : ticket.getOwner().getName(),
+                ticket.getStatus(),
+                ticket.getScannedAt(),
+                ticket.getScanDevice()
+        );
+    }
+}
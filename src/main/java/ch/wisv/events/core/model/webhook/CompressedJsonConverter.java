@@ -0,0 +1,70 @@
+package ch.wisv.events.core.model.webhook;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+import org.json.simple.parser.ParseException;
+
+/**
+ * CompressedJsonConverter class. Stores a JSONObject as gzipped, base64 encoded JSON text.
+ */
+@Converter
+public class CompressedJsonConverter implements AttributeConverter<JSONObject, String> {
+
+    /**
+     * Compress a JSONObject.
+     *
+     * @param jsonObject of type JSONObject
+     *
+     * @return String
+     */
+    @Override
+    public String convertToDatabaseColumn(JSONObject jsonObject) {
+        if (jsonObject == null) {
+            return null;
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+            gzip.write(jsonObject.toJSONString().getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return Base64.getEncoder().encodeToString(bytes.toByteArray());
+    }
+
+    /**
+     * Decompress a JSONObject.
+     *
+     * @param compressed of type String
+     *
+     * @return JSONObject
+     */
+    @Override
+    public JSONObject convertToEntityAttribute(String compressed) {
+        if (compressed == null) {
+            return null;
+        }
+
+        ByteArrayInputStream bytes = new ByteArrayInputStream(Base64.getDecoder().decode(compressed));
+        try (Reader reader = new InputStreamReader(new GZIPInputStream(bytes), StandardCharsets.UTF_8)) {
+            return (JSONObject) new JSONParser().parse(reader);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (ParseException e) {
+            throw new IllegalArgumentException("Invalid JSON payload", e);
+        }
+    }
+}
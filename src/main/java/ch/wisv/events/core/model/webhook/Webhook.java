@@ -38,6 +38,11 @@ public class Webhook {
      */
     private boolean active;
 
+    /**
+     * Receives the pending updates in batches, as JSON array, instead of one request per update.
+     */
+    private boolean batched;
+
     /**
      * Field ldapGroup.
      */
@@ -8,6 +8,10 @@
 
 @Entity
 @Data
+@Table(indexes = {
+        @Index(name = "webhook_task_status_next_attempt_at", columnList = "webhook_task_status, next_attempt_at"),
+        @Index(name = "webhook_task_status_created_at", columnList = "webhook_task_status, created_at")
+})
 public class WebhookTask {
 
     /**
@@ -29,8 +33,15 @@ public class WebhookTask {
     private Webhook webhook;
 
     /**
-     * Field object.
+     * Key of the Event or Product the update is about, used to coalesce pending updates.
      */
+    private String entityKey;
+
+    /**
+     * Field object, stored compressed.
+     */
+    @Column(name = "payload", columnDefinition = "TEXT")
+    @Convert(converter = CompressedJsonConverter.class)
     private JSONObject object;
 
     /**
@@ -49,11 +60,22 @@ public class WebhookTask {
     @Column(columnDefinition = "TEXT")
     private String webhookError;
 
+    /**
+     * Number of delivery attempts.
+     */
+    private int attempts;
+
+    /**
+     * Moment of the next delivery attempt of a PENDING task.
+     */
+    private LocalDateTime nextAttemptAt;
+
     /**
      * Constructor WebhookTask creates a new WebhookTask instance.
      */
     public WebhookTask() {
         this.createdAt = LocalDateTime.now();
+        this.nextAttemptAt = this.createdAt;
         this.webhookTaskStatus = WebhookTaskStatus.PENDING;
     }
 
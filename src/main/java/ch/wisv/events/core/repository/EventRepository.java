@@ -116,6 +116,16 @@ List<Event> findAllSalesVisibleEventsByOrganizedByIn(
      */
     Optional<Event> findByProductsContaining(Product product);
 
+    /**
+     * Find all Events containing one of the Products.
+     *
+     * @param productIds ids of the Products
+     *
+     * @return List of Events
+     */
+    @Query("select distinct e from Event e join e.products p where p.id in :productIds")
+    List<Event> findAllByProductIdIn(@Param("productIds") Collection<Integer> productIds);
+
     @Query(value =
             "select count(*) as ticketsCount, sum(status) as scannedCount, avg(status)*100 as percentageScanned " +
                     "from Ticket A INNER JOIN (Select distinct products_id FROM ticket T1 INNER JOIN (Select products_id from " +
@@ -0,0 +1,46 @@
+package ch.wisv.events.core.repository;
+
+import ch.wisv.events.core.model.mail.MailTask;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * MailTaskRepository interface.
+ */
+public interface MailTaskRepository extends JpaRepository<MailTask, Integer> {
+
+    /**
+     * Find the ids of the MailTasks that are due, pending ones and ones of which the lease of a worker has expired.
+     *
+     * @param now      current moment
+     * @param pageable maximum number of ids
+     *
+     * @return List of ids
+     */
+    @Query("select m.id from MailTask m where m.status in (ch.wisv.events.core.model.mail.MailTaskStatus.PENDING, "
+            + "ch.wisv.events.core.model.mail.MailTaskStatus.SENDING) and m.nextAttemptAt <= :now order by m.nextAttemptAt")
+    List<Integer> findDueIds(@Param("now") LocalDateTime now, Pageable pageable);
+
+    /**
+     * Claim a due MailTask for a worker, so no other worker sends it until the lease ends.
+     *
+     * @param id         id of the MailTask
+     * @param now        current moment
+     * @param leaseUntil end of the lease
+     *
+     * @return number of updated rows, 0 when the MailTask is not due (anymore)
+     */
+    @Modifying
+    @Transactional
+    @Query("update MailTask m set m.status = ch.wisv.events.core.model.mail.MailTaskStatus.SENDING, "
+            + "m.nextAttemptAt = :leaseUntil, m.attempts = m.attempts + 1 "
+            + "where m.id = :id and m.status in (ch.wisv.events.core.model.mail.MailTaskStatus.PENDING, "
+            + "ch.wisv.events.core.model.mail.MailTaskStatus.SENDING) and m.nextAttemptAt <= :now")
+    int claim(@Param("id") Integer id, @Param("now") LocalDateTime now, @Param("leaseUntil") LocalDateTime leaseUntil);
+}
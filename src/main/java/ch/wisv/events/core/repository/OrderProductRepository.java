@@ -3,7 +3,11 @@
 import ch.wisv.events.core.model.order.OrderProduct;
 import ch.wisv.events.core.model.product.Product;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface OrderProductRepository extends JpaRepository<OrderProduct, Integer> {
@@ -15,4 +19,15 @@ public interface OrderProductRepository extends JpaRepository<OrderProduct, Inte
      * @return List
      */
     List<OrderProduct> findAllByProduct(Product product);
+
+    /**
+     * Delete OrderProducts by id, without loading them.
+     *
+     * @param ids of type Collection
+     *
+     * @return number of deleted OrderProducts
+     */
+    @Modifying
+    @Query("delete from OrderProduct p where p.id in :ids")
+    int deleteAllByIdIn(@Param("ids") Collection<Integer> ids);
 }
@@ -4,12 +4,18 @@
 import ch.wisv.events.core.model.order.Order;
 import ch.wisv.events.core.model.order.OrderProduct;
 import ch.wisv.events.core.model.order.OrderStatus;
+import ch.wisv.events.core.model.order.PendingPayment;
+import ch.wisv.events.core.model.order.ReservationExpiry;
+import ch.wisv.events.core.model.product.ProductFamilyCount;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.Collection;
 
 import ch.wisv.events.core.admin.TreasurerData;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
@@ -74,6 +80,119 @@ public interface OrderRepository extends JpaRepository<Order, Integer> {
      */
     Optional<Order> findOneByChPaymentsReference(String chPaymentsReference);
 
+    /**
+     * Find the payments of the PENDING Orders created in a period, after the Order a previous lookup ended with,
+     * oldest first.
+     *
+     * @param from           start of the period
+     * @param until          end of the period
+     * @param afterCreatedAt moment of creation of the last Order of the previous lookup
+     * @param afterId        id of the last Order of the previous lookup
+     * @param pageable       maximum number of payments
+     *
+     * @return List of PendingPayment
+     */
+    @Query("select o.id as id, o.createdAt as createdAt, o.chPaymentsReference as chPaymentsReference from Order o "
+            + "where o.status = ch.wisv.events.core.model.order.OrderStatus.PENDING and o.createdAt >= :from "
+            + "and o.createdAt < :until and o.chPaymentsReference is not null and (o.createdAt > :afterCreatedAt "
+            + "or (o.createdAt = :afterCreatedAt and o.id > :afterId)) order by o.createdAt, o.id")
+    List<PendingPayment> findPendingPayments(
+            @Param("from") LocalDateTime from,
+            @Param("until") LocalDateTime until,
+            @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+            @Param("afterId") Integer afterId,
+            Pageable pageable
+    );
+
+    /**
+     * Find the RESERVATION Orders expiring before a moment.
+     *
+     * @param until of type LocalDateTime
+     *
+     * @return List of ReservationExpiry
+     */
+    @Query("select o.publicReference as publicReference, o.expiresAt as expiresAt from Order o where o.status = "
+            + "ch.wisv.events.core.model.order.OrderStatus.RESERVATION and o.expiresAt < :until")
+    List<ReservationExpiry> findReservationExpiries(@Param("until") LocalDateTime until);
+
+    /**
+     * Find the ids of the Orders with one of the statuses created before a moment, oldest first.
+     *
+     * @param statuses of type Collection
+     * @param before   of type LocalDateTime
+     * @param pageable maximum number of ids
+     *
+     * @return List of ids
+     */
+    @Query("select o.id from Order o where o.status in :statuses and o.createdAt < :before order by o.createdAt")
+    List<Integer> findIdsByStatusInAndCreatedAtBefore(
+            @Param("statuses") Collection<OrderStatus> statuses,
+            @Param("before") LocalDateTime before,
+            Pageable pageable
+    );
+
+    /**
+     * Find the ids of the OrderProducts of Orders.
+     *
+     * @param orderIds of type Collection
+     *
+     * @return List of ids
+     */
+    @Query(value = "SELECT order_products_id FROM orders_order_products WHERE order_id IN :orderIds", nativeQuery = true)
+    List<Integer> findOrderProductIdsByOrderIds(@Param("orderIds") Collection<Integer> orderIds);
+
+    /**
+     * Unlink the OrderProducts of Orders.
+     *
+     * @param orderIds of type Collection
+     *
+     * @return number of deleted rows
+     */
+    @Modifying
+    @Query(value = "DELETE FROM orders_order_products WHERE order_id IN :orderIds", nativeQuery = true)
+    int deleteOrderProductLinksByOrderIds(@Param("orderIds") Collection<Integer> orderIds);
+
+    /**
+     * Delete Orders by id, without loading them.
+     *
+     * @param ids of type Collection
+     *
+     * @return number of deleted Orders
+     */
+    @Modifying
+    @Query("delete from Order o where o.id in :ids")
+    int deleteAllByIdIn(@Param("ids") Collection<Integer> ids);
+
+    /**
+     * Count the tickets a Customer holds or has reserved per product family, which is a Product together with its
+     * child Products.
+     *
+     * @param customerId id of the Customer
+     * @param productIds ids of the root Products of the families
+     *
+     * @return List of ProductFamilyCount, families without tickets are left out
+     */
+    @Query(value = """
+            SELECT H.FAMILY_ID AS productId, SUM(H.AMOUNT) AS amount
+            FROM (
+                SELECT COALESCE(P.PARENT_PRODUCT_ID, P.ID) AS FAMILY_ID, 1 AS AMOUNT
+                FROM TICKET T
+                INNER JOIN PRODUCT P ON T.PRODUCT_ID = P.ID
+                WHERE T.OWNER_ID = :customerId
+                UNION ALL
+                SELECT COALESCE(P.PARENT_PRODUCT_ID, P.ID) AS FAMILY_ID, OP.AMOUNT AS AMOUNT
+                FROM ORDERS O
+                INNER JOIN ORDERS_ORDER_PRODUCTS OOP ON O.ID = OOP.ORDER_ID
+                INNER JOIN ORDER_PRODUCT OP ON OOP.ORDER_PRODUCTS_ID = OP.ID
+                INNER JOIN PRODUCT P ON OP.PRODUCT_ID = P.ID
+                WHERE O.OWNER_ID = :customerId AND O.STATUS = 4
+            ) H
+            WHERE H.FAMILY_ID IN :productIds
+            GROUP BY H.FAMILY_ID""", nativeQuery = true)
+    List<ProductFamilyCount> countHeldPerProductFamily(
+            @Param("customerId") Integer customerId, @Param("productIds") Collection<Integer> productIds
+    );
+
     /**
      * Find order associated to orderProduct.
      *
@@ -0,0 +1,93 @@
+package ch.wisv.events.core.repository;
+
+import ch.wisv.events.core.model.order.PaymentCallback;
+import ch.wisv.events.core.model.order.PaymentCallbackStatus;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * PaymentCallbackRepository interface.
+ */
+public interface PaymentCallbackRepository extends JpaRepository<PaymentCallback, Integer> {
+
+    /**
+     * Check if a PaymentCallback with a provider reference and status exists.
+     *
+     * @param providerReference of type String
+     * @param status            of type PaymentCallbackStatus
+     *
+     * @return boolean
+     */
+    boolean existsByProviderReferenceAndStatus(String providerReference, PaymentCallbackStatus status);
+
+    /**
+     * Find all PaymentCallbacks with a provider reference and status.
+     *
+     * @param providerReference of type String
+     * @param status            of type PaymentCallbackStatus
+     *
+     * @return List of PaymentCallbacks
+     */
+    List<PaymentCallback> findAllByProviderReferenceAndStatus(String providerReference, PaymentCallbackStatus status);
+
+    /**
+     * Find the provider references with due PaymentCallbacks, pending ones and ones of which the lease of a worker has
+     * expired, in the order in which they have been received.
+     *
+     * @param now      current moment
+     * @param pageable maximum number of references
+     *
+     * @return List of provider references
+     */
+    @Query("select c.providerReference from PaymentCallback c where c.status in ("
+            + "ch.wisv.events.core.model.order.PaymentCallbackStatus.PENDING, "
+            + "ch.wisv.events.core.model.order.PaymentCallbackStatus.PROCESSING) and c.nextAttemptAt <= :now "
+            + "group by c.providerReference order by min(c.receivedAt)")
+    List<String> findDueReferences(@Param("now") LocalDateTime now, Pageable pageable);
+
+    /**
+     * Claim all due PaymentCallbacks of a provider reference for a worker, so they are processed with a single lookup
+     * and no other worker processes them until the lease ends.
+     *
+     * @param providerReference of type String
+     * @param now               current moment
+     * @param leaseUntil        end of the lease
+     *
+     * @return number of updated rows, 0 when no PaymentCallback of the reference is due (anymore)
+     */
+    @Modifying
+    @Transactional
+    @Query("update PaymentCallback c set c.status = ch.wisv.events.core.model.order.PaymentCallbackStatus.PROCESSING, "
+            + "c.nextAttemptAt = :leaseUntil, c.attempts = c.attempts + 1 "
+            + "where c.providerReference = :providerReference and c.status in ("
+            + "ch.wisv.events.core.model.order.PaymentCallbackStatus.PENDING, "
+            + "ch.wisv.events.core.model.order.PaymentCallbackStatus.PROCESSING) and c.nextAttemptAt <= :now")
+    int claim(
+            @Param("providerReference") String providerReference,
+            @Param("now") LocalDateTime now,
+            @Param("leaseUntil") LocalDateTime leaseUntil
+    );
+
+    /**
+     * Find the ids of PaymentCallbacks with one of the statuses received before a moment.
+     *
+     * @param statuses of type Collection
+     * @param before   of type LocalDateTime
+     * @param pageable maximum number of ids
+     *
+     * @return List of ids
+     */
+    @Query("select c.id from PaymentCallback c where c.status in :statuses and c.receivedAt < :before")
+    List<Integer> findIdsByStatusInReceivedBefore(
+            @Param("statuses") Collection<PaymentCallbackStatus> statuses,
+            @Param("before") LocalDateTime before,
+            Pageable pageable
+    );
+}
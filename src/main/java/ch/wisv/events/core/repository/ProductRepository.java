@@ -5,6 +5,10 @@
 import java.util.Collection;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 /**
  * ProductRepository class.
@@ -36,4 +40,92 @@ public interface ProductRepository extends JpaRepository<Product, Integer> {
      */
     Collection<Product> findAllBySellStartBefore(LocalDateTime sellStart);
 
+    /**
+     * Lock the row of a Product until the end of the current transaction. Used to serialize counter updates within
+     * a product family, of which the parent product is the lock owner.
+     *
+     * @param id id of a Product
+     *
+     * @return Optional containing the id when the Product exists
+     */
+    @Query(value = "SELECT id FROM product WHERE id = :id FOR UPDATE", nativeQuery = true)
+    Optional<Integer> lockById(@Param("id") Integer id);
+
+    /**
+     * Increase the sold count of a Product, only if the sold and reserved count of its family (the parent product
+     * with id rootId and all its children) stays within the maxSold of the parent.
+     *
+     * @param id     id of the Product
+     * @param rootId id of the parent Product of the family
+     * @param amount amount to add
+     *
+     * @return number of updated rows, zero when the product family is sold out
+     */
+    @Modifying
+    @Transactional
+    @Query("update Product p set p.sold = p.sold + :amount where p.id = :id and ("
+            + "(select r.maxSold from Product r where r.id = :rootId) is null "
+            + "or (select coalesce(sum(f.sold + f.reserved), 0) from Product f "
+            + "where f.id = :rootId or f.parentProduct.id = :rootId) + :amount "
+            + "<= (select r.maxSold from Product r where r.id = :rootId))")
+    int increaseSoldWithinLimit(@Param("id") Integer id, @Param("rootId") Integer rootId, @Param("amount") int amount);
+
+    /**
+     * Increase the reserved count of a Product, only if the sold and reserved count of its family (the parent
+     * product with id rootId and all its children) stays within the maxSold of the parent.
+     *
+     * @param id     id of the Product
+     * @param rootId id of the parent Product of the family
+     * @param amount amount to add
+     *
+     * @return number of updated rows, zero when the product family is sold out
+     */
+    @Modifying
+    @Transactional
+    @Query("update Product p set p.reserved = p.reserved + :amount where p.id = :id and ("
+            + "(select r.maxSold from Product r where r.id = :rootId) is null "
+            + "or (select coalesce(sum(f.sold + f.reserved), 0) from Product f "
+            + "where f.id = :rootId or f.parentProduct.id = :rootId) + :amount "
+            + "<= (select r.maxSold from Product r where r.id = :rootId))")
+    int increaseReservedWithinLimit(@Param("id") Integer id, @Param("rootId") Integer rootId, @Param("amount") int amount);
+
+    /**
+     * Add an amount to the sold count of a Product, regardless of its limit.
+     *
+     * @param id     id of the Product
+     * @param amount amount to add, negative to decrease
+     *
+     * @return number of updated rows
+     */
+    @Modifying
+    @Transactional
+    @Query("update Product p set p.sold = p.sold + :amount where p.id = :id")
+    int increaseSold(@Param("id") Integer id, @Param("amount") int amount);
+
+    /**
+     * Add an amount to the reserved count of a Product, regardless of its limit.
+     *
+     * @param id     id of the Product
+     * @param amount amount to add, negative to decrease
+     *
+     * @return number of updated rows
+     */
+    @Modifying
+    @Transactional
+    @Query("update Product p set p.reserved = p.reserved + :amount where p.id = :id")
+    int increaseReserved(@Param("id") Integer id, @Param("amount") int amount);
+
+    /**
+     * Move an amount from the reserved count to the sold count of a Product.
+     *
+     * @param id     id of the Product
+     * @param amount amount to move
+     *
+     * @return number of updated rows
+     */
+    @Modifying
+    @Transactional
+    @Query("update Product p set p.sold = p.sold + :amount, p.reserved = p.reserved - :amount where p.id = :id")
+    int moveReservedToSold(@Param("id") Integer id, @Param("amount") int amount);
+
 }
@@ -4,14 +4,21 @@
 import ch.wisv.events.core.model.order.Order;
 import ch.wisv.events.core.model.product.Product;
 import ch.wisv.events.core.model.ticket.Ticket;
+import ch.wisv.events.core.model.ticket.TicketScanEntry;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 /**
  * TicketRepository interface.
  */
-public interface TicketRepository extends JpaRepository<Ticket, Integer> {
+public interface TicketRepository extends JpaRepository<Ticket, Integer>, TicketRepositoryCustom {
 
     /**
      * Find all Ticket by Product and Customer.
@@ -88,4 +95,47 @@ public interface TicketRepository extends JpaRepository<Ticket, Integer> {
      * @return Optional
      */
     Optional<Ticket> findByKey(String key);
+
+    /**
+     * Find the scan entries of all Tickets of Products.
+     *
+     * @param productIds ids of the Products
+     *
+     * @return List of TicketScanEntry
+     */
+    @Query("select new ch.wisv.events.core.model.ticket.TicketScanEntry(t.id, t.uniqueCode, p.id, p.title, o.name, t.status, t.scannedAt, t.scanDevice) "
+            + "from Ticket t join t.product p left join t.owner o where p.id in :productIds")
+    List<TicketScanEntry> findAllScanEntriesByProductIdIn(@Param("productIds") Collection<Integer> productIds);
+
+    /**
+     * Find the scan entries of the Tickets of Products with a unique code.
+     *
+     * @param productIds ids of the Products
+     * @param uniqueCode unique code of the Ticket
+     *
+     * @return List of TicketScanEntry
+     */
+    @Query("select new ch.wisv.events.core.model.ticket.TicketScanEntry(t.id, t.uniqueCode, p.id, p.title, o.name, t.status, t.scannedAt, t.scanDevice) "
+            + "from Ticket t join t.product p left join t.owner o where p.id in :productIds and t.uniqueCode = :uniqueCode")
+    List<TicketScanEntry> findAllScanEntriesByProductIdInAndUniqueCode(
+            @Param("productIds") Collection<Integer> productIds, @Param("uniqueCode") String uniqueCode
+    );
+
+    /**
+     * Mark an OPEN Ticket as SCANNED.
+     *
+     * @param id         id of the Ticket
+     * @param scannedAt  moment of the scan
+     * @param scanDevice device that scanned the Ticket
+     *
+     * @return number of updated rows, 0 when the Ticket was not OPEN
+     */
+    @Modifying
+    @Transactional
+    @Query("update Ticket t set t.status = ch.wisv.events.core.model.ticket.TicketStatus.SCANNED, "
+            + "t.scannedAt = :scannedAt, t.scanDevice = :scanDevice "
+            + "where t.id = :id and t.status = ch.wisv.events.core.model.ticket.TicketStatus.OPEN")
+    int markScanned(
+            @Param("id") Integer id, @Param("scannedAt") LocalDateTime scannedAt, @Param("scanDevice") String scanDevice
+    );
 }
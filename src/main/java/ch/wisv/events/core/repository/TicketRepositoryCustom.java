@@ -0,0 +1,17 @@
+package ch.wisv.events.core.repository;
+
+import ch.wisv.events.core.model.ticket.Ticket;
+import java.util.List;
+
+/**
+ * TicketRepositoryCustom interface, implemented by TicketRepositoryImpl.
+ */
+public interface TicketRepositoryCustom {
+
+    /**
+     * Insert new Tickets using JDBC batches.
+     *
+     * @param tickets List of new Tickets
+     */
+    void insertAll(List<Ticket> tickets);
+}
@@ -0,0 +1,42 @@
+package ch.wisv.events.core.repository;
+
+import ch.wisv.events.core.model.ticket.Ticket;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.util.List;
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * TicketRepositoryImpl class.
+ */
+public class TicketRepositoryImpl implements TicketRepositoryCustom {
+
+    /** Maximum number of inserts sent in a single JDBC batch. */
+    private static final int BATCH_SIZE = 50;
+
+    /** EntityManager. */
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Insert new Tickets using JDBC batches. The batch size is set on the session only, so other writes are not
+     * affected.
+     *
+     * @param tickets List of new Tickets
+     */
+    @Override
+    @Transactional
+    public void insertAll(List<Ticket> tickets) {
+        Session session = entityManager.unwrap(Session.class);
+        Integer previousBatchSize = session.getJdbcBatchSize();
+
+        session.setJdbcBatchSize(BATCH_SIZE);
+        try {
+            tickets.forEach(entityManager::persist);
+            entityManager.flush();
+        } finally {
+            session.setJdbcBatchSize(previousBatchSize);
+        }
+    }
+}
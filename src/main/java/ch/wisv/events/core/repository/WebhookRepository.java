@@ -5,6 +5,7 @@
 import java.util.List;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 /**
  * WebhookRepository interface.
@@ -28,4 +29,12 @@ public interface WebhookRepository extends JpaRepository<Webhook, Integer> {
      * @return List
      */
     List<Webhook> findAllByWebhookTriggersIsContaining(WebhookTrigger webhookTrigger);
+
+    /**
+     * Find all Webhooks with their triggers loaded.
+     *
+     * @return List
+     */
+    @Query("select distinct w from Webhook w left join fetch w.webhookTriggers")
+    List<Webhook> findAllWithTriggers();
 }
@@ -3,8 +3,16 @@
 import ch.wisv.events.core.model.webhook.Webhook;
 import ch.wisv.events.core.model.webhook.WebhookTask;
 import ch.wisv.events.core.model.webhook.WebhookTaskStatus;
+import ch.wisv.events.core.model.webhook.WebhookTrigger;
+import java.time.LocalDateTime;
 import java.util.List;
+import org.json.simple.JSONObject;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 /**
  * WebhookTaskRepository interface.
@@ -19,13 +27,117 @@ public interface WebhookTaskRepository extends JpaRepository<WebhookTask, Intege
     List<WebhookTask> findAllByOrderByCreatedAtDesc();
 
     /**
-     * Method findAllByWebhookTaskStatus().
+     * Find the PENDING WebhookTasks of which the next attempt is due.
      *
-     * @param webhookTaskStatus of type WebhookTaskStatus
+     * @param now      current moment
+     * @param pageable maximum number of tasks
+     *
+     * @return List
+     */
+    @Query("select t from WebhookTask t where t.webhookTaskStatus = ch.wisv.events.core.model.webhook.WebhookTaskStatus.PENDING "
+            + "and t.nextAttemptAt <= :now order by t.nextAttemptAt")
+    List<WebhookTask> findDue(@Param("now") LocalDateTime now, Pageable pageable);
+
+    /**
+     * Find the PENDING WebhookTasks of a Webhook of which the next attempt is due.
+     *
+     * @param webhook  of type Webhook
+     * @param now      current moment
+     * @param pageable maximum number of tasks
+     *
+     * @return List
+     */
+    @Query("select t from WebhookTask t where t.webhook = :webhook "
+            + "and t.webhookTaskStatus = ch.wisv.events.core.model.webhook.WebhookTaskStatus.PENDING "
+            + "and t.nextAttemptAt <= :now order by t.nextAttemptAt")
+    List<WebhookTask> findDueByWebhook(@Param("webhook") Webhook webhook, @Param("now") LocalDateTime now, Pageable pageable);
+
+    /**
+     * Replace the payload of the PENDING WebhookTask with the same webhook, trigger and entity key that has not been
+     * attempted yet.
+     *
+     * @param webhook   of type Webhook
+     * @param trigger   of type WebhookTrigger
+     * @param entityKey key of the Event or Product
+     * @param object    new payload
+     *
+     * @return number of updated rows, 0 when there is no such WebhookTask
+     */
+    @Modifying
+    @Transactional
+    @Query("update WebhookTask t set t.object = :object where t.webhook = :webhook and t.trigger = :trigger "
+            + "and t.entityKey = :entityKey and t.attempts = 0 "
+            + "and t.webhookTaskStatus = ch.wisv.events.core.model.webhook.WebhookTaskStatus.PENDING")
+    int coalesce(
+            @Param("webhook") Webhook webhook,
+            @Param("trigger") WebhookTrigger trigger,
+            @Param("entityKey") String entityKey,
+            @Param("object") JSONObject object
+    );
+
+    /**
+     * Claim a due WebhookTask for a worker, so no other worker delivers it until the lease ends.
+     *
+     * @param id         id of the WebhookTask
+     * @param now        current moment
+     * @param leaseUntil end of the lease
+     *
+     * @return number of updated rows, 0 when the WebhookTask is not due (anymore)
+     */
+    @Modifying
+    @Transactional
+    @Query("update WebhookTask t set t.nextAttemptAt = :leaseUntil, t.attempts = t.attempts + 1 where t.id = :id "
+            + "and t.webhookTaskStatus = ch.wisv.events.core.model.webhook.WebhookTaskStatus.PENDING and t.nextAttemptAt <= :now")
+    int claim(@Param("id") Integer id, @Param("now") LocalDateTime now, @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    /**
+     * Postpone the next attempt of a PENDING WebhookTask without counting it as an attempt.
+     *
+     * @param id            id of the WebhookTask
+     * @param nextAttemptAt moment of the next attempt
+     *
+     * @return number of updated rows
+     */
+    @Modifying
+    @Transactional
+    @Query("update WebhookTask t set t.nextAttemptAt = :nextAttemptAt where t.id = :id "
+            + "and t.webhookTaskStatus = ch.wisv.events.core.model.webhook.WebhookTaskStatus.PENDING")
+    int postpone(@Param("id") Integer id, @Param("nextAttemptAt") LocalDateTime nextAttemptAt);
+
+    /**
+     * Find a page of WebhookTasks, newest first, starting below an id.
+     *
+     * @param webhookTaskStatus of type WebhookTaskStatus, null for all statuses
+     * @param webhook           of type Webhook, null for all webhooks
+     * @param before            only tasks with a lower id, null for the newest tasks
+     * @param pageable          page size
      *
      * @return List
      */
-    List<WebhookTask> findAllByWebhookTaskStatus(WebhookTaskStatus webhookTaskStatus);
+    @Query("select t from WebhookTask t where (:status is null or t.webhookTaskStatus = :status) "
+            + "and (:webhook is null or t.webhook = :webhook) and (:before is null or t.id < :before) order by t.id desc")
+    List<WebhookTask> findPage(
+            @Param("status") WebhookTaskStatus webhookTaskStatus,
+            @Param("webhook") Webhook webhook,
+            @Param("before") Integer before,
+            Pageable pageable
+    );
+
+    /**
+     * Find the ids of WebhookTasks with a status created before a moment.
+     *
+     * @param webhookTaskStatus of type WebhookTaskStatus
+     * @param before            of type LocalDateTime
+     * @param pageable          maximum number of ids
+     *
+     * @return List of ids
+     */
+    @Query("select t.id from WebhookTask t where t.webhookTaskStatus = :status and t.createdAt < :before")
+    List<Integer> findIdsByStatusCreatedBefore(
+            @Param("status") WebhookTaskStatus webhookTaskStatus,
+            @Param("before") LocalDateTime before,
+            Pageable pageable
+    );
 
     /**
      * Returns all WebhookTasks associated with the given webhook
@@ -0,0 +1,27 @@
+package ch.wisv.events.core.service.event;
+
+import ch.wisv.events.core.exception.normal.EventNotFoundException;
+import ch.wisv.events.core.model.event.EventAvailability;
+
+/**
+ * EventAvailabilityService interface.
+ */
+public interface EventAvailabilityService {
+
+    /**
+     * Get the availability of an Event and its Products. The result may be at most the time to live old.
+     *
+     * @param key key of the Event
+     *
+     * @return EventAvailability
+     * @throws EventNotFoundException when the Event does not exist
+     */
+    EventAvailability getByEventKey(String key) throws EventNotFoundException;
+
+    /**
+     * Get the number of milliseconds an availability is cached.
+     *
+     * @return long
+     */
+    long getTimeToLive();
+}
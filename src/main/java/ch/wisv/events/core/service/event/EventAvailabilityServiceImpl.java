@@ -0,0 +1,166 @@
+package ch.wisv.events.core.service.event;
+
+import ch.wisv.events.core.exception.normal.EventNotFoundException;
+import ch.wisv.events.core.model.event.EventAvailability;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * EventAvailabilityServiceImpl class. Availabilities are cached for a short time. When an availability has expired
+ * only the first request loads it again, concurrent requests for the same Event wait for that load, so the database
+ * is read at most once per Event per time to live.
+ */
+@Service
+public class EventAvailabilityServiceImpl implements EventAvailabilityService {
+
+    /** EventService. */
+    private final EventService eventService;
+
+    /** Read only transaction in which an availability is loaded, so lazy relations of the Products can be loaded. */
+    private final TransactionTemplate readOnlyTransaction;
+
+    /** Cached availabilities by Event key. */
+    private final Map<String, CachedAvailability> cache = new ConcurrentHashMap<>();
+
+    /** Number of milliseconds an availability is cached. */
+    private final long timeToLive;
+
+    /**
+     * EventAvailabilityServiceImpl constructor.
+     *
+     * @param eventService       of type EventService
+     * @param transactionManager of type PlatformTransactionManager
+     * @param timeToLive         number of milliseconds an availability is cached
+     */
+    public EventAvailabilityServiceImpl(
+            EventService eventService,
+            PlatformTransactionManager transactionManager,
+            @Value("${wisvch.events.availability.ttl:2000}") long timeToLive
+    ) {
+        this.eventService = eventService;
+        this.timeToLive = timeToLive;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Get the availability of an Event and its Products. The result may be at most the time to live old.
+     *
+     * @param key key of the Event
+     *
+     * @return EventAvailability
+     * @throws EventNotFoundException when the Event does not exist
+     */
+    @Override
+    public EventAvailability getByEventKey(String key) throws EventNotFoundException {
+        while (true) {
+            long now = System.nanoTime();
+            CachedAvailability cached = cache.get(key);
+            if (cached != null && !cached.isExpired(now)) {
+                return this.await(cached);
+            }
+
+            CachedAvailability loading = new CachedAvailability(now + TimeUnit.MILLISECONDS.toNanos(timeToLive));
+            boolean won = cached == null ? cache.putIfAbsent(key, loading) == null : cache.replace(key, cached, loading);
+            if (won) {
+                this.load(key, loading);
+
+                return this.await(loading);
+            }
+            // Another request started loading the availability first, wait for that one.
+        }
+    }
+
+    /**
+     * Get the number of milliseconds an availability is cached.
+     *
+     * @return long
+     */
+    @Override
+    public long getTimeToLive() {
+        return timeToLive;
+    }
+
+    /**
+     * Load an availability from the database. A failed load is not cached.
+     *
+     * @param key     key of the Event
+     * @param loading of type CachedAvailability
+     */
+    private void load(String key, CachedAvailability loading) {
+        try {
+            loading.future.complete(readOnlyTransaction.execute(status -> {
+                try {
+                    return new EventAvailability(eventService.getByKey(key));
+                } catch (EventNotFoundException e) {
+                    throw new CompletionException(e);
+                }
+            }));
+        } catch (RuntimeException e) {
+            cache.remove(key, loading);
+            loading.future.completeExceptionally(e instanceof CompletionException ? e.getCause() : e);
+        }
+    }
+
+    /**
+     * Wait for a cached availability to be loaded.
+     *
+     * @param cached of type CachedAvailability
+     *
+     * @return EventAvailability
+     * @throws EventNotFoundException when the Event does not exist
+     */
+    private EventAvailability await(CachedAvailability cached) throws EventNotFoundException {
+        try {
+            return cached.future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof EventNotFoundException) {
+                throw (EventNotFoundException) e.getCause();
+            }
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+
+            throw e;
+        }
+    }
+
+    /**
+     * Availability in the cache, possibly still being loaded.
+     */
+    private static final class CachedAvailability {
+
+        /** Loaded availability. */
+        private final CompletableFuture<EventAvailability> future = new CompletableFuture<>();
+
+        /** Moment, in System.nanoTime, the availability expires. */
+        private final long expiresAt;
+
+        /**
+         * CachedAvailability constructor.
+         *
+         * @param expiresAt moment the availability expires
+         */
+        private CachedAvailability(long expiresAt) {
+            this.expiresAt = expiresAt;
+        }
+
+        /**
+         * Check if the availability has expired.
+         *
+         * @param now current moment, in System.nanoTime
+         *
+         * @return boolean
+         */
+        private boolean isExpired(long now) {
+            return now - expiresAt >= 0;
+        }
+    }
+}
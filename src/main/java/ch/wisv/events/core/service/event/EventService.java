@@ -7,7 +7,9 @@
 import ch.wisv.events.core.model.event.Event;
 import ch.wisv.events.core.model.product.Product;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 /**
  * EventService.
@@ -77,6 +79,15 @@ public interface EventService {
      */
     Event getByProduct(Product product) throws EventNotFoundException;
 
+    /**
+     * Get the Events of Products.
+     *
+     * @param products of type Collection
+     *
+     * @return Map of Event by Product id, Products without Event are left out
+     */
+    Map<Integer, Event> getByProducts(Collection<Product> products);
+
     /**
      * Method getPreviousEventsLastTwoWeeks returns the previousEventsLastTwoWeeks of this EventService object.
      *
@@ -11,13 +11,23 @@
 import ch.wisv.events.core.model.product.Product;
 import ch.wisv.events.core.repository.EventRepository;
 import ch.wisv.events.core.service.product.ProductService;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 /**
  * EventService implementation.
@@ -25,6 +35,14 @@
 @Service
 public class EventServiceImpl implements EventService {
 
+    /** Maximum number of Products of which the Event id is cached. */
+    private static final int PRODUCT_EVENT_CACHE_SIZE = 4096;
+
+    /** Id of the Event by Product id, empty when the Product is not part of an Event. */
+    private final Cache<Integer, Optional<Integer>> eventIdByProduct = CacheBuilder.newBuilder()
+            .maximumSize(PRODUCT_EVENT_CACHE_SIZE)
+            .build();
+
     /** EventRepository. */
     private final EventRepository eventRepository;
 
@@ -133,6 +151,48 @@ public Event getByProduct(Product product) throws EventNotFoundException {
         return event.orElseThrow(() -> new EventNotFoundException("containing product #" + product.getId()));
     }
 
+    /**
+     * Get the Events of Products with a single query. When the Events of all Products are known from the cache the
+     * Events are loaded by id, otherwise they are looked up by Product.
+     *
+     * @param products of type Collection
+     *
+     * @return Map of Event by Product id, Products without Event are left out
+     */
+    @Override
+    public Map<Integer, Event> getByProducts(Collection<Product> products) {
+        Set<Integer> productIds = products.stream()
+                .map(Product::getId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        if (productIds.isEmpty()) {
+            return new HashMap<>();
+        }
+
+        Map<Integer, Optional<Integer>> cached = eventIdByProduct.getAllPresent(productIds);
+        if (cached.size() < productIds.size()) {
+            return this.findByProducts(productIds);
+        }
+
+        Set<Integer> eventIds = cached.values().stream()
+                .flatMap(Optional::stream)
+                .collect(Collectors.toSet());
+        Map<Integer, Event> eventsById = eventIds.isEmpty() ? new HashMap<>() : eventRepository.findAllById(eventIds)
+                .stream()
+                .collect(Collectors.toMap(Event::getId, event -> event));
+
+        Map<Integer, Event> events = new HashMap<>();
+        cached.forEach((productId, eventId) -> eventId.ifPresent(id -> {
+            if (eventsById.containsKey(id)) {
+                events.put(productId, eventsById.get(id));
+            } else {
+                eventIdByProduct.invalidate(productId);
+            }
+        }));
+
+        return events;
+    }
+
     /**
      * Method getPreviousEventsLastTwoWeeks returns the previousEventsLastTwoWeeks of this EventService object.
      *
@@ -154,6 +214,7 @@ public void create(Event event) throws EventInvalidException {
         this.updateLinkedProducts(event, event.getProducts(), true);
 
         eventRepository.saveAndFlush(event);
+        this.invalidateProducts(event.getProducts());
     }
 
     /**
@@ -166,6 +227,7 @@ public void update(Event event) throws EventNotFoundException, EventInvalidExcep
         this.assertIsValidEvent(event);
         
         Event update = this.getByKey(event.getKey());
+        List<Product> previousProducts = new ArrayList<>(update.getProducts());
         this.updateLinkedProducts(event, update.getProducts(), false);
 
         update.setTitle(event.getTitle());
@@ -181,6 +243,7 @@ public void update(Event event) throws EventNotFoundException, EventInvalidExcep
         update.setOrganizedBy(event.getOrganizedBy());
         update.setCategories(event.getCategories());
         update.setExternalProductUrl(event.getExternalProductUrl());
+        update.setAdmissionQueue(event.isAdmissionQueue());
 
         if (event.getImageUrl() != null) {
             update.setImageUrl(event.getImageUrl());
@@ -188,6 +251,9 @@ public void update(Event event) throws EventNotFoundException, EventInvalidExcep
 
         this.updateLinkedProducts(event, update.getProducts(), true);
         eventRepository.save(update);
+
+        this.invalidateProducts(previousProducts);
+        this.invalidateProducts(update.getProducts());
     }
 
     /**
@@ -198,6 +264,7 @@ public void update(Event event) throws EventNotFoundException, EventInvalidExcep
     @Override
     public void delete(Event event) {
         eventRepository.delete(event);
+        this.invalidateProducts(event.getProducts());
     }
 
     /**
@@ -288,4 +355,53 @@ private void updateLinkedProducts(Event event, List<Product> products, boolean l
             }
         });
     }
+
+    /**
+     * Find the Events of Products in the database and cache the Event id of each of the Products.
+     *
+     * @param productIds of type Set
+     *
+     * @return Map of Event by Product id
+     */
+    private Map<Integer, Event> findByProducts(Set<Integer> productIds) {
+        Map<Integer, Event> events = new HashMap<>();
+        for (Event event : eventRepository.findAllByProductIdIn(productIds)) {
+            event.getProducts().stream()
+                    .map(Product::getId)
+                    .filter(productIds::contains)
+                    .forEach(productId -> events.put(productId, event));
+        }
+
+        productIds.forEach(productId -> eventIdByProduct.put(productId,
+                Optional.ofNullable(events.get(productId)).map(Event::getId)));
+
+        return events;
+    }
+
+    /**
+     * Remove the cached Event ids of Products, after their Event has been changed.
+     *
+     * @param products of type List
+     */
+    private void invalidateProducts(List<Product> products) {
+        if (products == null) {
+            return;
+        }
+
+        List<Integer> productIds = products.stream()
+                .map(Product::getId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        eventIdByProduct.invalidateAll(productIds);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // Lookups made before the commit may have cached the previous Event again.
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    eventIdByProduct.invalidateAll(productIds);
+                }
+            });
+        }
+    }
 }
@@ -7,6 +7,7 @@
 import ch.wisv.events.core.model.event.Event;
 import ch.wisv.events.core.model.product.Product;
 import ch.wisv.events.core.model.ticket.Ticket;
+import ch.wisv.events.core.service.ticket.TicketCodeService;
 
 import com.auth0.jwt.JWT;
 import com.auth0.jwt.algorithms.Algorithm;
@@ -51,6 +52,18 @@ public class GoogleWalletServiceImpl implements GoogleWalletService {
     @NotNull
     private String linkGTC;
 
+    /** TicketCodeService. */
+    private final TicketCodeService ticketCodeService;
+
+    /**
+     * GoogleWalletServiceImpl constructor.
+     *
+     * @param ticketCodeService of type TicketCodeService
+     */
+    public GoogleWalletServiceImpl(TicketCodeService ticketCodeService) {
+        this.ticketCodeService = ticketCodeService;
+    }
+
     /**
      * Get Google Wallet pass for a Ticket.
      * 
@@ -148,7 +161,7 @@ private EventTicketObject createObject(Ticket ticket) {
                 .setTicketHolderName(ticket.getOwner().getName())
                 .setHexBackgroundColor("#1e274a")
                 .setFaceValue(cost)
-                .setBarcode(new Barcode().setType("QR_CODE").setValue(ticket.getUniqueCode()))
+                .setBarcode(new Barcode().setType("QR_CODE").setValue(ticketCodeService.encode(ticket)))
                 .setGroupingInfo(new GroupingInfo().setGroupingId(ticket.product.event.getKey()).setSortIndex(1))
                 .setLinksModuleData(new LinksModuleData().setUris(Arrays.asList(tnc)));
     }
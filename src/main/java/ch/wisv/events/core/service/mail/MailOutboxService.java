@@ -0,0 +1,21 @@
+package ch.wisv.events.core.service.mail;
+
+import ch.wisv.events.core.model.order.Order;
+
+/**
+ * MailOutboxService interface.
+ */
+public interface MailOutboxService {
+
+    /**
+     * Add the confirmation mail of an Order to the outbox. Joins the current transaction, if any.
+     *
+     * @param order of type Order
+     */
+    void enqueueOrderConfirmation(Order order);
+
+    /**
+     * Hand the due mails of the outbox to the mail workers.
+     */
+    void processDue();
+}
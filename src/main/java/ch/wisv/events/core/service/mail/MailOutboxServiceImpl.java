@@ -0,0 +1,231 @@
+package ch.wisv.events.core.service.mail;
+
+import ch.wisv.events.core.model.mail.MailTask;
+import ch.wisv.events.core.model.mail.MailTaskStatus;
+import ch.wisv.events.core.model.order.Order;
+import ch.wisv.events.core.model.ticket.Ticket;
+import ch.wisv.events.core.repository.MailTaskRepository;
+import ch.wisv.events.core.repository.OrderRepository;
+import ch.wisv.events.core.service.ticket.TicketService;
+import jakarta.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Hibernate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * MailOutboxServiceImpl class. Mails are stored as MailTasks and sent by a bounded pool of workers, failed mails are
+ * retried with an exponential backoff.
+ */
+@Service
+@Slf4j
+public class MailOutboxServiceImpl implements MailOutboxService {
+
+    /** Number of seconds a worker may take to send a mail before another worker may retry it. */
+    private static final int LEASE_SECONDS = 300;
+
+    /** Number of queued mails per worker. */
+    private static final int QUEUE_SIZE_PER_WORKER = 10;
+
+    /** MailTaskRepository. */
+    private final MailTaskRepository mailTaskRepository;
+
+    /** OrderRepository. */
+    private final OrderRepository orderRepository;
+
+    /** TicketService. */
+    private final TicketService ticketService;
+
+    /** MailService. */
+    private final MailService mailService;
+
+    /** Read only transaction in which the Order and Tickets of a mail are loaded. */
+    private final TransactionTemplate readOnlyTransaction;
+
+    /** Workers sending the mails. */
+    private final ThreadPoolExecutor workers;
+
+    /** Ids of the MailTasks handed to the workers and not finished yet. */
+    private final Set<Integer> inProgress = ConcurrentHashMap.newKeySet();
+
+    /** Maximum number of attempts to send a mail. */
+    private final int maxAttempts;
+
+    /** Number of seconds before the first retry, doubled for every next retry. */
+    private final long retryDelay;
+
+    /**
+     * MailOutboxServiceImpl constructor.
+     *
+     * @param mailTaskRepository of type MailTaskRepository
+     * @param orderRepository    of type OrderRepository
+     * @param ticketService      of type TicketService
+     * @param mailService        of type MailService
+     * @param transactionManager of type PlatformTransactionManager
+     * @param workerCount        number of workers
+     * @param maxAttempts        maximum number of attempts to send a mail
+     * @param retryDelay         number of seconds before the first retry
+     */
+    public MailOutboxServiceImpl(
+            MailTaskRepository mailTaskRepository,
+            OrderRepository orderRepository,
+            TicketService ticketService,
+            MailService mailService,
+            PlatformTransactionManager transactionManager,
+            @Value("${wisvch.events.mail.workers:4}") int workerCount,
+            @Value("${wisvch.events.mail.max-attempts:8}") int maxAttempts,
+            @Value("${wisvch.events.mail.retry-delay:30}") long retryDelay
+    ) {
+        this.mailTaskRepository = mailTaskRepository;
+        this.orderRepository = orderRepository;
+        this.ticketService = ticketService;
+        this.mailService = mailService;
+        this.maxAttempts = maxAttempts;
+        this.retryDelay = retryDelay;
+
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.workers = new ThreadPoolExecutor(
+                workerCount, workerCount, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(workerCount * QUEUE_SIZE_PER_WORKER),
+                new CustomizableThreadFactory("mail-worker-")
+        );
+    }
+
+    /**
+     * Add the confirmation mail of an Order to the outbox. Joins the current transaction, if any.
+     *
+     * @param order of type Order
+     */
+    @Override
+    public void enqueueOrderConfirmation(Order order) {
+        mailTaskRepository.save(new MailTask(order.getPublicReference()));
+    }
+
+    /**
+     * Hand the due mails of the outbox to the mail workers, as many as fit in their queue.
+     */
+    @Override
+    public void processDue() {
+        int capacity = workers.getQueue().remainingCapacity();
+        if (capacity == 0) {
+            return;
+        }
+
+        for (Integer id : mailTaskRepository.findDueIds(LocalDateTime.now(), PageRequest.of(0, capacity))) {
+            if (!inProgress.add(id)) {
+                continue;
+            }
+
+            try {
+                workers.execute(() -> {
+                    try {
+                        this.send(id);
+                    } finally {
+                        inProgress.remove(id);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                inProgress.remove(id);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Shut the workers down, mails that are not sent yet are sent after a restart.
+     */
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdown();
+    }
+
+    /**
+     * Claim and send a MailTask.
+     *
+     * @param id id of the MailTask
+     */
+    private void send(Integer id) {
+        LocalDateTime now = LocalDateTime.now();
+        if (mailTaskRepository.claim(id, now, now.plusSeconds(LEASE_SECONDS)) == 0) {
+            // Claimed by a worker of another instance.
+            return;
+        }
+
+        MailTask task = mailTaskRepository.findById(id).orElse(null);
+        if (task == null) {
+            return;
+        }
+
+        try {
+            Confirmation confirmation = readOnlyTransaction.execute(status -> {
+                Order order = orderRepository.findOneByPublicReference(task.getOrderReference())
+                        .orElseThrow(() -> new IllegalStateException("Order " + task.getOrderReference() + " not found"));
+
+                return new Confirmation(order, ticketService.getAllByOrder(order));
+            });
+
+            // Sent after the transaction ended, so no database connection is held during SMTP and pass requests.
+            mailService.sendOrderConfirmation(confirmation.order, confirmation.tickets);
+
+            task.setStatus(MailTaskStatus.SENT);
+            task.setLastError(null);
+        } catch (RuntimeException e) {
+            log.error("Mail task #" + id + " for order " + task.getOrderReference() + " failed on attempt "
+                    + task.getAttempts() + ": " + e.getMessage());
+            task.setLastError(e.toString());
+
+            if (task.getAttempts() >= maxAttempts) {
+                task.setStatus(MailTaskStatus.FAILED);
+            } else {
+                task.setStatus(MailTaskStatus.PENDING);
+                task.setNextAttemptAt(LocalDateTime.now().plusSeconds(retryDelay << (task.getAttempts() - 1)));
+            }
+        }
+
+        mailTaskRepository.save(task);
+    }
+
+    /**
+     * Order and its Tickets loaded for a confirmation mail, with all relations the mail needs initialized.
+     */
+    private static final class Confirmation {
+
+        /** Order the mail is about. */
+        private final Order order;
+
+        /** Tickets of the Order. */
+        private final List<Ticket> tickets;
+
+        /**
+         * Constructor Confirmation, must be called inside a transaction.
+         *
+         * @param order   of type Order
+         * @param tickets of type List<Ticket>
+         */
+        private Confirmation(Order order, List<Ticket> tickets) {
+            Hibernate.initialize(order.getOwner());
+            order.getOrderProducts().forEach(orderProduct -> Hibernate.initialize(orderProduct.getProduct()));
+            tickets.forEach(ticket -> {
+                Hibernate.initialize(ticket.getOwner());
+                Hibernate.initialize(ticket.getProduct());
+                Hibernate.initialize(ticket.getProduct().getEvent());
+            });
+
+            this.order = order;
+            this.tickets = tickets;
+        }
+    }
+}
@@ -1,22 +1,17 @@
 package ch.wisv.events.core.service.mail;
 
-import biweekly.util.IOUtils;
 import ch.wisv.events.core.model.customer.Customer;
 import ch.wisv.events.core.model.order.Order;
 import ch.wisv.events.core.model.ticket.Ticket;
 
-import java.awt.image.BufferedImage;
-import java.io.InputStream;
-import java.io.IOException;
-import java.net.URL;
 import java.util.List;
 import java.util.Locale;
 import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
 import jakarta.validation.constraints.NotNull;
 
+import ch.wisv.events.core.service.ticket.TicketImageService;
 import ch.wisv.events.core.service.ticket.TicketService;
-import ch.wisv.events.core.util.QrCode;
 import com.google.zxing.WriterException;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.ByteArrayResource;
@@ -47,6 +42,9 @@ public class MailServiceImpl implements MailService {
     /** TicketService. */
     private final TicketService ticketService;
 
+    /** TicketImageService. */
+    private final TicketImageService ticketImageService;
+
     /** Link to GTC. */
     @Value("${links.gtc}")
     @NotNull
@@ -65,12 +63,19 @@ public class MailServiceImpl implements MailService {
      *
      * @param mailSender     of type JavaMailSender
      * @param templateEngine of type templateEngine
-     * @param ticketService  of type TicketService
+     * @param ticketService      of type TicketService
+     * @param ticketImageService of type TicketImageService
      */
-    public MailServiceImpl(JavaMailSender mailSender, SpringTemplateEngine templateEngine, TicketService ticketService) {
+    public MailServiceImpl(
+            JavaMailSender mailSender,
+            SpringTemplateEngine templateEngine,
+            TicketService ticketService,
+            TicketImageService ticketImageService
+    ) {
         this.mailSender = mailSender;
         this.templateEngine = templateEngine;
         this.ticketService = ticketService;
+        this.ticketImageService = ticketImageService;
     }
 
     /**
@@ -186,17 +191,12 @@ private void sendMailWithContent(String recipientEmail, String subject, String c
                     String uniqueCode = ticket.getUniqueCode();
                     // Retrieve and return barcode (LEGACY)
                     if (uniqueCode.length() == 6){
-                        // Get barcode from url
-                        String url = "https://barcode.tec-it.com/barcode.ashx?data=978020" + uniqueCode + "&code=EAN13&multiplebarcodes=false&translate-esc=false&unit=Fit&dpi=96&imagetype=Gif&rotation=0&color=%23000000&bgcolor=%23FFFFFF&qunit=Mm&quiet=0";
-                        URL urlObj = new URL(url);
-                        InputStream is = urlObj.openStream();
-                        byte[] bytes = IOUtils.toByteArray(is);
-    
+                        byte[] bytes = ticketImageService.getBarcodePng(ticket);
+
                         // Attach image inline to message
                         message.addInline("ch-" + uniqueCode + ".png", new ByteArrayResource(bytes), "image/png");
                     } else {
-                        BufferedImage qrCode = QrCode.generateQrCode(uniqueCode);
-                        byte[] bytes = QrCode.bufferedImageToBytes(qrCode);
+                        byte[] bytes = ticketImageService.getQrCodePng(ticket);
                         message.addInline("ch-" + uniqueCode + ".png", new ByteArrayResource(bytes), "image/png");
 
                         // Get wallet passes
@@ -213,7 +213,7 @@ private void sendMailWithContent(String recipientEmail, String subject, String c
 
             // Send mail
             this.mailSender.send(mimeMessage);
-        } catch (MessagingException | IOException | WriterException  e) {
+        } catch (MessagingException | WriterException e) {
             throw new MailPreparationException("Unable to prepare email", e.getCause());
         } catch (MailException m) {
             throw new MailSendException("Unable to send email", m.getCause());
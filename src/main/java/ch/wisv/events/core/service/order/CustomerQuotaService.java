@@ -0,0 +1,22 @@
+package ch.wisv.events.core.service.order;
+
+import ch.wisv.events.core.model.customer.Customer;
+import ch.wisv.events.core.model.order.CustomerQuota;
+import ch.wisv.events.core.model.order.Order;
+import java.util.List;
+
+/**
+ * CustomerQuotaService interface.
+ */
+public interface CustomerQuotaService {
+
+    /**
+     * Get the limits of a Customer on the product families in an Order which have a maximum per customer.
+     *
+     * @param order    of type Order
+     * @param customer of type Customer
+     *
+     * @return List of CustomerQuota
+     */
+    List<CustomerQuota> getQuotas(Order order, Customer customer);
+}
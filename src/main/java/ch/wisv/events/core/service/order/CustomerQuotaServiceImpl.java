@@ -0,0 +1,91 @@
+package ch.wisv.events.core.service.order;
+
+import ch.wisv.events.core.model.customer.Customer;
+import ch.wisv.events.core.model.order.CustomerQuota;
+import ch.wisv.events.core.model.order.Order;
+import ch.wisv.events.core.model.order.OrderProduct;
+import ch.wisv.events.core.model.product.Product;
+import ch.wisv.events.core.repository.OrderRepository;
+import com.google.common.collect.ImmutableList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.springframework.stereotype.Service;
+
+/**
+ * CustomerQuotaServiceImpl class. The tickets held and reserved by a Customer are counted per product family with a
+ * single aggregate query, so the number of queries does not depend on the size of the Order or on the number of
+ * tickets of the Customer.
+ */
+@Service
+public class CustomerQuotaServiceImpl implements CustomerQuotaService {
+
+    /** OrderRepository. */
+    private final OrderRepository orderRepository;
+
+    /**
+     * CustomerQuotaServiceImpl constructor.
+     *
+     * @param orderRepository of type OrderRepository
+     */
+    public CustomerQuotaServiceImpl(OrderRepository orderRepository) {
+        this.orderRepository = orderRepository;
+    }
+
+    /**
+     * Get the limits of a Customer on the product families in an Order which have a maximum per customer.
+     *
+     * @param order    of type Order
+     * @param customer of type Customer
+     *
+     * @return List of CustomerQuota, in the order of the OrderProducts
+     */
+    @Override
+    public List<CustomerQuota> getQuotas(Order order, Customer customer) {
+        Map<Integer, Integer> limits = new LinkedHashMap<>();
+        Map<Integer, Integer> requested = new HashMap<>();
+        for (OrderProduct orderProduct : order.getOrderProducts()) {
+            Product product = orderProduct.getProduct();
+            Integer maxSoldPerCustomer = product.getMaxSoldPerCustomer();
+            if (maxSoldPerCustomer == null) {
+                continue;
+            }
+
+            Integer productId = this.getRootProduct(product).getId();
+            limits.putIfAbsent(productId, maxSoldPerCustomer);
+            requested.merge(productId, orderProduct.getAmount().intValue(), Integer::sum);
+        }
+
+        if (limits.isEmpty()) {
+            return ImmutableList.of();
+        }
+
+        Map<Integer, Integer> held = new HashMap<>();
+        if (customer.getId() != null) {
+            orderRepository.countHeldPerProductFamily(customer.getId(), limits.keySet())
+                    .forEach(count -> held.put(count.getProductId(), count.getAmount()));
+        }
+
+        return limits.entrySet().stream()
+                .map(limit -> new CustomerQuota(
+                        limit.getKey(),
+                        limit.getValue(),
+                        held.getOrDefault(limit.getKey(), 0),
+                        requested.get(limit.getKey())
+                ))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Get the root of the product family, which is the parent product or the product itself.
+     *
+     * @param product of type Product
+     *
+     * @return Product
+     */
+    private Product getRootProduct(Product product) {
+        return product.getParentProduct() != null ? product.getParentProduct() : product;
+    }
+}
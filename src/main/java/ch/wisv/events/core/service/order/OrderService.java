@@ -10,6 +10,7 @@
 import ch.wisv.events.core.model.order.OrderStatus;
 import ch.wisv.events.core.model.product.Product;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -154,6 +155,15 @@ public interface OrderService {
      */
     void delete(Order order);
 
+    /**
+     * Delete the ANONYMOUS and ASSIGNED Orders created before a moment, together with their OrderProducts.
+     *
+     * @param createdBefore of type LocalDateTime
+     *
+     * @return number of deleted Orders
+     */
+    int deleteAbandoned(LocalDateTime createdBefore);
+
     Order saveAndFlush(Order order);
 
 }
@@ -4,6 +4,7 @@
 import ch.wisv.events.core.exception.normal.OrderInvalidException;
 import ch.wisv.events.core.exception.normal.OrderNotFoundException;
 import ch.wisv.events.core.exception.normal.ProductNotFoundException;
+import ch.wisv.events.core.exception.normal.ProductSoldOutException;
 import ch.wisv.events.core.model.customer.Customer;
 import ch.wisv.events.core.model.order.Order;
 import ch.wisv.events.core.model.order.OrderProduct;
@@ -21,9 +22,9 @@
 import static ch.wisv.events.core.model.order.OrderStatus.RESERVATION;
 
 import ch.wisv.events.core.model.product.Product;
-import ch.wisv.events.core.model.ticket.Ticket;
 import ch.wisv.events.core.repository.OrderProductRepository;
 import ch.wisv.events.core.repository.OrderRepository;
+import ch.wisv.events.core.service.mail.MailOutboxService;
 import ch.wisv.events.core.service.mail.MailService;
 import ch.wisv.events.core.service.product.ProductService;
 import ch.wisv.events.core.service.ticket.TicketService;
@@ -38,10 +39,12 @@
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
-import org.springframework.mail.MailSendException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 /**
  * OrderServiceImpl class.
@@ -50,6 +53,12 @@
 @Service
 public class OrderServiceImpl implements OrderService {
 
+    /** Number of abandoned Orders deleted per transaction. */
+    private static final int CLEAN_UP_BATCH_SIZE = 500;
+
+    /** Number of attempts of a status change that conflicts with concurrent changes of the Order. */
+    private static final int MAX_STATUS_CHANGE_ATTEMPTS = 5;
+
     /**
      * OrderRepository.
      */
@@ -80,12 +89,28 @@ public class OrderServiceImpl implements OrderService {
      */
     private final TicketService ticketService;
 
+    /**
+     * MailOutboxService.
+     */
+    private final MailOutboxService mailOutboxService;
+
+    /**
+     * TransactionTemplate.
+     */
+    private final TransactionTemplate transactionTemplate;
+
     /**
      * Possible administration costs value
      */
     @Value("${administrationCosts}")
     private double administrationCosts;
 
+    /**
+     * Number of days a reservation is valid.
+     */
+    @Value("${wisvch.events.reservation.validity:3}")
+    private long reservationValidity;
+
     /**
      * Constructor OrderServiceImpl creates a new OrderServiceImpl instance.
      *
@@ -95,13 +120,16 @@ public class OrderServiceImpl implements OrderService {
      * @param productService         of type ProductService
      * @param mailService            of type MailService
      * @param ticketService          of type TicketService
+     * @param mailOutboxService      of type MailOutboxService
+     * @param transactionManager     of type PlatformTransactionManager
      */
     @Autowired
     public OrderServiceImpl(
             OrderRepository orderRepository, OrderProductRepository orderProductRepository,
             OrderValidationService orderValidationService, ProductService productService,
             MailService mailService, TicketService
-                    ticketService
+                    ticketService,
+            MailOutboxService mailOutboxService, PlatformTransactionManager transactionManager
     ) {
         this.orderRepository = orderRepository;
         this.orderProductRepository = orderProductRepository;
@@ -109,6 +137,8 @@ public OrderServiceImpl(
         this.productService = productService;
         this.mailService = mailService;
         this.ticketService = ticketService;
+        this.mailOutboxService = mailOutboxService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
     /**
@@ -198,34 +228,30 @@ public void update(Order order) throws OrderNotFoundException, OrderInvalidExcep
     }
 
     /**
-     * Update OrderStatus of an Order.
+     * Update OrderStatus of an Order. The status change, the product counts and the created tickets are stored in a
+     * single transaction. When the Order has been changed concurrently, detected by its version, the status change is
+     * retried on the current state of the Order, so it is validated against the status set by the other change.
      *
      * @param order  of type Order
      * @param status of type OrderStatus
+     * @throws ProductSoldOutException when the products in the Order are sold out
      */
     @Override
-    public void updateOrderStatus(Order order, OrderStatus status) throws OrderInvalidException {
-        OrderStatus prevStatus = order.getStatus();
-        log.info("Order " + order.getPublicReference() + ": Update status from " + prevStatus + " to " + status);
-
-        this.assertValidStatusChange(order, status);
-        order.setStatus(status);
+    public void updateOrderStatus(Order order, OrderStatus status) throws OrderInvalidException, ProductSoldOutException {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                this.changeOrderStatus(order, status);
+
+                return;
+            } catch (ConcurrencyFailureException e) {
+                if (attempt >= MAX_STATUS_CHANGE_ATTEMPTS || order.getId() == null) {
+                    throw e;
+                }
+                log.info("Order " + order.getPublicReference() + ": Changed concurrently, retrying status change to " + status);
 
-        switch (status) {
-            case PAID:
-                this.updateOrderStatusToPaid(order, prevStatus);
-                break;
-            case RESERVATION:
-                this.updateOrderStatusToReservation(order);
-                break;
-            case REJECTED:
-                this.updateOrderStatusToRejected(order, prevStatus);
-                break;
-            default:
-                break;
+                orderRepository.findById(order.getId()).ifPresent(current -> this.copyState(current, order));
+            }
         }
-
-        orderRepository.saveAndFlush(order);
     }
 
     /**
@@ -357,6 +383,49 @@ public void delete(Order order) {
         orderRepository.delete(order);
     }
 
+    /**
+     * Delete the ANONYMOUS and ASSIGNED Orders created before a moment, together with their OrderProducts. The Orders
+     * are deleted in batches, each in its own transaction, without loading them.
+     *
+     * @param createdBefore of type LocalDateTime
+     *
+     * @return number of deleted Orders
+     */
+    @Override
+    public int deleteAbandoned(LocalDateTime createdBefore) {
+        int deleted = 0;
+        int batch;
+        do {
+            batch = transactionTemplate.execute(status -> this.deleteAbandonedBatch(createdBefore));
+            deleted += batch;
+        } while (batch == CLEAN_UP_BATCH_SIZE);
+
+        return deleted;
+    }
+
+    /**
+     * Delete a single batch of abandoned Orders.
+     *
+     * @param createdBefore of type LocalDateTime
+     *
+     * @return number of deleted Orders
+     */
+    private int deleteAbandonedBatch(LocalDateTime createdBefore) {
+        List<Integer> orderIds = orderRepository.findIdsByStatusInAndCreatedAtBefore(
+                ImmutableList.of(ANONYMOUS, ASSIGNED), createdBefore, PageRequest.of(0, CLEAN_UP_BATCH_SIZE));
+        if (orderIds.isEmpty()) {
+            return 0;
+        }
+
+        List<Integer> orderProductIds = orderRepository.findOrderProductIdsByOrderIds(orderIds);
+        orderRepository.deleteOrderProductLinksByOrderIds(orderIds);
+        if (!orderProductIds.isEmpty()) {
+            orderProductRepository.deleteAllByIdIn(orderProductIds);
+        }
+
+        return orderRepository.deleteAllByIdIn(orderIds);
+    }
+
     /**
      * Saves and flushes an Order.
      *
@@ -367,6 +436,88 @@ public Order saveAndFlush(Order order) {
         return orderRepository.saveAndFlush(order);
     }
 
+    /**
+     * Change the OrderStatus of an Order in a single transaction.
+     *
+     * @param order  of type Order
+     * @param status of type OrderStatus
+     * @throws OrderInvalidException   when status change is invalid.
+     * @throws ProductSoldOutException when the products in the Order are sold out
+     */
+    private void changeOrderStatus(Order order, OrderStatus status) throws OrderInvalidException, ProductSoldOutException {
+        OrderStatus prevStatus = order.getStatus();
+        log.info("Order " + order.getPublicReference() + ": Update status from " + prevStatus + " to " + status);
+
+        this.assertValidStatusChange(order, status);
+        order.setStatus(status);
+
+        try {
+            Order saved = transactionTemplate.execute(tx -> {
+                Order managed = orderRepository.save(order);
+                try {
+                    switch (status) {
+                        case PENDING:
+                            this.updateOrderStatusToPending(managed, prevStatus);
+                            break;
+                        case PAID:
+                            this.updateOrderStatusToPaid(managed, prevStatus);
+                            break;
+                        case RESERVATION:
+                            this.updateOrderStatusToReservation(managed);
+                            break;
+                        case REJECTED:
+                            this.updateOrderStatusToRejected(managed, prevStatus);
+                            break;
+                        case EXPIRED:
+                            this.updateOrderStatusToExpired(managed, prevStatus);
+                            break;
+                        case ASSIGNED:
+                        case CANCELLED:
+                        case ERROR:
+                            this.releasePendingProducts(managed, prevStatus);
+                            break;
+                        default:
+                            break;
+                    }
+                } catch (ProductSoldOutException e) {
+                    throw new SoldOutRollbackException(e);
+                }
+
+                return orderRepository.saveAndFlush(managed);
+            });
+            this.copyState(saved, order);
+        } catch (SoldOutRollbackException e) {
+            // The product counts are rolled back, so the Order keeps its previous status.
+            order.setStatus(prevStatus);
+            throw e.getCause();
+        } catch (RuntimeException e) {
+            order.setStatus(prevStatus);
+            throw e;
+        }
+
+        if (status == RESERVATION) {
+            mailService.sendOrderReservation(order);
+        }
+    }
+
+    /**
+     * Copy the state changed by a status change from one instance of an Order to another.
+     *
+     * @param from of type Order
+     * @param to   of type Order
+     */
+    private void copyState(Order from, Order to) {
+        if (from == to) {
+            return;
+        }
+
+        to.setStatus(from.getStatus());
+        to.setVersion(from.getVersion());
+        to.setPaidAt(from.getPaidAt());
+        to.setExpiresAt(from.getExpiresAt());
+        to.setTicketCreated(from.isTicketCreated());
+    }
+
     /**
      * Assert if the status change is valid.
      *
@@ -399,27 +550,26 @@ private void assertValidStatusChange(Order order, OrderStatus status) throws Ord
      *
      * @param order      of type Order
      * @param prevStatus of type OrderStatus
+     * @throws ProductSoldOutException when the products are sold out
      */
-    private void updateOrderStatusToPaid(Order order, OrderStatus prevStatus) {
-        List<Ticket> tickets = ticketService.createByOrder(order);
+    private void updateOrderStatusToPaid(Order order, OrderStatus prevStatus) throws ProductSoldOutException {
+        switch (prevStatus) {
+            case RESERVATION:
+            case PENDING:
+                productService.moveReservedToSold(order);
+                break;
+            default:
+                productService.increaseProductCount(order, false, false);
+        }
+
+        ticketService.createByOrder(order);
 
         order.setTicketCreated(true);
         order.setPaidAt(LocalDateTime.now());
 
-        productService.increaseProductCount(order, false, false);
-        if (prevStatus == OrderStatus.RESERVATION) {
-            productService.increaseProductCount(order, true, true);
-        }
-
-        orderRepository.saveAndFlush(order);
+        // The confirmation mail is sent by the mail workers, it is stored together with the status change.
+        mailOutboxService.enqueueOrderConfirmation(order);
         log.info("Order " + order.getPublicReference() + ": Status changed to PAID and tickets created!");
-
-        try {
-            mailService.sendOrderConfirmation(order, tickets);
-        } catch (MailSendException e) {
-            log.error("Failed to send confirmation email for order '" + order.getPublicReference() + "'!");
-            log.error(e.toString());
-        }
     }
 
     /**
@@ -428,7 +578,7 @@ private void updateOrderStatusToPaid(Order order, OrderStatus prevStatus) {
      * @param order      of type Order
      * @param prevStatus of type OrderStatus
      */
-    private void updateOrderStatusToRejected(Order order, OrderStatus prevStatus) {
+    private void updateOrderStatusToRejected(Order order, OrderStatus prevStatus) throws ProductSoldOutException {
         switch (prevStatus) {
             case PAID:
                 productService.increaseProductCount(order, false, true);
@@ -439,20 +589,76 @@ private void updateOrderStatusToRejected(Order order, OrderStatus prevStatus) {
                 break;
             default:
         }
+    }
 
-        orderRepository.saveAndFlush(order);
+    /**
+     * Update order status to expired, releasing the reserved products of a reservation or a pending payment.
+     *
+     * @param order      of type Order
+     * @param prevStatus of type OrderStatus
+     */
+    private void updateOrderStatusToExpired(Order order, OrderStatus prevStatus) throws ProductSoldOutException {
+        if (prevStatus == RESERVATION || prevStatus == PENDING) {
+            productService.increaseProductCount(order, true, true);
+        }
+    }
+
+    /**
+     * Update order status to pending. The products are reserved within their limit before the customer is sent to
+     * the payment provider, so a sold out product is reported before the customer pays.
+     *
+     * @param order      of type Order
+     * @param prevStatus of type OrderStatus
+     * @throws ProductSoldOutException when the products are sold out
+     */
+    private void updateOrderStatusToPending(Order order, OrderStatus prevStatus) throws ProductSoldOutException {
+        if (prevStatus != PENDING) {
+            productService.increaseProductCount(order, true, false);
+        }
+    }
+
+    /**
+     * Release the products reserved by a pending payment that did not succeed.
+     *
+     * @param order      of type Order
+     * @param prevStatus of type OrderStatus
+     */
+    private void releasePendingProducts(Order order, OrderStatus prevStatus) throws ProductSoldOutException {
+        if (prevStatus == PENDING) {
+            productService.increaseProductCount(order, true, true);
+        }
     }
 
     /**
      * Update order status to reservation.
      *
      * @param order of type Order
+     * @throws ProductSoldOutException when the products are sold out
      */
-    private void updateOrderStatusToReservation(Order order) {
-        mailService.sendOrderReservation(order);
+    private void updateOrderStatusToReservation(Order order) throws ProductSoldOutException {
         productService.increaseProductCount(order, true, false);
+        order.setExpiresAt(LocalDateTime.now().plusDays(reservationValidity));
 
         log.info("Order " + order.getPublicReference() + ": Status changed to RESERVATION!");
-        orderRepository.saveAndFlush(order);
+    }
+
+    /**
+     * Carries a ProductSoldOutException out of the status change transaction, rolling it back.
+     */
+    private static class SoldOutRollbackException extends RuntimeException {
+
+        /**
+         * SoldOutRollbackException constructor.
+         *
+         * @param cause of type ProductSoldOutException
+         */
+        SoldOutRollbackException(ProductSoldOutException cause) {
+            super(cause);
+        }
+
+        @Override
+        public synchronized ProductSoldOutException getCause() {
+            return (ProductSoldOutException) super.getCause();
+        }
     }
 }
@@ -1,22 +1,20 @@
 package ch.wisv.events.core.service.order;
 
-import ch.wisv.events.core.exception.normal.EventNotFoundException;
 import ch.wisv.events.core.exception.normal.OrderExceedCustomerLimitException;
 import ch.wisv.events.core.exception.normal.OrderExceedEventLimitException;
 import ch.wisv.events.core.exception.normal.OrderExceedProductLimitException;
 import ch.wisv.events.core.exception.normal.OrderInvalidException;
 import ch.wisv.events.core.model.customer.Customer;
 import ch.wisv.events.core.model.event.Event;
+import ch.wisv.events.core.model.order.CustomerQuota;
 import ch.wisv.events.core.model.order.Order;
 import ch.wisv.events.core.model.order.OrderProduct;
 import ch.wisv.events.core.model.order.OrderStatus;
 import ch.wisv.events.core.model.product.Product;
-import ch.wisv.events.core.repository.OrderRepository;
 import ch.wisv.events.core.service.event.EventService;
-import ch.wisv.events.core.service.product.ProductService;
-import ch.wisv.events.core.service.ticket.TicketService;
 import java.time.LocalDateTime;
-import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
@@ -27,14 +25,8 @@
 @Service
 public class OrderValidationServiceImpl implements OrderValidationService {
 
-    /** OrderService. */
-    private final OrderRepository orderRepository;
-
-    /** TicketService. */
-    private final TicketService ticketService;
-
-    /** ProductService. */
-    private final ProductService productService;
+    /** CustomerQuotaService. */
+    private final CustomerQuotaService customerQuotaService;
 
     /** EventService. */
     private final EventService eventService;
@@ -48,15 +40,12 @@ public class OrderValidationServiceImpl implements OrderValidationService {
     /**
      * OrderValidationServiceImpl constructor.
      *
-     * @param orderRepository of type OrderRepository
-     * @param ticketService   of type TicketService
-     * @param eventService    of type EventService
+     * @param customerQuotaService of type CustomerQuotaService
+     * @param eventService         of type EventService
      */
     @Autowired
-    public OrderValidationServiceImpl(OrderRepository orderRepository, TicketService ticketService, ProductService productService, EventService eventService) {
-        this.orderRepository = orderRepository;
-        this.ticketService = ticketService;
-        this.productService = productService;
+    public OrderValidationServiceImpl(CustomerQuotaService customerQuotaService, EventService eventService) {
+        this.customerQuotaService = customerQuotaService;
         this.eventService = eventService;
     }
 
@@ -83,33 +72,9 @@ public void assertOrderIsValid(Order order) throws OrderInvalidException, OrderE
      */
     @Override
     public void assertOrderIsValidForCustomer(Order order, Customer customer) throws OrderExceedCustomerLimitException {
-        List<Order> reservationOrders = orderRepository.findAllByOwnerAndStatus(customer, OrderStatus.RESERVATION);
-
-        for (OrderProduct orderProduct : order.getOrderProducts()) {
-            Integer maxSoldPerCustomer = orderProduct.getProduct().getMaxSoldPerCustomer();
-
-            if (maxSoldPerCustomer == null) {
-                continue;
-            }
-
-            List<Product> relatedProducts = productService.getRelatedProducts(orderProduct.getProduct());
-
-            int ticketSold = ticketService.getAllByProductsAndCustomer(relatedProducts, customer).size();
-
-            ticketSold += reservationOrders.stream()
-                    .mapToInt(reservationOrder -> reservationOrder.getOrderProducts().stream()
-                            .filter(reservationOrderProduct -> relatedProducts.contains(reservationOrderProduct.getProduct()))
-                            .mapToInt(reservationOrderProduct -> reservationOrderProduct.getAmount().intValue())
-                            .sum()
-                    ).sum();
-
-            int tryingToOrder = order.getOrderProducts().stream()
-                    .filter(relatedOrderProduct -> relatedProducts.contains(relatedOrderProduct.getProduct()))
-                    .mapToInt(relatedOrderProduct -> relatedOrderProduct.getAmount().intValue())
-                    .sum();
-
-            if (ticketSold + tryingToOrder > maxSoldPerCustomer) {
-                throw new OrderExceedCustomerLimitException(maxSoldPerCustomer - ticketSold);
+        for (CustomerQuota quota : customerQuotaService.getQuotas(order, customer)) {
+            if (quota.isExceeded()) {
+                throw new OrderExceedCustomerLimitException(quota.getRemaining());
             }
         }
     }
@@ -183,19 +148,19 @@ private void assertDefaultOrderChecks(Order order) throws OrderInvalidException
      * @throws OrderExceedEventLimitException when Event limit will be exceeded.
      */
     private void assertOrderNotExceedEventLimit(Order order) throws OrderExceedEventLimitException {
+        Map<Integer, Event> events = eventService.getByProducts(order.getOrderProducts().stream()
+                .map(OrderProduct::getProduct)
+                .collect(Collectors.toList()));
+
         for (OrderProduct orderProduct : order.getOrderProducts()) {
-            try {
-                Event event = eventService.getByProduct(orderProduct.getProduct());
-                int ticketSold = event.getSold() + event.getReserved();
-
-                if (event.getMaxSold() == null) {
-                    continue;
-                }
-
-                if (ticketSold + orderProduct.getAmount() > event.getMaxSold()) {
-                    throw new OrderExceedEventLimitException(event.getMaxSold() - ticketSold);
-                }
-            } catch (EventNotFoundException ignored) {
+            Event event = events.get(orderProduct.getProduct().getId());
+            if (event == null || event.getMaxSold() == null) {
+                continue;
+            }
+
+            int ticketSold = event.getSold() + event.getReserved();
+            if (ticketSold + orderProduct.getAmount() > event.getMaxSold()) {
+                throw new OrderExceedEventLimitException(event.getMaxSold() - ticketSold);
             }
         }
     }
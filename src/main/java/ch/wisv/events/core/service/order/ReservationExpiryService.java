@@ -0,0 +1,12 @@
+package ch.wisv.events.core.service.order;
+
+/**
+ * ReservationExpiryService interface.
+ */
+public interface ReservationExpiryService {
+
+    /**
+     * Load the reservations expiring soon and set a timer expiring each of them at its deadline.
+     */
+    void scheduleUpcoming();
+}
@@ -0,0 +1,121 @@
+package ch.wisv.events.core.service.order;
+
+import ch.wisv.events.core.exception.normal.EventsException;
+import ch.wisv.events.core.model.order.Order;
+import ch.wisv.events.core.model.order.OrderStatus;
+import ch.wisv.events.core.model.order.ReservationExpiry;
+import ch.wisv.events.core.repository.OrderRepository;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+/**
+ * ReservationExpiryServiceImpl class. The reservations expiring within the horizon are loaded from the database and
+ * kept in a timer queue, which expires every reservation at its deadline. Only the upcoming expiries are held in
+ * memory, so the horizon has to be longer than the interval between two loads.
+ */
+@Service
+@Slf4j
+public class ReservationExpiryServiceImpl implements ReservationExpiryService {
+
+    /** OrderRepository. */
+    private final OrderRepository orderRepository;
+
+    /** OrderService. */
+    private final OrderService orderService;
+
+    /** Timers expiring the reservations. */
+    private final ScheduledThreadPoolExecutor timers;
+
+    /** Public references of the reservations with a timer. */
+    private final Set<String> scheduled = ConcurrentHashMap.newKeySet();
+
+    /** Number of minutes ahead the upcoming expiries are loaded. */
+    private final long horizon;
+
+    /**
+     * ReservationExpiryServiceImpl constructor.
+     *
+     * @param orderRepository of type OrderRepository
+     * @param orderService    of type OrderService
+     * @param horizon         number of minutes ahead the upcoming expiries are loaded
+     */
+    public ReservationExpiryServiceImpl(
+            OrderRepository orderRepository,
+            OrderService orderService,
+            @Value("${wisvch.events.reservation.expiry-horizon:30}") long horizon
+    ) {
+        this.orderRepository = orderRepository;
+        this.orderService = orderService;
+        this.horizon = horizon;
+
+        this.timers = new ScheduledThreadPoolExecutor(1, new CustomizableThreadFactory("reservation-expiry-"));
+        this.timers.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+    }
+
+    /**
+     * Load the reservations expiring within the horizon and set a timer expiring each of them at its deadline.
+     * Reservations that are overdue, for example after a restart, are expired right away.
+     */
+    @Override
+    public void scheduleUpcoming() {
+        for (ReservationExpiry expiry : orderRepository.findReservationExpiries(LocalDateTime.now().plusMinutes(horizon))) {
+            if (scheduled.add(expiry.getPublicReference())) {
+                this.schedule(expiry.getPublicReference(), expiry.getExpiresAt());
+            }
+        }
+    }
+
+    /**
+     * Cancel the timers, the reservations are loaded again after a restart.
+     */
+    @PreDestroy
+    public void shutdown() {
+        timers.shutdownNow();
+    }
+
+    /**
+     * Set the timer of a reservation.
+     *
+     * @param reference public reference of the Order
+     * @param expiresAt moment at which the reservation expires
+     */
+    private void schedule(String reference, LocalDateTime expiresAt) {
+        long delay = Math.max(0, Duration.between(LocalDateTime.now(), expiresAt).toMillis());
+        timers.schedule(() -> this.expire(reference), delay, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Expire a reservation when it is still a reservation and its deadline has passed. A timer that went off just
+     * before the deadline is set again.
+     *
+     * @param reference public reference of the Order
+     */
+    private void expire(String reference) {
+        try {
+            Order order = orderService.getByReference(reference);
+            if (order.getStatus() != OrderStatus.RESERVATION || order.getExpiresAt() == null) {
+                scheduled.remove(reference);
+                return;
+            }
+            if (order.getExpiresAt().isAfter(LocalDateTime.now())) {
+                this.schedule(reference, order.getExpiresAt());
+                return;
+            }
+
+            orderService.updateOrderStatus(order, OrderStatus.EXPIRED);
+            log.info("Order " + reference + ": Has been EXPIRED!");
+        } catch (EventsException | RuntimeException e) {
+            log.error("Order " + reference + ": Could not expire reservation: " + e.getMessage());
+        }
+        scheduled.remove(reference);
+    }
+}
@@ -3,6 +3,7 @@
 import ch.wisv.events.api.request.ProductDto;
 import ch.wisv.events.core.exception.normal.ProductInvalidException;
 import ch.wisv.events.core.exception.normal.ProductNotFoundException;
+import ch.wisv.events.core.exception.normal.ProductSoldOutException;
 import ch.wisv.events.core.model.order.Order;
 import ch.wisv.events.core.model.product.Product;
 import java.util.List;
@@ -91,12 +92,22 @@ public interface ProductService {
     void delete(Product product);
 
     /**
-     * Change Product sold count.
+     * Change Product sold count. An increase is only applied when it fits within the maxSold of every product
+     * (family) in the Order, otherwise none of the counts are changed.
      *
      * @param order            of type Order
      * @param reservationCount of type boolean
      * @param decrease         of type boolean
+     *
+     * @throws ProductSoldOutException when an increase exceeds the maxSold of a Product
+     */
+    void increaseProductCount(Order order, boolean reservationCount, boolean decrease) throws ProductSoldOutException;
+
+    /**
+     * Move the reserved Product count of an Order to the sold count.
+     *
+     * @param order of type Order
      */
-    void increaseProductCount(Order order, boolean reservationCount, boolean decrease);
+    void moveReservedToSold(Order order);
 
 }
@@ -3,33 +3,45 @@
 import ch.wisv.events.api.request.ProductDto;
 import ch.wisv.events.core.exception.normal.ProductInvalidException;
 import ch.wisv.events.core.exception.normal.ProductNotFoundException;
+import ch.wisv.events.core.exception.normal.ProductSoldOutException;
 import ch.wisv.events.core.exception.runtime.ProductAlreadyLinkedException;
+import ch.wisv.events.core.model.event.CatalogChangedEvent;
 import ch.wisv.events.core.model.order.Order;
+import ch.wisv.events.core.model.order.OrderProduct;
 import ch.wisv.events.core.model.product.Product;
 import ch.wisv.events.core.repository.ProductRepository;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 /**
  * ProductServiceImpl class.
  */
 @Service
+@Slf4j
 public class ProductServiceImpl implements ProductService {
 
     /** ProductRepository. */
     private final ProductRepository productRepository;
 
+    /** ApplicationEventPublisher. */
+    private final ApplicationEventPublisher applicationEventPublisher;
+
     /**
      * Constructor ProductServiceImpl creates a new ProductServiceImpl instance.
      *
-     * @param productRepository of type ProductRepository
+     * @param productRepository         of type ProductRepository
+     * @param applicationEventPublisher of type ApplicationEventPublisher
      */
     @Autowired
-    public ProductServiceImpl(ProductRepository productRepository) {
+    public ProductServiceImpl(ProductRepository productRepository, ApplicationEventPublisher applicationEventPublisher) {
         this.productRepository = productRepository;
+        this.applicationEventPublisher = applicationEventPublisher;
     }
 
     /**
@@ -162,10 +174,6 @@ public void update(Product product) throws ProductNotFoundException, ProductInva
         model.setReservable(product.isReservable());
         model.setParentProduct(product.getParentProduct());
 
-        if (product.getSold() != 0) {
-            model.setSold(product.getSold());
-        }
-
         this.updateLinkedProducts(product, model.getProducts(), true);
         productRepository.save(model);
     }
@@ -185,24 +193,112 @@ public void delete(Product product) {
     }
 
     /**
-     * Change Product sold count.
+     * Change Product sold count. The counts are updated in the database, so concurrent orders can not overwrite each
+     * others count. An increase locks the parent product of each product family, in a fixed order to prevent
+     * deadlocks, and is only applied when the family stays within its maxSold.
      *
      * @param order            of type Order
      * @param reservationCount of type boolean
      * @param decrease         of type boolean
+     *
+     * @throws ProductSoldOutException when an increase exceeds the maxSold of a Product
      */
     @Override
-    public void increaseProductCount(Order order, boolean reservationCount, boolean decrease) {
-        order.getOrderProducts().forEach(orderProduct -> {
+    @Transactional(rollbackFor = ProductSoldOutException.class)
+    public void increaseProductCount(Order order, boolean reservationCount, boolean decrease) throws ProductSoldOutException {
+        List<OrderProduct> orderProducts = this.sortByRootProduct(order);
+
+        for (OrderProduct orderProduct : orderProducts) {
+            Product product = orderProduct.getProduct();
+            int amount = orderProduct.getAmount().intValue();
+
+            if (decrease) {
+                if (reservationCount) {
+                    productRepository.increaseReserved(product.getId(), -amount);
+                } else {
+                    productRepository.increaseSold(product.getId(), -amount);
+                }
+                continue;
+            }
+
+            Integer rootId = this.getRootProduct(product).getId();
+            productRepository.lockById(rootId);
+
+            int updated = reservationCount
+                    ? productRepository.increaseReservedWithinLimit(product.getId(), rootId, amount)
+                    : productRepository.increaseSoldWithinLimit(product.getId(), rootId, amount);
+
+            if (updated == 0) {
+                throw new ProductSoldOutException(product.getTitle());
+            }
+        }
+        this.publishCountsChanged();
+
+        // Only keep the loaded entities in line once all counts have been applied.
+        orderProducts.forEach(orderProduct -> {
+            int amount = orderProduct.getAmount().intValue() * (decrease ? -1 : 1);
             if (reservationCount) {
-                orderProduct.getProduct().increaseReserved(orderProduct.getAmount().intValue() * (decrease ? -1 : 1));
+                orderProduct.getProduct().increaseReserved(amount);
             } else {
-                orderProduct.getProduct().increaseSold(orderProduct.getAmount().intValue() * (decrease ? -1 : 1));
+                orderProduct.getProduct().increaseSold(amount);
             }
-            productRepository.saveAndFlush(orderProduct.getProduct());
         });
     }
 
+    /**
+     * Move the reserved Product count of an Order to the sold count.
+     *
+     * @param order of type Order
+     */
+    @Override
+    @Transactional
+    public void moveReservedToSold(Order order) {
+        order.getOrderProducts().forEach(orderProduct -> {
+            Product product = orderProduct.getProduct();
+            int amount = orderProduct.getAmount().intValue();
+
+            productRepository.moveReservedToSold(product.getId(), amount);
+            product.increaseReserved(-amount);
+            product.increaseSold(amount);
+        });
+        this.publishCountsChanged();
+    }
+
+    /**
+     * Publish a CatalogChangedEvent after the counts have changed. The counts are changed by bulk updates, which do
+     * not trigger the entity listeners, while read models of the catalog show whether Products are sold out.
+     */
+    private void publishCountsChanged() {
+        applicationEventPublisher.publishEvent(new CatalogChangedEvent(true));
+    }
+
+    /**
+     * Get the root of the product family, which is the parent product or the product itself.
+     *
+     * @param product of type Product
+     *
+     * @return Product
+     */
+    private Product getRootProduct(Product product) {
+        return product.getParentProduct() != null ? product.getParentProduct() : product;
+    }
+
+    /**
+     * Sort the OrderProducts of an Order by the id of their product family, so locks are always taken in the same
+     * order.
+     *
+     * @param order of type Order
+     *
+     * @return List of OrderProducts
+     */
+    private List<OrderProduct> sortByRootProduct(Order order) {
+        return order.getOrderProducts().stream()
+                .sorted(Comparator.comparing(
+                        (OrderProduct orderProduct) -> this.getRootProduct(orderProduct.getProduct()).getId(),
+                        Comparator.nullsLast(Comparator.<Integer>naturalOrder())))
+                .collect(Collectors.toList());
+    }
+
     /**
      * Method assertIsValidProduct ...
      *
@@ -0,0 +1,58 @@
+package ch.wisv.events.core.service.queue;
+
+import ch.wisv.events.core.exception.normal.AdmissionQueueTokenInvalidException;
+import ch.wisv.events.core.model.event.Event;
+import ch.wisv.events.core.model.queue.AdmissionQueueStatus;
+
+/**
+ * AdmissionQueueService interface.
+ */
+public interface AdmissionQueueService {
+
+    /**
+     * Join the admission queue of an Event.
+     *
+     * @param event of type Event
+     *
+     * @return signed queue token
+     */
+    String join(Event event);
+
+    /**
+     * Get the status of a queue token.
+     *
+     * @param eventKey key of the Event
+     * @param token    queue token, may be null
+     *
+     * @return AdmissionQueueStatus
+     *
+     * @throws AdmissionQueueTokenInvalidException when the token is missing or not valid for the Event
+     */
+    AdmissionQueueStatus getStatus(String eventKey, String token) throws AdmissionQueueTokenInvalidException;
+
+    /**
+     * Check if a queue token has been admitted to the checkout of an Event.
+     *
+     * @param eventKey key of the Event
+     * @param token    queue token, may be null
+     *
+     * @return boolean
+     */
+    boolean isAdmitted(String eventKey, String token);
+
+    /**
+     * Use an admitted queue token for a checkout of an Event. A token can only be used once, so a copied token can
+     * not be used to pass the queue again.
+     *
+     * @param eventKey key of the Event
+     * @param token    queue token, may be null
+     *
+     * @return true when the token was admitted and not used before
+     */
+    boolean consume(String eventKey, String token);
+
+    /**
+     * Admit the next customers of every admission queue.
+     */
+    void admitNext();
+}
@@ -0,0 +1,240 @@
+package ch.wisv.events.core.service.queue;
+
+import ch.wisv.events.core.exception.normal.AdmissionQueueTokenInvalidException;
+import ch.wisv.events.core.model.event.Event;
+import ch.wisv.events.core.model.queue.AdmissionQueueStatus;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * AdmissionQueueServiceImpl class. Keeps the admission queue of each Event in memory and hands out HMAC signed
+ * tokens, so checking a token does not need the database. An admitted token is used up by the checkout it admits.
+ */
+@Service
+@Slf4j
+public class AdmissionQueueServiceImpl implements AdmissionQueueService {
+
+    /** HMAC algorithm used to sign the tokens. */
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    /** Separator between the fields of a token. */
+    private static final String SEPARATOR = ":";
+
+    /** Queues by Event key. */
+    private final Map<String, AdmissionQueue> queues = new ConcurrentHashMap<>();
+
+    /** Key used to sign the tokens. */
+    private final SecretKeySpec signingKey;
+
+    /** Number of customers admitted per call of admitNext. */
+    private final int admissionRate;
+
+    /** Number of seconds a token stays valid. */
+    private final long tokenTtl;
+
+    /**
+     * AdmissionQueueServiceImpl constructor.
+     *
+     * @param secret        of type String, a random secret is used when empty
+     * @param admissionRate of type int
+     * @param tokenTtl      of type long
+     */
+    public AdmissionQueueServiceImpl(
+            @Value("${wisvch.events.queue.secret:}") String secret,
+            @Value("${wisvch.events.queue.admission-rate:25}") int admissionRate,
+            @Value("${wisvch.events.queue.token-ttl:7200}") long tokenTtl
+    ) {
+        byte[] key = secret.getBytes(StandardCharsets.UTF_8);
+        if (key.length == 0) {
+            log.warn("No admission queue secret configured, queue tokens will not survive a restart");
+            key = new byte[32];
+            new SecureRandom().nextBytes(key);
+        }
+
+        this.signingKey = new SecretKeySpec(key, HMAC_ALGORITHM);
+        this.admissionRate = admissionRate;
+        this.tokenTtl = tokenTtl;
+    }
+
+    /**
+     * Join the admission queue of an Event.
+     *
+     * @param event of type Event
+     *
+     * @return signed queue token
+     */
+    @Override
+    public String join(Event event) {
+        long position = queues.computeIfAbsent(event.getKey(), key -> new AdmissionQueue()).issued.incrementAndGet();
+        String payload = event.getKey() + SEPARATOR + position + SEPARATOR + Instant.now().getEpochSecond();
+
+        return encode(payload.getBytes(StandardCharsets.UTF_8)) + "." + encode(this.sign(payload));
+    }
+
+    /**
+     * Get the status of a queue token.
+     *
+     * @param eventKey key of the Event
+     * @param token    queue token, may be null
+     *
+     * @return AdmissionQueueStatus
+     *
+     * @throws AdmissionQueueTokenInvalidException when the token is missing, used or not valid for the Event
+     */
+    @Override
+    public AdmissionQueueStatus getStatus(String eventKey, String token) throws AdmissionQueueTokenInvalidException {
+        long position = this.verify(eventKey, token);
+        AdmissionQueue queue = queues.get(eventKey);
+        if (queue == null || queue.consumed.contains(position)) {
+            // Tokens from before a restart, the queue starts over, or tokens used for a checkout already.
+            throw new AdmissionQueueTokenInvalidException();
+        }
+
+        long admitted = queue.admitted.get();
+
+        return new AdmissionQueueStatus(Math.max(0, position - admitted), position <= admitted);
+    }
+
+    /**
+     * Check if a queue token has been admitted to the checkout of an Event.
+     *
+     * @param eventKey key of the Event
+     * @param token    queue token, may be null
+     *
+     * @return boolean
+     */
+    @Override
+    public boolean isAdmitted(String eventKey, String token) {
+        try {
+            return this.getStatus(eventKey, token).isAdmitted();
+        } catch (AdmissionQueueTokenInvalidException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Use an admitted queue token for a checkout of an Event. A token can only be used once, so a copied token can
+     * not be used to pass the queue again.
+     *
+     * @param eventKey key of the Event
+     * @param token    queue token, may be null
+     *
+     * @return true when the token was admitted and not used before
+     */
+    @Override
+    public boolean consume(String eventKey, String token) {
+        try {
+            long position = this.verify(eventKey, token);
+            AdmissionQueue queue = queues.get(eventKey);
+
+            return queue != null && position <= queue.admitted.get() && queue.consumed.add(position);
+        } catch (AdmissionQueueTokenInvalidException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Admit the next customers of every admission queue.
+     */
+    @Override
+    public void admitNext() {
+        queues.values().forEach(queue ->
+                queue.admitted.updateAndGet(admitted -> Math.min(queue.issued.get(), admitted + admissionRate))
+        );
+    }
+
+    /**
+     * Verify the signature, event and age of a token.
+     *
+     * @param eventKey key of the Event
+     * @param token    queue token
+     *
+     * @return position of the token in the queue
+     *
+     * @throws AdmissionQueueTokenInvalidException when the token is not valid for the Event
+     */
+    private long verify(String eventKey, String token) throws AdmissionQueueTokenInvalidException {
+        if (token == null) {
+            throw new AdmissionQueueTokenInvalidException();
+        }
+
+        try {
+            String[] parts = token.split("\\.");
+            if (parts.length != 2) {
+                throw new AdmissionQueueTokenInvalidException();
+            }
+
+            String payload = new String(Base64.getUrlDecoder().decode(parts[0]), StandardCharsets.UTF_8);
+            if (!MessageDigest.isEqual(this.sign(payload), Base64.getUrlDecoder().decode(parts[1]))) {
+                throw new AdmissionQueueTokenInvalidException();
+            }
+
+            String[] fields = payload.split(SEPARATOR);
+            if (fields.length != 3 || !fields[0].equals(eventKey)
+                    || Long.parseLong(fields[2]) + tokenTtl < Instant.now().getEpochSecond()) {
+                throw new AdmissionQueueTokenInvalidException();
+            }
+
+            return Long.parseLong(fields[1]);
+        } catch (IllegalArgumentException e) {
+            throw new AdmissionQueueTokenInvalidException();
+        }
+    }
+
+    /**
+     * Sign a payload.
+     *
+     * @param payload of type String
+     *
+     * @return HMAC of the payload
+     */
+    private byte[] sign(String payload) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(signingKey);
+
+            return mac.doFinal(payload.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Could not sign admission queue token", e);
+        }
+    }
+
+    /**
+     * Encode bytes as URL safe Base64 without padding, so the token can be used in a cookie.
+     *
+     * @param bytes of type byte[]
+     *
+     * @return String
+     */
+    private static String encode(byte[] bytes) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    /**
+     * Admission queue of a single Event.
+     */
+    private static class AdmissionQueue {
+
+        /** Number of tokens handed out. */
+        private final AtomicLong issued = new AtomicLong();
+
+        /** Highest position that may checkout. */
+        private final AtomicLong admitted = new AtomicLong();
+
+        /** Positions of the tokens that have been used for a checkout. */
+        private final Set<Long> consumed = ConcurrentHashMap.newKeySet();
+    }
+}
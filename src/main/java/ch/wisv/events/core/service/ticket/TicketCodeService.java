@@ -0,0 +1,41 @@
+package ch.wisv.events.core.service.ticket;
+
+import ch.wisv.events.core.exception.normal.TicketCodeInvalidException;
+import ch.wisv.events.core.model.ticket.SignedTicketCode;
+import ch.wisv.events.core.model.ticket.Ticket;
+
+/**
+ * TicketCodeService interface.
+ */
+public interface TicketCodeService {
+
+    /**
+     * Get the code of a Ticket that is put in its QR code. This is a signed code when signing is configured, the
+     * unique code of the Ticket otherwise.
+     *
+     * @param ticket of type Ticket
+     *
+     * @return String
+     */
+    String encode(Ticket ticket);
+
+    /**
+     * Check if a scanned code is in the signed format.
+     *
+     * @param code of type String
+     *
+     * @return boolean
+     */
+    boolean isSigned(String code);
+
+    /**
+     * Verify the signature of a signed code and get the Ticket identity it carries.
+     *
+     * @param code of type String
+     *
+     * @return SignedTicketCode
+     *
+     * @throws TicketCodeInvalidException when the code is not validly signed
+     */
+    SignedTicketCode decode(String code) throws TicketCodeInvalidException;
+}
@@ -0,0 +1,139 @@
+package ch.wisv.events.core.service.ticket;
+
+import ch.wisv.events.core.exception.normal.TicketCodeInvalidException;
+import ch.wisv.events.core.model.ticket.SignedTicketCode;
+import ch.wisv.events.core.model.ticket.Ticket;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Base64;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * TicketCodeServiceImpl class. A signed code looks like {@code CH1.<productId>.<ticketId>.<uniqueCode>.<signature>},
+ * where the signature is a truncated HMAC of the other fields. A scanner can reject forged codes and codes of other
+ * events without a database lookup.
+ */
+@Service
+@Slf4j
+public class TicketCodeServiceImpl implements TicketCodeService {
+
+    /** HMAC algorithm used to sign the codes. */
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    /** Prefix of a signed code, includes the version of the format. */
+    private static final String PREFIX = "CH1";
+
+    /** Separator between the fields of a code. */
+    private static final String SEPARATOR = ".";
+
+    /** Number of HMAC bytes kept in the signature. */
+    private static final int SIGNATURE_LENGTH = 12;
+
+    /** Key used to sign the codes, null when signing is not configured. */
+    private final SecretKeySpec signingKey;
+
+    /**
+     * TicketCodeServiceImpl constructor.
+     *
+     * @param secret of type String, codes are not signed when empty
+     */
+    public TicketCodeServiceImpl(@Value("${wisvch.events.ticket-code.secret:}") String secret) {
+        if (secret.isEmpty()) {
+            log.warn("No ticket code secret configured, tickets get their unique code as QR code");
+            this.signingKey = null;
+        } else {
+            this.signingKey = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), HMAC_ALGORITHM);
+        }
+    }
+
+    /**
+     * Get the code of a Ticket that is put in its QR code. This is a signed code when signing is configured, the
+     * unique code of the Ticket otherwise.
+     *
+     * @param ticket of type Ticket
+     *
+     * @return String
+     */
+    @Override
+    public String encode(Ticket ticket) {
+        if (signingKey == null) {
+            return ticket.getUniqueCode();
+        }
+
+        String payload = String.join(
+                SEPARATOR, PREFIX, ticket.getProduct().getId().toString(), ticket.getId().toString(), ticket.getUniqueCode()
+        );
+
+        return payload + SEPARATOR + Base64.getUrlEncoder().withoutPadding().encodeToString(this.sign(payload));
+    }
+
+    /**
+     * Check if a scanned code is in the signed format.
+     *
+     * @param code of type String
+     *
+     * @return boolean
+     */
+    @Override
+    public boolean isSigned(String code) {
+        return code.startsWith(PREFIX + SEPARATOR);
+    }
+
+    /**
+     * Verify the signature of a signed code and get the Ticket identity it carries.
+     *
+     * @param code of type String
+     *
+     * @return SignedTicketCode
+     *
+     * @throws TicketCodeInvalidException when the code is not validly signed
+     */
+    @Override
+    public SignedTicketCode decode(String code) throws TicketCodeInvalidException {
+        if (signingKey == null || !this.isSigned(code)) {
+            throw new TicketCodeInvalidException();
+        }
+
+        int signatureStart = code.lastIndexOf(SEPARATOR);
+        String payload = code.substring(0, signatureStart);
+        String[] fields = payload.split("\\.");
+        if (fields.length != 4) {
+            throw new TicketCodeInvalidException();
+        }
+
+        try {
+            byte[] signature = Base64.getUrlDecoder().decode(code.substring(signatureStart + 1));
+            if (!MessageDigest.isEqual(this.sign(payload), signature)) {
+                throw new TicketCodeInvalidException();
+            }
+
+            return new SignedTicketCode(Integer.valueOf(fields[1]), Integer.valueOf(fields[2]), fields[3]);
+        } catch (IllegalArgumentException e) {
+            throw new TicketCodeInvalidException();
+        }
+    }
+
+    /**
+     * Sign a payload.
+     *
+     * @param payload of type String
+     *
+     * @return truncated HMAC of the payload
+     */
+    private byte[] sign(String payload) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(signingKey);
+
+            return Arrays.copyOf(mac.doFinal(payload.getBytes(StandardCharsets.UTF_8)), SIGNATURE_LENGTH);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Could not sign ticket code", e);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package ch.wisv.events.core.service.ticket;
+
+import ch.wisv.events.core.model.ticket.Ticket;
+import com.google.zxing.WriterException;
+
+/**
+ * TicketImageService interface.
+ */
+public interface TicketImageService {
+
+    /**
+     * Get the QR code of a Ticket as PNG.
+     *
+     * @param ticket of type Ticket
+     *
+     * @return PNG bytes
+     *
+     * @throws WriterException when QR code is not generated
+     */
+    byte[] getQrCodePng(Ticket ticket) throws WriterException;
+
+    /**
+     * Get the EAN-13 barcode of a Ticket with a legacy unique code as PNG.
+     *
+     * @param ticket of type Ticket
+     *
+     * @return PNG bytes
+     *
+     * @throws WriterException when barcode is not generated
+     */
+    byte[] getBarcodePng(Ticket ticket) throws WriterException;
+
+    /**
+     * Remove the images of the current code of a Ticket from the cache.
+     *
+     * @param ticket of type Ticket
+     */
+    void invalidate(Ticket ticket);
+}
@@ -0,0 +1,125 @@
+package ch.wisv.events.core.service.ticket;
+
+import ch.wisv.events.core.model.ticket.Ticket;
+import ch.wisv.events.core.util.QrCode;
+import ch.wisv.events.utils.Barcode;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.WriterException;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.oned.EAN13Writer;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * TicketImageServiceImpl class. Rendered images are kept in a cache bounded by their total size in bytes.
+ */
+@Service
+public class TicketImageServiceImpl implements TicketImageService {
+
+    /** Prefix of a legacy barcode, followed by the unique code and a check digit. */
+    private static final String BARCODE_PREFIX = "978020";
+
+    /** Cache key prefix of barcodes. */
+    private static final String BARCODE_KEY_PREFIX = "ean13:";
+
+    /** Width of a barcode in pixels. */
+    private static final int BARCODE_WIDTH = 300;
+
+    /** Height of a barcode in pixels. */
+    private static final int BARCODE_HEIGHT = 100;
+
+    /**
+     * Rendered PNG images by the code they contain. QR codes are keyed by the encoded code, which identifies a single
+     * Ticket, barcodes by the unique code prefixed with BARCODE_KEY_PREFIX.
+     */
+    private final Cache<String, byte[]> images;
+
+    /** TicketCodeService. */
+    private final TicketCodeService ticketCodeService;
+
+    /**
+     * TicketImageServiceImpl constructor.
+     *
+     * @param ticketCodeService of type TicketCodeService
+     * @param cacheSize         maximum number of bytes kept in the cache
+     */
+    public TicketImageServiceImpl(
+            TicketCodeService ticketCodeService,
+            @Value("${wisvch.events.ticket-image.cache-size:16777216}") long cacheSize
+    ) {
+        this.ticketCodeService = ticketCodeService;
+        this.images = CacheBuilder.newBuilder()
+                .maximumWeight(cacheSize)
+                .weigher((String code, byte[] png) -> png.length)
+                .build();
+    }
+
+    /**
+     * Get the QR code of a Ticket as PNG.
+     *
+     * @param ticket of type Ticket
+     *
+     * @return PNG bytes
+     *
+     * @throws WriterException when QR code is not generated
+     */
+    @Override
+    public byte[] getQrCodePng(Ticket ticket) throws WriterException {
+        String code = ticketCodeService.encode(ticket);
+
+        return this.getImage(code, () -> QrCode.generateQrCodePng(code));
+    }
+
+    /**
+     * Get the EAN-13 barcode of a Ticket with a legacy unique code as PNG.
+     *
+     * @param ticket of type Ticket
+     *
+     * @return PNG bytes
+     *
+     * @throws WriterException when barcode is not generated
+     */
+    @Override
+    public byte[] getBarcodePng(Ticket ticket) throws WriterException {
+        return this.getImage(BARCODE_KEY_PREFIX + ticket.getUniqueCode(), () -> {
+            String barcode = BARCODE_PREFIX + ticket.getUniqueCode();
+            barcode += Barcode.calculateChecksum(barcode.toCharArray());
+            BitMatrix matrix = new EAN13Writer().encode(barcode, BarcodeFormat.EAN_13, BARCODE_WIDTH, BARCODE_HEIGHT);
+
+            return QrCode.bitMatrixToPng(matrix);
+        });
+    }
+
+    /**
+     * Remove the images of the current code of a Ticket from the cache.
+     *
+     * @param ticket of type Ticket
+     */
+    @Override
+    public void invalidate(Ticket ticket) {
+        images.invalidate(ticketCodeService.encode(ticket));
+        images.invalidate(BARCODE_KEY_PREFIX + ticket.getUniqueCode());
+    }
+
+    /**
+     * Get an image from the cache, rendering it when it is not cached.
+     *
+     * @param key      of type String
+     * @param renderer of type Callable
+     *
+     * @return PNG bytes
+     *
+     * @throws WriterException when the image is not generated
+     */
+    private byte[] getImage(String key, Callable<byte[]> renderer) throws WriterException {
+        try {
+            return images.get(key, renderer);
+        } catch (ExecutionException e) {
+            throw (WriterException) e.getCause();
+        }
+    }
+}
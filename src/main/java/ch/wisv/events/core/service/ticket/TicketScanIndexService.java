@@ -0,0 +1,72 @@
+package ch.wisv.events.core.service.ticket;
+
+import ch.wisv.events.core.model.event.Event;
+import ch.wisv.events.core.model.ticket.Ticket;
+import ch.wisv.events.core.model.ticket.TicketScanEntry;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * TicketScanIndexService interface. Keeps an in-memory index of the Tickets of the Events that are being scanned.
+ */
+public interface TicketScanIndexService {
+
+    /**
+     * (Re)load the scan index of an Event, called when a scanning session starts.
+     *
+     * @param event of type Event
+     */
+    void load(Event event);
+
+    /**
+     * (Re)load the scan index of an Event and get all its entries.
+     *
+     * @param event of type Event
+     *
+     * @return Collection of TicketScanEntry
+     */
+    Collection<TicketScanEntry> getAll(Event event);
+
+    /**
+     * Get the Event of a loaded scan index, so a scan does not have to load the Event from the database.
+     *
+     * @param eventKey key of the Event
+     *
+     * @return Optional of Event, empty when the index of the Event is not loaded
+     */
+    Optional<Event> getEvent(String eventKey);
+
+    /**
+     * Get the scan entry of a Ticket of an Event by its unique code. The index of the Event is loaded when it is not
+     * loaded yet, a code that is not in the index is looked up in the database.
+     *
+     * @param event      of type Event
+     * @param uniqueCode unique code of the Ticket, either a UUID or a legacy code
+     *
+     * @return Optional of TicketScanEntry
+     */
+    Optional<TicketScanEntry> get(Event event, String uniqueCode);
+
+    /**
+     * Add Tickets to the loaded indexes of their Events.
+     *
+     * @param tickets List of Tickets
+     */
+    void addAll(List<Ticket> tickets);
+
+    /**
+     * Remove the unique code of a Ticket from the loaded indexes.
+     *
+     * @param ticket     of type Ticket
+     * @param uniqueCode unique code the Ticket was indexed with
+     */
+    void remove(Ticket ticket, String uniqueCode);
+
+    /**
+     * Update the status of a Ticket in the loaded indexes.
+     *
+     * @param ticket of type Ticket
+     */
+    void updateStatus(Ticket ticket);
+}
@@ -0,0 +1,230 @@
+package ch.wisv.events.core.service.ticket;
+
+import ch.wisv.events.core.model.event.Event;
+import ch.wisv.events.core.model.product.Product;
+import ch.wisv.events.core.model.ticket.Ticket;
+import ch.wisv.events.core.model.ticket.TicketScanEntry;
+import ch.wisv.events.core.repository.TicketRepository;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+/**
+ * TicketScanIndexServiceImpl class. Holds a map from unique code to TicketScanEntry for every Event that is being
+ * scanned, so a scan does not need to query the Tickets of every Product of the Event.
+ */
+@Service
+@Slf4j
+public class TicketScanIndexServiceImpl implements TicketScanIndexService {
+
+    /** Scan indexes by Event key. */
+    private final Map<String, ScanIndex> indexes = new ConcurrentHashMap<>();
+
+    /** TicketRepository. */
+    private final TicketRepository ticketRepository;
+
+    /**
+     * TicketScanIndexServiceImpl constructor.
+     *
+     * @param ticketRepository of type TicketRepository
+     */
+    public TicketScanIndexServiceImpl(TicketRepository ticketRepository) {
+        this.ticketRepository = ticketRepository;
+    }
+
+    /**
+     * (Re)load the scan index of an Event, called when a scanning session starts.
+     *
+     * @param event of type Event
+     */
+    @Override
+    public void load(Event event) {
+        this.build(event);
+    }
+
+    /**
+     * (Re)load the scan index of an Event and get all its entries.
+     *
+     * @param event of type Event
+     *
+     * @return Collection of TicketScanEntry
+     */
+    @Override
+    public Collection<TicketScanEntry> getAll(Event event) {
+        return this.build(event).entries.values();
+    }
+
+    /**
+     * Get the Event of a loaded scan index, so a scan does not have to load the Event from the database.
+     *
+     * @param eventKey key of the Event
+     *
+     * @return Optional of Event, empty when the index of the Event is not loaded
+     */
+    @Override
+    public Optional<Event> getEvent(String eventKey) {
+        return Optional.ofNullable(indexes.get(eventKey)).map(index -> index.event);
+    }
+
+    /**
+     * Get the scan entry of a Ticket of an Event by its unique code. The index of the Event is loaded when it is not
+     * loaded yet, a code that is not in the index is looked up in the database.
+     *
+     * @param event      of type Event
+     * @param uniqueCode unique code of the Ticket, either a UUID or a legacy code
+     *
+     * @return Optional of TicketScanEntry
+     */
+    @Override
+    public Optional<TicketScanEntry> get(Event event, String uniqueCode) {
+        ScanIndex index = indexes.get(event.getKey());
+        if (index == null) {
+            index = this.build(event);
+        }
+
+        TicketScanEntry entry = index.entries.get(uniqueCode);
+        if (entry != null) {
+            return Optional.of(entry);
+        }
+
+        // Tickets created on another instance or for a Product added after loading are not in the index yet.
+        Set<Integer> productIds = productIds(event);
+        if (productIds.isEmpty()) {
+            return Optional.empty();
+        }
+
+        Optional<TicketScanEntry> found = ticketRepository
+                .findAllScanEntriesByProductIdInAndUniqueCode(productIds, uniqueCode).stream()
+                .findFirst();
+        if (found.isPresent()) {
+            index.productIds.addAll(productIds);
+            entry = index.entries.putIfAbsent(uniqueCode, found.get());
+        }
+
+        return entry != null ? Optional.of(entry) : found;
+    }
+
+    /**
+     * Add Tickets to the loaded indexes of their Events.
+     *
+     * @param tickets List of Tickets
+     */
+    @Override
+    public void addAll(List<Ticket> tickets) {
+        if (indexes.isEmpty()) {
+            return;
+        }
+
+        tickets.forEach(ticket -> this.indexesOf(ticket.getProduct())
+                .forEach(index -> index.entries.putIfAbsent(ticket.getUniqueCode(), new TicketScanEntry(ticket)))
+        );
+    }
+
+    /**
+     * Remove the unique code of a Ticket from the loaded indexes.
+     *
+     * @param ticket     of type Ticket
+     * @param uniqueCode unique code the Ticket was indexed with
+     */
+    @Override
+    public void remove(Ticket ticket, String uniqueCode) {
+        this.indexesOf(ticket.getProduct()).forEach(index -> index.entries.computeIfPresent(
+                uniqueCode,
+                (code, entry) -> entry.getTicketId().equals(ticket.getId()) ? null : entry
+        ));
+    }
+
+    /**
+     * Update the status of a Ticket in the loaded indexes.
+     *
+     * @param ticket of type Ticket
+     */
+    @Override
+    public void updateStatus(Ticket ticket) {
+        this.indexesOf(ticket.getProduct()).forEach(index -> {
+            TicketScanEntry entry = index.entries.get(ticket.getUniqueCode());
+            if (entry != null && entry.getTicketId().equals(ticket.getId())) {
+                entry.setStatus(ticket.getStatus());
+            }
+        });
+    }
+
+    /**
+     * Build the scan index of an Event from the database and replace the current one.
+     *
+     * @param event of type Event
+     *
+     * @return ScanIndex
+     */
+    private ScanIndex build(Event event) {
+        ScanIndex index = new ScanIndex(event, productIds(event));
+        if (!index.productIds.isEmpty()) {
+            // A legacy code can occur for multiple Products, the first one wins like the per Product lookup did.
+            ticketRepository.findAllScanEntriesByProductIdIn(index.productIds)
+                    .forEach(entry -> index.entries.putIfAbsent(entry.getUniqueCode(), entry));
+        }
+
+        indexes.put(event.getKey(), index);
+        log.info("Loaded scan index of event " + event.getKey() + " with " + index.entries.size() + " tickets");
+
+        return index;
+    }
+
+    /**
+     * Get the loaded indexes that contain a Product.
+     *
+     * @param product of type Product
+     *
+     * @return List of ScanIndex
+     */
+    private List<ScanIndex> indexesOf(Product product) {
+        return indexes.values().stream()
+                .filter(index -> index.productIds.contains(product.getId()))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Get the ids of the Products of an Event.
+     *
+     * @param event of type Event
+     *
+     * @return Set of Integer
+     */
+    private static Set<Integer> productIds(Event event) {
+        return event.getProducts().stream()
+                .map(Product::getId)
+                .collect(Collectors.toCollection(ConcurrentHashMap::newKeySet));
+    }
+
+    /**
+     * Scan index of a single Event.
+     */
+    private static class ScanIndex {
+
+        /** Event the index has been loaded for. */
+        private final Event event;
+
+        /** Ids of the Products of the Event. */
+        private final Set<Integer> productIds;
+
+        /** Scan entries by unique code. */
+        private final Map<String, TicketScanEntry> entries = new ConcurrentHashMap<>();
+
+        /**
+         * ScanIndex constructor.
+         *
+         * @param event      of type Event
+         * @param productIds of type Set
+         */
+        private ScanIndex(Event event, Set<Integer> productIds) {
+            this.event = event;
+            this.productIds = productIds;
+        }
+    }
+}
@@ -1,16 +1,21 @@
 package ch.wisv.events.core.service.ticket;
 
+import ch.wisv.events.core.exception.normal.TicketCodeInvalidException;
 import ch.wisv.events.core.exception.normal.TicketNotFoundException;
 import ch.wisv.events.core.exception.normal.TicketNotTransferableException;
 import ch.wisv.events.core.exception.normal.TicketPassFailedException;
 import ch.wisv.events.core.model.customer.Customer;
+import ch.wisv.events.core.model.event.Event;
 import ch.wisv.events.core.model.order.Order;
 import ch.wisv.events.core.model.product.Product;
 import ch.wisv.events.core.model.ticket.Ticket;
+import ch.wisv.events.core.model.ticket.TicketScanEntry;
 import ch.wisv.events.core.model.ticket.TicketStatus;
 import com.google.zxing.WriterException;
 
 import java.awt.image.BufferedImage;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -30,6 +35,29 @@ public interface TicketService {
      */
     Ticket getByUniqueCode(Product product, String uniqueCode) throws TicketNotFoundException;
 
+    /**
+     * Get the scan entry of a Ticket of an Event by unique code or signed code.
+     *
+     * @param event      of type Event
+     * @param uniqueCode of type String
+     *
+     * @return TicketScanEntry
+     *
+     * @throws TicketNotFoundException     when ticket is not found
+     * @throws TicketCodeInvalidException when a signed code is forged or of another Event
+     */
+    TicketScanEntry getScanEntry(Event event, String uniqueCode) throws TicketNotFoundException,
+            TicketCodeInvalidException;
+
+    /**
+     * Get the scan entries of all Tickets of an Event.
+     *
+     * @param event of type Event
+     *
+     * @return Collection of TicketScanEntry
+     */
+    Collection<TicketScanEntry> getAllScanEntries(Event event);
+
     /**
      * Get ticket by key.
      *
@@ -112,6 +140,26 @@ public interface TicketService {
      */
     void updateStatus(Ticket ticket, TicketStatus status);
 
+    /**
+     * Scan a Ticket, changing its status from OPEN to SCANNED in a single conditional update.
+     *
+     * @param entry of type TicketScanEntry
+     *
+     * @return true when this scan changed the status, false when the Ticket was already scanned
+     */
+    boolean scan(TicketScanEntry entry);
+
+    /**
+     * Scan a Ticket on a scanning device, possibly while it was offline.
+     *
+     * @param entry      of type TicketScanEntry
+     * @param scannedAt  moment of the scan on the device
+     * @param scanDevice id of the scanning device
+     *
+     * @return true when this scan changed the status, false when the Ticket was already scanned
+     */
+    boolean scan(TicketScanEntry entry, LocalDateTime scannedAt, String scanDevice);
+
     /**
      * Get all Ticket.
      *
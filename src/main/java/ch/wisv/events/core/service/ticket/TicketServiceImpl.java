@@ -1,19 +1,23 @@
 package ch.wisv.events.core.service.ticket;
 
-import ch.wisv.events.core.exception.normal.EventNotFoundException;
+import ch.wisv.events.core.exception.normal.TicketCodeInvalidException;
 import ch.wisv.events.core.exception.normal.TicketNotFoundException;
 import ch.wisv.events.core.exception.normal.TicketNotTransferableException;
 import ch.wisv.events.core.exception.normal.TicketPassFailedException;
+import ch.wisv.events.core.http.HttpGateway;
 import ch.wisv.events.core.model.customer.Customer;
 import ch.wisv.events.core.model.event.Event;
 import ch.wisv.events.core.model.order.Order;
 import ch.wisv.events.core.model.order.OrderProduct;
 import ch.wisv.events.core.model.product.Product;
+import ch.wisv.events.core.model.ticket.SignedTicketCode;
 import ch.wisv.events.core.model.ticket.Ticket;
+import ch.wisv.events.core.model.ticket.TicketScanEntry;
 import ch.wisv.events.core.model.ticket.TicketStatus;
 import ch.wisv.events.core.repository.TicketRepository;
 
 import java.awt.image.BufferedImage;
+import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
 
@@ -23,6 +27,8 @@
 import com.google.zxing.WriterException;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.client.RestTemplate;
 
 import jakarta.validation.constraints.NotNull;
@@ -47,6 +53,26 @@ public class TicketServiceImpl implements TicketService {
      */
     private final GoogleWalletService googleWalletService;
 
+    /**
+     * TicketScanIndexService.
+     */
+    private final TicketScanIndexService ticketScanIndexService;
+
+    /**
+     * TicketCodeService.
+     */
+    private final TicketCodeService ticketCodeService;
+
+    /**
+     * TicketImageService.
+     */
+    private final TicketImageService ticketImageService;
+
+    /**
+     * HttpGateway.
+     */
+    private final HttpGateway httpGateway;
+
     @Value("${links.passes}")
     @NotNull
     private String passesLink;
@@ -55,12 +81,29 @@ public class TicketServiceImpl implements TicketService {
      * TicketServiceImpl constructor.
      *
      * @param ticketRepository of type TicketRepository
-     * @param eventService     of type EventService
+     * @param eventService           of type EventService
+     * @param googleWalletService    of type GoogleWalletService
+     * @param ticketScanIndexService of type TicketScanIndexService
+     * @param ticketCodeService      of type TicketCodeService
+     * @param ticketImageService     of type TicketImageService
+     * @param httpGateway            of type HttpGateway
      */
-    public TicketServiceImpl(TicketRepository ticketRepository, EventService eventService, GoogleWalletService googleWalletService) {
+    public TicketServiceImpl(
+            TicketRepository ticketRepository,
+            EventService eventService,
+            GoogleWalletService googleWalletService,
+            TicketScanIndexService ticketScanIndexService,
+            TicketCodeService ticketCodeService,
+            TicketImageService ticketImageService,
+            HttpGateway httpGateway
+    ) {
         this.ticketRepository = ticketRepository;
         this.eventService = eventService;
         this.googleWalletService = googleWalletService;
+        this.ticketScanIndexService = ticketScanIndexService;
+        this.ticketCodeService = ticketCodeService;
+        this.ticketImageService = ticketImageService;
+        this.httpGateway = httpGateway;
     }
 
     /**
@@ -76,6 +119,45 @@ public Ticket getByUniqueCode(Product product, String uniqueCode) throws TicketN
                 .orElseThrow(TicketNotFoundException::new);
     }
 
+    /**
+     * Get the scan entry of a Ticket of an Event by unique code, using the scan index of the Event. A signed code is
+     * verified and checked against the Products of the Event before the index is used.
+     *
+     * @param event      of type Event
+     * @param uniqueCode of type String, either a unique code or a signed code
+     * @return TicketScanEntry
+     * @throws TicketNotFoundException     when ticket is not found
+     * @throws TicketCodeInvalidException when a signed code is forged or of another Event
+     */
+    @Override
+    public TicketScanEntry getScanEntry(Event event, String uniqueCode) throws TicketNotFoundException,
+            TicketCodeInvalidException {
+        if (!ticketCodeService.isSigned(uniqueCode)) {
+            return ticketScanIndexService.get(event, uniqueCode)
+                    .orElseThrow(() -> new TicketNotFoundException("Ticket " + uniqueCode + " does not exists"));
+        }
+
+        SignedTicketCode code = ticketCodeService.decode(uniqueCode);
+        if (event.getProducts().stream().noneMatch(product -> code.getProductId().equals(product.getId()))) {
+            throw new TicketCodeInvalidException("Ticket is not for this event.");
+        }
+
+        return ticketScanIndexService.get(event, code.getUniqueCode())
+                .filter(entry -> entry.getTicketId().equals(code.getTicketId()))
+                .orElseThrow(() -> new TicketNotFoundException("Ticket " + code.getUniqueCode() + " does not exists"));
+    }
+
+    /**
+     * Get the scan entries of all Tickets of an Event, reloading the scan index of the Event.
+     *
+     * @param event of type Event
+     * @return Collection of TicketScanEntry
+     */
+    @Override
+    public Collection<TicketScanEntry> getAllScanEntries(Event event) {
+        return ticketScanIndexService.getAll(event);
+    }
+
     /**
      * Get ticket by key.
      *
@@ -157,6 +239,7 @@ public void deleteByOrder(Order order) {
         List<Ticket> tickets = ticketRepository.findAllByOrder(order);
 
         ticketRepository.deleteAll(tickets);
+        this.afterCommit(() -> tickets.forEach(ticket -> ticketScanIndexService.remove(ticket, ticket.getUniqueCode())));
     }
 
     /**
@@ -169,6 +252,52 @@ public void deleteByOrder(Order order) {
     public void updateStatus(Ticket ticket, TicketStatus status) {
         ticket.setStatus(status);
         ticketRepository.saveAndFlush(ticket);
+        this.afterCommit(() -> ticketScanIndexService.updateStatus(ticket));
+    }
+
+    /**
+     * Scan a Ticket, changing its status from OPEN to SCANNED in a single conditional update. When scanners at
+     * different doors scan the same Ticket at once, only one of them wins.
+     *
+     * @param entry of type TicketScanEntry
+     * @return true when this scan changed the status, false when the Ticket was already scanned
+     */
+    @Override
+    public boolean scan(TicketScanEntry entry) {
+        return this.scan(entry, LocalDateTime.now(), null);
+    }
+
+    /**
+     * Scan a Ticket on a scanning device. When the Ticket was already scanned, the entry is updated with the moment
+     * and device of the scan that won.
+     *
+     * @param entry      of type TicketScanEntry
+     * @param scannedAt  moment of the scan on the device
+     * @param scanDevice id of the scanning device
+     * @return true when this scan changed the status, false when the Ticket was already scanned
+     */
+    @Override
+    public boolean scan(TicketScanEntry entry, LocalDateTime scannedAt, String scanDevice) {
+        if (entry.getStatus() != TicketStatus.OPEN) {
+            return false;
+        }
+
+        if (ticketRepository.markScanned(entry.getTicketId(), scannedAt, scanDevice) == 1) {
+            entry.setScannedAt(scannedAt);
+            entry.setScanDevice(scanDevice);
+            entry.setStatus(TicketStatus.SCANNED);
+
+            return true;
+        }
+
+        // Scanned on another instance, take over the details of that scan.
+        ticketRepository.findById(entry.getTicketId()).ifPresent(ticket -> {
+            entry.setScannedAt(ticket.getScannedAt());
+            entry.setScanDevice(ticket.getScanDevice());
+        });
+        entry.setStatus(TicketStatus.SCANNED);
+
+        return false;
     }
 
     /**
@@ -182,7 +311,7 @@ public List<Ticket> getAll() {
     }
 
     /**
-     * Create a Ticket by an OrderProduct.
+     * Create a Ticket by an OrderProduct. All tickets of the Order are inserted in a single batch.
      *
      * @param order of type Order
      * @return List of Ticket
@@ -197,36 +326,49 @@ public List<Ticket> createByOrder(Order order) {
 
         for (OrderProduct orderProduct : order.getOrderProducts()) {
             for (int i = 0; i < orderProduct.getAmount(); i++) {
-                Ticket ticket = new Ticket(
+                tickets.add(new Ticket(
                         order,
                         order.getOwner(),
                         orderProduct.getProduct(),
-                        this.generateUniqueString(orderProduct.getProduct())
-                );
-
-                tickets.add(ticket);
-                ticketRepository.saveAndFlush(ticket);
+                        this.generateUniqueString()
+                ));
             }
         }
 
+        ticketRepository.insertAll(tickets);
+        // The tickets only become scannable once the status change creating them has been committed.
+        this.afterCommit(() -> ticketScanIndexService.addAll(tickets));
+
         return tickets;
     }
 
     /**
-     * Generate a Ticket unique String.
+     * Run an action on the scan index once the current transaction has been committed, so a rolled back change never
+     * reaches the scanners. Without a transaction the action runs immediately.
      *
-     * @param product of type Product
-     * @return String
+     * @param action of type Runnable
      */
-    private String generateUniqueString(Product product) {
-        // Generate a UUID
-        String ticketUnique = UUID.randomUUID().toString();
-
-        while (ticketRepository.existsByProductAndUniqueCode(product, ticketUnique)) {
-            ticketUnique = UUID.randomUUID().toString();
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
         }
+    }
 
-        return ticketUnique;
+    /**
+     * Generate a Ticket unique String. Uniqueness per product is guaranteed by a unique constraint, a collision of
+     * random UUIDs is not expected to happen.
+     *
+     * @return String
+     */
+    private String generateUniqueString() {
+        return UUID.randomUUID().toString();
     }
 
     /**
@@ -243,7 +385,7 @@ public BufferedImage generateQrCode(Ticket ticket) throws IllegalArgumentExcepti
             throw new IllegalArgumentException("The uniqueCode is not a UUID");
         }
 
-        return QrCode.generateQrCode(ticket.getUniqueCode());
+        return QrCode.generateQrCode(ticketCodeService.encode(ticket));
     }
 
     /**
@@ -254,23 +396,26 @@ public BufferedImage generateQrCode(Ticket ticket) throws IllegalArgumentExcepti
      */
     public Ticket transfer(Ticket ticket, Customer currentCustomer, Customer newCustomer) throws TicketNotTransferableException {
         // Get event from ticket product
-        Event event = null;
-        try {
-            event = eventService.getByProduct(ticket.getProduct());
-        } catch (EventNotFoundException ignored) {
-        }
+        Event event = eventService.getByProducts(Collections.singletonList(ticket.getProduct()))
+                .get(ticket.getProduct().getId());
 
         // Check if the ticket can be transferred
         ticket.canTransfer(currentCustomer, newCustomer, event);
 
         // Generate new unique code
-        String uniqueCode = this.generateUniqueString(ticket.getProduct());
+        String previousUniqueCode = ticket.getUniqueCode();
+        String uniqueCode = this.generateUniqueString();
+        ticketImageService.invalidate(ticket);
 
         // Update ticket
         ticket.setUniqueCode(uniqueCode);
         ticket.setOwner(newCustomer);
 
         ticketRepository.saveAndFlush(ticket);
+        this.afterCommit(() -> {
+            ticketScanIndexService.remove(ticket, previousUniqueCode);
+            ticketScanIndexService.addAll(Collections.singletonList(ticket));
+        });
 
         return ticket;
     }
@@ -284,7 +429,7 @@ public Ticket transfer(Ticket ticket, Customer currentCustomer, Customer newCust
      */
     public byte[] getApplePass(Ticket ticket) throws TicketPassFailedException {
         try {
-            RestTemplate restTemplate = new RestTemplate();
+            RestTemplate restTemplate = httpGateway.getRestTemplate(HttpGateway.PASSES);
             Map<String, String> params = new HashMap<>();
 
             params.put("title", ticket.getProduct().getTitle());
@@ -293,7 +438,7 @@ public byte[] getApplePass(Ticket ticket) throws TicketPassFailedException {
             params.put("time", ticket.getProduct().getEvent().getStart().format(DateTimeFormatter.ofPattern("HH:mm")));
             params.put("location", ticket.getProduct().getEvent().getLocation());
             params.put("name", ticket.getOwner().getName());
-            params.put("code", ticket.getUniqueCode());
+            params.put("code", ticketCodeService.encode(ticket));
 
             return restTemplate.getForObject(passesLink +
                     "?title={title}&description={description}&date={date}&time={time}" +
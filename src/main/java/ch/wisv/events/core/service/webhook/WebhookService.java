@@ -4,6 +4,7 @@
 import ch.wisv.events.core.exception.normal.WebhookNotFoundException;
 import ch.wisv.events.core.model.webhook.Webhook;
 import ch.wisv.events.core.model.webhook.WebhookTrigger;
+import ch.wisv.events.utils.LdapGroup;
 import java.util.List;
 
 public interface WebhookService {
@@ -25,7 +26,7 @@ public interface WebhookService {
     Webhook getByKey(String key) throws WebhookNotFoundException;
 
     /**
-     * Method getByTriggerAndLdapGroup ...
+     * Method getByTrigger ...
      *
      * @param webhookTrigger of type WebhookTrigger
      *
@@ -33,6 +34,17 @@ public interface WebhookService {
      */
     List<Webhook> getByTrigger(WebhookTrigger webhookTrigger);
 
+    /**
+     * Get the Webhooks with a trigger that may receive updates about something organized by a LDAP group, which are
+     * the webhooks of that group and of Beheer.
+     *
+     * @param webhookTrigger of type WebhookTrigger
+     * @param ldapGroup      of type LdapGroup, null when the organizer is unknown
+     *
+     * @return List of Webhook
+     */
+    List<Webhook> getByTriggerAndLdapGroup(WebhookTrigger webhookTrigger, LdapGroup ldapGroup);
+
     /**
      * Method create a new Webhook.
      *
@@ -5,14 +5,24 @@
 import ch.wisv.events.core.model.webhook.Webhook;
 import ch.wisv.events.core.model.webhook.WebhookTrigger;
 import ch.wisv.events.core.repository.WebhookRepository;
+import ch.wisv.events.utils.LdapGroup;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 /**
- * WebhookService implementation.
+ * WebhookService implementation. The Webhooks are routed from an in-memory table by trigger and LDAP group, which is
+ * rebuilt after the Webhooks change.
  */
 @Service
 public class WebhookServiceImpl implements WebhookService {
@@ -27,6 +37,16 @@ public class WebhookServiceImpl implements WebhookService {
      */
     private final WebhookTaskService webhookTaskService;
 
+    /**
+     * Version of the Webhooks, increased on every change.
+     */
+    private final AtomicLong webhooksVersion = new AtomicLong();
+
+    /**
+     * Routing table of the Webhooks, null until the first lookup.
+     */
+    private volatile Routes routes;
+
     /**
      * Constructor WebhookServiceImpl creates a new WebhookServiceImpl instance.
      *
@@ -63,7 +83,7 @@ public Webhook getByKey(String key) throws WebhookNotFoundException {
     }
 
     /**
-     * Method getByTriggerAndLdapGroup ...
+     * Method getByTrigger ...
      *
      * @param webhookTrigger of type WebhookTrigger
      *
@@ -71,7 +91,31 @@ public Webhook getByKey(String key) throws WebhookNotFoundException {
      */
     @Override
     public List<Webhook> getByTrigger(WebhookTrigger webhookTrigger) {
-        return repository.findAllByWebhookTriggersIsContaining(webhookTrigger);
+        return this.getRoutes().getOrDefault(webhookTrigger, ImmutableMap.of()).values().stream()
+                .flatMap(List::stream)
+                .collect(ImmutableList.toImmutableList());
+    }
+
+    /**
+     * Get the Webhooks with a trigger that may receive updates about something organized by a LDAP group, which are
+     * the webhooks of that group and of Beheer.
+     *
+     * @param webhookTrigger of type WebhookTrigger
+     * @param ldapGroup      of type LdapGroup, null when the organizer is unknown
+     *
+     * @return List of Webhook
+     */
+    @Override
+    public List<Webhook> getByTriggerAndLdapGroup(WebhookTrigger webhookTrigger, LdapGroup ldapGroup) {
+        Map<LdapGroup, List<Webhook>> byLdapGroup = this.getRoutes().getOrDefault(webhookTrigger, ImmutableMap.of());
+
+        ImmutableList.Builder<Webhook> webhooks = ImmutableList.builder();
+        webhooks.addAll(byLdapGroup.getOrDefault(LdapGroup.BEHEER, ImmutableList.of()));
+        if (ldapGroup != null && ldapGroup != LdapGroup.BEHEER) {
+            webhooks.addAll(byLdapGroup.getOrDefault(ldapGroup, ImmutableList.of()));
+        }
+
+        return webhooks.build();
     }
 
     /**
@@ -84,6 +128,7 @@ public void create(Webhook model) throws WebhookInvalidException {
         this.assertIsValidWebhook(model);
 
         repository.saveAndFlush(model);
+        this.invalidateRoutes();
     }
 
     /**
@@ -97,12 +142,14 @@ public void update(Webhook model) throws WebhookNotFoundException, WebhookInvali
         webhook.setPayloadUrl(model.getPayloadUrl());
         webhook.setWebhookTriggers(model.getWebhookTriggers());
         webhook.setActive(model.isActive());
+        webhook.setBatched(model.isBatched());
         webhook.setSecret(model.getSecret());
         webhook.setLdapGroup(model.getLdapGroup());
 
         this.assertIsValidWebhook(webhook);
 
         repository.saveAndFlush(webhook);
+        this.invalidateRoutes();
     }
 
     /**
@@ -114,6 +161,70 @@ public void update(Webhook model) throws WebhookNotFoundException, WebhookInvali
     public void delete(Webhook model) {
         webhookTaskService.deleteByWebhook(model);
         repository.delete(model);
+        this.invalidateRoutes();
+    }
+
+    /**
+     * Get the routing table, building it when needed.
+     *
+     * @return Map of the Webhooks by trigger and LDAP group
+     */
+    private Map<WebhookTrigger, Map<LdapGroup, List<Webhook>>> getRoutes() {
+        Routes current = routes;
+        if (current != null && current.version == webhooksVersion.get()) {
+            return current.table;
+        }
+
+        synchronized (this) {
+            current = routes;
+            long version = webhooksVersion.get();
+            if (current == null || current.version != version) {
+                // A change during the build increases the version, so the table is built again on the next lookup.
+                current = new Routes(version, this.buildRoutes());
+                routes = current;
+            }
+
+            return current.table;
+        }
+    }
+
+    /**
+     * Build the routing table from the stored Webhooks.
+     *
+     * @return Map of the Webhooks by trigger and LDAP group
+     */
+    private Map<WebhookTrigger, Map<LdapGroup, List<Webhook>>> buildRoutes() {
+        Map<WebhookTrigger, Map<LdapGroup, List<Webhook>>> table = new EnumMap<>(WebhookTrigger.class);
+        for (Webhook webhook : repository.findAllWithTriggers()) {
+            if (webhook.getLdapGroup() == null) {
+                continue;
+            }
+
+            for (WebhookTrigger webhookTrigger : webhook.getWebhookTriggers()) {
+                table.computeIfAbsent(webhookTrigger, trigger -> new EnumMap<>(LdapGroup.class))
+                        .computeIfAbsent(webhook.getLdapGroup(), ldapGroup -> new ArrayList<>())
+                        .add(webhook);
+            }
+        }
+
+        return table;
+    }
+
+    /**
+     * Invalidate the routing table after a change of the Webhooks. It is invalidated again when the transaction of the
+     * change completes, so a table built from uncommitted or rolled back Webhooks is not kept.
+     */
+    private void invalidateRoutes() {
+        webhooksVersion.incrementAndGet();
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    webhooksVersion.incrementAndGet();
+                }
+            });
+        }
     }
 
     /**
@@ -136,4 +247,27 @@ private void assertIsValidWebhook(Webhook model) throws WebhookInvalidException
             throw new WebhookInvalidException("WebhookTriggers can not be null!");
         }
     }
+
+    /**
+     * Routing table of the Webhooks by trigger and LDAP group.
+     */
+    private static final class Routes {
+
+        /** Version of the Webhooks the table has been built from. */
+        private final long version;
+
+        /** Webhooks by trigger and LDAP group. */
+        private final Map<WebhookTrigger, Map<LdapGroup, List<Webhook>>> table;
+
+        /**
+         * Routes constructor.
+         *
+         * @param version of type long
+         * @param table   of type Map
+         */
+        private Routes(long version, Map<WebhookTrigger, Map<LdapGroup, List<Webhook>>> table) {
+            this.version = version;
+            this.table = table;
+        }
+    }
 }
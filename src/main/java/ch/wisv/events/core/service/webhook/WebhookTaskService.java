@@ -2,7 +2,9 @@
 
 import ch.wisv.events.core.model.webhook.Webhook;
 import ch.wisv.events.core.model.webhook.WebhookTask;
+import ch.wisv.events.core.model.webhook.WebhookTaskStatus;
 import ch.wisv.events.core.model.webhook.WebhookTrigger;
+import java.time.LocalDateTime;
 import java.util.List;
 import org.json.simple.JSONObject;
 
@@ -15,6 +17,18 @@ public interface WebhookTaskService {
      */
     List<WebhookTask> getAll();
 
+    /**
+     * Get a page of WebhookTasks, newest first.
+     *
+     * @param webhookTaskStatus of type WebhookTaskStatus, null for all statuses
+     * @param webhook           of type Webhook, null for all webhooks
+     * @param before            only tasks with a lower id, null for the newest tasks
+     * @param size              page size
+     *
+     * @return List of WebhookTasks
+     */
+    List<WebhookTask> getPage(WebhookTaskStatus webhookTaskStatus, Webhook webhook, Integer before, int size);
+
     /**
      * Method create WebhookTask.
      *
@@ -37,4 +51,13 @@ public interface WebhookTaskService {
      * @param webhook of type Webhook
      */
     void deleteByWebhook(Webhook webhook);
+
+    /**
+     * Delete the delivered WebhookTasks created before a moment.
+     *
+     * @param before of type LocalDateTime
+     *
+     * @return number of deleted WebhookTasks
+     */
+    int deleteDeliveredBefore(LocalDateTime before);
 }
@@ -2,12 +2,19 @@
 
 import ch.wisv.events.core.model.webhook.Webhook;
 import ch.wisv.events.core.model.webhook.WebhookTask;
+import ch.wisv.events.core.model.webhook.WebhookTaskStatus;
 import ch.wisv.events.core.model.webhook.WebhookTrigger;
 import ch.wisv.events.core.repository.WebhookTaskRepository;
+import ch.wisv.events.core.webhook.WebhookDispatcher;
+import java.time.LocalDateTime;
 import java.util.List;
 import lombok.extern.slf4j.Slf4j;
 import org.json.simple.JSONObject;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 /**
  * WebhookTaskServiceImpl class.
@@ -16,16 +23,33 @@
 @Slf4j
 public class WebhookTaskServiceImpl implements WebhookTaskService {
 
+    /** Number of WebhookTasks deleted at once. */
+    private static final int DELETE_BATCH_SIZE = 1000;
+
     /** WebhookTaskRepository. */
     private final WebhookTaskRepository webhookTaskRepository;
 
+    /** WebhookDispatcher. */
+    private final WebhookDispatcher webhookDispatcher;
+
+    /** Number of seconds a new task waits for later updates of the same entity to replace its payload. */
+    private final long coalesceWindow;
+
     /**
      * Constructor WebhookTaskServiceImpl creates a new WebhookTaskServiceImpl instance.
      *
      * @param webhookTaskRepository of type WebhookTaskRepository
+     * @param webhookDispatcher     of type WebhookDispatcher
+     * @param coalesceWindow        number of seconds a new task waits for later updates
      */
-    public WebhookTaskServiceImpl(WebhookTaskRepository webhookTaskRepository) {
+    public WebhookTaskServiceImpl(
+            WebhookTaskRepository webhookTaskRepository,
+            WebhookDispatcher webhookDispatcher,
+            @Value("${wisvch.events.webhook.coalesce-window:5}") long coalesceWindow
+    ) {
         this.webhookTaskRepository = webhookTaskRepository;
+        this.webhookDispatcher = webhookDispatcher;
+        this.coalesceWindow = coalesceWindow;
     }
 
     /**
@@ -39,7 +63,23 @@ public List<WebhookTask> getAll() {
     }
 
     /**
-     * Method create WebhookTask.
+     * Get a page of WebhookTasks, newest first.
+     *
+     * @param webhookTaskStatus of type WebhookTaskStatus, null for all statuses
+     * @param webhook           of type Webhook, null for all webhooks
+     * @param before            only tasks with a lower id, null for the newest tasks
+     * @param size              page size
+     *
+     * @return List of WebhookTasks
+     */
+    @Override
+    public List<WebhookTask> getPage(WebhookTaskStatus webhookTaskStatus, Webhook webhook, Integer before, int size) {
+        return webhookTaskRepository.findPage(webhookTaskStatus, webhook, before, PageRequest.of(0, size));
+    }
+
+    /**
+     * Method create WebhookTask. The task is handed to the WebhookDispatcher as soon as it is committed, the stored
+     * task only serves as outbox for deliveries that do not make it.
      *
      * @param webhookTask of type WebhookTask
      */
@@ -47,24 +87,59 @@ public List<WebhookTask> getAll() {
     public void create(WebhookTask webhookTask) {
         webhookTaskRepository.saveAndFlush(webhookTask);
         log.info("Created WebhookTask #" + webhookTask.getId() + ": " + webhookTask);
+
+        this.dispatchAfterCommit(webhookTask);
     }
 
     /**
-     * Method create ...
+     * Create a WebhookTask. Updates of an entity are coalesced with the pending task of the same webhook, trigger and
+     * entity that has not been attempted yet.
      *
      * @param webhookTrigger of type WebhookTrigger
      * @param jsonObject     of type Object
      */
     @Override
     public void create(WebhookTrigger webhookTrigger, Webhook webhook, JSONObject jsonObject) {
+        String entityKey = (String) jsonObject.get("key");
+
+        // A burst of updates of the same entity results in a single delivery of the latest payload.
+        if (entityKey != null && coalesceWindow > 0
+                && webhookTaskRepository.coalesce(webhook, webhookTrigger, entityKey, jsonObject) > 0) {
+            log.info("Coalesced " + webhookTrigger + " of " + entityKey + " for " + webhook.getPayloadUrl());
+
+            return;
+        }
+
         WebhookTask webhookTask = new WebhookTask();
         webhookTask.setTrigger(webhookTrigger);
         webhookTask.setWebhook(webhook);
+        webhookTask.setEntityKey(entityKey);
         webhookTask.setObject(jsonObject);
+        webhookTask.setNextAttemptAt(webhookTask.getCreatedAt().plusSeconds(coalesceWindow));
 
         this.create(webhookTask);
     }
 
+    /**
+     * Dispatch a WebhookTask once the current transaction commits, or right away without a transaction.
+     *
+     * @param webhookTask of type WebhookTask
+     */
+    private void dispatchAfterCommit(WebhookTask webhookTask) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            webhookDispatcher.dispatch(webhookTask);
+
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                webhookDispatcher.dispatch(webhookTask);
+            }
+        });
+    }
+
     /**
      * Deletes all triggers bound to this webhook.
      *
@@ -74,4 +149,25 @@ public void deleteByWebhook(Webhook webhook) {
         List<WebhookTask> tasks = webhookTaskRepository.findAllByWebhook(webhook);
         webhookTaskRepository.deleteAll(tasks);
     }
+
+    /**
+     * Delete the delivered WebhookTasks created before a moment, in batches.
+     *
+     * @param before of type LocalDateTime
+     *
+     * @return number of deleted WebhookTasks
+     */
+    @Override
+    public int deleteDeliveredBefore(LocalDateTime before) {
+        int deleted = 0;
+        List<Integer> ids;
+        do {
+            ids = webhookTaskRepository.findIdsByStatusCreatedBefore(
+                    WebhookTaskStatus.SUCCESS, before, PageRequest.of(0, DELETE_BATCH_SIZE));
+            webhookTaskRepository.deleteAllByIdInBatch(ids);
+            deleted += ids.size();
+        } while (ids.size() == DELETE_BATCH_SIZE);
+
+        return deleted;
+    }
 }
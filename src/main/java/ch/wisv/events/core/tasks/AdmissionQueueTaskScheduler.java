@@ -0,0 +1,35 @@
+package ch.wisv.events.core.tasks;
+
+import ch.wisv.events.core.service.queue.AdmissionQueueService;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * AdmissionQueueTaskScheduler class.
+ */
+@Component
+public class AdmissionQueueTaskScheduler {
+
+    /** Admit task interval in milli seconds. */
+    private static final int ADMIT_TASK_INTERVAL_MILLISEC = 1000;
+
+    /** AdmissionQueueService. */
+    private final AdmissionQueueService admissionQueueService;
+
+    /**
+     * AdmissionQueueTaskScheduler constructor.
+     *
+     * @param admissionQueueService of type AdmissionQueueService
+     */
+    public AdmissionQueueTaskScheduler(AdmissionQueueService admissionQueueService) {
+        this.admissionQueueService = admissionQueueService;
+    }
+
+    /**
+     * Admit the next customers of the admission queues, at the configured rate per second.
+     */
+    @Scheduled(fixedRate = ADMIT_TASK_INTERVAL_MILLISEC)
+    public void admitTask() {
+        admissionQueueService.admitNext();
+    }
+}
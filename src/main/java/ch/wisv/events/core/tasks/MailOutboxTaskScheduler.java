@@ -0,0 +1,35 @@
+package ch.wisv.events.core.tasks;
+
+import ch.wisv.events.core.service.mail.MailOutboxService;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * MailOutboxTaskScheduler class.
+ */
+@Component
+public class MailOutboxTaskScheduler {
+
+    /** Outbox task interval in milli seconds. */
+    private static final int OUTBOX_TASK_INTERVAL_MILLISEC = 2000;
+
+    /** MailOutboxService. */
+    private final MailOutboxService mailOutboxService;
+
+    /**
+     * MailOutboxTaskScheduler constructor.
+     *
+     * @param mailOutboxService of type MailOutboxService
+     */
+    public MailOutboxTaskScheduler(MailOutboxService mailOutboxService) {
+        this.mailOutboxService = mailOutboxService;
+    }
+
+    /**
+     * Hand the due mails of the outbox to the mail workers.
+     */
+    @Scheduled(fixedDelay = OUTBOX_TASK_INTERVAL_MILLISEC)
+    public void outboxTask() {
+        mailOutboxService.processDue();
+    }
+}
@@ -1,13 +1,11 @@
 package ch.wisv.events.core.tasks;
 
-import ch.wisv.events.core.exception.normal.EventsException;
-import ch.wisv.events.core.model.order.OrderStatus;
 import ch.wisv.events.core.service.order.OrderService;
+import ch.wisv.events.core.service.order.ReservationExpiryService;
 import java.time.LocalDateTime;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
-import org.thymeleaf.util.ArrayUtils;
 
 /**
  * OrderTaskScheduler class.
@@ -16,8 +14,8 @@
 @Slf4j
 public class OrderTaskScheduler {
 
-    /** Cancel task interval in seconds (10 minutes). */
-    private static final int CANCEL_RESERVATION_TASK_INTERVAL_SECONDS = 600;
+    /** Reservation expiry task interval in seconds (10 minutes). */
+    private static final int EXPIRE_RESERVATION_TASK_INTERVAL_SECONDS = 600;
 
     /** Clean up task interval in seconds (30 minutes). */
     private static final int CLEAN_UP_TASK_INTERVAL_SECONDS = 1800;
@@ -25,55 +23,42 @@ public class OrderTaskScheduler {
     /** Clean up orders after when inactive (60 minutes). */
     private static final int CLEAN_UP_INTERVAL = 60;
 
-    /** Max number of days a reservation is valid. */
-    private static final int MAX_RESERVATION_DAYS = 3;
-
     /** Amount of milli seconds in a seconds. */
     private static final int MILLISEC_IN_SEC = 1000;
 
     /** OrderService. */
     private final OrderService orderService;
 
+    /** ReservationExpiryService. */
+    private final ReservationExpiryService reservationExpiryService;
+
     /**
      * OrderTaskScheduler constructor.
      *
-     * @param orderService    of type OrderService
+     * @param orderService             of type OrderService
+     * @param reservationExpiryService of type ReservationExpiryService
      */
-    public OrderTaskScheduler(OrderService orderService) {
+    public OrderTaskScheduler(OrderService orderService, ReservationExpiryService reservationExpiryService) {
         this.orderService = orderService;
+        this.reservationExpiryService = reservationExpiryService;
     }
 
     /**
-     * Cancel all overdue reservation.
+     * Set the timers of the reservations expiring soon, the first run also expires the overdue reservations.
      */
-    @Scheduled(fixedRate = CANCEL_RESERVATION_TASK_INTERVAL_SECONDS * MILLISEC_IN_SEC)
-    public void cancelReservationTask() {
-        orderService.getAllReservations().forEach(order -> {
-            if (order.getCreatedAt().isBefore(LocalDateTime.now().minusDays(MAX_RESERVATION_DAYS))) {
-                try {
-                    orderService.updateOrderStatus(order, OrderStatus.EXPIRED);
-                    log.info("Order " + order.getPublicReference() + ": Has been EXPIRED!");
-                } catch (EventsException e) {
-                    log.error(e.getMessage());
-                }
-            }
-        });
+    @Scheduled(fixedDelay = EXPIRE_RESERVATION_TASK_INTERVAL_SECONDS * MILLISEC_IN_SEC)
+    public void expireReservationTask() {
+        reservationExpiryService.scheduleUpcoming();
     }
 
     /**
-     * Clean up order.
+     * Clean up the orders which have not been checked out.
      */
     @Scheduled(fixedRate = CLEAN_UP_TASK_INTERVAL_SECONDS * MILLISEC_IN_SEC)
     public void cleanUpTask() {
-        orderService.getAllOrders().forEach(order -> {
-            if (order.getCreatedAt().isBefore(LocalDateTime.now().minusMinutes(CLEAN_UP_INTERVAL))) {
-                OrderStatus[] cleanUpStatus = new OrderStatus[]{OrderStatus.ANONYMOUS, OrderStatus.ASSIGNED};
-
-                if (ArrayUtils.contains(cleanUpStatus, order.getStatus())) {
-                    log.info("Order " + order.getPublicReference() + ": Order has been deleted!");
-                    orderService.delete(order);
-                }
-            }
-        });
+        int deleted = orderService.deleteAbandoned(LocalDateTime.now().minusMinutes(CLEAN_UP_INTERVAL));
+        if (deleted > 0) {
+            log.info(deleted + " abandoned orders have been deleted!");
+        }
     }
 }
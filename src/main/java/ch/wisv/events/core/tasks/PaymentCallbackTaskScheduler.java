@@ -0,0 +1,72 @@
+package ch.wisv.events.core.tasks;
+
+import ch.wisv.events.webshop.service.PaymentCallbackService;
+import java.time.LocalDateTime;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * PaymentCallbackTaskScheduler class. Processed and failed callbacks are deleted after the retention period.
+ */
+@Component
+@Slf4j
+public class PaymentCallbackTaskScheduler {
+
+    /** Callback task interval in milli seconds. */
+    private static final int CALLBACK_TASK_INTERVAL_MILLISEC = 2000;
+
+    /** Reconcile task interval in milli seconds (5 minutes). */
+    private static final int RECONCILE_TASK_INTERVAL_MILLISEC = 300000;
+
+    /** Retention task interval in milli seconds (1 hour). */
+    private static final int RETENTION_TASK_INTERVAL_MILLISEC = 3600000;
+
+    /** PaymentCallbackService. */
+    private final PaymentCallbackService paymentCallbackService;
+
+    /** Number of days processed and failed callbacks are kept. */
+    private final int retentionDays;
+
+    /**
+     * PaymentCallbackTaskScheduler constructor.
+     *
+     * @param paymentCallbackService of type PaymentCallbackService
+     * @param retentionDays          number of days processed and failed callbacks are kept
+     */
+    public PaymentCallbackTaskScheduler(
+            PaymentCallbackService paymentCallbackService,
+            @Value("${wisvch.events.payment-callback.retention-days:30}") int retentionDays
+    ) {
+        this.paymentCallbackService = paymentCallbackService;
+        this.retentionDays = retentionDays;
+    }
+
+    /**
+     * Hand the due payment callbacks, including the ones that failed before, to the workers.
+     */
+    @Scheduled(fixedDelay = CALLBACK_TASK_INTERVAL_MILLISEC)
+    public void callbackTask() {
+        paymentCallbackService.processDue();
+    }
+
+    /**
+     * Look up the payments of the Orders of which the callback seems to be lost.
+     */
+    @Scheduled(fixedDelay = RECONCILE_TASK_INTERVAL_MILLISEC)
+    public void reconcileTask() {
+        paymentCallbackService.reconcilePendingOrders();
+    }
+
+    /**
+     * Delete the processed and failed callbacks that are older than the retention period.
+     */
+    @Scheduled(fixedDelay = RETENTION_TASK_INTERVAL_MILLISEC, initialDelay = RETENTION_TASK_INTERVAL_MILLISEC)
+    public void retentionTask() {
+        int deleted = paymentCallbackService.deleteFinishedBefore(LocalDateTime.now().minusDays(retentionDays));
+        if (deleted > 0) {
+            log.info("Deleted " + deleted + " finished payment callbacks");
+        }
+    }
+}
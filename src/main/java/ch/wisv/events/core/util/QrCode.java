@@ -9,15 +9,33 @@
 import javax.imageio.ImageIO;
 import java.awt.image.BufferedImage;
 import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.DeflaterOutputStream;
 
 public class QrCode {
+    /** Width and height of a QR code in pixels. */
+    private static final int SIZE = 2 * 13 * 13;
+
+    /** PNG file signature. */
+    private static final byte[] PNG_SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1a, '\n'};
+
     public static BufferedImage generateQrCode(String text) throws WriterException {
-        // Generate a QR code
-        QRCodeWriter qrCodeWriter = new QRCodeWriter();
-        BitMatrix bitMatrix = qrCodeWriter.encode(text, BarcodeFormat.QR_CODE, 2 * 13 * 13, 2 * 13 * 13);
+        return MatrixToImageWriter.toBufferedImage(generateBitMatrix(text));
+    }
 
-        return MatrixToImageWriter.toBufferedImage(bitMatrix);
+    /**
+     * Generate a QR code as PNG, without creating a BufferedImage in between.
+     *
+     * @param text of type String
+     * @return PNG bytes
+     * @throws WriterException when QR code is not generated
+     */
+    public static byte[] generateQrCodePng(String text) throws WriterException {
+        return bitMatrixToPng(generateBitMatrix(text));
     }
 
     public static byte[] bufferedImageToBytes(BufferedImage image) throws IOException {
@@ -27,4 +45,73 @@ public static byte[] bufferedImageToBytes(BufferedImage image) throws IOExceptio
         ImageIO.write(image, "png", baos);
         return baos.toByteArray();
     }
+
+    /**
+     * Encode a BitMatrix as a 1 bit grayscale PNG, set bits are black.
+     *
+     * @param matrix of type BitMatrix
+     * @return PNG bytes
+     */
+    public static byte[] bitMatrixToPng(BitMatrix matrix) {
+        int width = matrix.getWidth();
+        int height = matrix.getHeight();
+        int rowLength = (width + 7) / 8;
+
+        try {
+            ByteArrayOutputStream pixels = new ByteArrayOutputStream();
+            try (DeflaterOutputStream deflater = new DeflaterOutputStream(pixels)) {
+                byte[] row = new byte[rowLength + 1];
+                for (int y = 0; y < height; y++) {
+                    // First byte is the filter type, 0 is none.
+                    Arrays.fill(row, (byte) 0);
+                    for (int x = 0; x < width; x++) {
+                        if (!matrix.get(x, y)) {
+                            row[1 + x / 8] |= (byte) (0x80 >>> (x % 8));
+                        }
+                    }
+                    deflater.write(row);
+                }
+            }
+
+            ByteArrayOutputStream header = new ByteArrayOutputStream();
+            DataOutputStream ihdr = new DataOutputStream(header);
+            ihdr.writeInt(width);
+            ihdr.writeInt(height);
+            ihdr.writeByte(1); // bit depth
+            ihdr.writeByte(0); // grayscale
+            ihdr.writeByte(0); // deflate compression
+            ihdr.writeByte(0); // adaptive filtering
+            ihdr.writeByte(0); // no interlace
+
+            ByteArrayOutputStream png = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(png);
+            out.write(PNG_SIGNATURE);
+            writeChunk(out, "IHDR", header.toByteArray());
+            writeChunk(out, "IDAT", pixels.toByteArray());
+            writeChunk(out, "IEND", new byte[0]);
+
+            return png.toByteArray();
+        } catch (IOException e) {
+            // Only writes to memory, so this can not happen.
+            throw new IllegalStateException("Could not encode PNG", e);
+        }
+    }
+
+    private static BitMatrix generateBitMatrix(String text) throws WriterException {
+        QRCodeWriter qrCodeWriter = new QRCodeWriter();
+
+        return qrCodeWriter.encode(text, BarcodeFormat.QR_CODE, SIZE, SIZE);
+    }
+
+    private static void writeChunk(DataOutputStream out, String type, byte[] data) throws IOException {
+        byte[] typeBytes = type.getBytes(StandardCharsets.US_ASCII);
+        CRC32 crc = new CRC32();
+        crc.update(typeBytes);
+        crc.update(data);
+
+        out.writeInt(data.length);
+        out.write(typeBytes);
+        out.write(data);
+        out.writeInt((int) crc.getValue());
+    }
 }
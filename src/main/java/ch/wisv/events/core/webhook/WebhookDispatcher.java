@@ -0,0 +1,386 @@
+package ch.wisv.events.core.webhook;
+
+import ch.wisv.events.core.model.webhook.Webhook;
+import ch.wisv.events.core.model.webhook.WebhookTask;
+import ch.wisv.events.core.model.webhook.WebhookTaskStatus;
+import ch.wisv.events.core.repository.WebhookTaskRepository;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.util.EntityUtils;
+import org.json.simple.JSONArray;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * WebhookDispatcher class. Delivers WebhookTasks with a pool of workers sharing one pooled HTTP client. The number of
+ * workers per payload url is bounded and every payload url has its own circuit breaker, so a receiver that is down
+ * does not hold up the deliveries to the other receivers. Failed deliveries are retried with an exponential backoff.
+ * Batched webhooks receive their due tasks together, as JSON array.
+ */
+@Component
+@Slf4j
+public class WebhookDispatcher {
+
+    /** Number of seconds a worker may take to deliver a task before another worker may retry it. */
+    private static final int LEASE_SECONDS = 300;
+
+    /** Number of queued tasks per worker. */
+    private static final int QUEUE_SIZE_PER_WORKER = 10;
+
+    /** WebhookTaskRepository. */
+    private final WebhookTaskRepository webhookTaskRepository;
+
+    /** Shared HTTP client. */
+    private final CloseableHttpClient httpClient;
+
+    /** Workers delivering the tasks. */
+    private final ExecutorService workers;
+
+    /** Timer dispatching the tasks that are not due yet. */
+    private final ScheduledExecutorService delayed;
+
+    /** Endpoints by payload url. */
+    private final Map<String, WebhookEndpoint> endpoints = new ConcurrentHashMap<>();
+
+    /** Ids of the WebhookTasks handed to the endpoints and not finished yet. */
+    private final Set<Integer> inProgress = ConcurrentHashMap.newKeySet();
+
+    /** Maximum number of tasks queued at the endpoints. */
+    private final int maxQueued;
+
+    /** Maximum number of workers delivering to the same payload url. */
+    private final int workersPerEndpoint;
+
+    /** Maximum number of attempts to deliver a task. */
+    private final int maxAttempts;
+
+    /** Maximum number of tasks delivered in one request to a batched webhook. */
+    private final int batchSize;
+
+    /** Number of seconds before the first retry, doubled for every next retry. */
+    private final long retryDelay;
+
+    /** Number of consecutive failures after which the circuit of a payload url opens. */
+    private final int circuitFailureThreshold;
+
+    /** Number of seconds the circuit of a payload url stays open. */
+    private final long circuitOpenSeconds;
+
+    /**
+     * WebhookDispatcher constructor.
+     *
+     * @param webhookTaskRepository   of type WebhookTaskRepository
+     * @param workerCount             number of workers
+     * @param workersPerEndpoint      maximum number of workers delivering to the same payload url
+     * @param maxAttempts             maximum number of attempts to deliver a task
+     * @param batchSize               maximum number of tasks in one request to a batched webhook
+     * @param retryDelay              number of seconds before the first retry
+     * @param connectTimeout          connect timeout in milliseconds
+     * @param readTimeout             read timeout in milliseconds
+     * @param circuitFailureThreshold number of consecutive failures after which the circuit opens
+     * @param circuitOpenSeconds      number of seconds the circuit stays open
+     */
+    public WebhookDispatcher(
+            WebhookTaskRepository webhookTaskRepository,
+            @Value("${wisvch.events.webhook.workers:8}") int workerCount,
+            @Value("${wisvch.events.webhook.workers-per-endpoint:2}") int workersPerEndpoint,
+            @Value("${wisvch.events.webhook.max-attempts:10}") int maxAttempts,
+            @Value("${wisvch.events.webhook.batch-size:50}") int batchSize,
+            @Value("${wisvch.events.webhook.retry-delay:30}") long retryDelay,
+            @Value("${wisvch.events.webhook.connect-timeout:5000}") int connectTimeout,
+            @Value("${wisvch.events.webhook.read-timeout:10000}") int readTimeout,
+            @Value("${wisvch.events.webhook.circuit-failure-threshold:5}") int circuitFailureThreshold,
+            @Value("${wisvch.events.webhook.circuit-open:60}") long circuitOpenSeconds
+    ) {
+        this.webhookTaskRepository = webhookTaskRepository;
+        this.maxQueued = workerCount * QUEUE_SIZE_PER_WORKER;
+        this.workersPerEndpoint = workersPerEndpoint;
+        this.maxAttempts = maxAttempts;
+        this.batchSize = batchSize;
+        this.retryDelay = retryDelay;
+        this.circuitFailureThreshold = circuitFailureThreshold;
+        this.circuitOpenSeconds = circuitOpenSeconds;
+
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(workerCount);
+        connectionManager.setDefaultMaxPerRoute(workersPerEndpoint);
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout(connectTimeout)
+                .setConnectionRequestTimeout(connectTimeout)
+                .setSocketTimeout(readTimeout)
+                .build();
+        this.httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .build();
+
+        this.workers = Executors.newFixedThreadPool(workerCount, new CustomizableThreadFactory("webhook-worker-"));
+        this.delayed = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("webhook-delay-"));
+    }
+
+    /**
+     * Hand the due WebhookTasks to their endpoints, as many as fit in the queues.
+     */
+    public void dispatchDue() {
+        int capacity = maxQueued - inProgress.size();
+        if (capacity <= 0) {
+            return;
+        }
+
+        webhookTaskRepository.findDue(LocalDateTime.now(), PageRequest.of(0, capacity)).forEach(this::dispatch);
+    }
+
+    /**
+     * Hand a WebhookTask to the endpoint of its webhook. When the queues are full the task is left in the outbox, to
+     * be picked up by dispatchDue.
+     *
+     * @param webhookTask of type WebhookTask
+     */
+    public void dispatch(WebhookTask webhookTask) {
+        long delay = Duration.between(LocalDateTime.now(), webhookTask.getNextAttemptAt()).toMillis();
+        if (delay > 0) {
+            this.dispatchLater(webhookTask, delay);
+
+            return;
+        }
+
+        if (inProgress.size() >= maxQueued || !inProgress.add(webhookTask.getId())) {
+            return;
+        }
+
+        String payloadUrl = webhookTask.getWebhook().getPayloadUrl();
+        WebhookEndpoint endpoint = endpoints.computeIfAbsent(payloadUrl, url ->
+                new WebhookEndpoint(url, workersPerEndpoint, circuitFailureThreshold, circuitOpenSeconds));
+        endpoint.add(webhookTask.getId());
+
+        this.startWorkers(endpoint);
+    }
+
+    /**
+     * Stop the workers and close the HTTP client, tasks that are not delivered yet are delivered after a restart.
+     *
+     * @throws IOException when closing the HTTP client fails
+     */
+    @PreDestroy
+    public void shutdown() throws IOException {
+        delayed.shutdownNow();
+        workers.shutdown();
+        httpClient.close();
+    }
+
+    /**
+     * Dispatch a WebhookTask once its next attempt is due.
+     *
+     * @param webhookTask of type WebhookTask
+     * @param delay       delay in milliseconds
+     */
+    private void dispatchLater(WebhookTask webhookTask, long delay) {
+        try {
+            delayed.schedule(() -> this.dispatch(webhookTask), delay, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException ignored) {
+            // Shutting down, the task is picked up by the sweep after a restart.
+        }
+    }
+
+    /**
+     * Start workers for an endpoint until its queue is taken care of or its worker limit is reached.
+     *
+     * @param endpoint of type WebhookEndpoint
+     */
+    private void startWorkers(WebhookEndpoint endpoint) {
+        while (endpoint.tryStartWorker()) {
+            try {
+                workers.execute(() -> this.drain(endpoint));
+            } catch (RejectedExecutionException e) {
+                endpoint.stopWorker();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Deliver the queued WebhookTasks of an endpoint.
+     *
+     * @param endpoint of type WebhookEndpoint
+     */
+    private void drain(WebhookEndpoint endpoint) {
+        try {
+            Integer id;
+            while ((id = endpoint.poll()) != null) {
+                try {
+                    this.deliver(endpoint, id);
+                } catch (RuntimeException e) {
+                    endpoint.cancelRequest();
+                    log.error("Delivering WebhookTask #" + id + " failed: " + e.getMessage());
+                } finally {
+                    inProgress.remove(id);
+                }
+            }
+        } finally {
+            endpoint.stopWorker();
+        }
+
+        // A task may have been queued after the last poll, but before the worker slot was released.
+        this.startWorkers(endpoint);
+    }
+
+    /**
+     * Claim and deliver a WebhookTask. For a batched webhook the other due tasks of the webhook are claimed as well and
+     * delivered in the same request.
+     *
+     * @param endpoint of type WebhookEndpoint
+     * @param id       id of the WebhookTask
+     */
+    private void deliver(WebhookEndpoint endpoint, Integer id) {
+        LocalDateTime now = LocalDateTime.now();
+        if (!endpoint.allowRequest(now)) {
+            webhookTaskRepository.postpone(id, endpoint.getRetryAt(now));
+
+            return;
+        }
+
+        if (webhookTaskRepository.claim(id, now, now.plusSeconds(LEASE_SECONDS)) == 0) {
+            // Claimed by another worker, possibly as part of a batch.
+            endpoint.cancelRequest();
+
+            return;
+        }
+
+        WebhookTask webhookTask = webhookTaskRepository.findById(id).orElse(null);
+        if (webhookTask == null) {
+            endpoint.cancelRequest();
+
+            return;
+        }
+
+        Webhook webhook = webhookTask.getWebhook();
+        List<WebhookTask> webhookTasks = new ArrayList<>();
+        webhookTasks.add(webhookTask);
+        if (webhook.isBatched()) {
+            webhookTasks.addAll(this.claimBatch(webhookTask, now));
+        }
+
+        String payload;
+        if (webhook.isBatched()) {
+            JSONArray jsonArray = new JSONArray();
+            webhookTasks.forEach(task -> jsonArray.add(task.getObject()));
+            payload = jsonArray.toJSONString();
+        } else {
+            payload = webhookTask.getObject().toJSONString();
+        }
+
+        webhookTasks.forEach(task -> log.info("Starting WebhookTask #" + task.getId() + ": " + task));
+        String error = this.sendRequest(webhook, payload);
+
+        if (error == null) {
+            endpoint.onSuccess();
+        } else {
+            endpoint.onFailure(LocalDateTime.now());
+        }
+
+        webhookTasks.forEach(task -> this.finish(task, error));
+        webhookTaskRepository.saveAll(webhookTasks);
+    }
+
+    /**
+     * Claim the other due WebhookTasks of the webhook of a task, to deliver them in one batch.
+     *
+     * @param webhookTask of type WebhookTask
+     * @param now         current moment
+     *
+     * @return List of claimed WebhookTasks
+     */
+    private List<WebhookTask> claimBatch(WebhookTask webhookTask, LocalDateTime now) {
+        List<Integer> claimed = new ArrayList<>();
+        for (WebhookTask task : webhookTaskRepository.findDueByWebhook(webhookTask.getWebhook(), now, PageRequest.of(0, batchSize))) {
+            if (claimed.size() + 1 >= batchSize) {
+                break;
+            }
+
+            if (!task.getId().equals(webhookTask.getId())
+                    && webhookTaskRepository.claim(task.getId(), now, now.plusSeconds(LEASE_SECONDS)) > 0) {
+                claimed.add(task.getId());
+            }
+        }
+
+        // Reload the claimed tasks, their payload may have been coalesced until they were claimed.
+        return claimed.isEmpty() ? new ArrayList<>() : webhookTaskRepository.findAllById(claimed);
+    }
+
+    /**
+     * Update a delivered WebhookTask with the result of the delivery. A failed task is retried with an exponential
+     * backoff until the maximum number of attempts is reached.
+     *
+     * @param webhookTask of type WebhookTask
+     * @param error       error of the delivery, null when it succeeded
+     */
+    private void finish(WebhookTask webhookTask, String error) {
+        if (error == null) {
+            webhookTask.setWebhookTaskStatus(WebhookTaskStatus.SUCCESS);
+            webhookTask.setWebhookError(null);
+        } else {
+            log.error("WebhookTask #" + webhookTask.getId() + " failed on attempt " + webhookTask.getAttempts() + ": " + error);
+            webhookTask.setWebhookError(error);
+
+            if (webhookTask.getAttempts() >= maxAttempts) {
+                webhookTask.setWebhookTaskStatus(WebhookTaskStatus.ERROR);
+            } else {
+                webhookTask.setNextAttemptAt(LocalDateTime.now().plusSeconds(retryDelay << (webhookTask.getAttempts() - 1)));
+            }
+        }
+
+        log.info("Finished WebhookTask #" + webhookTask.getId());
+    }
+
+    /**
+     * Method sendRequest sends out the sendRequest to a url.
+     *
+     * @param webhook of type Webhook
+     * @param payload JSON payload
+     *
+     * @return String error, null when the request succeeded
+     */
+    private String sendRequest(Webhook webhook, String payload) {
+        HttpPost httpPost = new HttpPost(webhook.getPayloadUrl());
+
+        httpPost.setHeader("Content-type", "application/json");
+        httpPost.setHeader("Accept", "application/json");
+        httpPost.setHeader(
+                "EventAuthorization",
+                "Basic " + Base64.getEncoder().encodeToString(("CH events:" + webhook.getSecret()).getBytes())
+        );
+        httpPost.setEntity(new StringEntity(payload, "UTF8"));
+
+        try (CloseableHttpResponse response = httpClient.execute(httpPost)) {
+            int statusCode = response.getStatusLine().getStatusCode();
+            String responseBody = response.getEntity() == null ? "" : EntityUtils.toString(response.getEntity());
+
+            return statusCode >= 200 && statusCode < 300 ? null : "HTTP " + statusCode + ": " + responseBody;
+        } catch (IOException e) {
+            return e.toString();
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package ch.wisv.events.core.webhook;
+
+import java.time.LocalDateTime;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import lombok.Getter;
+
+/**
+ * WebhookEndpoint class. Holds the deliveries queued for one payload url, the number of workers delivering them and
+ * the state of the circuit breaker of the url.
+ */
+public class WebhookEndpoint {
+
+    /** Payload url of the endpoint. */
+    @Getter
+    private final String payloadUrl;
+
+    /** Ids of the WebhookTasks waiting for a worker. */
+    private final Queue<Integer> queue = new ConcurrentLinkedQueue<>();
+
+    /** Maximum number of workers delivering to this endpoint at the same time. */
+    private final int maxWorkers;
+
+    /** Number of consecutive failures after which the circuit opens. */
+    private final int failureThreshold;
+
+    /** Number of seconds the circuit stays open. */
+    private final long openSeconds;
+
+    /** Number of workers delivering to this endpoint. */
+    private int workers;
+
+    /** Number of consecutive failed deliveries. */
+    private int failures;
+
+    /** End of the period in which no deliveries are attempted. */
+    private LocalDateTime openUntil = LocalDateTime.MIN;
+
+    /** Whether the delivery testing a half open circuit is in progress. */
+    private boolean trialInProgress;
+
+    /**
+     * WebhookEndpoint constructor.
+     *
+     * @param payloadUrl       of type String
+     * @param maxWorkers       maximum number of workers delivering at the same time
+     * @param failureThreshold number of consecutive failures after which the circuit opens
+     * @param openSeconds      number of seconds the circuit stays open
+     */
+    public WebhookEndpoint(String payloadUrl, int maxWorkers, int failureThreshold, long openSeconds) {
+        this.payloadUrl = payloadUrl;
+        this.maxWorkers = maxWorkers;
+        this.failureThreshold = failureThreshold;
+        this.openSeconds = openSeconds;
+    }
+
+    /**
+     * Queue a WebhookTask for delivery.
+     *
+     * @param id id of the WebhookTask
+     */
+    public void add(Integer id) {
+        queue.add(id);
+    }
+
+    /**
+     * Take the next queued WebhookTask.
+     *
+     * @return id of the WebhookTask, null when the queue is empty
+     */
+    public Integer poll() {
+        return queue.poll();
+    }
+
+    /**
+     * Reserve a worker slot when there is queued work and a slot is free.
+     *
+     * @return boolean, true when the caller has to start a worker
+     */
+    public synchronized boolean tryStartWorker() {
+        if (queue.isEmpty() || workers >= maxWorkers) {
+            return false;
+        }
+        workers++;
+
+        return true;
+    }
+
+    /**
+     * Release a worker slot.
+     */
+    public synchronized void stopWorker() {
+        workers--;
+    }
+
+    /**
+     * Check if a delivery may be attempted. When the open period of the circuit has passed a single delivery is let
+     * through to test the endpoint.
+     *
+     * @param now current moment
+     *
+     * @return boolean
+     */
+    public synchronized boolean allowRequest(LocalDateTime now) {
+        if (failures < failureThreshold) {
+            return true;
+        }
+        if (now.isBefore(openUntil) || trialInProgress) {
+            return false;
+        }
+        trialInProgress = true;
+
+        return true;
+    }
+
+    /**
+     * Register that an allowed delivery was not attempted after all.
+     */
+    public synchronized void cancelRequest() {
+        trialInProgress = false;
+    }
+
+    /**
+     * Register a successful delivery, closing the circuit.
+     */
+    public synchronized void onSuccess() {
+        failures = 0;
+        trialInProgress = false;
+    }
+
+    /**
+     * Register a failed delivery, opening the circuit once the threshold is reached.
+     *
+     * @param now current moment
+     */
+    public synchronized void onFailure(LocalDateTime now) {
+        failures++;
+        trialInProgress = false;
+        if (failures >= failureThreshold) {
+            openUntil = now.plusSeconds(openSeconds);
+        }
+    }
+
+    /**
+     * Moment at which a delivery refused by the circuit breaker should be attempted again.
+     *
+     * @param now current moment
+     *
+     * @return LocalDateTime
+     */
+    public synchronized LocalDateTime getRetryAt(LocalDateTime now) {
+        return openUntil.isAfter(now) ? openUntil : now.plusSeconds(openSeconds);
+    }
+}
@@ -1,16 +1,16 @@
 package ch.wisv.events.core.webhook;
 
-import ch.wisv.events.core.exception.normal.EventNotFoundException;
 import ch.wisv.events.core.exception.runtime.WebhookRequestFactoryNotFoundException;
 import ch.wisv.events.core.exception.runtime.WebhookRequestObjectIncorrect;
 import ch.wisv.events.core.model.event.Event;
 import ch.wisv.events.core.model.product.Product;
-import ch.wisv.events.core.model.webhook.Webhook;
 import ch.wisv.events.core.model.webhook.WebhookTrigger;
 import ch.wisv.events.core.service.event.EventService;
 import ch.wisv.events.core.service.webhook.WebhookService;
 import ch.wisv.events.core.service.webhook.WebhookTaskService;
 import ch.wisv.events.core.webhook.factory.WebhookRequestFactory;
+import ch.wisv.events.utils.LdapGroup;
+import java.util.Collections;
 import org.json.simple.JSONObject;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
@@ -47,52 +47,43 @@ private WebhookPublisher(
     }
 
     /**
-     * Create all needed Webhook tasks for a certain trigger and content.
+     * Create all needed Webhook tasks for a certain trigger and content. The organizer of the content is resolved once,
+     * after which the receiving webhooks come from the routing table of the WebhookService.
      *
      * @param webhookTrigger of type WebhookTrigger.
      * @param content        of type Object.
      */
     public void createWebhookTask(WebhookTrigger webhookTrigger, Object content) {
         try {
+            if (webhookService.getByTrigger(webhookTrigger).isEmpty()) {
+                return;
+            }
+
             JSONObject jsonObject = WebhookRequestFactory.generateRequest(webhookTrigger, content);
 
-            webhookService.getByTrigger(webhookTrigger).forEach(webhook -> {
-                if (this.isWebhookAuthenticated(webhook, content)) {
-                    webhookTaskService.create(webhookTrigger, webhook, jsonObject);
-                }
-            });
+            webhookService.getByTriggerAndLdapGroup(webhookTrigger, this.getOrganizedBy(content))
+                    .forEach(webhook -> webhookTaskService.create(webhookTrigger, webhook, jsonObject));
         } catch (WebhookRequestFactoryNotFoundException | WebhookRequestObjectIncorrect ignored) {
         }
     }
 
     /**
-     * Check if a webhook is authenticated to receive the given update.
+     * Get the LDAP group organizing the given content.
      *
-     * @param webhook of type Webhook.
      * @param content of type Object.
      *
-     * @return boolean
+     * @return LdapGroup, null when it is unknown
      */
-    private boolean isWebhookAuthenticated(Webhook webhook, Object content) {
-        if (webhook.getLdapGroup() == ch.wisv.events.utils.LdapGroup.BEHEER) {
-            return true;
-        } else {
-            if (content instanceof Event event) {
-
-                return webhook.getLdapGroup() == event.getOrganizedBy();
-            } else if (content instanceof Product product) {
-
-                try {
-                    Event event = eventService.getByProduct(product);
-
-                    if (event.getOrganizedBy() == webhook.getLdapGroup()) {
-                        return true;
-                    }
-                } catch (EventNotFoundException ignored) {
-                }
+    private LdapGroup getOrganizedBy(Object content) {
+        if (content instanceof Event event) {
+            return event.getOrganizedBy();
+        } else if (content instanceof Product product) {
+            Event event = eventService.getByProducts(Collections.singletonList(product)).get(product.getId());
+            if (event != null) {
+                return event.getOrganizedBy();
             }
         }
 
-        return false;
+        return null;
     }
 }
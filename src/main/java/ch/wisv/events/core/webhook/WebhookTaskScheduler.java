@@ -1,94 +1,82 @@
 package ch.wisv.events.core.webhook;
 
-import ch.wisv.events.core.model.webhook.WebhookTask;
-import ch.wisv.events.core.model.webhook.WebhookTaskStatus;
-import ch.wisv.events.core.repository.WebhookTaskRepository;
-import java.io.IOException;
-import java.util.Base64;
-import java.util.List;
+import ch.wisv.events.core.service.webhook.WebhookTaskService;
+import java.time.LocalDateTime;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.http.HttpResponse;
-import org.apache.http.HttpStatus;
-import org.apache.http.client.HttpClient;
-import org.apache.http.client.methods.HttpPost;
-import org.apache.http.entity.StringEntity;
-import org.apache.http.impl.client.HttpClients;
-import org.apache.http.util.EntityUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+/**
+ * WebhookTaskScheduler class. WebhookTasks are dispatched right after they are committed, this scheduler only sweeps
+ * the outbox for the tasks that are left: tasks from before a restart, retries and tasks that did not fit the queues.
+ * Delivered tasks are deleted after the retention period.
+ */
 @Component
 @Slf4j
 public class WebhookTaskScheduler {
 
-    /** Task interval in seconds. */
+    /** Straggler sweep interval in seconds, new tasks and retries are dispatched without waiting for it. */
     private static final int WEBHOOK_TASK_INTERVAL_SECONDS = 60;
 
-    /** Initial task interval delay in seconds */
-    private static final int WEBHOOK_TASK_INTERVAL_INITIAL_DELAY = 600;
+    /** Retention task interval in seconds (1 hour). */
+    private static final int RETENTION_TASK_INTERVAL_SECONDS = 3600;
 
-    /** WebhookTaskRepository. */
-    private final WebhookTaskRepository webhookTaskRepository;
+    /** WebhookDispatcher. */
+    private final WebhookDispatcher webhookDispatcher;
+
+    /** WebhookTaskService. */
+    private final WebhookTaskService webhookTaskService;
+
+    /** Number of days delivered WebhookTasks are kept. */
+    private final int retentionDays;
 
     /**
      * Constructor WebhookTaskScheduler creates a new WebhookTaskScheduler instance.
      *
-     * @param webhookTaskRepository of type WebhookTaskRepository
+     * @param webhookDispatcher  of type WebhookDispatcher
+     * @param webhookTaskService of type WebhookTaskService
+     * @param retentionDays      number of days delivered WebhookTasks are kept
      */
     @Autowired
-    public WebhookTaskScheduler(WebhookTaskRepository webhookTaskRepository) {
-        this.webhookTaskRepository = webhookTaskRepository;
+    public WebhookTaskScheduler(
+            WebhookDispatcher webhookDispatcher,
+            WebhookTaskService webhookTaskService,
+            @Value("${wisvch.events.webhook.retention-days:30}") int retentionDays
+    ) {
+        this.webhookDispatcher = webhookDispatcher;
+        this.webhookTaskService = webhookTaskService;
+        this.retentionDays = retentionDays;
     }
 
     /**
-     * Method webhookTask ...
+     * Dispatch the WebhookTasks left in the outbox by a previous run.
      */
-    @Scheduled(fixedRate = WEBHOOK_TASK_INTERVAL_SECONDS * 1000, initialDelay = WEBHOOK_TASK_INTERVAL_INITIAL_DELAY * 1000)
-    public void webhookTask() {
-        List<WebhookTask> webhookTaskList = this.webhookTaskRepository.findAllByWebhookTaskStatus(WebhookTaskStatus.PENDING);
-
-        webhookTaskList.forEach(webhookTask -> {
-            log.info("Starting WebhookTask #" + webhookTask.getId() + ": " + webhookTask.toString());
-            this.sendRequest(webhookTask);
-        });
+    @EventListener(ApplicationReadyEvent.class)
+    public void startupSweep() {
+        webhookDispatcher.dispatchDue();
     }
 
     /**
-     * Method sendRequest sends out the sendRequest to a url.
-     *
-     * @param webhookTask of type Webhook
+     * Hand the due WebhookTasks that are left behind, for example postponed by an open circuit or not fitting the
+     * queues, to the WebhookDispatcher.
      */
-    private void sendRequest(WebhookTask webhookTask) {
-        HttpClient httpClient = HttpClients.createDefault();
-        HttpPost httpPost = new HttpPost(webhookTask.getWebhook().getPayloadUrl());
-
-        httpPost.setHeader("Content-type", "application/json");
-        httpPost.setHeader("Accept", "application/json");
-        httpPost.setHeader(
-                "EventAuthorization",
-                "Basic " + Base64.getEncoder().encodeToString(("CH events:" + webhookTask.getWebhook().getSecret()).getBytes())
-        );
-        httpPost.setEntity(new StringEntity(webhookTask.getObject().toJSONString(), "UTF8"));
-
-        try {
-            HttpResponse response = httpClient.execute(httpPost);
-            String responseBody = EntityUtils.toString(response.getEntity());
+    @Scheduled(fixedDelay = WEBHOOK_TASK_INTERVAL_SECONDS * 1000, initialDelay = WEBHOOK_TASK_INTERVAL_SECONDS * 1000)
+    public void webhookTask() {
+        webhookDispatcher.dispatchDue();
+    }
 
-            if (response.getStatusLine().getStatusCode() == HttpStatus.SC_OK) {
-                webhookTask.setWebhookTaskStatus(WebhookTaskStatus.SUCCESS);
-            } else {
-                log.error("FLASH_ERROR Task #" + webhookTask.getId() + ": " + responseBody);
-                webhookTask.setWebhookTaskStatus(WebhookTaskStatus.ERROR);
-                webhookTask.setWebhookError(responseBody);
-            }
-        } catch (IOException e) {
-            log.error("IOException Task #" + webhookTask.getId() + ": " + e.getMessage());
-            webhookTask.setWebhookTaskStatus(WebhookTaskStatus.ERROR);
-            webhookTask.setWebhookError(e.getMessage());
+    /**
+     * Delete the delivered WebhookTasks that are older than the retention period.
+     */
+    @Scheduled(fixedDelay = RETENTION_TASK_INTERVAL_SECONDS * 1000, initialDelay = RETENTION_TASK_INTERVAL_SECONDS * 1000)
+    public void retentionTask() {
+        int deleted = webhookTaskService.deleteDeliveredBefore(LocalDateTime.now().minusDays(retentionDays));
+        if (deleted > 0) {
+            log.info("Deleted " + deleted + " delivered WebhookTasks");
         }
-
-        log.info("Finished WebhookTask #" + webhookTask.getId());
-        this.webhookTaskRepository.save(webhookTask);
     }
 }
@@ -5,7 +5,9 @@
 import ch.wisv.events.core.model.event.Event;
 import ch.wisv.events.core.service.auth.AuthenticationService;
 import ch.wisv.events.core.service.event.EventService;
+import ch.wisv.events.core.service.ticket.TicketScanIndexService;
 import ch.wisv.events.sales.service.SalesService;
+import jakarta.servlet.http.HttpSession;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -37,28 +39,34 @@ public class SalesScanEventController {
     private final AuthenticationService authenticationService;
     /** SalesService. */
     private final SalesService salesService;
+    /** TicketScanIndexService. */
+    private final TicketScanIndexService ticketScanIndexService;
 
     /**
      * SalesScanEventController.
      *
      * @param eventService          of type EventService
      * @param authenticationService of type AuthenticationService
-     * @param salesService          of type SalesService
+     * @param salesService           of type SalesService
+     * @param ticketScanIndexService of type TicketScanIndexService
      */
     public SalesScanEventController(
             EventService eventService,
             AuthenticationService authenticationService,
-            SalesService salesService
+            SalesService salesService,
+            TicketScanIndexService ticketScanIndexService
     ) {
         this.eventService = eventService;
         this.authenticationService = authenticationService;
         this.salesService = salesService;
+        this.ticketScanIndexService = ticketScanIndexService;
     }
 
     /**
      * View to scan a ticket/code for an event.
      *
      * @param model    of type Model
+     * @param session  of type HttpSession
      * @param redirect of type RedirectAttributes
      * @param key      of type String
      * @param method   of type String
@@ -66,7 +74,13 @@ public SalesScanEventController(
      * @return String
      */
     @GetMapping("/{method}")
-    public String scanner(Model model, RedirectAttributes redirect, @PathVariable String key, @PathVariable String method) {
+    public String scanner(
+            Model model,
+            HttpSession session,
+            RedirectAttributes redirect,
+            @PathVariable String key,
+            @PathVariable String method
+    ) {
         try {
             Event event = eventService.getByKey(key);
             Customer currentUser = authenticationService.getCurrentCustomer();
@@ -75,6 +89,8 @@ public String scanner(Model model, RedirectAttributes redirect, @PathVariable St
 
                 return ERROR_REDIRECT;
             }
+            ticketScanIndexService.load(event);
+            SalesScanRestController.grantScanAccess(session, key);
             model.addAttribute(ATTR_EVENT, event);
 
             return "sales/scan/event/" + method;
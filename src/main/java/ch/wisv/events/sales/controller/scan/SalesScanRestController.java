@@ -1,25 +1,42 @@
 package ch.wisv.events.sales.controller.scan;
 
 import ch.wisv.events.core.exception.normal.EventsException;
+import ch.wisv.events.core.exception.normal.TicketCodeInvalidException;
 import ch.wisv.events.core.exception.normal.TicketNotFoundException;
 import ch.wisv.events.core.model.customer.Customer;
 import ch.wisv.events.core.model.event.Event;
-import ch.wisv.events.core.model.ticket.Ticket;
-import ch.wisv.events.core.model.ticket.TicketStatus;
+import ch.wisv.events.core.model.ticket.TicketScanEntry;
 import ch.wisv.events.core.service.auth.AuthenticationService;
 import ch.wisv.events.core.service.event.EventService;
+import ch.wisv.events.core.service.ticket.TicketCodeService;
+import ch.wisv.events.core.service.ticket.TicketScanIndexService;
 import ch.wisv.events.core.service.ticket.TicketService;
 import static ch.wisv.events.utils.ResponseEntityBuilder.createResponseEntity;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 
+import ch.wisv.events.sales.model.OfflineScanDto;
+import ch.wisv.events.sales.model.OfflineScanResult;
+import ch.wisv.events.sales.model.OfflineScanResultDto;
 import ch.wisv.events.sales.model.ScanDto;
+import ch.wisv.events.sales.model.ScanManifestDto;
 import ch.wisv.events.sales.service.SalesService;
+import jakarta.servlet.http.HttpSession;
 import org.json.simple.JSONObject;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
@@ -39,117 +56,251 @@ public class SalesScanRestController {
     /** Barcode length. */
     private static final int BARCODE_LENGTH = 13;
 
+    /** Session attribute with the keys of the Events the scanning session has access to. */
+    private static final String SESSION_ATTR_SCAN_ACCESS = "scanEventKeys";
+
     /** EventService. */
     private final EventService eventService;
 
     /** TicketService. */
     private final TicketService ticketService;
+    /** TicketCodeService. */
+    private final TicketCodeService ticketCodeService;
     /** AuthenticationService. */
     private final AuthenticationService authenticationService;
     /** SalesService. */
     private final SalesService salesService;
+    /** TicketScanIndexService. */
+    private final TicketScanIndexService ticketScanIndexService;
 
     /**
      * SalesScanRestController.
      *
-     * @param eventService          of type EventService
-     * @param ticketService         of type TicketService
-     * @param authenticationService of type AuthenticationService
-     * @param salesService          of type SalesService
+     * @param eventService           of type EventService
+     * @param ticketService          of type TicketService
+     * @param authenticationService  of type AuthenticationService
+     * @param salesService           of type SalesService
+     * @param ticketCodeService      of type TicketCodeService
+     * @param ticketScanIndexService of type TicketScanIndexService
      */
     public SalesScanRestController(
             EventService eventService,
             TicketService ticketService,
             AuthenticationService authenticationService,
-            SalesService salesService
+            SalesService salesService,
+            TicketCodeService ticketCodeService,
+            TicketScanIndexService ticketScanIndexService
     ) {
         this.eventService = eventService;
         this.ticketService = ticketService;
+        this.ticketCodeService = ticketCodeService;
         this.authenticationService = authenticationService;
         this.salesService = salesService;
+        this.ticketScanIndexService = ticketScanIndexService;
     }
 
     /**
+     * Remember that a scanning session has access to an Event, so its scans do not have to check the access again.
+     *
+     * @param session  of type HttpSession
+     * @param eventKey of type String
+     */
+    @SuppressWarnings("unchecked")
+    static void grantScanAccess(HttpSession session, String eventKey) {
+        Set<String> eventKeys = (Set<String>) session.getAttribute(SESSION_ATTR_SCAN_ACCESS);
+        if (eventKeys == null) {
+            eventKeys = ConcurrentHashMap.newKeySet();
+            session.setAttribute(SESSION_ATTR_SCAN_ACCESS, eventKeys);
+        }
+        eventKeys.add(eventKey);
+    }
+
+    /**
+     * Check if a scanning session has been granted access to an Event.
+     *
+     * @param session  of type HttpSession
+     * @param eventKey of type String
+     *
+     * @return boolean
+     */
+    @SuppressWarnings("unchecked")
+    private static boolean hasScanAccess(HttpSession session, String eventKey) {
+        Set<String> eventKeys = (Set<String>) session.getAttribute(SESSION_ATTR_SCAN_ACCESS);
+
+        return eventKeys != null && eventKeys.contains(eventKey);
+    }
+
+    /**
+     * @param session of type HttpSession
      * @param key     of type String
      * @param barcode of type String
      *
      * @return String
      */
     @PostMapping("/barcode")
-    public ResponseEntity barcodeScanner(@PathVariable String key, @RequestParam("barcode") String barcode) {
+    public ResponseEntity barcodeScanner(
+            HttpSession session, @PathVariable String key, @RequestParam("barcode") String barcode
+    ) {
         if (barcode.length() != BARCODE_LENGTH) {
             return createResponseEntity(HttpStatus.BAD_REQUEST, "Invalid EAN 13 barcode length!");
         }
 
         String uniqueCode = barcode.substring(barcode.length() - (UNIQUE_CODE_LEGACY_LENGTH + 1), barcode.length() - 1);
 
-        return this.handleScanTicket(key, uniqueCode);
+        return this.handleScanTicket(session, key, uniqueCode);
     }
 
     /**
-     * @param key  of type String
-     * @param code of type String
+     * @param session of type HttpSession
+     * @param key     of type String
+     * @param code    of type String
      *
      * @return String
      */
     @PostMapping("/code")
-    public ResponseEntity codeScanner(@PathVariable String key, @RequestParam("code") String code) {
-        if (code.length() != UNIQUE_CODE_UUID_LENGTH && code.length() != UNIQUE_CODE_LEGACY_LENGTH) {
+    public ResponseEntity codeScanner(HttpSession session, @PathVariable String key, @RequestParam("code") String code) {
+        if (code.length() != UNIQUE_CODE_UUID_LENGTH && code.length() != UNIQUE_CODE_LEGACY_LENGTH
+                && !ticketCodeService.isSigned(code)) {
             return createResponseEntity(HttpStatus.BAD_REQUEST, "Invalid unique code length!");
         }
 
-        return this.handleScanTicket(key, code);
+        return this.handleScanTicket(session, key, code);
     }
 
     /**
-     * Scan a Ticket using a unique code.
+     * Download the manifest of all Tickets of an Event, so a scanning device can keep scanning while offline.
      *
-     * @param event      of type Event
-     * @param uniqueCode of type String
+     * @param key of type String
      *
-     * @return Ticket
+     * @return String
+     */
+    @GetMapping("/manifest")
+    public ResponseEntity manifest(@PathVariable String key) {
+        try {
+            Event event = eventService.getByKey(key);
+            Customer currentUser = authenticationService.getCurrentCustomer();
+            if (!salesService.hasAccessToEvent(currentUser, event)) {
+                return createResponseEntity(HttpStatus.FORBIDDEN, "You do not have access to this event.");
+            }
+
+            List<ScanManifestDto> manifest = ticketService.getAllScanEntries(event).stream()
+                    .map(entry -> new ScanManifestDto(
+                            entry.getUniqueCode(), entry.getProductTitle(), entry.getOwnerName(), entry.getStatus()
+                    ))
+                    .collect(Collectors.toList());
+
+            return createResponseEntity(HttpStatus.OK, "Ticket manifest", manifest);
+        } catch (EventsException e) {
+            return createResponseEntity(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    /**
+     * Upload the scans a device made while offline. Scans are applied in order of their moment, a scan that has
+     * already been applied for the same device and moment is not reported as a conflict, so a sync can be retried.
+     *
+     * @param key   of type String
+     * @param scans of type List of OfflineScanDto
      *
-     * @throws EventsException when Ticket is not found or ticket has already been scanned
+     * @return String
      */
-    private Ticket getTicketByUniqueCode(Event event, String uniqueCode) throws EventsException {
-        return event.getProducts().stream()
-                .map(product -> {
-                    try {
-                        return ticketService.getByUniqueCode(product, uniqueCode);
-                    } catch (TicketNotFoundException ignored) {
-                        return null;
-                    }
-                })
-                .filter(Objects::nonNull)
-                .findFirst()
-                .orElseThrow(() -> new TicketNotFoundException("Ticket " + uniqueCode + " does not exists"));
+    @PostMapping("/sync")
+    public ResponseEntity sync(@PathVariable String key, @RequestBody List<OfflineScanDto> scans) {
+        try {
+            Event event = eventService.getByKey(key);
+            Customer currentUser = authenticationService.getCurrentCustomer();
+            if (!salesService.hasAccessToEvent(currentUser, event)) {
+                return createResponseEntity(HttpStatus.FORBIDDEN, "You do not have access to this event.");
+            }
+
+            List<OfflineScanResultDto> results = scans.stream()
+                    .sorted(Comparator.comparing(
+                            OfflineScanDto::getScannedAt, Comparator.nullsLast(Comparator.naturalOrder())
+                    ))
+                    .map(scan -> this.applyOfflineScan(event, scan))
+                    .collect(Collectors.toList());
+
+            return createResponseEntity(HttpStatus.OK, "Offline scans synchronised", results);
+        } catch (EventsException e) {
+            return createResponseEntity(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    /**
+     * Apply a single offline scan.
+     *
+     * @param event of type Event
+     * @param scan  of type OfflineScanDto
+     *
+     * @return OfflineScanResultDto
+     */
+    private OfflineScanResultDto applyOfflineScan(Event event, OfflineScanDto scan) {
+        TicketScanEntry entry;
+        try {
+            entry = ticketService.getScanEntry(event, scan.getCode());
+        } catch (TicketNotFoundException e) {
+            return new OfflineScanResultDto(scan.getCode(), OfflineScanResult.NOT_FOUND);
+        } catch (TicketCodeInvalidException e) {
+            return new OfflineScanResultDto(scan.getCode(), OfflineScanResult.INVALID);
+        }
+
+        LocalDateTime scannedAt = scan.getScannedAt() != null ? scan.getScannedAt() : LocalDateTime.now();
+        OfflineScanResult result;
+        if (ticketService.scan(entry, scannedAt, scan.getDeviceId())) {
+            result = OfflineScanResult.SCANNED;
+        } else if (this.isAppliedScan(scan, entry)) {
+            result = OfflineScanResult.ALREADY_APPLIED;
+        } else {
+            result = OfflineScanResult.CONFLICT;
+        }
+
+        OfflineScanResultDto dto = new OfflineScanResultDto(scan.getCode(), result);
+        dto.setTicket(new ScanDto(entry.getProductTitle(), entry.getOwnerName()));
+        dto.setScannedAt(entry.getScannedAt());
+        dto.setScanDevice(entry.getScanDevice());
+
+        return dto;
+    }
+
+    /**
+     * Check if an offline scan is the scan that has been applied to a Ticket, made by the same device at the same
+     * moment. Another scan of the same device is a reuse of the Ticket.
+     *
+     * @param scan  of type OfflineScanDto
+     * @param entry of type TicketScanEntry
+     *
+     * @return boolean
+     */
+    private boolean isAppliedScan(OfflineScanDto scan, TicketScanEntry entry) {
+        return scan.getDeviceId() != null && Objects.equals(scan.getDeviceId(), entry.getScanDevice())
+                && scan.getScannedAt() != null && entry.getScannedAt() != null
+                && scan.getScannedAt().truncatedTo(ChronoUnit.MILLIS)
+                        .equals(entry.getScannedAt().truncatedTo(ChronoUnit.MILLIS));
     }
 
     /**
      * Handle scan Tickets.
      *
-     * @param key  of type String
-     * @param code of type String
+     * @param session of type HttpSession
+     * @param key     of type String
+     * @param code    of type String
      *
      * @return String
      */
-    private ResponseEntity handleScanTicket(String key, String code) {
+    private ResponseEntity handleScanTicket(HttpSession session, String key, String code) {
         JSONObject json = new JSONObject();
 
         try {
-            Event event = eventService.getByKey(key);
-            Customer currentUser = authenticationService.getCurrentCustomer();
-            if (!salesService.hasAccessToEvent(currentUser, event)) {
+            Event event = this.getScanEvent(session, key);
+            if (event == null) {
                 return createResponseEntity(HttpStatus.FORBIDDEN, "You do not have access to this event.");
             }
-            Ticket ticket = this.getTicketByUniqueCode(event, code);
-            ScanDto scan = new ScanDto(ticket.getProduct().getTitle(), ticket.getOwner().getName());
+            TicketScanEntry entry = ticketService.getScanEntry(event, code);
+            ScanDto scan = new ScanDto(entry.getProductTitle(), entry.getOwnerName());
 
             json.put("ticket", scan);
 
-            if (ticket.getStatus() == TicketStatus.OPEN) {
-                ticketService.updateStatus(ticket, TicketStatus.SCANNED);
-
+            if (ticketService.scan(entry)) {
                 return createResponseEntity(HttpStatus.OK, "Ticket scan successful", json);
             } else {
                 return createResponseEntity(HttpStatus.ALREADY_REPORTED, "Ticket has already been scanned", json);
@@ -159,4 +310,33 @@ private ResponseEntity handleScanTicket(String key, String code) {
         }
     }
 
+    /**
+     * Get the Event to scan Tickets of. A scanning session that has been granted access to the Event gets the Event of
+     * the loaded scan index, otherwise the Event is loaded and the access of the current user is checked once.
+     *
+     * @param session of type HttpSession
+     * @param key     of type String
+     *
+     * @return Event, or null when the current user does not have access to the Event
+     *
+     * @throws EventsException when the Event does not exist
+     */
+    private Event getScanEvent(HttpSession session, String key) throws EventsException {
+        if (hasScanAccess(session, key)) {
+            Optional<Event> indexed = ticketScanIndexService.getEvent(key);
+            if (indexed.isPresent()) {
+                return indexed.get();
+            }
+        }
+
+        Event event = eventService.getByKey(key);
+        Customer currentUser = authenticationService.getCurrentCustomer();
+        if (!salesService.hasAccessToEvent(currentUser, event)) {
+            return null;
+        }
+        grantScanAccess(session, key);
+
+        return event;
+    }
+
 }
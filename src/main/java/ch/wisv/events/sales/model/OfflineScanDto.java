@@ -0,0 +1,23 @@
+package ch.wisv.events.sales.model;
+
+import java.time.LocalDateTime;
+import lombok.Data;
+
+@Data
+public class OfflineScanDto {
+
+    /**
+     * Unique code that has been scanned.
+     */
+    private String code;
+
+    /**
+     * Id of the scanning device.
+     */
+    private String deviceId;
+
+    /**
+     * Moment of the scan on the device.
+     */
+    private LocalDateTime scannedAt;
+}
@@ -0,0 +1,32 @@
+package ch.wisv.events.sales.model;
+
+/**
+ * Result of applying an offline scan.
+ */
+public enum OfflineScanResult {
+
+    /**
+     * The ticket has been scanned by this scan.
+     */
+    SCANNED,
+
+    /**
+     * The scan had already been applied for this device, e.g. when a sync is retried.
+     */
+    ALREADY_APPLIED,
+
+    /**
+     * The ticket had already been scanned by another device or online.
+     */
+    CONFLICT,
+
+    /**
+     * No ticket of the event has this code.
+     */
+    NOT_FOUND,
+
+    /**
+     * The signed code is forged or of another event.
+     */
+    INVALID
+}
@@ -0,0 +1,38 @@
+package ch.wisv.events.sales.model;
+
+import java.time.LocalDateTime;
+import lombok.Data;
+
+@Data
+public class OfflineScanResultDto {
+
+    /**
+     * Unique code that has been scanned.
+     */
+    private String code;
+
+    /**
+     * Result of the scan.
+     */
+    private OfflineScanResult result;
+
+    /**
+     * Ticket of the scan, null when not found.
+     */
+    private ScanDto ticket;
+
+    /**
+     * Moment the ticket has been scanned, for a conflict the moment of the scan that won.
+     */
+    private LocalDateTime scannedAt;
+
+    /**
+     * Device that scanned the ticket, for a conflict the device of the scan that won.
+     */
+    private String scanDevice;
+
+    public OfflineScanResultDto(String code, OfflineScanResult result) {
+        this.code = code;
+        this.result = result;
+    }
+}
@@ -0,0 +1,35 @@
+package ch.wisv.events.sales.model;
+
+import ch.wisv.events.core.model.ticket.TicketStatus;
+import lombok.Data;
+
+@Data
+public class ScanManifestDto {
+
+    /**
+     * Unique code of the ticket.
+     */
+    private String code;
+
+    /**
+     * Title of the product of the ticket.
+     */
+    private String productTitle;
+
+    /**
+     * The name of the ticket owner.
+     */
+    private String ownerName;
+
+    /**
+     * Status of the ticket.
+     */
+    private TicketStatus status;
+
+    public ScanManifestDto(String code, String productTitle, String ownerName, TicketStatus status) {
+        this.code = code;
+        this.productTitle = productTitle;
+        this.ownerName = ownerName;
+        this.status = status;
+    }
+}
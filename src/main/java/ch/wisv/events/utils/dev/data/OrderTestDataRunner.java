@@ -115,9 +115,8 @@ private ch.wisv.events.core.model.order.Order createOrder(JSONObject jsonObject)
 
             order.addOrderProduct(orderProduct);
             order.getOrderProducts().forEach(x -> {
+                this.productRepository.increaseSold(x.getProduct().getId(), 1);
                 x.getProduct().increaseSold(1);
-
-                this.productRepository.saveAndFlush(x.getProduct());
             });
             order.setStatus(OrderStatus.valueOf((String) jsonObject.get("orderStatus")));
 
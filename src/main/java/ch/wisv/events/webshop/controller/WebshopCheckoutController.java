@@ -3,12 +3,17 @@
 import ch.wisv.events.core.exception.normal.EventsException;
 import ch.wisv.events.core.exception.normal.OrderInvalidException;
 import ch.wisv.events.core.exception.normal.OrderNotFoundException;
+import ch.wisv.events.core.model.event.Event;
 import ch.wisv.events.core.model.order.Order;
 import ch.wisv.events.core.model.order.OrderProductDto;
 import ch.wisv.events.core.model.order.OrderStatus;
 import ch.wisv.events.core.service.auth.AuthenticationService;
 import ch.wisv.events.core.service.order.OrderService;
 import ch.wisv.events.core.service.order.OrderValidationService;
+import ch.wisv.events.core.service.queue.AdmissionQueueService;
+import jakarta.servlet.http.HttpServletRequest;
+import java.util.Objects;
+import java.util.Optional;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -36,35 +41,47 @@ public class WebshopCheckoutController extends WebshopController {
     /** Success message Order cancelled. */
     private static final String SUCCESS_MESSAGE_ORDER_CANCELLED = "Order has successfully been cancelled.";
 
+    /** Message customer has not been admitted by the admission queue. */
+    private static final String MESSAGE_ORDER_NOT_ADMITTED = "It is busy at the moment, please wait for your turn.";
+
     /** OrderValidationService. */
     private final OrderValidationService orderValidationService;
 
+    /** AdmissionQueueService. */
+    private final AdmissionQueueService admissionQueueService;
+
     /**
      * Constructor WebshopController.
      *
      * @param orderService           of type OrderService
      * @param orderValidationService of type OrderValidationService
      * @param authenticationService  of type AuthenticationService
+     * @param admissionQueueService  of type AdmissionQueueService
      */
     public WebshopCheckoutController(
             OrderService orderService,
             OrderValidationService orderValidationService,
-            AuthenticationService authenticationService
+            AuthenticationService authenticationService,
+            AdmissionQueueService admissionQueueService
     ) {
         super(orderService, authenticationService);
         this.orderValidationService = orderValidationService;
+        this.admissionQueueService = admissionQueueService;
     }
 
     /**
      * Post mapping for the checkout of a shopping basket.
      *
+     * @param request         of type HttpServletRequest
      * @param redirect        of type RedirectAttributes
      * @param orderProductDto of type OrderProductDto
      *
      * @return String
      */
     @PostMapping
-    public String checkoutShoppingBasket(RedirectAttributes redirect, @ModelAttribute OrderProductDto orderProductDto) {
+    public String checkoutShoppingBasket(
+            HttpServletRequest request, RedirectAttributes redirect, @ModelAttribute OrderProductDto orderProductDto
+    ) {
         try {
             if (orderProductDto.getProducts().isEmpty()) {
                 redirect.addFlashAttribute(MODEL_ATTR_ERROR, ERROR_MESSAGE_ORDER_WITHOUT_PRODUCTS);
@@ -78,8 +95,25 @@ public String checkoutShoppingBasket(RedirectAttributes redirect, @ModelAttribut
             }
 
             Order order = orderService.createOrderByOrderProductDto(orderProductDto);
+
+            // Send the customer to the waiting room before the Order is validated and stored.
+            Optional<Event> queued = this.getEventWithoutAdmission(request, order);
+            if (queued.isPresent()) {
+                redirect.addFlashAttribute(MODEL_ATTR_MESSAGE, MESSAGE_ORDER_NOT_ADMITTED);
+
+                return "redirect:/queue/" + queued.get().getKey();
+            }
+
             order.setCreatedBy(USERNAME_ORDER_CREATED);
             orderValidationService.assertOrderIsValid(order);
+
+            // The queue token is used up by this checkout, so a copied token can not pass the queue again.
+            Optional<String> notConsumed = this.getEventKeyWithoutConsumedAdmission(request, order);
+            if (notConsumed.isPresent()) {
+                redirect.addFlashAttribute(MODEL_ATTR_MESSAGE, MESSAGE_ORDER_NOT_ADMITTED);
+
+                return "redirect:/queue/" + notConsumed.get();
+            }
             orderService.create(order);
 
             return "redirect:/checkout/" + order.getPublicReference();
@@ -140,4 +174,43 @@ public String checkoutCancel(RedirectAttributes redirect, @PathVariable String k
             return REDIRECT_EVENTS_HOME;
         }
     }
+
+    /**
+     * Get an Event in the Order with an admission queue, which has not admitted the customer yet.
+     *
+     * @param request of type HttpServletRequest
+     * @param order   of type Order
+     *
+     * @return Optional Event
+     */
+    private Optional<Event> getEventWithoutAdmission(HttpServletRequest request, Order order) {
+        return order.getOrderProducts().stream()
+                .map(orderProduct -> orderProduct.getProduct().getEvent())
+                .filter(Objects::nonNull)
+                .filter(Event::isAdmissionQueue)
+                .filter(event -> !admissionQueueService.isAdmitted(
+                        event.getKey(), WebshopQueueController.getQueueToken(request, event.getKey())))
+                .findFirst();
+    }
+
+    /**
+     * Use the queue tokens of the Events in the Order with an admission queue, and get the key of the first Event of
+     * which the token could not be used because it has not been admitted or has been used before.
+     *
+     * @param request of type HttpServletRequest
+     * @param order   of type Order
+     *
+     * @return Optional key of the Event
+     */
+    private Optional<String> getEventKeyWithoutConsumedAdmission(HttpServletRequest request, Order order) {
+        return order.getOrderProducts().stream()
+                .map(orderProduct -> orderProduct.getProduct().getEvent())
+                .filter(Objects::nonNull)
+                .filter(Event::isAdmissionQueue)
+                .map(Event::getKey)
+                .distinct()
+                .filter(eventKey -> !admissionQueueService.consume(
+                        eventKey, WebshopQueueController.getQueueToken(request, eventKey)))
+                .findFirst();
+    }
 }
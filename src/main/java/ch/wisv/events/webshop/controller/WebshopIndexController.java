@@ -1,13 +1,10 @@
 package ch.wisv.events.webshop.controller;
 
 import ch.wisv.events.core.exception.normal.EventNotFoundException;
-import ch.wisv.events.core.model.event.Event;
 import ch.wisv.events.core.model.order.OrderProductDto;
 import ch.wisv.events.core.service.auth.AuthenticationService;
-import ch.wisv.events.core.service.event.EventService;
 import ch.wisv.events.core.service.order.OrderService;
 import ch.wisv.events.webshop.service.WebshopService;
-import java.util.List;
 
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Controller;
@@ -35,9 +32,6 @@ public class WebshopIndexController extends WebshopController {
     /** Model attr administrationCosts.  */
     private static final String MODEL_ATTR_ADMINISTRATION_COSTS = "administrationCosts";
 
-    /** EventService. */
-    private final EventService eventService;
-
     /** WebshopService. */
     private final WebshopService webshopService;
 
@@ -58,19 +52,16 @@ public class WebshopIndexController extends WebshopController {
     /**
      * WebshopController constructor.
      *
-     * @param eventService          of type EventService
      * @param webshopService        of type WebshopService
      * @param orderService          of type OrderService
      * @param authenticationService of type AuthenticationService.
      */
     protected WebshopIndexController(
-            EventService eventService,
             WebshopService webshopService,
             OrderService orderService,
             AuthenticationService authenticationService
     ) {
         super(orderService, authenticationService);
-        this.eventService = eventService;
         this.webshopService = webshopService;
     }
 
@@ -83,9 +74,8 @@ protected WebshopIndexController(
      */
     @GetMapping("/")
     public String index(Model model) {
-        List<Event> upcoming = eventService.getUpcoming();
         model.addAttribute(MODEL_ATTR_CUSTOMER, authenticationService.getCurrentCustomer());
-        model.addAttribute(MODEL_ATTR_EVENTS, webshopService.filterEventProductNotSalable(upcoming));
+        model.addAttribute(MODEL_ATTR_EVENTS, webshopService.getUpcomingEvents());
         model.addAttribute(MODEL_ATTR_ORDER_PRODUCT, new OrderProductDto());
         model.addAttribute(MODEL_ATTR_ADMINISTRATION_COSTS, administrationCosts);
         model.addAttribute("linkGTC", linkGTC);
@@ -105,7 +95,7 @@ public String index(Model model) {
     public String index(Model model, @PathVariable String key) {
         try {
             model.addAttribute(MODEL_ATTR_CUSTOMER, authenticationService.getCurrentCustomer());
-            model.addAttribute(MODEL_ATTR_EVENT, webshopService.filterEventProductNotSalable(eventService.getByKey(key)));
+            model.addAttribute(MODEL_ATTR_EVENT, webshopService.getEvent(key));
             model.addAttribute(MODEL_ATTR_ORDER_PRODUCT, new OrderProductDto());
             model.addAttribute(MODEL_ATTR_ADMINISTRATION_COSTS, administrationCosts);
 
@@ -184,16 +184,25 @@ private String payment(RedirectAttributes redirect, String key, PaymentMethod me
         try {
             Order order = this.getOrderAndCheck(key);
             order.setPaymentMethod(method);
-            order.setStatus(OrderStatus.PENDING);
-            orderService.update(order);
-            orderValidationService.assertOrderIsValidForPayment(order);
-
-            if (method.equals(PaymentMethod.CHPAY)) {
-                return "redirect:" + paymentsService.getCHpayUrl(order);
+            if (order.getStatus() == OrderStatus.CANCELLED) {
+                orderService.updateOrderStatus(order, OrderStatus.ASSIGNED);
             }
-
-            return "redirect:" + paymentsService.getMollieUrl(order);
-        } catch (OrderNotFoundException | OrderInvalidException e) {
+            // Reserves the products within their limit, a sold out product is reported before the customer pays.
+            orderService.updateOrderStatus(order, OrderStatus.PENDING);
+
+            try {
+                orderValidationService.assertOrderIsValidForPayment(order);
+                if (method.equals(PaymentMethod.CHPAY)) {
+                    return "redirect:" + paymentsService.getCHpayUrl(order);
+                }
+
+                return "redirect:" + paymentsService.getMollieUrl(order);
+            } catch (OrderInvalidException | RuntimeException e) {
+                // No payment has been created, so the reserved products are released again.
+                orderService.updateOrderStatus(order, OrderStatus.ASSIGNED);
+                throw e;
+            }
+        } catch (EventsException e) {
             redirect.addFlashAttribute(MODEL_ATTR_ERROR, e.getMessage());
 
             return REDIRECT_EVENTS_HOME;
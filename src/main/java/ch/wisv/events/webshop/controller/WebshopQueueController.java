@@ -0,0 +1,137 @@
+package ch.wisv.events.webshop.controller;
+
+import ch.wisv.events.core.exception.normal.AdmissionQueueTokenInvalidException;
+import ch.wisv.events.core.exception.normal.EventNotFoundException;
+import ch.wisv.events.core.model.event.Event;
+import ch.wisv.events.core.model.queue.AdmissionQueueStatus;
+import ch.wisv.events.core.service.auth.AuthenticationService;
+import ch.wisv.events.core.service.event.EventService;
+import ch.wisv.events.core.service.order.OrderService;
+import ch.wisv.events.core.service.queue.AdmissionQueueService;
+import static ch.wisv.events.utils.ResponseEntityBuilder.createResponseEntity;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.util.WebUtils;
+
+/**
+ * WebshopQueueController class.
+ */
+@Controller
+@RequestMapping("/queue")
+public class WebshopQueueController extends WebshopController {
+
+    /** Prefix of the cookie containing the queue token of an Event. */
+    private static final String COOKIE_QUEUE_TOKEN_PREFIX = "events-queue-";
+
+    /** Model attr event. */
+    private static final String MODEL_ATTR_EVENT = "event";
+
+    /** Model attr status. */
+    private static final String MODEL_ATTR_STATUS = "status";
+
+    /** EventService. */
+    private final EventService eventService;
+
+    /** AdmissionQueueService. */
+    private final AdmissionQueueService admissionQueueService;
+
+    /**
+     * WebshopQueueController constructor.
+     *
+     * @param eventService          of type EventService
+     * @param admissionQueueService of type AdmissionQueueService
+     * @param orderService          of type OrderService
+     * @param authenticationService of type AuthenticationService
+     */
+    public WebshopQueueController(
+            EventService eventService,
+            AdmissionQueueService admissionQueueService,
+            OrderService orderService,
+            AuthenticationService authenticationService
+    ) {
+        super(orderService, authenticationService);
+        this.eventService = eventService;
+        this.admissionQueueService = admissionQueueService;
+    }
+
+    /**
+     * Get the queue token of an Event from the cookies of a request.
+     *
+     * @param request  of type HttpServletRequest
+     * @param eventKey of type String
+     *
+     * @return queue token or null
+     */
+    static String getQueueToken(HttpServletRequest request, String eventKey) {
+        Cookie cookie = WebUtils.getCookie(request, COOKIE_QUEUE_TOKEN_PREFIX + eventKey);
+
+        return cookie == null ? null : cookie.getValue();
+    }
+
+    /**
+     * Waiting room of an Event. Hands out a queue token when the customer has none yet.
+     *
+     * @param model    of type Model
+     * @param request  of type HttpServletRequest
+     * @param response of type HttpServletResponse
+     * @param key      of type String
+     *
+     * @return String
+     */
+    @GetMapping("/{key}")
+    public String queue(Model model, HttpServletRequest request, HttpServletResponse response, @PathVariable String key) {
+        try {
+            Event event = eventService.getByKey(key);
+            if (!event.isAdmissionQueue()) {
+                return REDIRECT_EVENTS_HOME;
+            }
+
+            AdmissionQueueStatus status;
+            try {
+                status = admissionQueueService.getStatus(key, getQueueToken(request, key));
+            } catch (AdmissionQueueTokenInvalidException e) {
+                String token = admissionQueueService.join(event);
+                Cookie cookie = new Cookie(COOKIE_QUEUE_TOKEN_PREFIX + key, token);
+                cookie.setPath(request.getContextPath() + "/");
+                cookie.setHttpOnly(true);
+                response.addCookie(cookie);
+
+                status = admissionQueueService.getStatus(key, token);
+            }
+
+            model.addAttribute(MODEL_ATTR_EVENT, event);
+            model.addAttribute(MODEL_ATTR_STATUS, status);
+
+            return "webshop/queue/index";
+        } catch (EventNotFoundException | AdmissionQueueTokenInvalidException e) {
+            return REDIRECT_EVENTS_HOME;
+        }
+    }
+
+    /**
+     * Position in the queue of an Event, polled by the waiting room. Does not touch the database.
+     *
+     * @param request of type HttpServletRequest
+     * @param key     of type String
+     *
+     * @return ResponseEntity
+     */
+    @GetMapping("/{key}/status")
+    @ResponseBody
+    public ResponseEntity<?> status(HttpServletRequest request, @PathVariable String key) {
+        try {
+            return createResponseEntity(HttpStatus.OK, "", admissionQueueService.getStatus(key, getQueueToken(request, key)));
+        } catch (AdmissionQueueTokenInvalidException e) {
+            return createResponseEntity(HttpStatus.NOT_FOUND, e.getMessage());
+        }
+    }
+}
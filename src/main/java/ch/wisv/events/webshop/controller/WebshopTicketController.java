@@ -9,17 +9,19 @@
 import ch.wisv.events.core.service.customer.CustomerService;
 import ch.wisv.events.core.service.mail.MailService;
 import ch.wisv.events.core.service.order.OrderService;
+import ch.wisv.events.core.service.ticket.TicketImageService;
 import ch.wisv.events.core.service.ticket.TicketService;
-import ch.wisv.events.core.util.QrCode;
 import com.google.zxing.WriterException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
+import org.springframework.util.DigestUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import jakarta.servlet.http.HttpServletResponse;
-import java.awt.image.BufferedImage;
 import java.io.IOException;
 
 /**
@@ -41,6 +43,9 @@ public class WebshopTicketController extends WebshopController {
     /** MailService. */
     private final MailService mailService;
 
+    /** TicketImageService. */
+    private final TicketImageService ticketImageService;
+
     /**
      * @param authenticationService of type AuthenticationService
      * @param orderService          of type OrderService
@@ -51,12 +56,14 @@ public WebshopTicketController(
             CustomerService customerService,
             OrderService orderService,
             TicketService ticketService,
-            MailService mailService
+            MailService mailService,
+            TicketImageService ticketImageService
     ) {
         super(orderService, authenticationService);
         this.customerService = customerService;
         this.ticketService = ticketService;
         this.mailService = mailService;
+        this.ticketImageService = ticketImageService;
     }
 
     /** Get ticket transfer page.
@@ -140,7 +147,7 @@ public String transferTicket(Model model, RedirectAttributes redirect, @PathVari
      * Get QR-code of ticket.
      */
     @GetMapping("/{key}/qrcode.png")
-    public void getQrCode(HttpServletResponse response, @PathVariable String key) throws IOException {
+    public void getQrCode(HttpServletResponse response, WebRequest request, @PathVariable String key) throws IOException {
         Customer customer = authenticationService.getCurrentCustomer();
         try {
             Ticket ticket = ticketService.getByKey(key);
@@ -150,8 +157,13 @@ public void getQrCode(HttpServletResponse response, @PathVariable String key) th
                 return;
             }
 
-            BufferedImage qrCode = ticketService.generateQrCode(ticket);
-            byte[] bytes = QrCode.bufferedImageToBytes(qrCode);
+            byte[] bytes = ticketImageService.getQrCodePng(ticket);
+            String etag = "\"" + DigestUtils.md5DigestAsHex(bytes) + "\"";
+
+            response.setHeader(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+            if (request.checkNotModified(etag)) {
+                return;
+            }
 
             response.setContentType("image/png");
             response.setContentLength(bytes.length);
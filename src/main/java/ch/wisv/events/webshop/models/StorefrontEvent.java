@@ -0,0 +1,99 @@
+package ch.wisv.events.webshop.models;
+
+import ch.wisv.events.core.model.event.Event;
+import ch.wisv.events.core.model.event.EventCategory;
+import com.google.common.collect.ImmutableList;
+import java.time.LocalDateTime;
+import java.util.List;
+import lombok.Data;
+
+/**
+ * Immutable snapshot of an Event and its salable Products as shown in the webshop.
+ */
+@Data
+public class StorefrontEvent {
+
+    /**
+     * Key of the Event.
+     */
+    private final String key;
+
+    /**
+     * Title of the Event.
+     */
+    private final String title;
+
+    /**
+     * Short description of the Event.
+     */
+    private final String shortDescription;
+
+    /**
+     * Description of the Event.
+     */
+    private final String description;
+
+    /**
+     * Location of the Event.
+     */
+    private final String location;
+
+    /**
+     * Url of the image of the Event.
+     */
+    private final String imageUrl;
+
+    /**
+     * Url of the external ticket shop of the Event.
+     */
+    private final String externalProductUrl;
+
+    /**
+     * Start of the Event.
+     */
+    private final LocalDateTime start;
+
+    /**
+     * Categories of the Event.
+     */
+    private final List<EventCategory> categories;
+
+    /**
+     * Products of the Event that can be sold.
+     */
+    private final List<StorefrontProduct> products;
+
+    /**
+     * Whether the Event is sold out.
+     */
+    private final boolean soldOut;
+
+    /**
+     * StorefrontEvent constructor.
+     *
+     * @param event    of type Event
+     * @param products the Products of the Event that can be sold
+     */
+    public StorefrontEvent(Event event, List<StorefrontProduct> products) {
+        this.key = event.getKey();
+        this.title = event.getTitle();
+        this.shortDescription = event.getShortDescription();
+        this.description = event.getDescription();
+        this.location = event.getLocation();
+        this.imageUrl = event.getImageUrl();
+        this.externalProductUrl = event.getExternalProductUrl();
+        this.start = event.getStart();
+        this.categories = event.getCategories() == null ? ImmutableList.of() : ImmutableList.copyOf(event.getCategories());
+        this.products = ImmutableList.copyOf(products);
+        this.soldOut = event.isSoldOut();
+    }
+
+    /**
+     * Check if the event has an external ticket URL configured.
+     *
+     * @return boolean
+     */
+    public boolean hasExternalProductUrl() {
+        return this.externalProductUrl != null && this.externalProductUrl.length() > 0;
+    }
+}
@@ -0,0 +1,85 @@
+package ch.wisv.events.webshop.models;
+
+import ch.wisv.events.core.model.product.Product;
+import java.time.LocalDateTime;
+import lombok.Data;
+
+/**
+ * Immutable snapshot of a Product as shown in the webshop.
+ */
+@Data
+public class StorefrontProduct {
+
+    /**
+     * Key of the Product.
+     */
+    private final String key;
+
+    /**
+     * Title of the Product.
+     */
+    private final String title;
+
+    /**
+     * Description of the Product.
+     */
+    private final String description;
+
+    /**
+     * Cost of the Product.
+     */
+    private final Double cost;
+
+    /**
+     * Maximum number of the Product a customer may buy.
+     */
+    private final Integer maxSoldPerCustomer;
+
+    /**
+     * Whether only CH members may buy the Product.
+     */
+    private final boolean chOnly;
+
+    /**
+     * Whether the Product is sold out.
+     */
+    private final boolean soldOut;
+
+    /**
+     * Start of the sale of the Product.
+     */
+    private final LocalDateTime sellStart;
+
+    /**
+     * End of the sale of the Product.
+     */
+    private final LocalDateTime sellEnd;
+
+    /**
+     * StorefrontProduct constructor.
+     *
+     * @param product of type Product
+     */
+    public StorefrontProduct(Product product) {
+        this.key = product.getKey();
+        this.title = product.getTitle();
+        this.description = product.getDescription();
+        this.cost = product.getCost();
+        this.maxSoldPerCustomer = product.getMaxSoldPerCustomer();
+        this.chOnly = product.isChOnly();
+        this.soldOut = product.isSoldOut();
+        this.sellStart = product.getSellStart();
+        this.sellEnd = product.getSellEnd();
+    }
+
+    /**
+     * Check if the Product can be sold at a moment.
+     *
+     * @param moment of type LocalDateTime
+     *
+     * @return boolean
+     */
+    public boolean isSalableAt(LocalDateTime moment) {
+        return (sellStart == null || moment.isAfter(sellStart)) && (sellEnd == null || moment.isBefore(sellEnd));
+    }
+}
@@ -0,0 +1,36 @@
+package ch.wisv.events.webshop.service;
+
+import java.time.LocalDateTime;
+
+/**
+ * PaymentCallbackService interface.
+ */
+public interface PaymentCallbackService {
+
+    /**
+     * Record a callback of a payment provider, so it can be answered before the payment is looked up.
+     *
+     * @param providerReference of type String
+     */
+    void record(String providerReference);
+
+    /**
+     * Hand the due callbacks to the payment callback workers, as many as fit in their queue.
+     */
+    void processDue();
+
+    /**
+     * Look up the payments of the Orders that have been PENDING for a while, in case the callback of the provider got
+     * lost.
+     */
+    void reconcilePendingOrders();
+
+    /**
+     * Delete the processed and failed callbacks received before a moment.
+     *
+     * @param before of type LocalDateTime
+     *
+     * @return number of deleted callbacks
+     */
+    int deleteFinishedBefore(LocalDateTime before);
+}
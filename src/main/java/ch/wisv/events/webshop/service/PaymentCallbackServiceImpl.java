@@ -0,0 +1,277 @@
+package ch.wisv.events.webshop.service;
+
+import ch.wisv.events.core.model.order.PaymentCallback;
+import ch.wisv.events.core.model.order.PaymentCallbackStatus;
+import ch.wisv.events.core.model.order.PendingPayment;
+import ch.wisv.events.core.repository.OrderRepository;
+import ch.wisv.events.core.repository.PaymentCallbackRepository;
+import com.google.common.collect.ImmutableList;
+import jakarta.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+/**
+ * PaymentCallbackServiceImpl class. Callbacks of the payment providers are stored as PaymentCallbacks and processed by
+ * a bounded pool of workers. All pending callbacks of a provider reference are processed with a single lookup at the
+ * provider, failed lookups are retried with an exponential backoff.
+ */
+@Service
+@Slf4j
+public class PaymentCallbackServiceImpl implements PaymentCallbackService {
+
+    /** Number of seconds a worker may take to process a callback before another worker may retry it. */
+    private static final int LEASE_SECONDS = 300;
+
+    /** Number of queued callbacks per worker. */
+    private static final int QUEUE_SIZE_PER_WORKER = 10;
+
+    /** Number of PaymentCallbacks deleted at once. */
+    private static final int DELETE_BATCH_SIZE = 1000;
+
+    /** Statuses of the PaymentCallbacks that are no longer processed. */
+    private static final List<PaymentCallbackStatus> FINISHED_STATUSES =
+            ImmutableList.of(PaymentCallbackStatus.PROCESSED, PaymentCallbackStatus.FAILED);
+
+    /** PaymentCallbackRepository. */
+    private final PaymentCallbackRepository paymentCallbackRepository;
+
+    /** OrderRepository. */
+    private final OrderRepository orderRepository;
+
+    /** PaymentsService. */
+    private final PaymentsService paymentsService;
+
+    /** Workers processing the callbacks. */
+    private final ThreadPoolExecutor workers;
+
+    /** Provider references handed to the workers and not finished yet. */
+    private final Set<String> inProgress = ConcurrentHashMap.newKeySet();
+
+    /** Maximum number of attempts to process a callback. */
+    private final int maxAttempts;
+
+    /** Number of seconds before the first retry, doubled for every next retry. */
+    private final long retryDelay;
+
+    /** Number of minutes an Order has to be PENDING before its payment is looked up without a callback. */
+    private final long reconcileAfter;
+
+    /** Number of days after which PENDING Orders are no longer looked up. */
+    private final long reconcileMaxAge;
+
+    /** Maximum number of Orders looked up per reconciliation. */
+    private final int reconcileBatchSize;
+
+    /** Moment of creation of the last Order looked up by the previous reconciliation, null to start at the oldest. */
+    private LocalDateTime reconcileCursorCreatedAt;
+
+    /** Id of the last Order looked up by the previous reconciliation. */
+    private Integer reconcileCursorId;
+
+    /**
+     * PaymentCallbackServiceImpl constructor.
+     *
+     * @param paymentCallbackRepository of type PaymentCallbackRepository
+     * @param orderRepository           of type OrderRepository
+     * @param paymentsService           of type PaymentsService
+     * @param workerCount               number of workers
+     * @param maxAttempts               maximum number of attempts to process a callback
+     * @param retryDelay                number of seconds before the first retry
+     * @param reconcileAfter            number of minutes before a PENDING Order is looked up without a callback
+     * @param reconcileMaxAge           number of days after which PENDING Orders are no longer looked up
+     * @param reconcileBatchSize        maximum number of Orders looked up per reconciliation
+     */
+    public PaymentCallbackServiceImpl(
+            PaymentCallbackRepository paymentCallbackRepository,
+            OrderRepository orderRepository,
+            PaymentsService paymentsService,
+            @Value("${wisvch.events.payment-callback.workers:4}") int workerCount,
+            @Value("${wisvch.events.payment-callback.max-attempts:8}") int maxAttempts,
+            @Value("${wisvch.events.payment-callback.retry-delay:30}") long retryDelay,
+            @Value("${wisvch.events.payment-callback.reconcile-after:15}") long reconcileAfter,
+            @Value("${wisvch.events.payment-callback.reconcile-max-age:7}") long reconcileMaxAge,
+            @Value("${wisvch.events.payment-callback.reconcile-batch-size:100}") int reconcileBatchSize
+    ) {
+        this.paymentCallbackRepository = paymentCallbackRepository;
+        this.orderRepository = orderRepository;
+        this.paymentsService = paymentsService;
+        this.maxAttempts = maxAttempts;
+        this.retryDelay = retryDelay;
+        this.reconcileAfter = reconcileAfter;
+        this.reconcileMaxAge = reconcileMaxAge;
+        this.reconcileBatchSize = reconcileBatchSize;
+
+        this.workers = new ThreadPoolExecutor(
+                workerCount, workerCount, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(workerCount * QUEUE_SIZE_PER_WORKER),
+                new CustomizableThreadFactory("payment-callback-worker-")
+        );
+    }
+
+    /**
+     * Record a callback of a payment provider. A callback for a reference that is still waiting to be processed
+     * collapses into the waiting one.
+     *
+     * @param providerReference of type String
+     */
+    @Override
+    public void record(String providerReference) {
+        this.add(providerReference);
+        this.processDue();
+    }
+
+    /**
+     * Hand the due callbacks to the payment callback workers, as many as fit in their queue.
+     */
+    @Override
+    public void processDue() {
+        int capacity = workers.getQueue().remainingCapacity();
+        if (capacity == 0) {
+            return;
+        }
+
+        for (String providerReference : paymentCallbackRepository.findDueReferences(LocalDateTime.now(),
+                PageRequest.of(0, capacity))) {
+            if (!inProgress.add(providerReference)) {
+                continue;
+            }
+
+            try {
+                workers.execute(() -> {
+                    try {
+                        this.process(providerReference);
+                    } finally {
+                        inProgress.remove(providerReference);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                inProgress.remove(providerReference);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Look up the payments of the Orders that have been PENDING for a while, in case the callback of the provider got
+     * lost. The lookups are recorded as callbacks, so they are processed by the same bounded pool of workers and
+     * collapse with callbacks that are still waiting. Every reconciliation continues after the last Order of the
+     * previous one, starting at the oldest again once all Orders have been looked up, so Orders that stay PENDING at
+     * the provider do not keep newer Orders from being looked up.
+     */
+    @Override
+    public synchronized void reconcilePendingOrders() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime from = now.minusDays(reconcileMaxAge);
+        List<PendingPayment> payments = orderRepository.findPendingPayments(
+                from, now.minusMinutes(reconcileAfter),
+                reconcileCursorCreatedAt == null ? from : reconcileCursorCreatedAt,
+                reconcileCursorCreatedAt == null ? 0 : reconcileCursorId,
+                PageRequest.of(0, reconcileBatchSize)
+        );
+
+        if (payments.size() < reconcileBatchSize) {
+            reconcileCursorCreatedAt = null;
+            reconcileCursorId = null;
+        } else {
+            PendingPayment last = payments.get(payments.size() - 1);
+            reconcileCursorCreatedAt = last.getCreatedAt();
+            reconcileCursorId = last.getId();
+        }
+        if (payments.isEmpty()) {
+            return;
+        }
+
+        log.info("Reconciling the payments of " + payments.size() + " pending orders");
+        payments.forEach(payment -> this.add(payment.getChPaymentsReference()));
+        this.processDue();
+    }
+
+    /**
+     * Delete the processed and failed callbacks received before a moment, in batches.
+     *
+     * @param before of type LocalDateTime
+     *
+     * @return number of deleted callbacks
+     */
+    @Override
+    public int deleteFinishedBefore(LocalDateTime before) {
+        int deleted = 0;
+        List<Integer> ids;
+        do {
+            ids = paymentCallbackRepository.findIdsByStatusInReceivedBefore(
+                    FINISHED_STATUSES, before, PageRequest.of(0, DELETE_BATCH_SIZE));
+            paymentCallbackRepository.deleteAllByIdInBatch(ids);
+            deleted += ids.size();
+        } while (ids.size() == DELETE_BATCH_SIZE);
+
+        return deleted;
+    }
+
+    /**
+     * Shut the workers down, callbacks that are not processed yet are processed after a restart.
+     */
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdown();
+    }
+
+    /**
+     * Add a callback, unless a callback for the same reference is still waiting to be processed.
+     *
+     * @param providerReference of type String
+     */
+    private void add(String providerReference) {
+        if (!paymentCallbackRepository.existsByProviderReferenceAndStatus(providerReference, PaymentCallbackStatus.PENDING)) {
+            paymentCallbackRepository.save(new PaymentCallback(providerReference));
+        }
+    }
+
+    /**
+     * Claim the due callbacks of a provider reference and update the Order with the status of the payment.
+     *
+     * @param providerReference of type String
+     */
+    void process(String providerReference) {
+        LocalDateTime now = LocalDateTime.now();
+        if (paymentCallbackRepository.claim(providerReference, now, now.plusSeconds(LEASE_SECONDS)) == 0) {
+            // Claimed by a worker of another instance.
+            return;
+        }
+
+        String error = null;
+        try {
+            paymentsService.updateStatusByProviderReference(providerReference);
+        } catch (RuntimeException e) {
+            log.error("Payment callback for " + providerReference + " failed: " + e.getMessage());
+            error = e.toString();
+        }
+
+        List<PaymentCallback> callbacks = paymentCallbackRepository.findAllByProviderReferenceAndStatus(
+                providerReference, PaymentCallbackStatus.PROCESSING);
+        for (PaymentCallback callback : callbacks) {
+            callback.setLastError(error);
+
+            if (error == null) {
+                callback.setStatus(PaymentCallbackStatus.PROCESSED);
+            } else if (callback.getAttempts() >= maxAttempts) {
+                callback.setStatus(PaymentCallbackStatus.FAILED);
+            } else {
+                callback.setStatus(PaymentCallbackStatus.PENDING);
+                callback.setNextAttemptAt(LocalDateTime.now().plusSeconds(retryDelay << (callback.getAttempts() - 1)));
+            }
+        }
+
+        paymentCallbackRepository.saveAll(callbacks);
+    }
+}
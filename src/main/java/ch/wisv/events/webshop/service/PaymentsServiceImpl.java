@@ -7,7 +7,9 @@
 import be.woutschoovaerts.mollie.data.payment.PaymentResponse;
 import be.woutschoovaerts.mollie.exception.MollieException;
 import ch.wisv.events.core.exception.normal.EventsException;
+import ch.wisv.events.core.exception.normal.OrderInvalidException;
 import ch.wisv.events.core.exception.normal.OrderNotFoundException;
+import ch.wisv.events.core.http.HttpGateway;
 import ch.wisv.events.core.model.order.Order;
 import ch.wisv.events.core.model.order.OrderProduct;
 import ch.wisv.events.core.model.order.OrderStatus;
@@ -40,6 +42,13 @@
 @Service
 public class PaymentsServiceImpl implements PaymentsService {
 
+    /**
+     * Statuses of an Order that a payment provider can no longer change.
+     */
+    private static final Set<OrderStatus> FINAL_STATUSES = EnumSet.of(
+            OrderStatus.PAID, OrderStatus.REJECTED, OrderStatus.EXPIRED, OrderStatus.ERROR
+    );
+
     /**
      * OrderService.
      */
@@ -55,6 +64,11 @@ public class PaymentsServiceImpl implements PaymentsService {
      */
     private final MailService mailService;
 
+    /**
+     * HttpGateway.
+     */
+    private final HttpGateway httpGateway;
+
     /**
      * Payments client url for mollie.
      */
@@ -84,24 +98,27 @@ public class PaymentsServiceImpl implements PaymentsService {
      * @param orderService of type OrderService
      * @param apiKey       of type String
      * @param mailService  of type MailService
+     * @param httpGateway  of type HttpGateway
      */
     @Autowired
-    public PaymentsServiceImpl(OrderService orderService, @Value("${mollie.apikey:null}") String apiKey, MailService mailService, OAuth2AuthorizedClientService authorizedClientService) {
+    public PaymentsServiceImpl(OrderService orderService, @Value("${mollie.apikey:null}") String apiKey, MailService mailService, HttpGateway httpGateway, OAuth2AuthorizedClientService authorizedClientService) {
         this.orderService = orderService;
         this.mailService = mailService;
+        this.httpGateway = httpGateway;
         this.mollie = new ClientBuilder().withApiKey(apiKey).build();
         this.authorizedClientService = authorizedClientService;
     }
 
-    public PaymentsServiceImpl(OrderService orderService, Client mollie, MailService mailService) {
+    public PaymentsServiceImpl(OrderService orderService, Client mollie, MailService mailService, HttpGateway httpGateway) {
         this.orderService = orderService;
         this.mailService = mailService;
+        this.httpGateway = httpGateway;
         this.mollie = mollie;
     }
 
     @Override
     public String getCHpayUrl(Order order) {
-        RestTemplate restTemplate = new RestTemplate();
+        RestTemplate restTemplate = httpGateway.getRestTemplate(HttpGateway.CHPAY);
 
         Map<String, Object> metadata = new HashMap<>();
 
@@ -227,7 +244,8 @@ protected PaymentRequest createMolliePaymentRequestFromOrder(Order order) {
 
 
     /**
-     * updates the order status with the given provider reference.
+     * updates the order status with the given provider reference. A redelivered callback of an Order that already has
+     * a final status is ignored, without looking up the payment.
      *
      * @param providerOrderReference reference of the order used by mollie
      */
@@ -235,6 +253,9 @@ protected PaymentRequest createMolliePaymentRequestFromOrder(Order order) {
     public void updateStatusByProviderReference(String providerOrderReference) {
         try {
             Order order = orderService.getByChPaymentsReference(providerOrderReference);
+            if (FINAL_STATUSES.contains(order.getStatus())) {
+                return;
+            }
             PaymentMethod method = order.getPaymentMethod();
 
             switch (method) {
@@ -265,11 +286,11 @@ private Order updateOrder(Order order) {
             // statuses to translate to our own status.
 
             switch (paymentResponse.getStatus()) {
-                case PENDING -> orderService.updateOrderStatus(order,OrderStatus.PENDING);
-                case CANCELED -> orderService.updateOrderStatus(order,OrderStatus.CANCELLED);
-                case EXPIRED -> orderService.updateOrderStatus(order,OrderStatus.EXPIRED);
-                case PAID -> orderService.updateOrderStatus(order,OrderStatus.PAID);
-                default -> orderService.updateOrderStatus(order,order.getStatus());
+                case PENDING -> this.updateOrderStatus(order, OrderStatus.PENDING);
+                case CANCELED -> this.updateOrderStatus(order, OrderStatus.CANCELLED);
+                case EXPIRED -> this.updateOrderStatus(order, OrderStatus.EXPIRED);
+                case PAID -> this.updateOrderStatus(order, OrderStatus.PAID);
+                default -> this.updateOrderStatus(order, order.getStatus());
             }
             return orderService.saveAndFlush(order);
 
@@ -282,6 +303,29 @@ private Order updateOrder(Order order) {
         }
     }
 
+    /**
+     * Update the status of an Order to the status of its payment, unless the status is unchanged. A status change
+     * that lost from a concurrent change to a final status, for example by the callback and the redirect of the same
+     * payment, is not an error.
+     *
+     * @param order  of type Order
+     * @param status of type OrderStatus
+     * @throws EventsException when the status change is not allowed
+     */
+    private void updateOrderStatus(Order order, OrderStatus status) throws EventsException {
+        if (order.getStatus() == status) {
+            return;
+        }
+
+        try {
+            orderService.updateOrderStatus(order, status);
+        } catch (OrderInvalidException e) {
+            if (!FINAL_STATUSES.contains(order.getStatus())) {
+                throw e;
+            }
+        }
+    }
+
     private void handleMollieError(MollieException mollieException) {
         // Some error occured, but connection to Mollie succeeded, which means they have something to say.
         Map molliePaymentError = mollieException.getDetails();
@@ -315,7 +359,7 @@ private Order updateCHPayOrder(Order order) {
 
             UriComponentsBuilder builder = UriComponentsBuilder.fromHttpUrl(CHPayUri + "/external-payment/status").queryParam("PaymentId", paymentID);
 
-            RestTemplate restTemplate = new RestTemplate();
+            RestTemplate restTemplate = httpGateway.getRestTemplate(HttpGateway.CHPAY);
 
             HttpHeaders httpHeaders = new HttpHeaders();
             httpHeaders.setBearerAuth(chpayApiKey);
@@ -330,21 +374,24 @@ private Order updateCHPayOrder(Order order) {
             );
 
             TransactionStatus response = requestEntity.getBody();
+            if (response == null) {
+                throw new IllegalStateException("CHPay returned no status for payment " + paymentID);
+            }
 
             // There are a couple of possible statuses. Enum would have been nice. We select a couple of relevant
             // statuses to translate to our own status.
 
             switch (response) {
-                case PENDING -> orderService.updateOrderStatus(order,OrderStatus.PENDING);
-                case FAILED, CANCELLED -> orderService.updateOrderStatus(order,OrderStatus.CANCELLED);
-                case SUCCESSFUL -> orderService.updateOrderStatus(order,OrderStatus.PAID);
-                default -> orderService.updateOrderStatus(order,order.getStatus());
+                case PENDING -> this.updateOrderStatus(order, OrderStatus.PENDING);
+                case FAILED, CANCELLED -> this.updateOrderStatus(order, OrderStatus.CANCELLED);
+                case SUCCESSFUL -> this.updateOrderStatus(order, OrderStatus.PAID);
+                default -> this.updateOrderStatus(order, order.getStatus());
             }
             return orderService.saveAndFlush(order);
 
-        } catch (Exception e) {
-            e.printStackTrace();
-            return order;
+        } catch (EventsException e) {
+            // A failed status lookup propagates, so the callback is retried like a failed Mollie lookup.
+            throw new RuntimeException(e);
         }
     }
 }
@@ -1,6 +1,7 @@
 package ch.wisv.events.webshop.service;
 
-import ch.wisv.events.core.model.event.Event;
+import ch.wisv.events.core.exception.normal.EventNotFoundException;
+import ch.wisv.events.webshop.models.StorefrontEvent;
 import java.util.List;
 
 /**
@@ -9,20 +10,19 @@
 public interface WebshopService {
 
     /**
-     * Filter the products in a Event which are not sold now.
+     * Get the upcoming Events with the Products that can be sold now, leaving out the Events without anything to sell.
      *
-     * @param event of type Event
-     *
-     * @return Event
+     * @return List of StorefrontEvents
      */
-    Event filterEventProductNotSalable(Event event);
+    List<StorefrontEvent> getUpcomingEvents();
 
     /**
-     * Filter the products by events if they can be sold or not.
+     * Get an Event with the Products that can be sold now.
      *
-     * @param events of type List
+     * @param key key of the Event
      *
-     * @return List
+     * @return StorefrontEvent
+     * @throws EventNotFoundException when the Event does not exist
      */
-    List<Event> filterEventProductNotSalable(List<Event> events);
+    StorefrontEvent getEvent(String key) throws EventNotFoundException;
 }
@@ -1,78 +1,287 @@
 package ch.wisv.events.webshop.service;
 
+import ch.wisv.events.core.exception.normal.EventNotFoundException;
+import ch.wisv.events.core.model.event.CatalogChangedEvent;
 import ch.wisv.events.core.model.event.Event;
 import ch.wisv.events.core.model.product.Product;
+import ch.wisv.events.core.service.event.EventService;
+import ch.wisv.events.webshop.models.StorefrontEvent;
+import ch.wisv.events.webshop.models.StorefrontProduct;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.function.Predicate;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 /**
- * WebshopServiceImpl class.
+ * WebshopServiceImpl class. The upcoming Events are served from an immutable snapshot, which is rebuilt after an Event
+ * or Product has been written, after the sale of a Product has started or ended, or at most once per
+ * COUNTS_REFRESH_SECONDS after the counts of a Product have changed. A single request rebuilds an outdated snapshot,
+ * the other requests are served the previous snapshot in the meantime.
  */
 @Service
 public class WebshopServiceImpl implements WebshopService {
 
+    /** Minimal number of seconds between two rebuilds caused by changed Product counts. */
+    private static final int COUNTS_REFRESH_SECONDS = 5;
+
+    /** EventService. */
+    private final EventService eventService;
+
+    /** Read only transaction in which the snapshot is built, so lazy relations of the Events can be loaded. */
+    private final TransactionTemplate readOnlyTransaction;
+
+    /** Version of the catalog, increased on every write. */
+    private final AtomicLong catalogVersion = new AtomicLong();
+
+    /** Version of the Product counts, increased on every change of the sold or reserved counts. */
+    private final AtomicLong countsVersion = new AtomicLong();
+
+    /** Held by the request rebuilding the snapshot. */
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+
+    /** Current snapshot, null until the first request. */
+    private volatile Storefront storefront;
+
     /**
-     * Filter the products in a Event which are not sold now.
+     * WebshopServiceImpl constructor.
      *
-     * @param event of type Event
+     * @param eventService       of type EventService
+     * @param transactionManager of type PlatformTransactionManager
+     */
+    public WebshopServiceImpl(EventService eventService, PlatformTransactionManager transactionManager) {
+        this.eventService = eventService;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Get the upcoming Events with the Products that can be sold now, leaving out the Events without anything to sell.
      *
-     * @return Event
+     * @return List of StorefrontEvents
      */
     @Override
-    public Event filterEventProductNotSalable(Event event) {
-        List<Product> salableProducts = event.getProducts().stream()
-                .filter(this.isAfterSellStart())
-                .filter(this.isBeforeSellEnd())
-                .collect(Collectors.toList());
-        event.setProducts(salableProducts);
-
-        return event;
+    public List<StorefrontEvent> getUpcomingEvents() {
+        return this.getStorefront().events;
     }
 
     /**
-     * Filter the products by events if they can be sold or not.
+     * Get an Event with the Products that can be sold now. Events that are not upcoming are loaded from the database.
      *
-     * @param events of type List
+     * @param key key of the Event
      *
-     * @return List
+     * @return StorefrontEvent
+     * @throws EventNotFoundException when the Event does not exist
      */
     @Override
-    public List<Event> filterEventProductNotSalable(List<Event> events) {
-        return events.stream().map(this::filterEventProductNotSalable)
-                .filter(event -> event.getProducts().size() > 0 || event.hasExternalProductUrl())
-                .collect(Collectors.toList());
+    public StorefrontEvent getEvent(String key) throws EventNotFoundException {
+        StorefrontEvent upcoming = this.getStorefront().eventsByKey.get(key);
+        if (upcoming != null) {
+            return upcoming;
+        }
+
+        StorefrontEvent event = readOnlyTransaction.execute(status -> {
+            try {
+                return this.toStorefrontEvent(eventService.getByKey(key), LocalDateTime.now());
+            } catch (EventNotFoundException e) {
+                return null;
+            }
+        });
+        if (event == null) {
+            throw new EventNotFoundException("key " + key);
+        }
+
+        return event;
+    }
+
+    /**
+     * Invalidate the snapshot when an Event or Product has been written or its counts have changed. It is invalidated
+     * again when the transaction of the change completes, so a snapshot built from the state before the commit, or of
+     * a change that has been rolled back, is not kept.
+     *
+     * @param event of type CatalogChangedEvent
+     */
+    @EventListener
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        AtomicLong version = event.isCountsOnly() ? countsVersion : catalogVersion;
+        version.incrementAndGet();
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    version.incrementAndGet();
+                }
+            });
+        }
     }
 
     /**
-     * Check if Product is after sell start.
+     * Get the current snapshot. An outdated snapshot is rebuilt by the request that gets the rebuild lock, the other
+     * requests are served the outdated snapshot meanwhile. Requests only wait for the very first snapshot.
      *
-     * @return Predicate
+     * @return Storefront
      */
-    private Predicate<Product> isAfterSellStart() {
-        return product -> {
-            if (product.getSellStart() == null) {
-                return true;
-            } else {
-                return LocalDateTime.now().isAfter(product.getSellStart());
+    private Storefront getStorefront() {
+        Storefront current = storefront;
+        if (current != null && current.isValid(catalogVersion.get(), countsVersion.get(), LocalDateTime.now())) {
+            return current;
+        }
+
+        if (current == null) {
+            rebuildLock.lock();
+        } else if (!rebuildLock.tryLock()) {
+            return current;
+        }
+
+        try {
+            current = storefront;
+            long version = catalogVersion.get();
+            long counts = countsVersion.get();
+            if (current == null || !current.isValid(version, counts, LocalDateTime.now())) {
+                current = readOnlyTransaction.execute(status -> this.build(version, counts, LocalDateTime.now()));
+                storefront = current;
             }
-        };
+
+            return current;
+        } finally {
+            rebuildLock.unlock();
+        }
     }
 
     /**
-     * Check if Product is in sell interval.
+     * Build a snapshot of the upcoming Events.
      *
-     * @return Predicate
+     * @param version version of the catalog the snapshot is built from
+     * @param counts  version of the Product counts the snapshot is built from
+     * @param now     moment the snapshot is built
+     *
+     * @return Storefront
      */
-    private Predicate<Product> isBeforeSellEnd() {
-        return product -> {
-            if (product.getSellEnd() == null) {
-                return true;
-            } else {
-                return LocalDateTime.now().isBefore(product.getSellEnd());
+    private Storefront build(long version, long counts, LocalDateTime now) {
+        Map<String, StorefrontEvent> eventsByKey = new LinkedHashMap<>();
+        LocalDateTime validUntil = LocalDateTime.MAX;
+
+        for (Event event : eventService.getUpcoming()) {
+            eventsByKey.put(event.getKey(), this.toStorefrontEvent(event, now));
+
+            validUntil = this.earliestAfter(now, validUntil, event.getEnding());
+            for (Product product : event.getProducts()) {
+                validUntil = this.earliestAfter(now, validUntil, product.getSellStart());
+                validUntil = this.earliestAfter(now, validUntil, product.getSellEnd());
             }
-        };
+        }
+
+        List<StorefrontEvent> events = eventsByKey.values().stream()
+                .filter(event -> event.getProducts().size() > 0 || event.hasExternalProductUrl())
+                .collect(ImmutableList.toImmutableList());
+
+        return new Storefront(version, counts, now, validUntil, events, ImmutableMap.copyOf(eventsByKey));
+    }
+
+    /**
+     * Create a snapshot of an Event with the Products that can be sold at a moment.
+     *
+     * @param event of type Event
+     * @param now   of type LocalDateTime
+     *
+     * @return StorefrontEvent
+     */
+    private StorefrontEvent toStorefrontEvent(Event event, LocalDateTime now) {
+        List<StorefrontProduct> products = event.getProducts().stream()
+                .map(StorefrontProduct::new)
+                .filter(product -> product.isSalableAt(now))
+                .collect(Collectors.toList());
+
+        return new StorefrontEvent(event, products);
+    }
+
+    /**
+     * Move the end of the validity of a snapshot forward to a boundary, when the boundary is in the future.
+     *
+     * @param now        of type LocalDateTime
+     * @param validUntil current end of the validity
+     * @param boundary   moment at which the snapshot changes, may be null
+     *
+     * @return LocalDateTime
+     */
+    private LocalDateTime earliestAfter(LocalDateTime now, LocalDateTime validUntil, LocalDateTime boundary) {
+        return boundary != null && boundary.isAfter(now) && boundary.isBefore(validUntil) ? boundary : validUntil;
+    }
+
+    /**
+     * Immutable snapshot of the upcoming Events.
+     */
+    private static final class Storefront {
+
+        /** Version of the catalog the snapshot has been built from. */
+        private final long version;
+
+        /** Version of the Product counts the snapshot has been built from. */
+        private final long countsVersion;
+
+        /** Moment at which the snapshot has been built. */
+        private final LocalDateTime builtAt;
+
+        /** Moment at which a Product or Event in the snapshot starts or stops being sold. */
+        private final LocalDateTime validUntil;
+
+        /** Upcoming Events with something to sell. */
+        private final List<StorefrontEvent> events;
+
+        /** All upcoming Events by key. */
+        private final Map<String, StorefrontEvent> eventsByKey;
+
+        /**
+         * Storefront constructor.
+         *
+         * @param version       of type long
+         * @param countsVersion of type long
+         * @param builtAt       of type LocalDateTime
+         * @param validUntil    of type LocalDateTime
+         * @param events        of type List
+         * @param eventsByKey   of type Map
+         */
+        private Storefront(
+                long version,
+                long countsVersion,
+                LocalDateTime builtAt,
+                LocalDateTime validUntil,
+                List<StorefrontEvent> events,
+                Map<String, StorefrontEvent> eventsByKey
+        ) {
+            this.version = version;
+            this.countsVersion = countsVersion;
+            this.builtAt = builtAt;
+            this.validUntil = validUntil;
+            this.events = events;
+            this.eventsByKey = eventsByKey;
+        }
+
+        /**
+         * Check if the snapshot is still up to date. Changed Product counts only outdate a snapshot that is older than
+         * COUNTS_REFRESH_SECONDS.
+         *
+         * @param currentVersion current version of the catalog
+         * @param currentCounts  current version of the Product counts
+         * @param now            current moment
+         *
+         * @return boolean
+         */
+        private boolean isValid(long currentVersion, long currentCounts, LocalDateTime now) {
+            return version == currentVersion
+                    && now.isBefore(validUntil)
+                    && (countsVersion == currentCounts || now.isBefore(builtAt.plusSeconds(COUNTS_REFRESH_SECONDS)));
+        }
     }
 }
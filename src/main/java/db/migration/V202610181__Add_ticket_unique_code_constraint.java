@@ -0,0 +1,60 @@
+package db.migration;
+
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+
+/**
+ * DB migration which makes the unique code of a ticket unique per product, so tickets no longer have to be checked
+ * one by one before they are inserted.
+ */
+@Slf4j
+public class V202610181__Add_ticket_unique_code_constraint extends BaseJavaMigration {
+
+    /**
+     * Executes this migration. The execution will automatically take place within a transaction, when the underlying
+     * database supports it.
+     *
+     * @param context of type Context
+     * @throws Exception when something is wrong
+     */
+    public void migrate(Context context) throws Exception {
+        // Tickets sharing a unique code with an older ticket of the same product get a new code, like a transfer.
+        List<Integer> duplicates = new ArrayList<>();
+        try (Statement select = context.getConnection().createStatement()) {
+            ResultSet rows = select.executeQuery("SELECT id FROM ("
+                    + "SELECT id, row_number() OVER (PARTITION BY product_id, unique_code ORDER BY id) AS n "
+                    + "FROM public.ticket WHERE unique_code IS NOT NULL) t WHERE n > 1");
+            while (rows.next()) {
+                duplicates.add(rows.getInt("id"));
+            }
+        }
+
+        try (PreparedStatement update = context.getConnection().prepareStatement(
+                "UPDATE public.ticket SET unique_code = ? WHERE id = ?")) {
+            for (Integer id : duplicates) {
+                update.setString(1, UUID.randomUUID().toString());
+                update.setInt(2, id);
+                update.addBatch();
+            }
+            update.executeBatch();
+        }
+
+        if (!duplicates.isEmpty()) {
+            log.warn("Regenerated the unique code of duplicate tickets " + duplicates);
+        }
+
+        try (Statement select = context.getConnection().createStatement()) {
+            select.execute("ALTER TABLE public.ticket ADD CONSTRAINT ticket_product_unique_code UNIQUE (product_id, unique_code)");
+        }
+    }
+
+}
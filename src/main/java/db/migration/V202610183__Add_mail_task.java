@@ -0,0 +1,38 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Statement;
+
+
+/**
+ * DB migration which adds the mail outbox table.
+ */
+public class V202610183__Add_mail_task extends BaseJavaMigration {
+
+    /**
+     * Executes this migration. The execution will automatically take place within a transaction, when the underlying
+     * database supports it.
+     *
+     * @param context of type Context
+     * @throws Exception when something is wrong
+     */
+    public void migrate(Context context) throws Exception {
+        try (Statement select = context.getConnection().createStatement()) {
+            String mailTaskTable = "CREATE TABLE public.mail_task (\n"
+                    + "     id integer NOT NULL CONSTRAINT mail_task_pkey PRIMARY KEY,\n"
+                    + "     order_reference character varying (255) NOT NULL,\n"
+                    + "     status smallint NOT NULL,\n"
+                    + "     attempts integer NOT NULL,\n"
+                    + "     next_attempt_at timestamp NOT NULL,\n"
+                    + "     created_at timestamp,\n"
+                    + "     last_error text\n"
+                    + ");\n"
+                    + "CREATE INDEX mail_task_status_next_attempt_at ON public.mail_task (status, next_attempt_at);\n"
+                    + "CREATE SEQUENCE public.mail_task_seq INCREMENT BY 50;";
+            select.execute(mailTaskTable);
+        }
+    }
+
+}
@@ -0,0 +1,33 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Statement;
+
+
+/**
+ * DB migration which adds the retry state to the webhook tasks.
+ */
+public class V202610184__Add_webhook_task_attempts extends BaseJavaMigration {
+
+    /**
+     * Executes this migration. The execution will automatically take place within a transaction, when the underlying
+     * database supports it.
+     *
+     * @param context of type Context
+     * @throws Exception when something is wrong
+     */
+    public void migrate(Context context) throws Exception {
+        try (Statement select = context.getConnection().createStatement()) {
+            String webhookTaskAttempts = "ALTER TABLE public.webhook_task\n"
+                    + "     ADD COLUMN attempts integer NOT NULL DEFAULT 0,\n"
+                    + "     ADD COLUMN next_attempt_at timestamp;\n"
+                    + "UPDATE public.webhook_task SET next_attempt_at = created_at;\n"
+                    + "CREATE INDEX webhook_task_status_next_attempt_at "
+                    + "ON public.webhook_task (webhook_task_status, next_attempt_at);";
+            select.execute(webhookTaskAttempts);
+        }
+    }
+
+}
@@ -0,0 +1,29 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Statement;
+
+
+/**
+ * DB migration which adds batched webhooks and the entity key used to coalesce webhook tasks.
+ */
+public class V202610185__Add_webhook_batching extends BaseJavaMigration {
+
+    /**
+     * Executes this migration. The execution will automatically take place within a transaction, when the underlying
+     * database supports it.
+     *
+     * @param context of type Context
+     * @throws Exception when something is wrong
+     */
+    public void migrate(Context context) throws Exception {
+        try (Statement select = context.getConnection().createStatement()) {
+            String webhookBatching = "ALTER TABLE public.webhook ADD COLUMN batched boolean NOT NULL DEFAULT false;\n"
+                    + "ALTER TABLE public.webhook_task ADD COLUMN entity_key character varying (255);";
+            select.execute(webhookBatching);
+        }
+    }
+
+}
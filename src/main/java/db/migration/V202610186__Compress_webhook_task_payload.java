@@ -0,0 +1,87 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.json.simple.JSONObject;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Base64;
+import java.util.zip.GZIPOutputStream;
+
+
+/**
+ * DB migration which moves the serialized payload of the webhook tasks to a compressed text column.
+ */
+public class V202610186__Compress_webhook_task_payload extends BaseJavaMigration {
+
+    /** Number of rows fetched and updated per batch. */
+    private static final int BATCH_SIZE = 500;
+
+    /**
+     * Executes this migration. The execution will automatically take place within a transaction, when the underlying
+     * database supports it.
+     *
+     * @param context of type Context
+     * @throws Exception when something is wrong
+     */
+    public void migrate(Context context) throws Exception {
+        try (Statement statement = context.getConnection().createStatement()) {
+            statement.execute("ALTER TABLE public.webhook_task ADD COLUMN payload text;");
+        }
+
+        try (Statement select = context.getConnection().createStatement();
+             PreparedStatement update = context.getConnection().prepareStatement(
+                     "UPDATE public.webhook_task SET payload = ? WHERE id = ?")) {
+            // Autocommit is off inside the migration, so the driver streams the rows instead of loading all payloads.
+            select.setFetchSize(BATCH_SIZE);
+            ResultSet rows = select.executeQuery("SELECT id, object FROM public.webhook_task WHERE object IS NOT NULL");
+
+            int count = 0;
+            while (rows.next()) {
+                try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(rows.getBytes("object")))) {
+                    update.setString(1, compress((JSONObject) in.readObject()));
+                }
+                update.setInt(2, rows.getInt("id"));
+                update.addBatch();
+
+                if (++count % BATCH_SIZE == 0) {
+                    update.executeBatch();
+                }
+            }
+            update.executeBatch();
+        }
+
+        try (Statement statement = context.getConnection().createStatement()) {
+            String dropObject = "ALTER TABLE public.webhook_task DROP COLUMN object;\n"
+                    + "CREATE INDEX webhook_task_status_created_at "
+                    + "ON public.webhook_task (webhook_task_status, created_at);";
+            statement.execute(dropObject);
+        }
+    }
+
+    /**
+     * Compress a JSONObject to gzipped, base64 encoded JSON text. The encoding is part of this migration instead of
+     * using the converter of the application, so replaying the migration always gives the same result.
+     *
+     * @param jsonObject of type JSONObject
+     *
+     * @return String
+     * @throws IOException when compressing fails
+     */
+    private static String compress(JSONObject jsonObject) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+            gzip.write(jsonObject.toJSONString().getBytes(StandardCharsets.UTF_8));
+        }
+
+        return Base64.getEncoder().encodeToString(bytes.toByteArray());
+    }
+
+}
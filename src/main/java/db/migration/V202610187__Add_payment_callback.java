@@ -0,0 +1,40 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Statement;
+
+
+/**
+ * DB migration which adds the table in which the callbacks of the payment providers are recorded.
+ */
+public class V202610187__Add_payment_callback extends BaseJavaMigration {
+
+    /**
+     * Executes this migration. The execution will automatically take place within a transaction, when the underlying
+     * database supports it.
+     *
+     * @param context of type Context
+     * @throws Exception when something is wrong
+     */
+    public void migrate(Context context) throws Exception {
+        try (Statement select = context.getConnection().createStatement()) {
+            String paymentCallbackTable = "CREATE TABLE public.payment_callback (\n"
+                    + "     id integer NOT NULL CONSTRAINT payment_callback_pkey PRIMARY KEY,\n"
+                    + "     provider_reference character varying (255) NOT NULL,\n"
+                    + "     status smallint NOT NULL,\n"
+                    + "     attempts integer NOT NULL,\n"
+                    + "     next_attempt_at timestamp NOT NULL,\n"
+                    + "     received_at timestamp,\n"
+                    + "     last_error text\n"
+                    + ");\n"
+                    + "CREATE INDEX payment_callback_status_next_attempt_at "
+                    + "ON public.payment_callback (status, next_attempt_at);\n"
+                    + "CREATE INDEX payment_callback_provider_reference ON public.payment_callback (provider_reference);\n"
+                    + "CREATE SEQUENCE public.payment_callback_seq INCREMENT BY 50;";
+            select.execute(paymentCallbackTable);
+        }
+    }
+
+}
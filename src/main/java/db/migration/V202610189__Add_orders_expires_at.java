@@ -0,0 +1,31 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Statement;
+
+
+/**
+ * DB migration which adds the expiry moment of the reservations to the orders.
+ */
+public class V202610189__Add_orders_expires_at extends BaseJavaMigration {
+
+    /**
+     * Executes this migration. The execution will automatically take place within a transaction, when the underlying
+     * database supports it.
+     *
+     * @param context of type Context
+     * @throws Exception when something is wrong
+     */
+    public void migrate(Context context) throws Exception {
+        try (Statement statement = context.getConnection().createStatement()) {
+            // Existing reservations (status 4) keep the previous validity of three days after their creation.
+            String addExpiresAt = "ALTER TABLE public.orders ADD COLUMN expires_at timestamp without time zone;\n"
+                    + "UPDATE public.orders SET expires_at = created_at + INTERVAL '3 days' WHERE status = 4;\n"
+                    + "CREATE INDEX orders_status_expires_at ON public.orders (status, expires_at);";
+            statement.execute(addExpiresAt);
+        }
+    }
+
+}
@@ -0,0 +1,29 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Statement;
+
+
+/**
+ * DB migration which adds the indexes to count the tickets and reservations of a customer.
+ */
+public class V202610190__Add_customer_quota_indexes extends BaseJavaMigration {
+
+    /**
+     * Executes this migration. The execution will automatically take place within a transaction, when the underlying
+     * database supports it.
+     *
+     * @param context of type Context
+     * @throws Exception when something is wrong
+     */
+    public void migrate(Context context) throws Exception {
+        try (Statement statement = context.getConnection().createStatement()) {
+            String createIndexes = "CREATE INDEX ticket_owner_id ON public.ticket (owner_id);\n"
+                    + "CREATE INDEX orders_owner_id_status ON public.orders (owner_id, status);";
+            statement.execute(createIndexes);
+        }
+    }
+
+}
@@ -0,0 +1,33 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Statement;
+
+
+/**
+ * DB migration which reserves the products of the pending orders, as pending orders now hold their products until
+ * they are paid, cancelled or expired.
+ */
+public class V202610192__Reserve_products_of_pending_orders extends BaseJavaMigration {
+
+    /**
+     * Executes this migration. The execution will automatically take place within a transaction, when the underlying
+     * database supports it.
+     *
+     * @param context of type Context
+     * @throws Exception when something is wrong
+     */
+    public void migrate(Context context) throws Exception {
+        try (Statement statement = context.getConnection().createStatement()) {
+            // Pending orders have status 3, their products are moved from reserved to sold once they are paid.
+            statement.execute("UPDATE public.product p SET reserved = p.reserved + pending.amount FROM ("
+                    + "SELECT op.product_id, SUM(op.amount) AS amount FROM public.orders o "
+                    + "JOIN public.orders_order_products l ON l.order_id = o.id "
+                    + "JOIN public.order_product op ON op.id = l.order_products_id "
+                    + "WHERE o.status = 3 GROUP BY op.product_id) pending WHERE p.id = pending.product_id;");
+        }
+    }
+
+}
@@ -113,7 +113,7 @@ public void testResendConfirmationMail() throws Exception {
                 .andExpect(status().is3xxRedirection())
                 .andExpect(redirectedUrl("/administrator/orders/view/" + order.getPublicReference()))
                 .andExpect(flash().attributeExists("success"))
-                .andExpect(flash().attribute("success", "Order confirmation mail send!"));
+                .andExpect(flash().attribute("success", "Order confirmation mail queued!"));
     }
 
     @Test
@@ -31,4 +31,30 @@ public void testIndex() throws Exception {
                 .andExpect(model().attribute("tasks", ImmutableList.of(webhookTask)));
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testIndexFilterByStatus() throws Exception {
+        WebhookTask webhookTask = this.createWebhookTask();
+        webhookRepository.saveAndFlush(webhookTask.getWebhook());
+        webhookTaskRepository.saveAndFlush(webhookTask);
+
+        mockMvc.perform(get("/administrator/tasks").param("status", "SUCCESS"))
+                .andExpect(status().is2xxSuccessful())
+                .andExpect(model().attribute("tasks", ImmutableList.of()));
+
+        mockMvc.perform(get("/administrator/tasks").param("webhook", webhookTask.getWebhook().getKey()))
+                .andExpect(status().is2xxSuccessful())
+                .andExpect(model().attribute("tasks", ImmutableList.of(webhookTask)));
+    }
+
+    @Test
+    public void testIndexBefore() throws Exception {
+        WebhookTask webhookTask = this.createWebhookTask();
+        webhookRepository.saveAndFlush(webhookTask.getWebhook());
+        webhookTaskRepository.saveAndFlush(webhookTask);
+
+        mockMvc.perform(get("/administrator/tasks").param("before", webhookTask.getId().toString()))
+                .andExpect(status().is2xxSuccessful())
+                .andExpect(model().attribute("tasks", ImmutableList.of()));
+    }
+
+}
@@ -0,0 +1,143 @@
+package ch.wisv.events.core.http;
+
+import ch.wisv.events.core.exception.runtime.HttpBulkheadFullException;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.web.client.ResourceAccessException;
+
+/**
+ * HttpGateway test, against a local stub server with a slow and a fast endpoint.
+ */
+public class HttpGatewayTest {
+
+    private HttpServer server;
+
+    private ExecutorService requestThreads;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private HttpGateway httpGateway;
+
+    private String baseUrl;
+
+    /** Released when the slow endpoint may answer. */
+    private CountDownLatch slowRelease;
+
+    /** Counted down for every request arriving at the slow endpoint. */
+    private CountDownLatch slowArrived;
+
+    @Before
+    public void setUp() throws Exception {
+        slowRelease = new CountDownLatch(1);
+        slowArrived = new CountDownLatch(2);
+
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newFixedThreadPool(8));
+        server.createContext("/slow", exchange -> {
+            slowArrived.countDown();
+            try {
+                slowRelease.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            this.respond(exchange, "slow");
+        });
+        server.createContext("/fast", exchange -> this.respond(exchange, "fast"));
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("wisvch.events.http.max-concurrent", "2")
+                .withProperty("wisvch.events.http.read-timeout", "5000")
+                .withProperty("wisvch.events.http.impatient.read-timeout", "200");
+        meterRegistry = new SimpleMeterRegistry();
+        httpGateway = new HttpGateway(environment, meterRegistry);
+        requestThreads = Executors.newFixedThreadPool(4);
+    }
+
+    @After
+    public void tearDown() {
+        slowRelease.countDown();
+        requestThreads.shutdownNow();
+        server.stop(0);
+    }
+
+    /**
+     * Test that requests over the cap of a slow destination fail right away, instead of waiting on the destination.
+     */
+    @Test
+    public void testSlowDestinationDoesNotHoldUpCallers() throws Exception {
+        List<Future<String>> inProgress = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            inProgress.add(requestThreads.submit(
+                    () -> httpGateway.getRestTemplate("slow").getForObject(baseUrl + "/slow", String.class)));
+        }
+        assertTrue(slowArrived.await(5, TimeUnit.SECONDS));
+        assertEquals(2, httpGateway.getDestination("slow").getInFlight());
+
+        for (int i = 0; i < 10; i++) {
+            long start = System.nanoTime();
+            try {
+                httpGateway.getRestTemplate("slow").getForObject(baseUrl + "/slow", String.class);
+                fail("Request over the cap of the destination has been sent");
+            } catch (HttpBulkheadFullException e) {
+                assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 500);
+            }
+        }
+
+        // Other destinations are not affected.
+        assertEquals("fast", httpGateway.getRestTemplate("other").getForObject(baseUrl + "/fast", String.class));
+
+        slowRelease.countDown();
+        for (Future<String> future : inProgress) {
+            assertEquals("slow", future.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(0, httpGateway.getDestination("slow").getInFlight());
+        assertEquals(10, meterRegistry.get("events.http.outbound.rejected").tag("destination", "slow").counter().count(),
+                0);
+        assertEquals(2, meterRegistry.get("events.http.outbound.requests").tag("destination", "slow")
+                .tag("outcome", "success").timer().count());
+    }
+
+    /**
+     * Test that the read timeout of a destination is applied and its permit is released.
+     */
+    @Test
+    public void testReadTimeout() {
+        long start = System.nanoTime();
+        try {
+            httpGateway.getRestTemplate("impatient").getForObject(baseUrl + "/slow", String.class);
+            fail("Request did not time out");
+        } catch (ResourceAccessException e) {
+            assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 2000);
+        }
+
+        assertEquals(0, httpGateway.getDestination("impatient").getInFlight());
+    }
+
+    private void respond(HttpExchange exchange, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "text/plain");
+        exchange.sendResponseHeaders(200, bytes.length);
+        exchange.getResponseBody().write(bytes);
+        exchange.close();
+    }
+}
@@ -0,0 +1,34 @@
+package ch.wisv.events.core.model.webhook;
+
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+public class CompressedJsonConverterTest {
+
+    private final CompressedJsonConverter converter = new CompressedJsonConverter();
+
+    @Test
+    public void testRoundTrip() {
+        JSONArray products = new JSONArray();
+        products.add("Ticket");
+        JSONObject jsonObject = new JSONObject();
+        jsonObject.put("key", "event-key");
+        jsonObject.put("description", "Ééé ".repeat(200));
+        jsonObject.put("products", products);
+
+        String compressed = converter.convertToDatabaseColumn(jsonObject);
+
+        assertTrue(compressed.length() < jsonObject.toJSONString().length());
+        assertEquals(jsonObject, converter.convertToEntityAttribute(compressed));
+    }
+
+    @Test
+    public void testNull() {
+        assertNull(converter.convertToDatabaseColumn(null));
+        assertNull(converter.convertToEntityAttribute(null));
+    }
+}
@@ -0,0 +1,94 @@
+package ch.wisv.events.core.service;
+
+import ch.wisv.events.core.exception.normal.AdmissionQueueTokenInvalidException;
+import ch.wisv.events.core.model.event.Event;
+import ch.wisv.events.core.model.queue.AdmissionQueueStatus;
+import ch.wisv.events.core.service.queue.AdmissionQueueService;
+import ch.wisv.events.core.service.queue.AdmissionQueueServiceImpl;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Before;
+import org.junit.Test;
+
+public class AdmissionQueueServiceImplTest {
+
+    private AdmissionQueueService admissionQueueService;
+
+    private Event event;
+
+    @Before
+    public void setUp() {
+        admissionQueueService = new AdmissionQueueServiceImpl("secret", 2, 60);
+        event = new Event();
+    }
+
+    @Test
+    public void testAdmitInOrderAtRate() throws Exception {
+        String first = admissionQueueService.join(event);
+        String second = admissionQueueService.join(event);
+        String third = admissionQueueService.join(event);
+
+        AdmissionQueueStatus status = admissionQueueService.getStatus(event.getKey(), third);
+        assertEquals(3, status.getPosition());
+        assertFalse(status.isAdmitted());
+
+        admissionQueueService.admitNext();
+
+        assertTrue(admissionQueueService.isAdmitted(event.getKey(), first));
+        assertTrue(admissionQueueService.isAdmitted(event.getKey(), second));
+        assertFalse(admissionQueueService.isAdmitted(event.getKey(), third));
+        assertEquals(1, admissionQueueService.getStatus(event.getKey(), third).getPosition());
+
+        admissionQueueService.admitNext();
+
+        assertTrue(admissionQueueService.isAdmitted(event.getKey(), third));
+    }
+
+    @Test
+    public void testConsumeOnce() {
+        String token = admissionQueueService.join(event);
+        assertFalse(admissionQueueService.consume(event.getKey(), token));
+
+        admissionQueueService.admitNext();
+
+        assertTrue(admissionQueueService.consume(event.getKey(), token));
+        assertFalse(admissionQueueService.consume(event.getKey(), token));
+        assertFalse(admissionQueueService.isAdmitted(event.getKey(), token));
+    }
+
+    @Test
+    public void testAdmitDoesNotAdmitFutureTokens() {
+        admissionQueueService.admitNext();
+        admissionQueueService.admitNext();
+
+        String token = admissionQueueService.join(event);
+
+        assertFalse(admissionQueueService.isAdmitted(event.getKey(), token));
+    }
+
+    @Test(expected = AdmissionQueueTokenInvalidException.class)
+    public void testTokenOfOtherEvent() throws Exception {
+        String token = admissionQueueService.join(event);
+
+        admissionQueueService.getStatus(new Event().getKey(), token);
+    }
+
+    @Test(expected = AdmissionQueueTokenInvalidException.class)
+    public void testTamperedToken() throws Exception {
+        String token = admissionQueueService.join(event);
+        String[] parts = token.split("\\.");
+
+        admissionQueueService.getStatus(event.getKey(), parts[0] + "." + parts[0]);
+    }
+
+    @Test
+    public void testTokenOfOtherSecret() {
+        String token = new AdmissionQueueServiceImpl("other", 2, 60).join(event);
+        admissionQueueService.join(event);
+        admissionQueueService.admitNext();
+
+        assertFalse(admissionQueueService.isAdmitted(event.getKey(), token));
+        assertFalse(admissionQueueService.isAdmitted(event.getKey(), null));
+    }
+}
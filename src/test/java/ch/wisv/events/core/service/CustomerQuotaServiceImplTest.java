@@ -0,0 +1,138 @@
+package ch.wisv.events.core.service;
+
+import ch.wisv.events.ServiceTest;
+import ch.wisv.events.core.model.customer.Customer;
+import ch.wisv.events.core.model.order.CustomerQuota;
+import ch.wisv.events.core.model.order.Order;
+import ch.wisv.events.core.model.order.OrderProduct;
+import ch.wisv.events.core.model.order.OrderStatus;
+import ch.wisv.events.core.model.product.Product;
+import ch.wisv.events.core.model.ticket.Ticket;
+import ch.wisv.events.core.repository.CustomerRepository;
+import ch.wisv.events.core.repository.OrderProductRepository;
+import ch.wisv.events.core.repository.OrderRepository;
+import ch.wisv.events.core.repository.ProductRepository;
+import ch.wisv.events.core.repository.TicketRepository;
+import ch.wisv.events.core.service.order.CustomerQuotaService;
+import ch.wisv.events.core.util.VatRate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * CustomerQuotaService test, against the database.
+ */
+@Transactional
+public class CustomerQuotaServiceImplTest extends ServiceTest {
+
+    @Autowired
+    private CustomerQuotaService customerQuotaService;
+
+    @Autowired
+    private TicketRepository ticketRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private OrderProductRepository orderProductRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    private Customer customer;
+
+    private Product parent;
+
+    private Product child;
+
+    @Before
+    public void setUp() {
+        customer = this.createCustomer();
+        parent = this.createProduct(null, 4);
+        child = this.createProduct(parent, null);
+    }
+
+    @Test
+    public void testHeldAndReservedTicketsOfFamily() {
+        // A ticket of the parent, a ticket of the child and a reservation of two children.
+        Order paid = this.createOrder(customer, OrderStatus.PAID, parent, 1);
+        ticketRepository.saveAndFlush(new Ticket(paid, customer, parent, UUID.randomUUID().toString()));
+        ticketRepository.saveAndFlush(new Ticket(paid, customer, child, UUID.randomUUID().toString()));
+        this.createOrder(customer, OrderStatus.RESERVATION, child, 2);
+
+        List<CustomerQuota> quotas = customerQuotaService.getQuotas(this.newOrder(child, 1), customer);
+
+        assertEquals(1, quotas.size());
+        assertEquals(parent.getId(), quotas.get(0).getProductId());
+        assertEquals(4, quotas.get(0).getHeld());
+        assertEquals(1, quotas.get(0).getRequested());
+        assertEquals(0, quotas.get(0).getRemaining());
+        assertTrue(quotas.get(0).isExceeded());
+    }
+
+    @Test
+    public void testOtherCustomersAndStatusesAreIgnored() {
+        Customer other = this.createCustomer();
+        Order paid = this.createOrder(other, OrderStatus.PAID, parent, 1);
+        ticketRepository.saveAndFlush(new Ticket(paid, other, parent, UUID.randomUUID().toString()));
+        this.createOrder(other, OrderStatus.RESERVATION, parent, 1);
+        this.createOrder(customer, OrderStatus.EXPIRED, parent, 3);
+
+        Order order = this.newOrder(parent, 2);
+        order.addOrderProduct(new OrderProduct(child, 1.d, 2L));
+        List<CustomerQuota> quotas = customerQuotaService.getQuotas(order, customer);
+
+        assertEquals(1, quotas.size());
+        assertEquals(0, quotas.get(0).getHeld());
+        assertEquals(4, quotas.get(0).getRequested());
+        assertFalse(quotas.get(0).isExceeded());
+    }
+
+    @Test
+    public void testProductsWithoutLimitHaveNoQuota() {
+        Product unlimited = this.createProduct(null, null);
+
+        assertTrue(customerQuotaService.getQuotas(this.newOrder(unlimited, 10), customer).isEmpty());
+    }
+
+    private Customer createCustomer() {
+        return customerRepository.saveAndFlush(new Customer(UUID.randomUUID().toString(), "Quota",
+                UUID.randomUUID() + "@example.com", ""));
+    }
+
+    private Product createProduct(Product parentProduct, Integer maxSoldPerCustomer) {
+        Product product = new Product("Quota", "Description", 1.d, VatRate.VAT_HIGH,
+                null, LocalDateTime.now().minusHours(1), LocalDateTime.now().plusHours(1));
+        product.setParentProduct(parentProduct);
+        product.setMaxSoldPerCustomer(maxSoldPerCustomer);
+
+        return productRepository.saveAndFlush(product);
+    }
+
+    private Order newOrder(Product product, long amount) {
+        Order order = new Order();
+        order.addOrderProduct(new OrderProduct(product, 1.d, amount));
+
+        return order;
+    }
+
+    private Order createOrder(Customer owner, OrderStatus status, Product product, long amount) {
+        Order order = new Order();
+        order.setOwner(owner);
+        order.setStatus(status);
+        order.addOrderProduct(orderProductRepository.saveAndFlush(new OrderProduct(product, 1.d, amount)));
+
+        return orderRepository.saveAndFlush(order);
+    }
+}
@@ -0,0 +1,150 @@
+package ch.wisv.events.core.service;
+
+import ch.wisv.events.core.exception.normal.EventNotFoundException;
+import ch.wisv.events.core.model.event.Event;
+import ch.wisv.events.core.model.event.EventAvailability;
+import ch.wisv.events.core.model.product.Product;
+import ch.wisv.events.core.service.event.EventAvailabilityServiceImpl;
+import ch.wisv.events.core.service.event.EventService;
+import com.google.common.collect.ImmutableList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import org.junit.Before;
+import org.junit.Test;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.springframework.transaction.PlatformTransactionManager;
+
+public class EventAvailabilityServiceImplTest {
+
+    private EventService eventService;
+
+    private EventAvailabilityServiceImpl eventAvailabilityService;
+
+    private Event event;
+
+    private Product limited, unlimited;
+
+    @Before
+    public void setUp() throws Exception {
+        eventService = mock(EventService.class);
+        eventAvailabilityService = new EventAvailabilityServiceImpl(eventService, mock(PlatformTransactionManager.class),
+                60000);
+
+        limited = new Product();
+        limited.setMaxSold(10);
+        limited.setSold(7);
+        unlimited = new Product();
+
+        event = new Event();
+        event.setProducts(ImmutableList.of(limited, unlimited));
+        when(eventService.getByKey(event.getKey())).thenReturn(event);
+    }
+
+    @Test
+    public void testGetByEventKey() throws Exception {
+        EventAvailability availability = eventAvailabilityService.getByEventKey(event.getKey());
+
+        assertEquals(event.getKey(), availability.getKey());
+        assertNull(availability.getRemaining());
+        assertFalse(availability.isSoldOut());
+        assertEquals(limited.getKey(), availability.getProducts().get(0).getKey());
+        assertEquals(Integer.valueOf(3), availability.getProducts().get(0).getRemaining());
+        assertNull(availability.getProducts().get(1).getRemaining());
+    }
+
+    @Test
+    public void testEventSoldOut() throws Exception {
+        event.setMaxSold(7);
+
+        EventAvailability availability = eventAvailabilityService.getByEventKey(event.getKey());
+
+        assertEquals(Integer.valueOf(0), availability.getRemaining());
+        assertTrue(availability.isSoldOut());
+        assertTrue(availability.getProducts().get(1).isSoldOut());
+    }
+
+    @Test
+    public void testReservationsCountTowardsRemaining() throws Exception {
+        limited.setReserved(1);
+        Product child = new Product();
+        child.setParentProduct(limited);
+        child.setReserved(2);
+        limited.setChildProducts(ImmutableList.of(child));
+        event.setMaxSold(12);
+
+        EventAvailability availability = eventAvailabilityService.getByEventKey(event.getKey());
+
+        assertEquals(Integer.valueOf(4), availability.getRemaining());
+        assertEquals(Integer.valueOf(0), availability.getProducts().get(0).getRemaining());
+        assertTrue(availability.getProducts().get(0).isSoldOut());
+        assertFalse(availability.getProducts().get(1).isSoldOut());
+    }
+
+    @Test
+    public void testCachedWithinTimeToLive() throws Exception {
+        eventAvailabilityService.getByEventKey(event.getKey());
+        eventAvailabilityService.getByEventKey(event.getKey());
+
+        verify(eventService, times(1)).getByKey(event.getKey());
+    }
+
+    @Test
+    public void testReloadedAfterTimeToLive() throws Exception {
+        eventAvailabilityService = new EventAvailabilityServiceImpl(eventService, mock(PlatformTransactionManager.class),
+                0);
+
+        eventAvailabilityService.getByEventKey(event.getKey());
+        eventAvailabilityService.getByEventKey(event.getKey());
+
+        verify(eventService, times(2)).getByKey(event.getKey());
+    }
+
+    @Test
+    public void testConcurrentRequestsLoadOnce() throws Exception {
+        when(eventService.getByKey(event.getKey())).thenAnswer(invocation -> {
+            Thread.sleep(200);
+            return event;
+        });
+
+        ExecutorService pollers = Executors.newFixedThreadPool(16);
+        try {
+            List<Callable<EventAvailability>> requests = new ArrayList<>();
+            for (int i = 0; i < 64; i++) {
+                requests.add(() -> eventAvailabilityService.getByEventKey(event.getKey()));
+            }
+            for (Future<EventAvailability> result : pollers.invokeAll(requests)) {
+                assertEquals(event.getKey(), result.get().getKey());
+            }
+        } finally {
+            pollers.shutdown();
+        }
+
+        verify(eventService, times(1)).getByKey(event.getKey());
+    }
+
+    @Test
+    public void testNotFoundIsNotCached() throws Exception {
+        when(eventService.getByKey("unknown")).thenThrow(new EventNotFoundException("key unknown"));
+
+        for (int i = 0; i < 2; i++) {
+            try {
+                eventAvailabilityService.getByEventKey("unknown");
+            } catch (EventNotFoundException e) {
+                // expected
+            }
+        }
+
+        verify(eventService, times(2)).getByKey("unknown");
+    }
+}
@@ -10,6 +10,8 @@
 import ch.wisv.events.core.service.event.EventServiceImpl;
 import ch.wisv.events.core.service.product.ProductService;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.Optional;
@@ -23,6 +25,7 @@
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import org.springframework.test.util.ReflectionTestUtils;
 
 /**
  * EventService test.
@@ -261,4 +264,43 @@ public void testGetEventByProductKey() throws Exception {
 
         assertEquals(this.event, service.getByProduct(product));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testGetByProductsUsesCache() {
+        Product product = this.mockProduct(1);
+        Product unlinked = this.mockProduct(2);
+        ReflectionTestUtils.setField(this.event, "id", 3);
+        this.event.addProduct(product);
+        when(repository.findAllByProductIdIn(any())).thenReturn(ImmutableList.of(this.event));
+        when(repository.findAllById(ImmutableSet.of(3))).thenReturn(ImmutableList.of(this.event));
+
+        assertEquals(ImmutableMap.of(1, this.event), service.getByProducts(ImmutableList.of(product, unlinked)));
+        assertEquals(ImmutableMap.of(1, this.event), service.getByProducts(ImmutableList.of(product, unlinked)));
+        assertEquals(ImmutableMap.of(), service.getByProducts(ImmutableList.of(unlinked)));
+
+        verify(repository, times(1)).findAllByProductIdIn(ImmutableSet.of(1, 2));
+        verify(repository, times(1)).findAllById(ImmutableSet.of(3));
+    }
+
+    @Test
+    public void testGetByProductsAfterUpdate() throws Exception {
+        Product product = this.mockProduct(1);
+        ReflectionTestUtils.setField(this.event, "id", 3);
+        this.event.addProduct(product);
+        when(repository.findAllByProductIdIn(any())).thenReturn(ImmutableList.of(this.event));
+        when(repository.findByKey(this.event.getKey())).thenReturn(Optional.of(this.event));
+
+        service.getByProducts(ImmutableList.of(product));
+        service.update(this.event);
+        service.getByProducts(ImmutableList.of(product));
+
+        verify(repository, times(2)).findAllByProductIdIn(ImmutableSet.of(1));
+    }
+
+    private Product mockProduct(Integer id) {
+        Product product = Mockito.mock(Product.class);
+        when(product.getId()).thenReturn(id);
+
+        return product;
+    }
+}
@@ -0,0 +1,97 @@
+package ch.wisv.events.core.service;
+
+import ch.wisv.events.ServiceTest;
+import ch.wisv.events.core.model.customer.Customer;
+import ch.wisv.events.core.model.product.Product;
+import ch.wisv.events.core.model.ticket.Ticket;
+import ch.wisv.events.core.service.mail.MailService;
+import ch.wisv.events.core.service.mail.MailServiceImpl;
+import ch.wisv.events.core.service.ticket.TicketCodeServiceImpl;
+import ch.wisv.events.core.service.ticket.TicketImageServiceImpl;
+import ch.wisv.events.core.service.ticket.TicketService;
+import jakarta.mail.Session;
+import jakarta.mail.internet.MimeMessage;
+import java.io.IOException;
+import java.net.Proxy;
+import java.net.ProxySelector;
+import java.net.SocketAddress;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.After;
+import static org.junit.Assert.assertEquals;
+import org.junit.Before;
+import org.junit.Test;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import org.mockito.Mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.thymeleaf.context.IContext;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+
+public class MailServiceImplTest extends ServiceTest {
+
+    @Mock
+    private JavaMailSender mailSender;
+
+    @Mock
+    private SpringTemplateEngine templateEngine;
+
+    @Mock
+    private TicketService ticketService;
+
+    private MailService mailService;
+
+    /** ProxySelector before the test. */
+    private ProxySelector previousProxySelector;
+
+    /** URIs a connection has been opened to. */
+    private final List<URI> connections = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        mailService = new MailServiceImpl(
+                mailSender, templateEngine, ticketService,
+                new TicketImageServiceImpl(new TicketCodeServiceImpl(""), 1024 * 1024)
+        );
+
+        // Every URL connection asks the ProxySelector which proxy to use, so it records all outbound connections.
+        previousProxySelector = ProxySelector.getDefault();
+        ProxySelector.setDefault(new ProxySelector() {
+            @Override
+            public List<Proxy> select(URI uri) {
+                connections.add(uri);
+
+                return List.of(Proxy.NO_PROXY);
+            }
+
+            @Override
+            public void connectFailed(URI uri, SocketAddress sa, IOException ioe) {
+            }
+        });
+    }
+
+    @After
+    public void tearDown() {
+        ProxySelector.setDefault(previousProxySelector);
+    }
+
+    @Test
+    public void testLegacyBarcodeWithoutOutboundConnection() {
+        when(mailSender.createMimeMessage()).thenReturn(new MimeMessage((Session) null));
+        when(templateEngine.process(anyString(), any(IContext.class))).thenReturn("<html></html>");
+
+        Product product = new Product();
+        product.setTitle("Product");
+        Ticket ticket = new Ticket(null, null, product, "123456");
+        Customer customer = new Customer();
+        customer.setEmail("test@test.com");
+
+        mailService.sendTransferConfirmation(ticket, customer, customer);
+
+        verify(mailSender).send(any(MimeMessage.class));
+        assertEquals(List.of(), connections);
+    }
+}
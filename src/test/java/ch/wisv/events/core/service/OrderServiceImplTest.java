@@ -5,6 +5,7 @@
 import ch.wisv.events.core.exception.normal.EventsException;
 import ch.wisv.events.core.exception.normal.OrderInvalidException;
 import ch.wisv.events.core.exception.normal.OrderNotFoundException;
+import ch.wisv.events.core.exception.normal.ProductSoldOutException;
 import ch.wisv.events.core.exception.runtime.EventsRuntimeException;
 import ch.wisv.events.core.model.customer.Customer;
 import ch.wisv.events.core.model.order.Order;
@@ -15,6 +16,7 @@
 import ch.wisv.events.core.model.product.Product;
 import ch.wisv.events.core.repository.OrderProductRepository;
 import ch.wisv.events.core.repository.OrderRepository;
+import ch.wisv.events.core.service.mail.MailOutboxService;
 import ch.wisv.events.core.service.mail.MailService;
 import ch.wisv.events.core.service.order.OrderService;
 import ch.wisv.events.core.service.order.OrderServiceImpl;
@@ -33,14 +35,22 @@
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import org.junit.Before;
 import org.junit.Test;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.AdditionalAnswers.returnsFirstArg;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -83,6 +93,10 @@ public class OrderServiceImplTest extends ServiceTest {
     @MockBean
     private MailService mailService;
 
+    /** MailOutboxService. */
+    @MockBean
+    private MailOutboxService mailOutboxService;
+
     /** TicketService. */
     @MockBean
     private TicketService ticketService;
@@ -122,6 +136,9 @@ public void setUp() {
         order.setOrderProducts(
                 ImmutableList.of(orderProduct)
         );
+
+        when(orderRepository.save(any(Order.class))).thenAnswer(returnsFirstArg());
+        when(orderRepository.saveAndFlush(any(Order.class))).thenAnswer(returnsFirstArg());
     }
 
     /**
@@ -390,6 +407,8 @@ public void testUpdateOrderStatusPaid() throws Exception {
         assertEquals(OrderStatus.PAID, order.getStatus());
         assertNotEquals(null, order.getPaidAt());
         verify(ticketService, times(1)).createByOrder(order);
+        verify(mailOutboxService, times(1)).enqueueOrderConfirmation(order);
+        verify(mailService, times(0)).sendOrderConfirmation(any(), any());
     }
 
     /**
@@ -429,6 +448,66 @@ public void testUpdateOrderStatusReservation() throws Exception {
         orderService.updateOrderStatus(order, OrderStatus.RESERVATION);
 
         assertEquals(OrderStatus.RESERVATION, order.getStatus());
+        assertTrue(order.getExpiresAt().isAfter(LocalDateTime.now().plusDays(3).minusMinutes(1)));
+    }
+
+    @Test
+    public void testUpdateOrderStatusExpiredFromReservation() throws Exception {
+        Order order = new Order();
+        order.setStatus(OrderStatus.RESERVATION);
+
+        orderService.updateOrderStatus(order, OrderStatus.EXPIRED);
+
+        assertEquals(OrderStatus.EXPIRED, order.getStatus());
+        verify(productService, times(1)).increaseProductCount(order, true, true);
+    }
+
+    @Test
+    public void testUpdateOrderStatusPendingReservesProducts() throws Exception {
+        Order order = new Order();
+        order.setStatus(OrderStatus.ASSIGNED);
+
+        orderService.updateOrderStatus(order, OrderStatus.PENDING);
+
+        assertEquals(OrderStatus.PENDING, order.getStatus());
+        verify(productService, times(1)).increaseProductCount(order, true, false);
+    }
+
+    @Test
+    public void testUpdateOrderStatusPendingSoldOut() throws Exception {
+        Order order = new Order();
+        order.setStatus(OrderStatus.ASSIGNED);
+        doThrow(new ProductSoldOutException("Product")).when(productService).increaseProductCount(order, true, false);
+
+        try {
+            orderService.updateOrderStatus(order, OrderStatus.PENDING);
+            fail("Expected a ProductSoldOutException");
+        } catch (ProductSoldOutException e) {
+            assertEquals(OrderStatus.ASSIGNED, order.getStatus());
+        }
+    }
+
+    @Test
+    public void testUpdateOrderStatusPaidFromPendingMovesReserved() throws Exception {
+        Order order = new Order();
+        order.setStatus(OrderStatus.PENDING);
+        when(ticketService.createByOrder(order)).thenReturn(new ArrayList<>());
+
+        orderService.updateOrderStatus(order, OrderStatus.PAID);
+
+        verify(productService, times(1)).moveReservedToSold(order);
+        verify(productService, never()).increaseProductCount(any(), anyBoolean(), anyBoolean());
+    }
+
+    @Test
+    public void testUpdateOrderStatusCancelledFromPendingReleasesProducts() throws Exception {
+        Order order = new Order();
+        order.setStatus(OrderStatus.PENDING);
+
+        orderService.updateOrderStatus(order, OrderStatus.CANCELLED);
+
+        assertEquals(OrderStatus.CANCELLED, order.getStatus());
+        verify(productService, times(1)).increaseProductCount(order, true, true);
     }
 
     @Test
@@ -460,7 +539,56 @@ public void testUpdateOrderStatusRejectedFromReservation() throws Exception {
         orderService.updateOrderStatus(order, OrderStatus.REJECTED);
 
         assertEquals(OrderStatus.REJECTED, order.getStatus());
+        verify(orderRepository, times(1)).saveAndFlush(order);
+    }
+
+    @Test
+    public void testUpdateOrderStatusRetriedAfterConflict() throws Exception {
+        Order order = new Order();
+        order.setStatus(OrderStatus.PENDING);
+        order.setVersion(1L);
+        ReflectionTestUtils.setField(order, "id", 1);
+
+        Order current = new Order();
+        current.setStatus(OrderStatus.PENDING);
+        current.setVersion(2L);
+
+        when(orderRepository.saveAndFlush(order))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Order.class, 1))
+                .thenAnswer(returnsFirstArg());
+        when(orderRepository.findById(1)).thenReturn(Optional.of(current));
+        orderService.updateOrderStatus(order, OrderStatus.PAID);
+
+        assertEquals(OrderStatus.PAID, order.getStatus());
         verify(orderRepository, times(2)).saveAndFlush(order);
+        verify(orderRepository, times(1)).findById(1);
+    }
+
+    @Test
+    public void testUpdateOrderStatusConflictWithSameChange() throws Exception {
+        thrown.expect(OrderInvalidException.class);
+        thrown.expectMessage("Not allowed to update status from PAID to PAID");
+
+        Order order = new Order();
+        order.setStatus(OrderStatus.PENDING);
+        order.setVersion(1L);
+        ReflectionTestUtils.setField(order, "id", 1);
+
+        Order current = new Order();
+        current.setStatus(OrderStatus.PAID);
+        current.setVersion(2L);
+        current.setTicketCreated(true);
+
+        when(orderRepository.saveAndFlush(order)).thenThrow(new ObjectOptimisticLockingFailureException(Order.class, 1));
+        when(orderRepository.findById(1)).thenReturn(Optional.of(current));
+
+        try {
+            orderService.updateOrderStatus(order, OrderStatus.PAID);
+        } finally {
+            assertEquals(OrderStatus.PAID, order.getStatus());
+            assertEquals((Long) 2L, order.getVersion());
+            assertTrue(order.isTicketCreated());
+        }
     }
 
     @Test
@@ -535,4 +663,36 @@ public void testDelete() {
 
         verify(orderRepository, times(1)).delete(order);
     }
-}
\ No newline at end of file
+
+    /**
+     * Test deleteAbandoned removes the Orders together with their OrderProducts.
+     */
+    @Test
+    public void testDeleteAbandoned() {
+        LocalDateTime before = LocalDateTime.now().minusHours(1);
+        List<Integer> orderIds = ImmutableList.of(1, 2);
+        List<Integer> orderProductIds = ImmutableList.of(3, 4, 5);
+        when(orderRepository.findIdsByStatusInAndCreatedAtBefore(any(), eq(before), any())).thenReturn(orderIds);
+        when(orderRepository.findOrderProductIdsByOrderIds(orderIds)).thenReturn(orderProductIds);
+        when(orderRepository.deleteAllByIdIn(orderIds)).thenReturn(2);
+
+        assertEquals(2, orderService.deleteAbandoned(before));
+
+        verify(orderRepository, times(1)).deleteOrderProductLinksByOrderIds(orderIds);
+        verify(orderProductRepository, times(1)).deleteAllByIdIn(orderProductIds);
+        verify(orderRepository, times(1)).deleteAllByIdIn(orderIds);
+    }
+
+    /**
+     * Test deleteAbandoned when there is nothing to delete.
+     */
+    @Test
+    public void testDeleteAbandonedNone() {
+        when(orderRepository.findIdsByStatusInAndCreatedAtBefore(any(), any(), any())).thenReturn(ImmutableList.of());
+
+        assertEquals(0, orderService.deleteAbandoned(LocalDateTime.now()));
+
+        verify(orderRepository, times(0)).deleteAllByIdIn(any());
+        verify(orderProductRepository, times(0)).deleteAllByIdIn(any());
+    }
+}
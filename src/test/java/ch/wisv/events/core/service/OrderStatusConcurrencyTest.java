@@ -0,0 +1,154 @@
+package ch.wisv.events.core.service;
+
+import ch.wisv.events.ServiceTest;
+import ch.wisv.events.core.exception.normal.OrderInvalidException;
+import ch.wisv.events.core.model.customer.Customer;
+import ch.wisv.events.core.model.mail.MailTask;
+import ch.wisv.events.core.model.order.Order;
+import ch.wisv.events.core.model.order.OrderProduct;
+import ch.wisv.events.core.model.order.OrderStatus;
+import ch.wisv.events.core.model.product.Product;
+import ch.wisv.events.core.repository.CustomerRepository;
+import ch.wisv.events.core.repository.MailTaskRepository;
+import ch.wisv.events.core.repository.OrderProductRepository;
+import ch.wisv.events.core.repository.OrderRepository;
+import ch.wisv.events.core.repository.ProductRepository;
+import ch.wisv.events.core.repository.TicketRepository;
+import ch.wisv.events.core.service.order.OrderService;
+import ch.wisv.events.core.util.VatRate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Concurrently pay the same reservation and check the tickets are created and the products are sold exactly once.
+ */
+public class OrderStatusConcurrencyTest extends ServiceTest {
+
+    /** Number of concurrent status changes. */
+    private static final int THREADS = 8;
+
+    /** Number of tickets in the Order. */
+    private static final int TICKETS = 3;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderProductRepository orderProductRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private TicketRepository ticketRepository;
+
+    @Autowired
+    private MailTaskRepository mailTaskRepository;
+
+    private Product product;
+
+    private Customer customer;
+
+    private OrderProduct orderProduct;
+
+    private Order order;
+
+    @Before
+    public void setUp() {
+        product = new Product("Concurrency", "Description", 1.d, VatRate.VAT_HIGH, TICKETS,
+                LocalDateTime.now().minusHours(1), LocalDateTime.now().plusHours(1));
+        product.setReserved(TICKETS);
+        product = productRepository.saveAndFlush(product);
+        customer = customerRepository.saveAndFlush(new Customer(UUID.randomUUID().toString(), "Concurrency",
+                UUID.randomUUID() + "@example.com", ""));
+        orderProduct = orderProductRepository.saveAndFlush(new OrderProduct(product, 1.d, (long) TICKETS));
+
+        order = new Order();
+        order.setOwner(customer);
+        order.addOrderProduct(orderProduct);
+        order.setStatus(OrderStatus.RESERVATION);
+        order = orderRepository.saveAndFlush(order);
+    }
+
+    @After
+    public void tearDown() {
+        mailTaskRepository.findAll().stream()
+                .filter(task -> order.getPublicReference().equals(task.getOrderReference()))
+                .forEach(mailTaskRepository::delete);
+        // Removing the tickets cascades to their Order.
+        ticketRepository.deleteAll(ticketRepository.findAllByOrder(order));
+        orderRepository.findById(order.getId()).ifPresent(orderRepository::delete);
+        orderProductRepository.deleteById(orderProduct.getId());
+        productRepository.deleteById(product.getId());
+        customerRepository.deleteById(customer.getId());
+    }
+
+    @Test
+    public void testConcurrentPaymentsChangeStatusOnce() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CyclicBarrier start = new CyclicBarrier(THREADS);
+        List<Future<Boolean>> futures = new ArrayList<>();
+
+        for (int i = 0; i < THREADS; i++) {
+            Callable<Boolean> payment = () -> {
+                Order copy = orderRepository.findById(order.getId()).orElseThrow();
+                start.await();
+                try {
+                    orderService.updateOrderStatus(copy, OrderStatus.PAID);
+
+                    return true;
+                } catch (OrderInvalidException e) {
+                    // Expected when another payment has already changed the status.
+                    assertEquals(OrderStatus.PAID, copy.getStatus());
+
+                    return false;
+                }
+            };
+            futures.add(executor.submit(payment));
+        }
+
+        int paid = 0;
+        for (Future<Boolean> future : futures) {
+            paid += future.get() ? 1 : 0;
+        }
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+
+        assertEquals(1, paid);
+
+        Order result = orderRepository.findById(order.getId()).orElseThrow();
+        assertEquals(OrderStatus.PAID, result.getStatus());
+        assertTrue(result.isTicketCreated());
+        assertEquals(TICKETS, ticketRepository.findAllByOrder(result).size());
+
+        Product sold = productRepository.findById(product.getId()).orElseThrow();
+        assertEquals(TICKETS, sold.getSold());
+        assertEquals(0, sold.getReserved());
+
+        long confirmations = mailTaskRepository.findAll().stream()
+                .map(MailTask::getOrderReference)
+                .filter(order.getPublicReference()::equals)
+                .count();
+        assertEquals(1, confirmations);
+    }
+}
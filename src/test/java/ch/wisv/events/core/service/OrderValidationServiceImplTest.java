@@ -1,7 +1,6 @@
 package ch.wisv.events.core.service;
 
 import ch.wisv.events.ServiceTest;
-import ch.wisv.events.core.exception.normal.EventNotFoundException;
 import ch.wisv.events.core.exception.normal.OrderExceedCustomerLimitException;
 import ch.wisv.events.core.exception.normal.OrderExceedEventLimitException;
 import ch.wisv.events.core.exception.normal.OrderExceedProductLimitException;
@@ -13,17 +12,15 @@
 import ch.wisv.events.core.model.order.OrderStatus;
 import ch.wisv.events.core.model.order.PaymentMethod;
 import ch.wisv.events.core.model.product.Product;
-import ch.wisv.events.core.model.ticket.Ticket;
+import ch.wisv.events.core.model.product.ProductFamilyCount;
 import ch.wisv.events.core.repository.OrderRepository;
 import ch.wisv.events.core.service.event.EventService;
 import ch.wisv.events.core.service.order.OrderValidationService;
-import ch.wisv.events.core.service.product.ProductService;
-import ch.wisv.events.core.service.ticket.TicketService;
 import ch.wisv.events.core.util.VatRate;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import java.time.LocalDateTime;
 import java.util.Collections;
-import java.util.List;
 
 import org.junit.After;
 import org.junit.Before;
@@ -32,7 +29,10 @@
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.test.mock.mockito.MockBean;
 
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
@@ -44,14 +44,6 @@ public class OrderValidationServiceImplTest extends ServiceTest {
     @MockBean
     private OrderRepository orderRepository;
 
-    /** TicketService. */
-    @MockBean
-    private TicketService ticketService;
-
-    /** ProductService. */
-    @MockBean
-    private ProductService productService;
-
     /** EventService. */
     @MockBean
     private EventService eventService;
@@ -153,7 +145,7 @@ public void assertOrderIsValidEventNoMaxSold() throws Exception {
         Event event = new Event();
         event.setMaxSold(null);
 
-        when(eventService.getByProduct(product)).thenReturn(event);
+        when(eventService.getByProducts(any())).thenReturn(ImmutableMap.of(product.getId(), event));
         when(product.getSold()).thenReturn(9);
         when(product.getReserved()).thenReturn(1);
         when(product.getMaxSold()).thenReturn(null);
@@ -170,7 +162,7 @@ public void assertOrderIsValidEventLimitExceed() throws Exception {
         event.setMaxSold(10);
         event.addProduct(product);
 
-        when(eventService.getByProduct(product)).thenReturn(event);
+        when(eventService.getByProducts(any())).thenReturn(ImmutableMap.of(product.getId(), event));
         when(product.getSold()).thenReturn(9);
         when(product.getReserved()).thenReturn(1);
         when(product.getMaxSold()).thenReturn(null);
@@ -186,7 +178,7 @@ public void assertOrderIsValidEventLimitExceed() throws Exception {
 
     @Test
     public void assertOrderIsValidEventNotFound() throws Exception {
-        when(eventService.getByProduct(product)).thenThrow(EventNotFoundException.class);
+        when(eventService.getByProducts(any())).thenReturn(ImmutableMap.of());
         when(product.getSold()).thenReturn(9);
         when(product.getReserved()).thenReturn(1);
         when(product.getMaxSold()).thenReturn(null);
@@ -202,7 +194,7 @@ public void assertOrderIsValidProductLimitExceed() throws Exception {
         event.setMaxSold(15);
         event.addProduct(product);
 
-        when(eventService.getByProduct(product)).thenReturn(event);
+        when(eventService.getByProducts(any())).thenReturn(ImmutableMap.of(product.getId(), event));
         when(product.getSold()).thenReturn(9);
         when(product.getReserved()).thenReturn(1);
         when(product.getMaxSold()).thenReturn(10);
@@ -229,10 +221,9 @@ public void assertProductInSellIntervalAfter() throws Exception {
     @Test
     public void assertOrderIsValidForCustomer() throws Exception {
         Customer customer = mock(Customer.class);
-        Order prevOrder = mock(Order.class);
 
         when(product.getMaxSoldPerCustomer()).thenReturn(1);
-        when(orderRepository.findAllByOwnerAndStatus(customer, OrderStatus.RESERVATION)).thenReturn(ImmutableList.of(prevOrder));
+        when(orderRepository.countHeldPerProductFamily(any(), any())).thenReturn(ImmutableList.of());
 
         orderValidationService.assertOrderIsValidForCustomer(order, customer);
     }
@@ -240,24 +231,23 @@ public void assertOrderIsValidForCustomer() throws Exception {
     @Test
     public void assertOrderIsValidForCustomerNoLimit() throws Exception {
         Customer customer = mock(Customer.class);
-        Order prevOrder = mock(Order.class);
 
         when(product.getMaxSoldPerCustomer()).thenReturn(null);
-        when(orderRepository.findAllByOwnerAndStatus(customer, OrderStatus.RESERVATION)).thenReturn(ImmutableList.of(prevOrder));
-        when(ticketService.getAllByProductAndCustomer(product, customer)).thenReturn(ImmutableList.of(mock(Ticket.class)));
 
         orderValidationService.assertOrderIsValidForCustomer(order, customer);
+
+        verify(orderRepository, never()).countHeldPerProductFamily(any(), any());
     }
 
     @Test
     public void assertOrderIsValidForCustomerExceedSold() throws Exception {
         Customer customer = mock(Customer.class);
-        Order prevOrder = mock(Order.class);
+        ProductFamilyCount held = mock(ProductFamilyCount.class);
 
+        when(held.getProductId()).thenReturn(product.getId());
+        when(held.getAmount()).thenReturn(1);
         when(product.getMaxSoldPerCustomer()).thenReturn(1);
-        when(productService.getRelatedProducts(product)).thenReturn(ImmutableList.of(product));
-        when(orderRepository.findAllByOwnerAndStatus(customer, OrderStatus.RESERVATION)).thenReturn(ImmutableList.of(prevOrder));
-        when(ticketService.getAllByProductsAndCustomer(List.of(product), customer)).thenReturn(ImmutableList.of(mock(Ticket.class)));
+        when(orderRepository.countHeldPerProductFamily(any(), any())).thenReturn(ImmutableList.of(held));
 
         thrown.expect(OrderExceedCustomerLimitException.class);
         thrown.expectMessage("Customer limit exceeded (max 0 tickets allowed).");
@@ -266,22 +256,19 @@ public void assertOrderIsValidForCustomerExceedSold() throws Exception {
     }
 
     @Test
-    public void assertOrderIsValidForCustomerExceedReservation() throws Exception {
+    public void assertOrderIsValidForCustomerExceedProductFamily() throws Exception {
         Customer customer = mock(Customer.class);
-        Order prevOrder = mock(Order.class);
-        OrderProduct prevOrderProduct = mock(OrderProduct.class);
-
-        when(prevOrderProduct.getAmount()).thenReturn(1L);
-        when(prevOrderProduct.getProduct()).thenReturn(product);
-        when(prevOrder.getOrderProducts()).thenReturn(ImmutableList.of(prevOrderProduct));
+        Product child = mock(Product.class);
 
+        when(child.getVatRate()).thenReturn(VatRate.VAT_HIGH);
+        when(child.getParentProduct()).thenReturn(product);
+        when(child.getMaxSoldPerCustomer()).thenReturn(1);
         when(product.getMaxSoldPerCustomer()).thenReturn(1);
-        when(productService.getRelatedProducts(product)).thenReturn(ImmutableList.of(product));
-        when(orderRepository.findAllByOwnerAndStatus(customer, OrderStatus.RESERVATION)).thenReturn(ImmutableList.of(prevOrder));
-        when(ticketService.getAllByProductsAndCustomer(List.of(product), customer)).thenReturn(ImmutableList.of());
+        when(orderRepository.countHeldPerProductFamily(any(), any())).thenReturn(ImmutableList.of());
+        order.setOrderProducts(ImmutableList.of(new OrderProduct(product, 1.d, 1L), new OrderProduct(child, 1.d, 1L)));
 
         thrown.expect(OrderExceedCustomerLimitException.class);
-        thrown.expectMessage("Customer limit exceeded (max 0 tickets allowed).");
+        thrown.expectMessage("Customer limit exceeded (max 1 tickets allowed).");
 
         orderValidationService.assertOrderIsValidForCustomer(order, customer);
     }
@@ -312,7 +299,7 @@ private void assertProductInSellInterval(LocalDateTime localDateTime, LocalDateT
         event.setMaxSold(15);
         event.addProduct(product);
 
-        when(eventService.getByProduct(product)).thenReturn(event);
+        when(eventService.getByProducts(any())).thenReturn(ImmutableMap.of(product.getId(), event));
         when(product.getSellStart()).thenReturn(localDateTime);
         when(product.getSellEnd()).thenReturn(localDateTime2);
         when(product.getTitle()).thenReturn("Test product");
@@ -0,0 +1,139 @@
+package ch.wisv.events.core.service;
+
+import ch.wisv.events.ServiceTest;
+import ch.wisv.events.core.exception.normal.ProductSoldOutException;
+import ch.wisv.events.core.model.order.Order;
+import ch.wisv.events.core.model.order.OrderProduct;
+import ch.wisv.events.core.model.product.Product;
+import ch.wisv.events.core.repository.ProductRepository;
+import ch.wisv.events.core.service.product.ProductService;
+import ch.wisv.events.core.util.VatRate;
+import com.google.common.collect.ImmutableList;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import static org.junit.Assert.assertEquals;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Concurrently sell products and check the maxSold is never exceeded.
+ */
+public class ProductCountConcurrencyTest extends ServiceTest {
+
+    /** Number of concurrent buyers. */
+    private static final int THREADS = 16;
+
+    /** Number of orders per buyer. */
+    private static final int ORDERS_PER_THREAD = 5;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    /** Products created by the test. */
+    private final List<Product> products = new ArrayList<>();
+
+    @After
+    public void tearDown() {
+        // Delete children before their parent product.
+        for (int i = products.size() - 1; i >= 0; i--) {
+            productRepository.deleteById(products.get(i).getId());
+        }
+    }
+
+    @Test
+    public void testConcurrentSalesDoNotExceedMaxSold() throws Exception {
+        Product product = this.createProduct(null, 25);
+
+        int sold = this.sellConcurrently(ImmutableList.of(product), false);
+
+        assertEquals(25, sold);
+        assertEquals(25, productRepository.findById(product.getId()).orElseThrow().getSold());
+    }
+
+    @Test
+    public void testConcurrentSalesDoNotExceedMaxSoldOfProductFamily() throws Exception {
+        Product parent = this.createProduct(null, 30);
+        Product child = this.createProduct(parent, null);
+        Product sibling = this.createProduct(parent, null);
+
+        int sold = this.sellConcurrently(ImmutableList.of(parent, child, sibling), true);
+
+        assertEquals(30, sold);
+        int total = ImmutableList.of(parent, child, sibling).stream()
+                .map(p -> productRepository.findById(p.getId()).orElseThrow())
+                .mapToInt(p -> p.getSold() + p.getReserved())
+                .sum();
+        assertEquals(30, total);
+    }
+
+    /**
+     * Let every thread sell one of the products, alternating between sold and reserved counts when mixed.
+     *
+     * @param family products to sell
+     * @param mixed  whether to also reserve products
+     *
+     * @return number of successful sales
+     */
+    private int sellConcurrently(List<Product> family, boolean mixed) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<Integer>> futures = new ArrayList<>();
+
+        for (int i = 0; i < THREADS; i++) {
+            int thread = i;
+            Callable<Integer> buyer = () -> {
+                int success = 0;
+                for (int j = 0; j < ORDERS_PER_THREAD; j++) {
+                    Product product = productRepository.findById(family.get((thread + j) % family.size()).getId()).orElseThrow();
+                    Order order = new Order();
+                    order.setOrderProducts(ImmutableList.of(new OrderProduct(product, 1.d, 1L)));
+                    try {
+                        productService.increaseProductCount(order, mixed && j % 2 == 1, false);
+                        success++;
+                    } catch (ProductSoldOutException ignored) {
+                        // Expected once the product is sold out.
+                    }
+                }
+                return success;
+            };
+            futures.add(executor.submit(buyer));
+        }
+
+        int sold = 0;
+        for (Future<Integer> future : futures) {
+            sold += future.get();
+        }
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+
+        return sold;
+    }
+
+    /**
+     * Create a product.
+     *
+     * @param parent  parent product or null
+     * @param maxSold maxSold of the product
+     *
+     * @return Product
+     */
+    private Product createProduct(Product parent, Integer maxSold) {
+        Product product = new Product("Concurrency", "Description", 1.d, VatRate.VAT_HIGH, maxSold,
+                LocalDateTime.now().minusHours(1), LocalDateTime.now().plusHours(1));
+        product.setMaxSoldPerCustomer(1);
+        product.setParentProduct(parent);
+        product = productRepository.saveAndFlush(product);
+        products.add(product);
+
+        return product;
+    }
+}
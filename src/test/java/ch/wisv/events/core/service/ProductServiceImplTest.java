@@ -4,7 +4,11 @@
 import ch.wisv.events.api.request.ProductDto;
 import ch.wisv.events.core.exception.normal.ProductInvalidException;
 import ch.wisv.events.core.exception.normal.ProductNotFoundException;
+import ch.wisv.events.core.exception.normal.ProductSoldOutException;
 import ch.wisv.events.core.exception.runtime.ProductAlreadyLinkedException;
+import ch.wisv.events.core.model.event.CatalogChangedEvent;
+import ch.wisv.events.core.model.order.Order;
+import ch.wisv.events.core.model.order.OrderProduct;
 import ch.wisv.events.core.model.product.Product;
 import ch.wisv.events.core.repository.ProductRepository;
 import ch.wisv.events.core.service.product.ProductService;
@@ -18,9 +22,12 @@
 import static org.junit.Assert.assertEquals;
 import org.junit.Before;
 import org.junit.Test;
+import org.springframework.context.ApplicationEventPublisher;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import org.mockito.Mock;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -33,6 +40,12 @@ public class ProductServiceImplTest extends ServiceTest {
     @Mock
     private ProductRepository productRepository;
 
+    /**
+     * Mock of ApplicationEventPublisher
+     */
+    @Mock
+    private ApplicationEventPublisher applicationEventPublisher;
+
     /**
      * ProductService
      */
@@ -48,7 +61,7 @@ public class ProductServiceImplTest extends ServiceTest {
      */
     @Before
     public void setUp() {
-        productService = new ProductServiceImpl(productRepository);
+        productService = new ProductServiceImpl(productRepository, applicationEventPublisher);
         product = new Product(
                 "Product",
                 "Description",
@@ -324,4 +337,77 @@ public void testDeleteProductAddedToEvent() {
         productService.delete(product);
     }
 
-}
\ No newline at end of file
+    /**
+     * Test increase product count applies the count in the database.
+     */
+    @Test
+    public void testIncreaseProductCount() throws Exception {
+        product.id = 1;
+        Order order = new Order();
+        order.setOrderProducts(ImmutableList.of(new OrderProduct(product, 1.d, 2L)));
+        when(productRepository.increaseSoldWithinLimit(1, 1, 2)).thenReturn(1);
+
+        productService.increaseProductCount(order, false, false);
+
+        verify(productRepository, times(1)).lockById(1);
+        verify(applicationEventPublisher, times(1)).publishEvent(any(CatalogChangedEvent.class));
+        assertEquals(2, product.getSold());
+    }
+
+    /**
+     * Test increase product count when the product is sold out.
+     */
+    @Test
+    public void testIncreaseProductCountSoldOut() throws Exception {
+        product.id = 1;
+        Order order = new Order();
+        order.setOrderProducts(ImmutableList.of(new OrderProduct(product, 1.d, 2L)));
+        when(productRepository.increaseReservedWithinLimit(1, 1, 2)).thenReturn(0);
+
+        thrown.expect(ProductSoldOutException.class);
+        thrown.expectMessage("Product is sold out!");
+
+        try {
+            productService.increaseProductCount(order, true, false);
+        } finally {
+            assertEquals(0, product.getReserved());
+        }
+    }
+
+    /**
+     * Test increase product count of a child product uses the family of the parent product.
+     */
+    @Test
+    public void testIncreaseProductCountChildProduct() throws Exception {
+        Product parent = new Product();
+        parent.id = 1;
+        product.id = 2;
+        product.setParentProduct(parent);
+        Order order = new Order();
+        order.setOrderProducts(ImmutableList.of(new OrderProduct(product, 1.d, 1L)));
+        when(productRepository.increaseSoldWithinLimit(2, 1, 1)).thenReturn(1);
+
+        productService.increaseProductCount(order, false, false);
+
+        verify(productRepository, times(1)).lockById(1);
+        verify(productRepository, never()).lockById(2);
+    }
+
+    /**
+     * Test decrease product count does not check the limit.
+     */
+    @Test
+    public void testDecreaseProductCount() throws Exception {
+        product.id = 1;
+        product.setSold(2);
+        Order order = new Order();
+        order.setOrderProducts(ImmutableList.of(new OrderProduct(product, 1.d, 2L)));
+
+        productService.increaseProductCount(order, false, true);
+
+        verify(productRepository, times(1)).increaseSold(1, -2);
+        verify(productRepository, never()).increaseSoldWithinLimit(anyInt(), anyInt(), anyInt());
+        assertEquals(0, product.getSold());
+    }
+
+}
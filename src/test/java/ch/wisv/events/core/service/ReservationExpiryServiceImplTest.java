@@ -0,0 +1,106 @@
+package ch.wisv.events.core.service;
+
+import ch.wisv.events.core.model.order.Order;
+import ch.wisv.events.core.model.order.OrderStatus;
+import ch.wisv.events.core.model.order.ReservationExpiry;
+import ch.wisv.events.core.repository.OrderRepository;
+import ch.wisv.events.core.service.order.OrderService;
+import ch.wisv.events.core.service.order.ReservationExpiryServiceImpl;
+import com.google.common.collect.ImmutableList;
+import java.time.LocalDateTime;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * ReservationExpiryServiceImpl test.
+ */
+public class ReservationExpiryServiceImplTest {
+
+    private OrderRepository orderRepository;
+
+    private OrderService orderService;
+
+    private ReservationExpiryServiceImpl reservationExpiryService;
+
+    @Before
+    public void setUp() {
+        orderRepository = mock(OrderRepository.class);
+        orderService = mock(OrderService.class);
+        reservationExpiryService = new ReservationExpiryServiceImpl(orderRepository, orderService, 30);
+    }
+
+    @After
+    public void tearDown() {
+        reservationExpiryService.shutdown();
+    }
+
+    @Test
+    public void testOverdueReservationIsExpired() throws Exception {
+        Order order = this.reservation(LocalDateTime.now().minusMinutes(1));
+        this.loadExpiries(order);
+
+        reservationExpiryService.scheduleUpcoming();
+
+        verify(orderService, timeout(1000).times(1)).updateOrderStatus(order, OrderStatus.EXPIRED);
+    }
+
+    @Test
+    public void testReservationIsExpiredAtDeadline() throws Exception {
+        Order order = this.reservation(LocalDateTime.now().plusNanos(300_000_000));
+        this.loadExpiries(order);
+
+        reservationExpiryService.scheduleUpcoming();
+
+        verify(orderService, never()).updateOrderStatus(any(), any());
+        verify(orderService, timeout(2000).times(1)).updateOrderStatus(order, OrderStatus.EXPIRED);
+    }
+
+    @Test
+    public void testReservationLoadedTwiceIsScheduledOnce() throws Exception {
+        Order order = this.reservation(LocalDateTime.now().plusNanos(300_000_000));
+        this.loadExpiries(order);
+
+        reservationExpiryService.scheduleUpcoming();
+        reservationExpiryService.scheduleUpcoming();
+
+        verify(orderService, timeout(2000).times(1)).updateOrderStatus(order, OrderStatus.EXPIRED);
+        Thread.sleep(200);
+        verify(orderService, times(1)).updateOrderStatus(order, OrderStatus.EXPIRED);
+    }
+
+    @Test
+    public void testPaidReservationIsNotExpired() throws Exception {
+        Order order = this.reservation(LocalDateTime.now().minusMinutes(1));
+        this.loadExpiries(order);
+        order.setStatus(OrderStatus.PAID);
+
+        reservationExpiryService.scheduleUpcoming();
+
+        verify(orderService, timeout(1000).times(1)).getByReference(order.getPublicReference());
+        verify(orderService, never()).updateOrderStatus(any(), any());
+    }
+
+    private Order reservation(LocalDateTime expiresAt) throws Exception {
+        Order order = new Order();
+        order.setStatus(OrderStatus.RESERVATION);
+        order.setExpiresAt(expiresAt);
+        when(orderService.getByReference(order.getPublicReference())).thenReturn(order);
+
+        return order;
+    }
+
+    private void loadExpiries(Order order) {
+        ReservationExpiry expiry = mock(ReservationExpiry.class);
+        when(expiry.getPublicReference()).thenReturn(order.getPublicReference());
+        when(expiry.getExpiresAt()).thenReturn(order.getExpiresAt());
+        when(orderRepository.findReservationExpiries(any())).thenReturn(ImmutableList.of(expiry));
+    }
+}
@@ -0,0 +1,65 @@
+package ch.wisv.events.core.service;
+
+import ch.wisv.events.core.exception.normal.TicketCodeInvalidException;
+import ch.wisv.events.core.model.product.Product;
+import ch.wisv.events.core.model.ticket.SignedTicketCode;
+import ch.wisv.events.core.model.ticket.Ticket;
+import ch.wisv.events.core.service.ticket.TicketCodeService;
+import ch.wisv.events.core.service.ticket.TicketCodeServiceImpl;
+import java.util.UUID;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TicketCodeServiceImplTest {
+
+    private TicketCodeService ticketCodeService;
+
+    private Ticket ticket;
+
+    @Before
+    public void setUp() {
+        ticketCodeService = new TicketCodeServiceImpl("secret");
+
+        Product product = new Product();
+        product.id = 12;
+        ticket = new Ticket(null, null, product, UUID.randomUUID().toString());
+        ticket.id = 345;
+    }
+
+    @Test
+    public void testEncodeDecode() throws Exception {
+        String code = ticketCodeService.encode(ticket);
+        assertTrue(ticketCodeService.isSigned(code));
+
+        SignedTicketCode decoded = ticketCodeService.decode(code);
+        assertEquals(Integer.valueOf(12), decoded.getProductId());
+        assertEquals(Integer.valueOf(345), decoded.getTicketId());
+        assertEquals(ticket.getUniqueCode(), decoded.getUniqueCode());
+    }
+
+    @Test(expected = TicketCodeInvalidException.class)
+    public void testDecodeForged() throws Exception {
+        String code = ticketCodeService.encode(ticket);
+        String forged = code.replace(".12.", ".13.");
+
+        ticketCodeService.decode(forged);
+    }
+
+    @Test(expected = TicketCodeInvalidException.class)
+    public void testDecodeOtherSecret() throws Exception {
+        String code = new TicketCodeServiceImpl("other").encode(ticket);
+
+        ticketCodeService.decode(code);
+    }
+
+    @Test
+    public void testEncodeWithoutSecret() {
+        TicketCodeService unsigned = new TicketCodeServiceImpl("");
+
+        assertEquals(ticket.getUniqueCode(), unsigned.encode(ticket));
+        assertFalse(unsigned.isSigned(ticket.getUniqueCode()));
+    }
+}
@@ -0,0 +1,90 @@
+package ch.wisv.events.core.service;
+
+import ch.wisv.events.core.model.product.Product;
+import ch.wisv.events.core.model.ticket.Ticket;
+import ch.wisv.events.core.service.ticket.TicketCodeServiceImpl;
+import ch.wisv.events.core.service.ticket.TicketImageService;
+import ch.wisv.events.core.service.ticket.TicketImageServiceImpl;
+import ch.wisv.events.utils.Barcode;
+import com.google.zxing.BinaryBitmap;
+import com.google.zxing.client.j2se.BufferedImageLuminanceSource;
+import com.google.zxing.common.HybridBinarizer;
+import com.google.zxing.oned.EAN13Reader;
+import com.google.zxing.qrcode.QRCodeReader;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.util.UUID;
+import javax.imageio.ImageIO;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TicketImageServiceImplTest {
+
+    private TicketImageService ticketImageService;
+
+    private Ticket ticket;
+
+    @Before
+    public void setUp() {
+        ticketImageService = new TicketImageServiceImpl(new TicketCodeServiceImpl(""), 1024 * 1024);
+
+        ticket = new Ticket();
+        ticket.setUniqueCode(UUID.randomUUID().toString());
+    }
+
+    @Test
+    public void testQrCodePng() throws Exception {
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(ticketImageService.getQrCodePng(ticket)));
+        BinaryBitmap bitmap = new BinaryBitmap(new HybridBinarizer(new BufferedImageLuminanceSource(image)));
+
+        assertEquals(ticket.getUniqueCode(), new QRCodeReader().decode(bitmap).getText());
+    }
+
+    @Test
+    public void testBarcodePng() throws Exception {
+        ticket.setUniqueCode("123456");
+
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(ticketImageService.getBarcodePng(ticket)));
+        BinaryBitmap bitmap = new BinaryBitmap(new HybridBinarizer(new BufferedImageLuminanceSource(image)));
+
+        String barcode = new EAN13Reader().decode(bitmap).getText();
+        assertEquals("978020123456", barcode.substring(0, 12));
+        assertTrue(Barcode.isValidEanCode(barcode));
+    }
+
+    @Test
+    public void testQrCodeCached() throws Exception {
+        byte[] png = ticketImageService.getQrCodePng(ticket);
+
+        assertSame(png, ticketImageService.getQrCodePng(ticket));
+
+        ticketImageService.invalidate(ticket);
+
+        assertNotSame(png, ticketImageService.getQrCodePng(ticket));
+    }
+
+    @Test
+    public void testQrCodeCachedPerTicket() throws Exception {
+        ticketImageService = new TicketImageServiceImpl(new TicketCodeServiceImpl("secret"), 1024 * 1024);
+
+        Product product = new Product();
+        product.id = 1;
+        Product other = new Product();
+        other.id = 2;
+
+        Ticket first = new Ticket(null, null, product, "123456");
+        first.id = 10;
+        Ticket second = new Ticket(null, null, other, "123456");
+        second.id = 11;
+
+        ticketImageService.getQrCodePng(first);
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(ticketImageService.getQrCodePng(second)));
+        BinaryBitmap bitmap = new BinaryBitmap(new HybridBinarizer(new BufferedImageLuminanceSource(image)));
+
+        assertTrue(new QRCodeReader().decode(bitmap).getText().contains(".2.11.123456."));
+    }
+}
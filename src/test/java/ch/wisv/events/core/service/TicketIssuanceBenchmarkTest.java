@@ -0,0 +1,112 @@
+package ch.wisv.events.core.service;
+
+import ch.wisv.events.ServiceTest;
+import ch.wisv.events.core.model.customer.Customer;
+import ch.wisv.events.core.model.order.Order;
+import ch.wisv.events.core.model.order.OrderProduct;
+import ch.wisv.events.core.model.product.Product;
+import ch.wisv.events.core.model.ticket.Ticket;
+import ch.wisv.events.core.repository.CustomerRepository;
+import ch.wisv.events.core.repository.OrderProductRepository;
+import ch.wisv.events.core.repository.OrderRepository;
+import ch.wisv.events.core.repository.ProductRepository;
+import ch.wisv.events.core.repository.TicketRepository;
+import ch.wisv.events.core.service.ticket.TicketService;
+import ch.wisv.events.core.util.VatRate;
+import jakarta.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import lombok.extern.slf4j.Slf4j;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Compares the number of JDBC statements needed to issue the tickets of an Order, one by one against a batch.
+ */
+@Slf4j
+@Transactional
+public class TicketIssuanceBenchmarkTest extends ServiceTest {
+
+    /** Number of tickets in the Order. */
+    private static final int TICKETS = 25;
+
+    @Autowired
+    private TicketService ticketService;
+
+    @Autowired
+    private TicketRepository ticketRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private OrderProductRepository orderProductRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    private Order order;
+
+    @Before
+    public void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+
+        Product product = productRepository.saveAndFlush(new Product("Benchmark", "Description", 1.d, VatRate.VAT_HIGH,
+                null, LocalDateTime.now().minusHours(1), LocalDateTime.now().plusHours(1)));
+        Customer customer = customerRepository.saveAndFlush(new Customer(UUID.randomUUID().toString(), "Benchmark",
+                UUID.randomUUID() + "@example.com", ""));
+
+        order = new Order();
+        order.setOwner(customer);
+        order.addOrderProduct(orderProductRepository.saveAndFlush(new OrderProduct(product, 1.d, (long) TICKETS)));
+        order = orderRepository.saveAndFlush(order);
+    }
+
+    @Test
+    public void testBatchedIssuanceNeedsFewerStatements() {
+        long oneByOne = this.countStatements(() -> {
+            // Ticket issuance as it was before batching: an existence check and an insert per ticket.
+            for (int i = 0; i < TICKETS; i++) {
+                String uniqueCode = UUID.randomUUID().toString();
+                ticketRepository.existsByProductAndUniqueCode(order.getOrderProducts().get(0).getProduct(), uniqueCode);
+                ticketRepository.saveAndFlush(new Ticket(order, order.getOwner(), order.getOrderProducts().get(0).getProduct(), uniqueCode));
+            }
+        });
+
+        long batched = this.countStatements(() -> assertEquals(TICKETS, ticketService.createByOrder(order).size()));
+
+        log.info("Statements to issue " + TICKETS + " tickets: one by one " + oneByOne + ", batched " + batched);
+        assertTrue(oneByOne >= 2 * TICKETS);
+        assertTrue(batched <= 3);
+        assertEquals(2 * TICKETS, ticketRepository.findAllByOrder(order).size());
+    }
+
+    /**
+     * Count the JDBC statements prepared by a task.
+     *
+     * @param task of type Runnable
+     *
+     * @return number of statements
+     */
+    private long countStatements(Runnable task) {
+        statistics.clear();
+        task.run();
+
+        return statistics.getPrepareStatementCount();
+    }
+}
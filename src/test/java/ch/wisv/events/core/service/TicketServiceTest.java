@@ -2,15 +2,20 @@
 
 import ch.wisv.events.ServiceTest;
 import ch.wisv.events.core.exception.normal.TicketNotFoundException;
+import ch.wisv.events.core.http.HttpGateway;
 import ch.wisv.events.core.model.customer.Customer;
 import ch.wisv.events.core.model.order.Order;
 import ch.wisv.events.core.model.order.OrderProduct;
 import ch.wisv.events.core.model.product.Product;
 import ch.wisv.events.core.model.ticket.Ticket;
+import ch.wisv.events.core.model.ticket.TicketScanEntry;
 import ch.wisv.events.core.model.ticket.TicketStatus;
 import ch.wisv.events.core.repository.TicketRepository;
 import ch.wisv.events.core.service.event.EventService;
 import ch.wisv.events.core.service.googlewallet.GoogleWalletService;
+import ch.wisv.events.core.service.ticket.TicketCodeServiceImpl;
+import ch.wisv.events.core.service.ticket.TicketImageService;
+import ch.wisv.events.core.service.ticket.TicketScanIndexService;
 import ch.wisv.events.core.service.ticket.TicketService;
 import ch.wisv.events.core.service.ticket.TicketServiceImpl;
 import ch.wisv.events.core.util.VatRate;
@@ -26,13 +31,17 @@
 import com.google.zxing.qrcode.QRCodeReader;
 import org.junit.After;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 import org.junit.Before;
 import org.junit.Test;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import org.mockito.Mock;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -54,6 +63,14 @@ public class TicketServiceTest extends ServiceTest {
     /** GoogleWalletService. */
     private GoogleWalletService googleWalletService;
 
+    @Mock
+    /** TicketScanIndexService. */
+    private TicketScanIndexService ticketScanIndexService;
+
+    @Mock
+    /** TicketImageService. */
+    private TicketImageService ticketImageService;
+
     /** TicketService. */
     private TicketService ticketService;
 
@@ -71,7 +88,8 @@ public class TicketServiceTest extends ServiceTest {
      */
     @Before
     public void setUp() {
-        ticketService = new TicketServiceImpl(ticketRepository, eventService, googleWalletService);
+        ticketService = new TicketServiceImpl(ticketRepository, eventService, googleWalletService, ticketScanIndexService,
+                new TicketCodeServiceImpl(""), ticketImageService, mock(HttpGateway.class));
 
         ticket1 = new Ticket();
         ticket2 = new Ticket();
@@ -267,6 +285,32 @@ public void updateStatus() {
         verify(ticket, times(1)).setStatus(TicketStatus.SCANNED);
     }
 
+    @Test
+    public void scan() {
+        TicketScanEntry entry = new TicketScanEntry(1, "123456", 2, "Product", "Owner", TicketStatus.OPEN, null, null);
+        when(ticketRepository.markScanned(eq(1), any(), any())).thenReturn(1);
+
+        assertTrue(ticketService.scan(entry));
+        assertEquals(TicketStatus.SCANNED, entry.getStatus());
+    }
+
+    @Test
+    public void scanLostRace() {
+        TicketScanEntry entry = new TicketScanEntry(1, "123456", 2, "Product", "Owner", TicketStatus.OPEN, null, null);
+        when(ticketRepository.markScanned(eq(1), any(), any())).thenReturn(0);
+
+        assertFalse(ticketService.scan(entry));
+        assertEquals(TicketStatus.SCANNED, entry.getStatus());
+    }
+
+    @Test
+    public void scanAlreadyScanned() {
+        TicketScanEntry entry = new TicketScanEntry(1, "123456", 2, "Product", "Owner", TicketStatus.SCANNED, null, null);
+
+        assertFalse(ticketService.scan(entry));
+        verify(ticketRepository, never()).markScanned(any(), any(), any());
+    }
+
     /**
      *
      */
@@ -290,17 +334,17 @@ public void createByOrder() {
      *
      */
     @Test
-    public void createByOrderUniqueCodeExists() {
+    public void createByOrderSingleBatch() {
         Order order = new Order();
         order.setOwner(customer);
-        this.fillOrderWithAmountOfProducts(order, 1);
-
-        when(ticketRepository.saveAndFlush(any(Ticket.class))).thenReturn(new Ticket());
-        when(ticketRepository.existsByProductAndUniqueCode(any(Product.class), any(String.class))).thenReturn(true).thenReturn(false);
+        this.fillOrderWithAmountOfProducts(order, 25);
 
-        ticketService.createByOrder(order);
+        List<Ticket> createdTickets = ticketService.createByOrder(order);
 
-        verify(ticketRepository, times(2)).existsByProductAndUniqueCode(any(Product.class), any(String.class));
+        verify(ticketRepository, times(1)).insertAll(createdTickets);
+        verify(ticketRepository, never()).saveAndFlush(any(Ticket.class));
+        verify(ticketRepository, never()).existsByProductAndUniqueCode(any(Product.class), any(String.class));
+        assertEquals(25, createdTickets.stream().map(Ticket::getUniqueCode).distinct().count());
     }
 
     /**
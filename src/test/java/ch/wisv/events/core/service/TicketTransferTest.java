@@ -1,8 +1,8 @@
 package ch.wisv.events.core.service;
 
 import ch.wisv.events.ServiceTest;
-import ch.wisv.events.core.exception.normal.EventNotFoundException;
 import ch.wisv.events.core.exception.normal.TicketNotTransferableException;
+import ch.wisv.events.core.http.HttpGateway;
 import ch.wisv.events.core.model.customer.Customer;
 import ch.wisv.events.core.model.event.Event;
 import ch.wisv.events.core.model.product.Product;
@@ -12,10 +12,14 @@
 import ch.wisv.events.core.service.auth.AuthenticationService;
 import ch.wisv.events.core.service.event.EventService;
 import ch.wisv.events.core.service.googlewallet.GoogleWalletService;
+import ch.wisv.events.core.service.ticket.TicketCodeServiceImpl;
+import ch.wisv.events.core.service.ticket.TicketImageService;
+import ch.wisv.events.core.service.ticket.TicketScanIndexService;
 import ch.wisv.events.core.service.ticket.TicketService;
 import ch.wisv.events.core.service.ticket.TicketServiceImpl;
 
 import java.time.LocalDateTime;
+import java.util.Collections;
 import java.util.Optional;
 import org.junit.Before;
 import org.junit.Test;
@@ -24,7 +28,12 @@
 import static org.mockito.ArgumentMatchers.any;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 /**
  * TicketService test.
@@ -47,6 +56,14 @@ public class TicketTransferTest extends ServiceTest {
     /** GoogleWalletService. */
     private GoogleWalletService googleWalletService;
 
+    @Mock
+    /** TicketScanIndexService. */
+    private TicketScanIndexService ticketScanIndexService;
+
+    @Mock
+    /** TicketImageService. */
+    private TicketImageService ticketImageService;
+
     /** TicketService. */
     private TicketService ticketService;
 
@@ -64,7 +81,8 @@ public class TicketTransferTest extends ServiceTest {
      */
     @Before
     public void setUp() {
-        ticketService = new TicketServiceImpl(ticketRepository, eventService, googleWalletService);
+        ticketService = new TicketServiceImpl(ticketRepository, eventService, googleWalletService, ticketScanIndexService,
+                new TicketCodeServiceImpl(""), ticketImageService, mock(HttpGateway.class));
 
         customer1 = new Customer();
         customer1.setVerifiedChMember(true);
@@ -117,6 +135,26 @@ public void transferTicket() {
         assertNotEquals(uniqueCode, ticket1.getUniqueCode());
     }
 
+    /**
+     * Test the scan index only changes once the transfer has been committed.
+     */
+    @Test
+    public void transferTicketUpdatesScanIndexAfterCommit() throws Exception {
+        when(ticketRepository.saveAndFlush(any(Ticket.class))).thenReturn(ticket1);
+        TransactionSynchronizationManager.initSynchronization();
+
+        try {
+            ticketService.transfer(ticket1, customer1, customer2);
+            verify(ticketScanIndexService, never()).remove(ticket1, "uniqueCode1");
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            verify(ticketScanIndexService).remove(ticket1, "uniqueCode1");
+            verify(ticketScanIndexService).addAll(Collections.singletonList(ticket1));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
     /**
      * Test ticket transfer of scanned ticket.
      */
@@ -150,11 +188,7 @@ public void transferTicketWithExpiredEvent() {
         Event event = new Event();
         event.setEnding(LocalDateTime.now().minusDays(1));
 
-        try {
-            when(eventService.getByProduct(product1)).thenReturn(event);
-        } catch (EventNotFoundException e) {
-            fail("Should not have thrown any exception");
-        }
+        when(eventService.getByProducts(any())).thenReturn(Collections.singletonMap(product1.getId(), event));
 
         TicketNotTransferableException thrown = assertThrows(TicketNotTransferableException.class, () -> ticketService.transfer(ticket1, customer1, customer2));
         assert (thrown.getMessage().contains("Related event has already passed."));
@@ -0,0 +1,76 @@
+package ch.wisv.events.core.service;
+
+import ch.wisv.events.core.model.webhook.Webhook;
+import ch.wisv.events.core.model.webhook.WebhookTrigger;
+import ch.wisv.events.core.repository.WebhookRepository;
+import ch.wisv.events.core.service.webhook.WebhookService;
+import ch.wisv.events.core.service.webhook.WebhookServiceImpl;
+import ch.wisv.events.core.service.webhook.WebhookTaskService;
+import ch.wisv.events.utils.LdapGroup;
+import com.google.common.collect.ImmutableList;
+import java.util.Optional;
+import static org.junit.Assert.assertEquals;
+import org.junit.Before;
+import org.junit.Test;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class WebhookServiceImplTest {
+
+    private WebhookRepository webhookRepository;
+
+    private WebhookService webhookService;
+
+    private Webhook beheer, akcie, choco;
+
+    @Before
+    public void setUp() {
+        webhookRepository = mock(WebhookRepository.class);
+        webhookService = new WebhookServiceImpl(webhookRepository, mock(WebhookTaskService.class));
+
+        beheer = this.createWebhook(LdapGroup.BEHEER, WebhookTrigger.EVENT_CREATE_UPDATE, WebhookTrigger.PRODUCT_CREATE_UPDATE);
+        akcie = this.createWebhook(LdapGroup.AKCIE, WebhookTrigger.EVENT_CREATE_UPDATE);
+        choco = this.createWebhook(LdapGroup.CHOCO, WebhookTrigger.EVENT_CREATE_UPDATE);
+        when(webhookRepository.findAllWithTriggers()).thenReturn(ImmutableList.of(beheer, akcie, choco));
+    }
+
+    @Test
+    public void testGetByTriggerAndLdapGroup() {
+        assertEquals(ImmutableList.of(beheer, akcie),
+                webhookService.getByTriggerAndLdapGroup(WebhookTrigger.EVENT_CREATE_UPDATE, LdapGroup.AKCIE));
+        assertEquals(ImmutableList.of(beheer),
+                webhookService.getByTriggerAndLdapGroup(WebhookTrigger.EVENT_CREATE_UPDATE, LdapGroup.BEHEER));
+        assertEquals(ImmutableList.of(beheer),
+                webhookService.getByTriggerAndLdapGroup(WebhookTrigger.EVENT_CREATE_UPDATE, null));
+        assertEquals(ImmutableList.of(),
+                webhookService.getByTriggerAndLdapGroup(WebhookTrigger.EVENT_DELETE, LdapGroup.AKCIE));
+        assertEquals(3, webhookService.getByTrigger(WebhookTrigger.EVENT_CREATE_UPDATE).size());
+
+        verify(webhookRepository, times(1)).findAllWithTriggers();
+    }
+
+    @Test
+    public void testRoutesRebuiltAfterUpdate() throws Exception {
+        webhookService.getByTrigger(WebhookTrigger.EVENT_DELETE);
+
+        Webhook model = this.createWebhook(LdapGroup.AKCIE, WebhookTrigger.EVENT_DELETE);
+        model.setKey(akcie.getKey());
+        model.setPayloadUrl(akcie.getPayloadUrl());
+        when(webhookRepository.findByKey(akcie.getKey())).thenReturn(Optional.of(akcie));
+        webhookService.update(model);
+
+        assertEquals(ImmutableList.of(akcie), webhookService.getByTrigger(WebhookTrigger.EVENT_DELETE));
+        verify(webhookRepository, times(2)).findAllWithTriggers();
+    }
+
+    private Webhook createWebhook(LdapGroup ldapGroup, WebhookTrigger... webhookTriggers) {
+        Webhook webhook = new Webhook();
+        webhook.setPayloadUrl("https://example.com/" + webhook.getKey());
+        webhook.setLdapGroup(ldapGroup);
+        webhook.setWebhookTriggers(ImmutableList.copyOf(webhookTriggers));
+
+        return webhook;
+    }
+}
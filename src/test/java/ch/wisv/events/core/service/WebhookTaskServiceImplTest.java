@@ -0,0 +1,101 @@
+package ch.wisv.events.core.service;
+
+import ch.wisv.events.core.model.webhook.Webhook;
+import ch.wisv.events.core.model.webhook.WebhookTask;
+import ch.wisv.events.core.model.webhook.WebhookTrigger;
+import ch.wisv.events.core.repository.WebhookTaskRepository;
+import ch.wisv.events.core.service.webhook.WebhookTaskService;
+import ch.wisv.events.core.service.webhook.WebhookTaskServiceImpl;
+import ch.wisv.events.core.webhook.WebhookDispatcher;
+import org.json.simple.JSONObject;
+import org.junit.After;
+import static org.junit.Assert.assertEquals;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+public class WebhookTaskServiceImplTest {
+
+    private WebhookTaskRepository webhookTaskRepository;
+
+    private WebhookDispatcher webhookDispatcher;
+
+    private WebhookTaskService webhookTaskService;
+
+    private WebhookTask webhookTask;
+
+    @Before
+    public void setUp() {
+        webhookTaskRepository = mock(WebhookTaskRepository.class);
+        webhookDispatcher = mock(WebhookDispatcher.class);
+        webhookTaskService = new WebhookTaskServiceImpl(webhookTaskRepository, webhookDispatcher, 5);
+
+        webhookTask = new WebhookTask();
+        webhookTask.setWebhook(new Webhook());
+        webhookTask.setObject(new JSONObject());
+    }
+
+    @After
+    public void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    public void testCreateWithoutTransactionDispatches() {
+        webhookTaskService.create(webhookTask);
+
+        verify(webhookTaskRepository, times(1)).saveAndFlush(webhookTask);
+        verify(webhookDispatcher, times(1)).dispatch(webhookTask);
+    }
+
+    @Test
+    public void testCreateInTransactionDispatchesAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        webhookTaskService.create(webhookTask);
+        verify(webhookDispatcher, never()).dispatch(webhookTask);
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        verify(webhookDispatcher, times(1)).dispatch(webhookTask);
+    }
+
+    @Test
+    public void testCreateCoalescesPendingUpdate() {
+        Webhook webhook = new Webhook();
+        JSONObject jsonObject = new JSONObject();
+        jsonObject.put("key", "event-key");
+        when(webhookTaskRepository.coalesce(webhook, WebhookTrigger.EVENT_CREATE_UPDATE, "event-key", jsonObject)).thenReturn(1);
+
+        webhookTaskService.create(WebhookTrigger.EVENT_CREATE_UPDATE, webhook, jsonObject);
+
+        verify(webhookTaskRepository, never()).saveAndFlush(any(WebhookTask.class));
+        verify(webhookDispatcher, never()).dispatch(any(WebhookTask.class));
+    }
+
+    @Test
+    public void testCreateWaitsForCoalesceWindow() {
+        Webhook webhook = new Webhook();
+        JSONObject jsonObject = new JSONObject();
+        jsonObject.put("key", "event-key");
+        when(webhookTaskRepository.coalesce(webhook, WebhookTrigger.EVENT_CREATE_UPDATE, "event-key", jsonObject)).thenReturn(0);
+
+        webhookTaskService.create(WebhookTrigger.EVENT_CREATE_UPDATE, webhook, jsonObject);
+
+        ArgumentCaptor<WebhookTask> captor = ArgumentCaptor.forClass(WebhookTask.class);
+        verify(webhookTaskRepository, times(1)).saveAndFlush(captor.capture());
+        WebhookTask created = captor.getValue();
+        assertEquals("event-key", created.getEntityKey());
+        assertEquals(created.getCreatedAt().plusSeconds(5), created.getNextAttemptAt());
+        verify(webhookDispatcher, times(1)).dispatch(created);
+    }
+}
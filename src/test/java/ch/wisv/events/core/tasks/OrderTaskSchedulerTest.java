@@ -1,16 +1,16 @@
 package ch.wisv.events.core.tasks;
 
 import ch.wisv.events.ServiceTest;
-import ch.wisv.events.core.model.order.Order;
-import ch.wisv.events.core.model.order.OrderStatus;
 import ch.wisv.events.core.service.order.OrderService;
-import com.google.common.collect.ImmutableList;
+import ch.wisv.events.core.service.order.ReservationExpiryService;
 import java.time.LocalDateTime;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import static org.junit.Assert.assertFalse;
+import org.mockito.ArgumentCaptor;
+import static org.mockito.ArgumentMatchers.any;
 import org.mockito.Mock;
-import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -23,6 +23,9 @@ public class OrderTaskSchedulerTest extends ServiceTest {
     @Mock
     private OrderService orderService;
 
+    @Mock
+    private ReservationExpiryService reservationExpiryService;
+
     private OrderTaskScheduler orderTaskScheduler;
 
     /**
@@ -30,7 +33,7 @@ public class OrderTaskSchedulerTest extends ServiceTest {
      */
     @Before
     public void setUp() {
-        this.orderTaskScheduler = new OrderTaskScheduler(orderService);
+        this.orderTaskScheduler = new OrderTaskScheduler(orderService, reservationExpiryService);
     }
 
     /**
@@ -42,26 +45,13 @@ public void tearDown() {
     }
 
     /**
-     * Test cancelReservationTask
-     *
-     * @throws Exception when something is wrong
+     * Test expireReservationTask.
      */
     @Test
-    public void testCancelReservationTask() throws Exception {
-        Order order1 = new Order();
-        order1.setCreatedAt(LocalDateTime.now().minusDays(4));
-
-        Order order2 = new Order();
-        order2.setCreatedAt(LocalDateTime.now().minusDays(3).plusHours(1));
-
-        when(orderService.getAllReservations()).thenReturn(ImmutableList.of(order1, order2));
-        doNothing().when(orderService).updateOrderStatus(order1, OrderStatus.EXPIRED);
-        doNothing().when(orderService).updateOrderStatus(order2, OrderStatus.EXPIRED);
+    public void testExpireReservationTask() {
+        orderTaskScheduler.expireReservationTask();
 
-        orderTaskScheduler.cancelReservationTask();
-
-        verify(orderService, times(1)).updateOrderStatus(order1, OrderStatus.EXPIRED);
-        verify(orderService, times(0)).updateOrderStatus(order2, OrderStatus.EXPIRED);
+        verify(reservationExpiryService, times(1)).scheduleUpcoming();
     }
 
     /**
@@ -69,21 +59,15 @@ public void testCancelReservationTask() throws Exception {
      */
     @Test
     public void testCleanUpTask() {
-        Order order1 = new Order();
-        order1.setStatus(OrderStatus.ANONYMOUS);
-        order1.setCreatedAt(LocalDateTime.now().minusMinutes(61));
-
-        Order order2 = new Order();
-        order2.setStatus(OrderStatus.ANONYMOUS);
-        order2.setCreatedAt(LocalDateTime.now());
-
-        when(orderService.getAllOrders()).thenReturn(ImmutableList.of(order1, order2));
-        doNothing().when(orderService).delete(order1);
-        doNothing().when(orderService).delete(order2);
+        when(orderService.deleteAbandoned(any(LocalDateTime.class))).thenReturn(2);
 
+        LocalDateTime before = LocalDateTime.now().minusMinutes(60);
         orderTaskScheduler.cleanUpTask();
+        LocalDateTime after = LocalDateTime.now().minusMinutes(60);
 
-        verify(orderService, times(1)).delete(order1);
-        verify(orderService, times(0)).delete(order2);
+        ArgumentCaptor<LocalDateTime> captor = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(orderService, times(1)).deleteAbandoned(captor.capture());
+        assertFalse(captor.getValue().isBefore(before));
+        assertFalse(captor.getValue().isAfter(after));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,86 @@
+package ch.wisv.events.core.webhook;
+
+import java.time.LocalDateTime;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import org.junit.Before;
+import org.junit.Test;
+
+public class WebhookEndpointTest {
+
+    private WebhookEndpoint endpoint;
+
+    private LocalDateTime now;
+
+    @Before
+    public void setUp() {
+        endpoint = new WebhookEndpoint("https://example.com/webhook", 2, 3, 60);
+        now = LocalDateTime.now();
+    }
+
+    @Test
+    public void testWorkersBounded() {
+        assertFalse(endpoint.tryStartWorker());
+
+        endpoint.add(1);
+        endpoint.add(2);
+        endpoint.add(3);
+
+        assertTrue(endpoint.tryStartWorker());
+        assertTrue(endpoint.tryStartWorker());
+        assertFalse(endpoint.tryStartWorker());
+
+        endpoint.stopWorker();
+        assertTrue(endpoint.tryStartWorker());
+
+        assertEquals(Integer.valueOf(1), endpoint.poll());
+        assertEquals(Integer.valueOf(2), endpoint.poll());
+        assertEquals(Integer.valueOf(3), endpoint.poll());
+        assertNull(endpoint.poll());
+    }
+
+    @Test
+    public void testCircuitOpensAfterThreshold() {
+        endpoint.onFailure(now);
+        endpoint.onFailure(now);
+        assertTrue(endpoint.allowRequest(now));
+
+        endpoint.onFailure(now);
+        assertFalse(endpoint.allowRequest(now.plusSeconds(59)));
+        assertEquals(now.plusSeconds(60), endpoint.getRetryAt(now));
+    }
+
+    @Test
+    public void testCircuitHalfOpenAllowsSingleTrial() {
+        endpoint.onFailure(now);
+        endpoint.onFailure(now);
+        endpoint.onFailure(now);
+
+        LocalDateTime later = now.plusSeconds(61);
+        assertTrue(endpoint.allowRequest(later));
+        assertFalse(endpoint.allowRequest(later));
+
+        endpoint.onFailure(later);
+        assertFalse(endpoint.allowRequest(later.plusSeconds(1)));
+
+        LocalDateTime muchLater = later.plusSeconds(61);
+        assertTrue(endpoint.allowRequest(muchLater));
+        endpoint.onSuccess();
+        assertTrue(endpoint.allowRequest(muchLater));
+        assertTrue(endpoint.allowRequest(muchLater));
+    }
+
+    @Test
+    public void testCancelledTrialAllowsNewTrial() {
+        endpoint.onFailure(now);
+        endpoint.onFailure(now);
+        endpoint.onFailure(now);
+
+        LocalDateTime later = now.plusSeconds(61);
+        assertTrue(endpoint.allowRequest(later));
+        endpoint.cancelRequest();
+        assertTrue(endpoint.allowRequest(later));
+    }
+}
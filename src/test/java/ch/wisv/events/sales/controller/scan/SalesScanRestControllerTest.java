@@ -8,16 +8,24 @@
 import ch.wisv.events.core.model.product.Product;
 import ch.wisv.events.core.model.ticket.Ticket;
 import ch.wisv.events.core.model.ticket.TicketStatus;
+import ch.wisv.events.core.service.ticket.TicketScanIndexService;
 import ch.wisv.events.utils.Barcode;
 import com.google.common.collect.ImmutableList;
+import java.util.Set;
 import org.apache.commons.lang3.RandomStringUtils;
+import static org.junit.Assert.assertTrue;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpSession;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @RunWith(SpringJUnit4ClassRunner.class)
@@ -25,6 +33,9 @@
 @ActiveProfiles("test")
 public class SalesScanRestControllerTest extends ControllerTest {
 
+    @Autowired
+    private TicketScanIndexService ticketScanIndexService;
+
     /**
      * Test barcode scan. (LEGACY)
      *
@@ -180,4 +191,130 @@ public void testCodeScannerInvalidLength() throws Exception {
                         .param("code", "12456"))
                 .andExpect(status().is(400));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testCodeScannerTicketCreatedAfterLoad() throws Exception {
+        Event event = this.createEvent();
+        Product product = this.createProduct();
+        event.addProduct(product);
+        eventRepository.saveAndFlush(event);
+        ticketScanIndexService.load(event);
+
+        Order order = this.createOrder(createCustomer(), ImmutableList.of(product), OrderStatus.PAID, "sales-scan-test");
+        Ticket ticket = ticketService.createByOrder(order).get(0);
+
+        mockMvc.perform(
+                post("/api/v1/sales/scan/event/" + event.getKey() + "/code")
+                        .param("code", ticket.getUniqueCode()))
+                .andExpect(status().is(200));
+
+        mockMvc.perform(
+                post("/api/v1/sales/scan/event/" + event.getKey() + "/code")
+                        .param("code", ticket.getUniqueCode()))
+                .andExpect(status().is(208));
+    }
+
+    @Test
+    public void testCodeScannerSameSession() throws Exception {
+        Event event = this.createEvent();
+        Product product = this.createProduct();
+        event.addProduct(product);
+        eventRepository.saveAndFlush(event);
+        ticketScanIndexService.load(event);
+
+        Order order = this.createOrder(createCustomer(), ImmutableList.of(product), OrderStatus.PAID, "sales-scan-test");
+        Ticket ticket = ticketService.createByOrder(order).get(0);
+        MockHttpSession session = new MockHttpSession();
+
+        mockMvc.perform(
+                post("/api/v1/sales/scan/event/" + event.getKey() + "/code").session(session)
+                        .param("code", ticket.getUniqueCode()))
+                .andExpect(status().is(200));
+        assertTrue(((Set<?>) session.getAttribute("scanEventKeys")).contains(event.getKey()));
+
+        // The second scan of the session uses the Event of the loaded scan index.
+        mockMvc.perform(
+                post("/api/v1/sales/scan/event/" + event.getKey() + "/code").session(session)
+                        .param("code", ticket.getUniqueCode()))
+                .andExpect(status().is(208));
+    }
+
+    @Test
+    public void testManifest() throws Exception {
+        Event event = this.createEvent();
+        Product product = this.createProduct();
+        event.addProduct(product);
+        eventRepository.saveAndFlush(event);
+
+        Order order = this.createOrder(createCustomer(), ImmutableList.of(product), OrderStatus.PAID, "sales-scan-test");
+        Ticket ticket = ticketService.createByOrder(order).get(0);
+
+        mockMvc.perform(get("/api/v1/sales/scan/event/" + event.getKey() + "/manifest"))
+                .andExpect(status().is(200))
+                .andExpect(jsonPath("$.object[0].code").value(ticket.getUniqueCode()))
+                .andExpect(jsonPath("$.object[0].status").value("OPEN"));
+    }
+
+    @Test
+    public void testSync() throws Exception {
+        Event event = this.createEvent();
+        Product product = this.createProduct();
+        event.addProduct(product);
+        eventRepository.saveAndFlush(event);
+
+        Order order = this.createOrder(createCustomer(), ImmutableList.of(product), OrderStatus.PAID, "sales-scan-test");
+        Ticket ticket = ticketService.createByOrder(order).get(0);
+
+        String scans = "[{\"code\":\"" + ticket.getUniqueCode() + "\",\"deviceId\":\"gate-2\",\"scannedAt\":\"2026-10-18T22:01:00\"},"
+                + "{\"code\":\"" + ticket.getUniqueCode() + "\",\"deviceId\":\"gate-1\",\"scannedAt\":\"2026-10-18T22:00:00\"},"
+                + "{\"code\":\"123456\",\"deviceId\":\"gate-1\",\"scannedAt\":\"2026-10-18T22:02:00\"}]";
+
+        mockMvc.perform(
+                post("/api/v1/sales/scan/event/" + event.getKey() + "/sync")
+                        .contentType(MediaType.APPLICATION_JSON).content(scans))
+                .andExpect(status().is(200))
+                .andExpect(jsonPath("$.object[0].result").value("SCANNED"))
+                .andExpect(jsonPath("$.object[0].scanDevice").value("gate-1"))
+                .andExpect(jsonPath("$.object[1].result").value("CONFLICT"))
+                .andExpect(jsonPath("$.object[1].scanDevice").value("gate-1"))
+                .andExpect(jsonPath("$.object[2].result").value("NOT_FOUND"));
+
+        // Retrying the sync does not report the applied scan as a conflict.
+        mockMvc.perform(
+                post("/api/v1/sales/scan/event/" + event.getKey() + "/sync")
+                        .contentType(MediaType.APPLICATION_JSON).content(scans))
+                .andExpect(status().is(200))
+                .andExpect(jsonPath("$.object[0].result").value("ALREADY_APPLIED"))
+                .andExpect(jsonPath("$.object[1].result").value("CONFLICT"));
+    }
+
+    @Test
+    public void testSyncSameDeviceScansTwice() throws Exception {
+        Event event = this.createEvent();
+        Product product = this.createProduct();
+        event.addProduct(product);
+        eventRepository.saveAndFlush(event);
+
+        Order order = this.createOrder(createCustomer(), ImmutableList.of(product), OrderStatus.PAID, "sales-scan-test");
+        Ticket ticket = ticketService.createByOrder(order).get(0);
+
+        String scans = "[{\"code\":\"" + ticket.getUniqueCode() + "\",\"deviceId\":\"gate-1\",\"scannedAt\":\"2026-10-18T22:00:00\"},"
+                + "{\"code\":\"" + ticket.getUniqueCode() + "\",\"deviceId\":\"gate-1\",\"scannedAt\":\"2026-10-18T22:05:00\"}]";
+
+        mockMvc.perform(
+                post("/api/v1/sales/scan/event/" + event.getKey() + "/sync")
+                        .contentType(MediaType.APPLICATION_JSON).content(scans))
+                .andExpect(status().is(200))
+                .andExpect(jsonPath("$.object[0].result").value("SCANNED"))
+                .andExpect(jsonPath("$.object[1].result").value("CONFLICT"))
+                .andExpect(jsonPath("$.object[1].scanDevice").value("gate-1"));
+
+        // A later scan of the same device is reported as a reuse of the ticket.
+        String rescan = "[{\"code\":\"" + ticket.getUniqueCode() + "\",\"deviceId\":\"gate-1\",\"scannedAt\":\"2026-10-18T22:10:00\"}]";
+        mockMvc.perform(
+                post("/api/v1/sales/scan/event/" + event.getKey() + "/sync")
+                        .contentType(MediaType.APPLICATION_JSON).content(rescan))
+                .andExpect(status().is(200))
+                .andExpect(jsonPath("$.object[0].result").value("CONFLICT"));
+    }
+}
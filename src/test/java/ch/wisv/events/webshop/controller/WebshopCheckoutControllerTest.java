@@ -7,12 +7,15 @@
 import ch.wisv.events.core.model.order.OrderProductDto;
 import ch.wisv.events.core.model.order.OrderStatus;
 import ch.wisv.events.core.model.product.Product;
+import ch.wisv.events.core.service.queue.AdmissionQueueService;
+import jakarta.servlet.http.Cookie;
 import java.time.LocalDateTime;
 import static org.junit.Assert.assertEquals;
 
 import ch.wisv.events.core.util.VatRate;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
@@ -31,6 +34,10 @@
 @SpringBootTest(classes = EventsApplicationTest.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
 @ActiveProfiles("test")
 public class WebshopCheckoutControllerTest extends ControllerTest {
+
+    @Autowired
+    private AdmissionQueueService admissionQueueService;
+
     @Test
     public void testCheckoutShoppingBasket() throws Exception {
         Product product = new Product("test", "test ticket", 1.33d, VatRate.VAT_HIGH, 100, LocalDateTime.now().minusHours(1), LocalDateTime.now().plusHours(1));
@@ -145,6 +152,65 @@ public void testCheckoutShoppingBasketExceedEventLimit() throws Exception {
                 .andExpect(flash().attribute("error", "Event limit exceeded (max 10 tickets allowed)."));
     }
 
+    @Test
+    public void testCheckoutShoppingBasketAdmissionQueue() throws Exception {
+        Event event = this.createAdmissionQueueEvent();
+        Product product = event.getProducts().get(0);
+
+        mockMvc.perform(
+                post("/checkout")
+                        .contentType(MediaType.APPLICATION_FORM_URLENCODED)
+                        .param("products['" + product.getKey() + "']", "1")
+                        .param("agreedGTC", "True")
+                        .sessionAttr("orderProduct", new OrderProductDto()))
+                .andExpect(status().is3xxRedirection())
+                .andExpect(redirectedUrl("/queue/" + event.getKey()));
+
+        assertEquals(0, orderRepository.findAll().size());
+    }
+
+    @Test
+    public void testCheckoutShoppingBasketAdmissionQueueAdmitted() throws Exception {
+        Event event = this.createAdmissionQueueEvent();
+        Product product = event.getProducts().get(0);
+
+        String token = admissionQueueService.join(event);
+        admissionQueueService.admitNext();
+
+        mockMvc.perform(
+                post("/checkout")
+                        .contentType(MediaType.APPLICATION_FORM_URLENCODED)
+                        .cookie(new Cookie("events-queue-" + event.getKey(), token))
+                        .param("products['" + product.getKey() + "']", "1")
+                        .param("agreedGTC", "True")
+                        .sessionAttr("orderProduct", new OrderProductDto()))
+                .andExpect(status().is3xxRedirection())
+                .andExpect(redirectedUrlPattern("/checkout/*"));
+    }
+
+    @Test
+    public void testCheckoutShoppingBasketAdmissionQueueTokenUsedOnce() throws Exception {
+        Event event = this.createAdmissionQueueEvent();
+        Product product = event.getProducts().get(0);
+
+        String token = admissionQueueService.join(event);
+        admissionQueueService.admitNext();
+
+        for (String expectedUrl : new String[] {"/checkout/*", "/queue/" + event.getKey()}) {
+            mockMvc.perform(
+                    post("/checkout")
+                            .contentType(MediaType.APPLICATION_FORM_URLENCODED)
+                            .cookie(new Cookie("events-queue-" + event.getKey(), token))
+                            .param("products['" + product.getKey() + "']", "1")
+                            .param("agreedGTC", "True")
+                            .sessionAttr("orderProduct", new OrderProductDto()))
+                    .andExpect(status().is3xxRedirection())
+                    .andExpect(redirectedUrlPattern(expectedUrl));
+        }
+
+        assertEquals(1, orderRepository.findAll().size());
+    }
+
     @Test
     public void testCheckoutShoppingBasketProductNotExists() throws Exception {
         mockMvc.perform(
@@ -226,4 +292,28 @@ public void testCheckoutCancelOrderNotFound() throws Exception {
                 .andExpect(redirectedUrl("/"))
                 .andExpect(flash().attribute("error", "Order with reference " + order.getPublicReference() + " not found!"));
     }
-}
\ No newline at end of file
+
+    private Event createAdmissionQueueEvent() throws Exception {
+        Product product = new Product("test", "test ticket", 1.33d, VatRate.VAT_HIGH, 20, LocalDateTime.now().minusHours(1), LocalDateTime.now().plusHours(1));
+        productRepository.saveAndFlush(product);
+
+        Event event = new Event(
+                "title event",
+                "description",
+                "location",
+                10,
+                10,
+                "",
+                LocalDateTime.now().plusDays(1),
+                LocalDateTime.now().plusDays(2),
+                "short description"
+        );
+        event.addProduct(product);
+        event.setAdmissionQueue(true);
+        eventService.create(event);
+        // The test shares its persistence context with the request, so link the product as it would be loaded.
+        product.setEvent(event);
+
+        return event;
+    }
+}
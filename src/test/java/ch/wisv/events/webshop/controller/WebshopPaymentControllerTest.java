@@ -5,6 +5,8 @@
 import ch.wisv.events.core.model.order.Order;
 import ch.wisv.events.core.model.order.OrderStatus;
 import ch.wisv.events.core.model.order.PaymentMethod;
+import ch.wisv.events.core.model.product.Product;
+import com.google.common.collect.ImmutableList;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -212,6 +214,19 @@ public void testPaymentIdeal() throws Exception {
         assertEquals(PaymentMethod.MOLLIE, optional.getPaymentMethod());
     }
 
+    @Test
+    public void testPaymentMollieSoldOut() throws Exception {
+        Product product = this.createProduct();
+        product.setMaxSold(1);
+        product.setSold(1);
+        productRepository.saveAndFlush(product);
+        Order order = this.createOrder(this.createCustomer(), ImmutableList.of(product), OrderStatus.ASSIGNED, "events-webshop");
+
+        this.requestPaymentCheckoutException(order, "/payment/mollie", "Product product is sold out!");
+
+        assertEquals(OrderStatus.ASSIGNED, orderService.getByReference(order.getPublicReference()).getStatus());
+    }
+
     @Test
     public void testPaymentMollieWrongStatus() throws Exception {
         Order order = this.createPaymentOrder(OrderStatus.ANONYMOUS, "events-webshop");
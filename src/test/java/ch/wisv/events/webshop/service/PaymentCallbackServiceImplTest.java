@@ -0,0 +1,185 @@
+package ch.wisv.events.webshop.service;
+
+import ch.wisv.events.core.model.order.PaymentCallback;
+import ch.wisv.events.core.model.order.PaymentCallbackStatus;
+import ch.wisv.events.core.model.order.PendingPayment;
+import ch.wisv.events.core.repository.OrderRepository;
+import ch.wisv.events.core.repository.PaymentCallbackRepository;
+import com.google.common.collect.ImmutableList;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.junit.After;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import org.junit.Before;
+import org.junit.Test;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * PaymentCallbackServiceImpl test.
+ */
+public class PaymentCallbackServiceImplTest {
+
+    private PaymentCallbackRepository paymentCallbackRepository;
+
+    private OrderRepository orderRepository;
+
+    private PaymentsService paymentsService;
+
+    private PaymentCallbackServiceImpl paymentCallbackService;
+
+    @Before
+    public void setUp() {
+        paymentCallbackRepository = mock(PaymentCallbackRepository.class);
+        orderRepository = mock(OrderRepository.class);
+        paymentsService = mock(PaymentsService.class);
+        paymentCallbackService = new PaymentCallbackServiceImpl(
+                paymentCallbackRepository, orderRepository, paymentsService, 1, 3, 30, 15, 7, 100);
+    }
+
+    @After
+    public void tearDown() {
+        paymentCallbackService.shutdown();
+    }
+
+    @Test
+    public void testRecord() {
+        when(paymentCallbackRepository.existsByProviderReferenceAndStatus("tr_1", PaymentCallbackStatus.PENDING))
+                .thenReturn(false);
+
+        paymentCallbackService.record("tr_1");
+
+        verify(paymentCallbackRepository, times(1)).save(any(PaymentCallback.class));
+    }
+
+    @Test
+    public void testRecordCollapsesIntoPending() {
+        when(paymentCallbackRepository.existsByProviderReferenceAndStatus("tr_1", PaymentCallbackStatus.PENDING))
+                .thenReturn(true);
+
+        paymentCallbackService.record("tr_1");
+
+        verify(paymentCallbackRepository, never()).save(any(PaymentCallback.class));
+    }
+
+    @Test
+    public void testDeleteFinishedBefore() {
+        LocalDateTime before = LocalDateTime.now().minusDays(30);
+        when(paymentCallbackRepository.findIdsByStatusInReceivedBefore(any(), eq(before), any()))
+                .thenReturn(ImmutableList.of(1, 2));
+
+        assertEquals(2, paymentCallbackService.deleteFinishedBefore(before));
+        verify(paymentCallbackRepository, times(1)).findIdsByStatusInReceivedBefore(
+                eq(ImmutableList.of(PaymentCallbackStatus.PROCESSED, PaymentCallbackStatus.FAILED)), eq(before), any());
+        verify(paymentCallbackRepository, times(1)).deleteAllByIdInBatch(ImmutableList.of(1, 2));
+    }
+
+    @Test
+    public void testReconcilePendingOrders() {
+        List<PendingPayment> payments = ImmutableList.of(this.pending(1, "tr_1"), this.pending(2, "tr_2"));
+        when(orderRepository.findPendingPayments(any(), any(), any(), any(), any())).thenReturn(payments);
+        when(paymentCallbackRepository.existsByProviderReferenceAndStatus("tr_1", PaymentCallbackStatus.PENDING))
+                .thenReturn(true);
+
+        paymentCallbackService.reconcilePendingOrders();
+
+        verify(paymentCallbackRepository, times(1)).save(any(PaymentCallback.class));
+        verify(paymentCallbackRepository, times(1)).findDueReferences(any(), any());
+    }
+
+    @Test
+    public void testReconcilePendingOrdersContinuesAfterPreviousBatch() {
+        paymentCallbackService.shutdown();
+        paymentCallbackService = new PaymentCallbackServiceImpl(
+                paymentCallbackRepository, orderRepository, paymentsService, 1, 3, 30, 15, 7, 2);
+        PendingPayment last = this.pending(2, "tr_2");
+        List<PendingPayment> first = ImmutableList.of(this.pending(1, "tr_1"), last);
+        List<PendingPayment> second = ImmutableList.of(this.pending(3, "tr_3"));
+        when(orderRepository.findPendingPayments(any(), any(), any(), any(), any())).thenReturn(first, second);
+
+        paymentCallbackService.reconcilePendingOrders();
+        paymentCallbackService.reconcilePendingOrders();
+        paymentCallbackService.reconcilePendingOrders();
+
+        verify(orderRepository, times(1))
+                .findPendingPayments(any(), any(), eq(last.getCreatedAt()), eq(last.getId()), any());
+        verify(orderRepository, times(2)).findPendingPayments(any(), any(), any(), eq(0), any());
+    }
+
+    @Test
+    public void testProcess() {
+        PaymentCallback first = this.claimed("tr_1", 1);
+        PaymentCallback second = this.claimed("tr_1", 1);
+        when(paymentCallbackRepository.claim(eq("tr_1"), any(), any())).thenReturn(2);
+        when(paymentCallbackRepository.findAllByProviderReferenceAndStatus("tr_1", PaymentCallbackStatus.PROCESSING))
+                .thenReturn(ImmutableList.of(first, second));
+
+        paymentCallbackService.process("tr_1");
+
+        verify(paymentsService, times(1)).updateStatusByProviderReference("tr_1");
+        assertEquals(PaymentCallbackStatus.PROCESSED, first.getStatus());
+        assertEquals(PaymentCallbackStatus.PROCESSED, second.getStatus());
+        assertNull(first.getLastError());
+    }
+
+    @Test
+    public void testProcessClaimedElsewhere() {
+        when(paymentCallbackRepository.claim(eq("tr_1"), any(), any())).thenReturn(0);
+
+        paymentCallbackService.process("tr_1");
+
+        verify(paymentsService, never()).updateStatusByProviderReference(any());
+    }
+
+    @Test
+    public void testProcessFailureRetries() {
+        PaymentCallback callback = this.claimed("tr_1", 1);
+        when(paymentCallbackRepository.claim(eq("tr_1"), any(), any())).thenReturn(1);
+        when(paymentCallbackRepository.findAllByProviderReferenceAndStatus("tr_1", PaymentCallbackStatus.PROCESSING))
+                .thenReturn(ImmutableList.of(callback));
+        doThrow(new RuntimeException("Mollie unavailable")).when(paymentsService).updateStatusByProviderReference("tr_1");
+
+        paymentCallbackService.process("tr_1");
+
+        assertEquals(PaymentCallbackStatus.PENDING, callback.getStatus());
+        assertNotNull(callback.getLastError());
+    }
+
+    @Test
+    public void testProcessFailureLastAttempt() {
+        PaymentCallback callback = this.claimed("tr_1", 3);
+        when(paymentCallbackRepository.claim(eq("tr_1"), any(), any())).thenReturn(1);
+        when(paymentCallbackRepository.findAllByProviderReferenceAndStatus("tr_1", PaymentCallbackStatus.PROCESSING))
+                .thenReturn(ImmutableList.of(callback));
+        doThrow(new RuntimeException("Mollie unavailable")).when(paymentsService).updateStatusByProviderReference("tr_1");
+
+        paymentCallbackService.process("tr_1");
+
+        assertEquals(PaymentCallbackStatus.FAILED, callback.getStatus());
+    }
+
+    private PendingPayment pending(Integer id, String providerReference) {
+        PendingPayment payment = mock(PendingPayment.class);
+        when(payment.getId()).thenReturn(id);
+        when(payment.getCreatedAt()).thenReturn(LocalDateTime.now().minusHours(1).plusMinutes(id));
+        when(payment.getChPaymentsReference()).thenReturn(providerReference);
+
+        return payment;
+    }
+
+    private PaymentCallback claimed(String providerReference, int attempts) {
+        PaymentCallback callback = new PaymentCallback(providerReference);
+        callback.setStatus(PaymentCallbackStatus.PROCESSING);
+        callback.setAttempts(attempts);
+
+        return callback;
+    }
+}
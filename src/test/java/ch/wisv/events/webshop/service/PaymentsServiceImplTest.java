@@ -5,8 +5,10 @@
 import be.woutschoovaerts.mollie.data.payment.PaymentLinks;
 import be.woutschoovaerts.mollie.data.payment.PaymentRequest;
 import be.woutschoovaerts.mollie.data.payment.PaymentResponse;
+import be.woutschoovaerts.mollie.data.payment.PaymentStatus;
 import be.woutschoovaerts.mollie.handler.PaymentHandler;
 import ch.wisv.events.ServiceTest;
+import ch.wisv.events.core.http.HttpGateway;
 import ch.wisv.events.core.model.customer.Customer;
 import ch.wisv.events.core.model.order.Order;
 import ch.wisv.events.core.model.order.OrderProduct;
@@ -26,8 +28,18 @@
 import org.junit.Test;
 import org.mockito.Mock;
 import org.mockito.Mockito;
-
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.util.Optional;
@@ -43,6 +55,9 @@ public class PaymentsServiceImplTest extends ServiceTest {
     @Mock
     private Client mollie;
 
+    @Mock
+    private HttpGateway httpGateway;
+
     private PaymentsServiceImpl paymentsService;
 
     /**
@@ -50,7 +65,7 @@ public class PaymentsServiceImplTest extends ServiceTest {
      */
     @Before
     public void setUp() {
-        this.paymentsService = new PaymentsServiceImpl(orderService, mollie, mock(MailService.class));
+        this.paymentsService = new PaymentsServiceImpl(orderService, mollie, mock(MailService.class), httpGateway);
     }
 
     @After
@@ -116,6 +131,72 @@ public void testCreateMolliePaymentRequestFromOrder() {
     }
 
 
+    /**
+     * Test a redelivered callback of a paid order is ignored without looking up the payment.
+     *
+     * @throws Exception when something goes wrong
+     */
+    @Test
+    public void testUpdateStatusRedeliveredCallback() throws Exception {
+        Order order = createPaymentOrder(OrderStatus.PAID, "WISVCH.1234");
+        order.setPaymentMethod(PaymentMethod.MOLLIE);
+        order.setChPaymentsReference("tr_1");
+        when(orderService.getByChPaymentsReference("tr_1")).thenReturn(order);
+
+        paymentsService.updateStatusByProviderReference("tr_1");
+
+        verify(mollie, never()).payments();
+        verify(orderService, never()).updateOrderStatus(any(), any());
+    }
+
+    /**
+     * Test a callback of a payment that is still pending leaves the order unchanged.
+     *
+     * @throws Exception when something goes wrong
+     */
+    @Test
+    public void testUpdateStatusUnchanged() throws Exception {
+        Order order = createPaymentOrder(OrderStatus.PENDING, "WISVCH.1234");
+        order.setPaymentMethod(PaymentMethod.MOLLIE);
+        order.setChPaymentsReference("tr_1");
+        when(orderService.getByChPaymentsReference("tr_1")).thenReturn(order);
+
+        PaymentResponse paymentResponse = new PaymentResponse();
+        paymentResponse.setStatus(PaymentStatus.PENDING);
+        PaymentHandler handler = mock(PaymentHandler.class);
+        when(mollie.payments()).thenReturn(handler);
+        when(handler.getPayment("tr_1")).thenReturn(paymentResponse);
+
+        paymentsService.updateStatusByProviderReference("tr_1");
+
+        verify(orderService, never()).updateOrderStatus(any(), any());
+    }
+
+    /**
+     * Test a failed CHPay status lookup is not swallowed, so the callback is retried.
+     *
+     * @throws Exception when something goes wrong
+     */
+    @Test(expected = ResourceAccessException.class)
+    public void testUpdateStatusCHPayLookupFailed() throws Exception {
+        Order order = createPaymentOrder(OrderStatus.PENDING, "WISVCH.1234");
+        order.setPaymentMethod(PaymentMethod.CHPAY);
+        order.setChPaymentsReference("6f1c2a3e-8d4b-4c5a-9e7f-0a1b2c3d4e5f");
+        when(orderService.getByChPaymentsReference(order.getChPaymentsReference())).thenReturn(order);
+
+        RestTemplate restTemplate = mock(RestTemplate.class);
+        when(httpGateway.getRestTemplate(HttpGateway.CHPAY)).thenReturn(restTemplate);
+        when(restTemplate.exchange(anyString(), eq(HttpMethod.GET), any(HttpEntity.class),
+                eq(PaymentsServiceImpl.TransactionStatus.class))).thenThrow(new ResourceAccessException("timeout"));
+        ReflectionTestUtils.setField(paymentsService, "CHPayUri", "https://chpay.example");
+
+        try {
+            paymentsService.updateStatusByProviderReference(order.getChPaymentsReference());
+        } finally {
+            verify(orderService, never()).updateOrderStatus(any(), any());
+        }
+    }
+
     protected Customer createCustomer() {
         Customer customer = new Customer();
         customer.setSub("WISVCH.1234");
@@ -0,0 +1,144 @@
+package ch.wisv.events.webshop.service;
+
+import ch.wisv.events.core.exception.normal.EventNotFoundException;
+import ch.wisv.events.core.model.event.CatalogChangedEvent;
+import ch.wisv.events.core.model.event.Event;
+import ch.wisv.events.core.model.product.Product;
+import ch.wisv.events.core.service.event.EventService;
+import ch.wisv.events.webshop.models.StorefrontEvent;
+import com.google.common.collect.ImmutableList;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.locks.ReentrantLock;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import org.junit.Before;
+import org.junit.Test;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+public class WebshopServiceImplTest {
+
+    private EventService eventService;
+
+    private WebshopServiceImpl webshopService;
+
+    private Event event;
+
+    private Product salable, notStarted;
+
+    @Before
+    public void setUp() {
+        eventService = mock(EventService.class);
+        webshopService = new WebshopServiceImpl(eventService, mock(PlatformTransactionManager.class));
+
+        salable = new Product();
+        salable.setSellStart(LocalDateTime.now().minusDays(1));
+        notStarted = new Product();
+        notStarted.setSellStart(LocalDateTime.now().plusDays(1));
+
+        event = new Event();
+        event.setEnding(LocalDateTime.now().plusDays(2));
+        event.setProducts(ImmutableList.of(salable, notStarted));
+        when(eventService.getUpcoming()).thenReturn(ImmutableList.of(event));
+    }
+
+    @Test
+    public void testGetUpcomingEvents() {
+        List<StorefrontEvent> events = webshopService.getUpcomingEvents();
+
+        assertEquals(1, events.size());
+        assertEquals(event.getKey(), events.get(0).getKey());
+        assertEquals(1, events.get(0).getProducts().size());
+        assertEquals(salable.getKey(), events.get(0).getProducts().get(0).getKey());
+        assertEquals(2, event.getProducts().size());
+    }
+
+    @Test
+    public void testGetUpcomingEventsWithoutSalableProducts() {
+        event.setProducts(ImmutableList.of(notStarted));
+
+        assertEquals(ImmutableList.of(), webshopService.getUpcomingEvents());
+    }
+
+    @Test
+    public void testSnapshotReused() throws Exception {
+        List<StorefrontEvent> events = webshopService.getUpcomingEvents();
+
+        assertSame(events, webshopService.getUpcomingEvents());
+        assertSame(events.get(0), webshopService.getEvent(event.getKey()));
+        verify(eventService, times(1)).getUpcoming();
+        verify(eventService, never()).getByKey(event.getKey());
+    }
+
+    @Test
+    public void testSnapshotRebuiltAfterChange() {
+        webshopService.getUpcomingEvents();
+        webshopService.onCatalogChanged(new CatalogChangedEvent());
+        webshopService.getUpcomingEvents();
+
+        verify(eventService, times(2)).getUpcoming();
+    }
+
+    @Test
+    public void testSnapshotKeptAfterRecentCountChange() {
+        List<StorefrontEvent> events = webshopService.getUpcomingEvents();
+        webshopService.onCatalogChanged(new CatalogChangedEvent(true));
+
+        assertSame(events, webshopService.getUpcomingEvents());
+        verify(eventService, times(1)).getUpcoming();
+    }
+
+    @Test
+    public void testOutdatedSnapshotServedDuringRebuild() throws Exception {
+        List<StorefrontEvent> events = webshopService.getUpcomingEvents();
+        webshopService.onCatalogChanged(new CatalogChangedEvent());
+
+        ReentrantLock rebuildLock = (ReentrantLock) ReflectionTestUtils.getField(webshopService, "rebuildLock");
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch served = new CountDownLatch(1);
+        Thread rebuilder = new Thread(() -> {
+            rebuildLock.lock();
+            try {
+                locked.countDown();
+                served.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                rebuildLock.unlock();
+            }
+        });
+        rebuilder.start();
+        locked.await();
+
+        try {
+            assertSame(events, webshopService.getUpcomingEvents());
+        } finally {
+            served.countDown();
+            rebuilder.join();
+        }
+        verify(eventService, times(1)).getUpcoming();
+    }
+
+    @Test
+    public void testGetEventNotUpcoming() throws Exception {
+        Event past = new Event();
+        past.setProducts(ImmutableList.of(salable));
+        when(eventService.getByKey(past.getKey())).thenReturn(past);
+
+        assertEquals(past.getKey(), webshopService.getEvent(past.getKey()).getKey());
+    }
+
+    @Test(expected = EventNotFoundException.class)
+    public void testGetEventNotFound() throws Exception {
+        when(eventService.getByKey("unknown")).thenThrow(new EventNotFoundException("key unknown"));
+
+        webshopService.getEvent("unknown");
+    }
+}